@@ -43,6 +43,7 @@ public class Configs
         public static final HotkeyedBooleanConfig TOOL_ITEM_ENABLED                 = new HotkeyedBooleanConfig("toolItemEnabled", true, "M,T");
 
         public static final BooleanAndFileConfig CUSTOM_SCHEMATIC_DIRECTORY         = new BooleanAndFileConfig("customSchematicDirectory", false, LitematicaDirectories.getDefaultSchematicDirectory());
+        public static final BooleanAndFileConfig VERIFIER_OFFLINE_WORLD_DIRECTORY   = new BooleanAndFileConfig("verifierOfflineWorldDirectory", false, LitematicaDirectories.getSavesDirectory());
 
         public static final BooleanConfig AREAS_PER_WORLD                           = new BooleanConfig("areaSelectionsPerWorld", true);
         public static final BooleanConfig BETTER_RENDER_ORDER                       = new BooleanConfig("betterRenderOrder", true);
@@ -61,17 +62,27 @@ public class Configs
         public static final BooleanConfig MATERIALS_FROM_CONTAINER                  = new BooleanConfig("materialListFromContainer", true);
         public static final IntegerConfig PASTE_COMMAND_INTERVAL                    = new IntegerConfig("pasteCommandInterval", 1, 1, 1000);
         public static final IntegerConfig PASTE_COMMAND_LIMIT                       = new IntegerConfig("pasteCommandLimit", 64, 1, 1000);
+        public static final BooleanConfig PASTE_DEFERRED_UPDATES                    = new BooleanConfig("pasteDeferredUpdates", false);
+        public static final BooleanConfig PASTE_DIFF_FIRST                          = new BooleanConfig("pasteDiffFirst", false);
+        public static final IntegerConfig PASTE_PARALLEL_THREADS                    = new IntegerConfig("pasteParallelThreads", 0, 0, 16);
         public static final BooleanConfig PICK_BLOCK_AVOID_DAMAGEABLE               = new BooleanConfig("pickBlockAvoidDamageable", true);
         public static final BooleanConfig PICK_BLOCK_AVOID_TOOLS                    = new BooleanConfig("pickBlockAvoidTools", false);
         public static final BooleanConfig PICK_BLOCK_IGNORE_NBT                     = new BooleanConfig("pickBlockIgnoreNBT", true);
         public static final BooleanConfig PICK_BLOCK_SHULKER_BOXES                  = new BooleanConfig("pickBlockShulkerBoxes", false);
         public static final StringConfig  PICK_BLOCK_USABLE_SLOTS                   = new StringConfig( "pickBlockUsableSlots", "1-9");
+        public static final IntegerConfig PLACEMENT_MOVE_PREVIEW_DELAY              = new IntegerConfig("placementMovePreviewDelay", 500, 0, 10000);
         public static final BooleanConfig PLACEMENTS_INFRONT                        = new BooleanConfig("placementInfrontOfPlayer", false);
+        public static final IntegerConfig RENDER_MAIN_THREAD_COMPILE_TIME           = new IntegerConfig("renderMainThreadCompileTime", 0, 0, 1000);
         public static final BooleanConfig RENDER_MATERIALS_IN_GUI                   = new BooleanConfig("renderMaterialListInGuis", true);
+        public static final IntegerConfig RENDER_MESH_CACHE_SIZE                    = new IntegerConfig("renderMeshCacheSize", 64, 0, 4096);
+        public static final DoubleConfig  RENDER_THREAD_CORE_FRACTION               = new DoubleConfig( "renderThreadCoreFraction", 1.0, 0.0, 1.0);
+        public static final IntegerConfig RENDER_THREAD_COUNT                       = new IntegerConfig("renderThreadCount", 0, 0, 64);
         public static final BooleanConfig RENDER_THREAD_NO_TIMEOUT                  = new BooleanConfig("renderThreadNoTimeout", true);
         public static final BooleanConfig REQUIRE_ADJACENT_CHUNKS                   = new BooleanConfig("requireAdjacentChunks", true);
+        public static final IntegerConfig SCHEMATIC_WORLD_THREADS                   = new IntegerConfig("schematicWorldThreads", 2, 0, 16);
         public static final BooleanConfig SHOW_EXTRA_SCHEMATIC_TYPES                = new BooleanConfig("showExtraSchematicTypes", false);
         public static final StringConfig  TOOL_ITEM                                 = new StringConfig( "toolItem", "minecraft:stick");
+        public static final IntegerConfig VERIFIER_PARALLEL_THREADS                 = new IntegerConfig("verifierParallelThreads", 0, 0, 16);
 
         public static final OptionListConfig<AreaSelectionType>     DEFAULT_AREA_SELECTION_MODE = new OptionListConfig<>("defaultAreaSelectionMode", AreaSelectionType.SIMPLE, AreaSelectionType.VALUES);
         public static final OptionListConfig<ReplaceBehavior>       PASTE_REPLACE_BEHAVIOR      = new OptionListConfig<>("pasteReplaceBehavior", ReplaceBehavior.NONE, ReplaceBehavior.VALUES);
@@ -100,6 +111,9 @@ public class Configs
                 PASTE_REPLACE_BEHAVIOR,
                 PASTE_COMMAND_INTERVAL,
                 PASTE_COMMAND_LIMIT,
+                PASTE_DEFERRED_UPDATES,
+                PASTE_DIFF_FIRST,
+                PASTE_PARALLEL_THREADS,
                 PICK_BLOCK_AUTO,
                 PICK_BLOCK_AVOID_DAMAGEABLE,
                 PICK_BLOCK_AVOID_TOOLS,
@@ -107,17 +121,25 @@ public class Configs
                 PICK_BLOCK_USABLE_SLOTS,
                 PICK_BLOCK_IGNORE_NBT,
                 PICK_BLOCK_SHULKER_BOXES,
+                PLACEMENT_MOVE_PREVIEW_DELAY,
                 PLACEMENT_RESTRICTION,
                 PLACEMENTS_INFRONT,
+                RENDER_MAIN_THREAD_COMPILE_TIME,
                 RENDER_MATERIALS_IN_GUI,
+                RENDER_MESH_CACHE_SIZE,
+                RENDER_THREAD_CORE_FRACTION,
+                RENDER_THREAD_COUNT,
                 RENDER_THREAD_NO_TIMEOUT,
                 REQUIRE_ADJACENT_CHUNKS,
                 SCHEMATIC_BROWSER_COLUMNS,
+                SCHEMATIC_WORLD_THREADS,
                 SHOW_EXTRA_SCHEMATIC_TYPES,
                 SIGN_TEXT_PASTE,
                 TOOL_ITEM_ENABLED,
                 TOOL_ITEM,
-                TOOL_SELECTION_MODE
+                TOOL_SELECTION_MODE,
+                VERIFIER_OFFLINE_WORLD_DIRECTORY,
+                VERIFIER_PARALLEL_THREADS
         );
 
         public static final ImmutableList<HotkeyedBooleanConfig> HOTKEYS = ImmutableList.of(
@@ -152,6 +174,7 @@ public class Configs
         public static final BooleanAndDoubleConfig TRANSLUCENT_SCHEMATIC_RENDERING      = new BooleanAndDoubleConfig("translucentSchematicRendering", false, 0.5, 0.0, 1.0);
 
         public static final BooleanConfig IGNORE_EXISTING_FLUIDS                    = new BooleanConfig("ignoreExistingFluids", true);
+        public static final BooleanConfig LAYER_RANGE_CLIP_PLANES                   = new BooleanConfig("layerRangeClipPlanes", false);
         public static final BooleanConfig OVERLAY_REDUCED_INNER_SIDES               = new BooleanConfig("overlayReducedInnerSides", false);
         public static final BooleanConfig SCHEMATIC_OVERLAY_MODEL_OUTLINE           = new BooleanConfig("schematicOverlayModelOutline", true);
         public static final BooleanConfig SCHEMATIC_OVERLAY_MODEL_SIDES             = new BooleanConfig("schematicOverlayModelSides", true);
@@ -162,6 +185,7 @@ public class Configs
         public static final BooleanConfig SCHEMATIC_VERIFIER_BLOCK_MODELS           = new BooleanConfig("schematicVerifierUseBlockModels", false);
         public static final BooleanConfig TRANSLUCENT_INNER_SIDES                   = new BooleanConfig("translucentBlockInnerSides", false);
         public static final BooleanConfig VERIFIER_HIGHLIGHT_CONNECTIONS            = new BooleanConfig("verifierHighlightConnections", false);
+        public static final IntegerConfig VERIFIER_HIGHLIGHT_LOD_DISTANCE           = new IntegerConfig("verifierHighlightLodDistance", 64, 0, 4096);
         public static final BooleanConfig VERIFIER_HIGHLIGHT_SIDES                  = new BooleanConfig("verifierHighlightSides", true);
 
         public static final ImmutableList<ConfigOption<?>> OPTIONS = ImmutableList.of(
@@ -180,6 +204,7 @@ public class Configs
                 SCHEMATIC_OVERLAY_TYPE_WRONG_STATE,
 
                 IGNORE_EXISTING_FLUIDS,
+                LAYER_RANGE_CLIP_PLANES,
                 OVERLAY_REDUCED_INNER_SIDES,
                 PLACEMENT_BOX_RENDERING,
                 PLACEMENT_BOX_SIDES,
@@ -194,6 +219,7 @@ public class Configs
                 TRANSLUCENT_INNER_SIDES,
                 TRANSLUCENT_SCHEMATIC_RENDERING,
                 VERIFIER_HIGHLIGHT_CONNECTIONS,
+                VERIFIER_HIGHLIGHT_LOD_DISTANCE,
                 VERIFIER_HIGHLIGHT_SIDES
         );
 
@@ -236,6 +262,7 @@ public class Configs
         public static final BooleanConfig TOOL_HUD_ALWAYS_VISIBLE                   = new BooleanConfig("toolHudAlwaysVisible", false);
         public static final Vec2iConfig   TOOL_HUD_OFFSET                           = new Vec2iConfig(  "toolHudOffset", new Vec2i(1, 1));
         public static final DoubleConfig  TOOL_HUD_SCALE                            = new DoubleConfig( "toolHudScale", 1.0, 0.1, 4.0);
+        public static final IntegerConfig VERIFIER_BUILD_ROUTE_TARGETS              = new IntegerConfig("verifierBuildRouteTargets", 16, 1, 10000);
         public static final DoubleConfig  VERIFIER_ERROR_HIGHLIGHT_ALPHA            = new DoubleConfig("verifierErrorHighlightAlpha", 0.2, 0.0, 1.0);
         public static final IntegerConfig VERIFIER_ERROR_HIGHLIGHT_MAX_POSITIONS    = new IntegerConfig("verifierErrorHighlightMaxPositions", 1000, 1, 1000000);
         public static final BooleanConfig WARN_DISABLED_RENDERING                   = new BooleanConfig("warnDisabledRendering", true);
@@ -274,6 +301,7 @@ public class Configs
                 MATERIAL_LIST_HUD_SCALE,
                 TOOL_HUD_OFFSET,
                 TOOL_HUD_SCALE,
+                VERIFIER_BUILD_ROUTE_TARGETS,
                 VERIFIER_ERROR_HIGHLIGHT_ALPHA,
                 VERIFIER_ERROR_HIGHLIGHT_MAX_POSITIONS
         );
@@ -4,6 +4,8 @@ import malilib.input.callback.HotkeyCallback;
 import malilib.input.callback.ToggleBooleanWithMessageKeyCallback;
 import malilib.listener.EventListener;
 import litematica.data.DataManager;
+import litematica.render.LitematicaRenderer;
+import litematica.schematic.verifier.SchematicVerifierManager;
 import litematica.util.PickBlockUtils;
 import litematica.world.SchematicWorldRenderingNotifier;
 
@@ -18,8 +20,12 @@ public class HotkeyCallbacks
         Configs.Generic.DATE_FORMAT.setValueChangeCallback((n, o) -> DataManager.checkDateFormat(n));
         Configs.Generic.PICK_BLOCK_USABLE_SLOTS.setValueChangeCallback((newValue, oldValue) -> PickBlockUtils.setPickBlockUsableSlots(newValue));
         Configs.Generic.PICK_BLOCK_USABLE_SLOTS.setValueLoadCallback(PickBlockUtils::setPickBlockUsableSlots);
+        Configs.Generic.RENDER_MAIN_THREAD_COMPILE_TIME.setValueChangeCallback((newValue, oldValue) -> LitematicaRenderer.getInstance().getWorldRenderer().updateRenderThreadCount());
+        Configs.Generic.RENDER_THREAD_CORE_FRACTION.setValueChangeCallback((newValue, oldValue) -> LitematicaRenderer.getInstance().getWorldRenderer().updateRenderThreadCount());
+        Configs.Generic.RENDER_THREAD_COUNT.setValueChangeCallback((newValue, oldValue) -> LitematicaRenderer.getInstance().getWorldRenderer().updateRenderThreadCount());
         Configs.Generic.TOOL_ITEM.setValueChangeCallback((newValue, oldValue) -> DataManager.setToolItem(newValue));
         Configs.Generic.TOOL_ITEM.setValueLoadCallback(DataManager::setToolItem);
+        Configs.Visuals.IGNORE_EXISTING_FLUIDS.addValueChangeListener(SchematicVerifierManager.INSTANCE::onResultTypesChanged);
 
         Hotkeys.OPEN_AREA_EDITOR_SCREEN.getKeyBind().setCallback(hotkeyCallbackOpenGui);
         Hotkeys.OPEN_LOAD_SCHEMATICS_SCREEN.getKeyBind().setCallback(hotkeyCallbackOpenGui);
@@ -90,6 +96,7 @@ public class HotkeyCallbacks
         Configs.Visuals.OVERLAY_REDUCED_INNER_SIDES.addValueChangeListener(refreshCallback);
         Configs.Visuals.RENDER_COLLIDING_SCHEMATIC_BLOCKS.addValueChangeListener(refreshCallback);
         Configs.Visuals.TRANSLUCENT_INNER_SIDES.addValueChangeListener(refreshCallback);
+        Configs.Visuals.LAYER_RANGE_CLIP_PLANES.addValueChangeListener(refreshCallback);
         Configs.Visuals.SCHEMATIC_BLOCKS_RENDERING.addValueChangeListener(refreshCallback);
         Configs.Visuals.SCHEMATIC_OVERLAY_MODEL_OUTLINE.addValueChangeListener(refreshCallback);
         Configs.Visuals.SCHEMATIC_OVERLAY_MODEL_SIDES.addValueChangeListener(refreshCallback);
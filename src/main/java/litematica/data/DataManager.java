@@ -39,11 +39,13 @@ import litematica.render.infohud.InfoHud;
 import litematica.scheduler.TaskScheduler;
 import litematica.schematic.placement.SchematicPlacementManager;
 import litematica.schematic.projects.SchematicProjectsManager;
+import litematica.schematic.verifier.SchematicVerifierManager;
 import litematica.selection.AreaSelectionManager;
 import litematica.selection.AreaSelectionSimple;
 import litematica.tool.ToolMode;
 import litematica.tool.ToolModeData;
 import litematica.util.LitematicaDirectories;
+import litematica.world.ClientSectionHashCache;
 import litematica.world.SchematicWorldHandler;
 import litematica.world.SchematicWorldRenderingNotifier;
 
@@ -190,6 +192,8 @@ public class DataManager implements DirectoryCache
         this.schematicPlacementManager.clear();
         this.schematicProjectsManager.clear();
         this.areaSimple = new AreaSelectionSimple(true);
+        SchematicVerifierManager.INSTANCE.clear();
+        ClientSectionHashCache.INSTANCE.clear();
 
         if (isLogout || (this.materialList != null && this.materialList.isForPlacement()))
         {
@@ -328,6 +332,7 @@ public class DataManager implements DirectoryCache
     private void savePerDimensionData()
     {
         this.schematicProjectsManager.saveCurrentProject();
+        SchematicVerifierManager.INSTANCE.saveVerifierStates();
 
         Path file = getCurrentStorageFile(false);
         JsonUtils.writeJsonToFile(this.toJson(), file);
@@ -1,5 +1,6 @@
 package litematica.gui;
 
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -23,6 +24,7 @@ import malilib.gui.widget.list.entry.BaseListEntryWidget;
 import malilib.gui.widget.list.entry.DataListEntryWidgetData;
 import malilib.gui.widget.list.header.ColumnizedDataListHeaderWidget;
 import malilib.gui.widget.list.header.DataListHeaderWidget;
+import malilib.overlay.message.MessageDispatcher;
 import malilib.render.text.StyledTextLine;
 import malilib.util.StringUtils;
 import malilib.util.data.RunStatus;
@@ -32,6 +34,7 @@ import litematica.render.infohud.InfoHud;
 import litematica.render.infohud.RenderPhase;
 import litematica.schematic.verifier.BlockStatePairCount;
 import litematica.schematic.verifier.SchematicVerifier;
+import litematica.schematic.verifier.SchematicVerifierManager;
 import litematica.schematic.verifier.VerifierResultType;
 import litematica.schematic.verifier.VerifierStatus;
 import litematica.util.value.BlockInfoListType;
@@ -44,6 +47,7 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
     protected final LabelWidget statusLabel;
     protected final DropDownListWidget<VerifierResultType> visibleCategoriesDropdown;
     protected final GenericButton autoRefreshButton;
+    protected final GenericButton buildRouteButton;
     protected final GenericButton clearSelectionButton;
     protected final GenericButton infoHudButton;
     protected final GenericButton mainMenuButton;
@@ -52,6 +56,7 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
     protected final GenericButton resetVerifierButton;
     protected final GenericButton startButton;
     protected final GenericButton stopButton;
+    protected final GenericButton verifyFromSaveButton;
 
     public SchematicVerifierScreen(SchematicVerifier verifier)
     {
@@ -62,6 +67,8 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
         this.statusLabel = new LabelWidget();
         this.autoRefreshButton    = OnOffButton.onOff(18, "litematica.button.schematic_verifier.toggle_auto_refresh",
                                                       this.verifier::getAutoRefresh, this.verifier::toggleAutoRefreshEnabled);
+        this.buildRouteButton     = OnOffButton.onOff(18, "litematica.button.schematic_verifier.toggle_build_route",
+                                                      this.verifier::isBuildRouteEnabled, this.verifier::toggleBuildRouteEnabled);
         this.infoHudButton        = OnOffButton.onOff(18, "litematica.button.schematic_verifier.toggle_info_hud",
                                                       this::isHudOn, this::toggleInfoHud);
         this.clearSelectionButton = GenericButton.create(18, "litematica.button.schematic_verifier.clear_selection", this::clearSelection);
@@ -71,6 +78,9 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
         this.resetVerifierButton  = GenericButton.create(18, "litematica.button.schematic_verifier.reset_verifier", this::resetVerifier);
         this.startButton          = GenericButton.create(18, this::getStartButtonLabel, this::startVerifier);
         this.stopButton           = GenericButton.create(18, "litematica.button.schematic_verifier.stop", this::stopVerifier);
+        this.verifyFromSaveButton = GenericButton.create(18, "litematica.button.schematic_verifier.verify_from_save", this::startOfflineVerifier);
+        this.verifyFromSaveButton.translateAndAddHoverString("litematica.hover.button.schematic_verifier.verify_from_save");
+        this.buildRouteButton.translateAndAddHoverString("litematica.hover.button.schematic_verifier.toggle_build_route");
 
         this.resetIgnoredButton.setEnabledStatusSupplier(this.verifier::hasIgnoredPairs);
         this.resetVerifierButton.setEnabledStatusSupplier(this.verifier::hasData);
@@ -100,6 +110,7 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
         super.reAddActiveWidgets();
 
         this.addWidget(this.autoRefreshButton);
+        this.addWidget(this.buildRouteButton);
         this.addWidget(this.clearSelectionButton);
         this.addWidget(this.infoHudButton);
         this.addWidget(this.mainMenuButton);
@@ -108,6 +119,7 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
         this.addWidget(this.resetVerifierButton);
         this.addWidget(this.startButton);
         this.addWidget(this.stopButton);
+        this.addWidget(this.verifyFromSaveButton);
         this.addWidget(this.visibleCategoriesDropdown);
 
         this.addWidget(this.statusLabel);
@@ -124,12 +136,14 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
         this.resetVerifierButton.setPosition(this.stopButton.getRight() + 2, y);
         this.resetIgnoredButton.setPosition(this.resetVerifierButton.getRight() + 2, y);
         this.clearSelectionButton.setPosition(this.resetIgnoredButton.getRight() + 2, y);
+        this.buildRouteButton.setPosition(this.clearSelectionButton.getRight() + 2, y);
 
         y += 20;
         this.infoHudButton.setPosition(this.x + 10, y);
         this.rangeButton.setPosition(this.infoHudButton.getRight() + 2, y);
         this.autoRefreshButton.setPosition(this.rangeButton.getRight() + 2, y);
         this.visibleCategoriesDropdown.setPosition(this.autoRefreshButton.getRight() + 4, y);
+        this.verifyFromSaveButton.setPosition(this.visibleCategoriesDropdown.getRight() + 4, y);
 
         this.statusLabel.setX(this.x + 10);
         this.statusLabel.setBottom(this.getBottom() - 2);
@@ -229,6 +243,20 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
         this.updateVerifierScreenState();
     }
 
+    protected void startOfflineVerifier()
+    {
+        Path regionDir = SchematicVerifierManager.INSTANCE.getOfflineRegionDirectory();
+
+        if (regionDir == null)
+        {
+            MessageDispatcher.error("litematica.message.error.schematic_verifier.no_offline_world");
+            return;
+        }
+
+        this.verifier.startOffline(regionDir, this::onVerifierFinished);
+        this.updateVerifierScreenState();
+    }
+
     protected void stopVerifier()
     {
         this.verifier.stop();
@@ -279,11 +307,12 @@ public class SchematicVerifierScreen extends BaseListScreen<DataListWidget<Block
         DecimalFormat fmt = new DecimalFormat("#.#");
         VerifierStatus status = this.verifier.getCurrentStatus();
         double pct = status.totalBlocks > 0 ? (double) status.correctBlocks * 100 / (double) status.totalBlocks : 0.0;
+        double sectionPct = status.totalSections > 0 ? (double) status.completeSections * 100 / (double) status.totalSections : 0.0;
         List<StyledTextLine> lines = new ArrayList<>();
 
         StyledTextLine.translate(lines, "litematica.label.schematic_verifier.status.status",
                                  status.status.getColoredDisplayName(),
-                                 status.processedChunks, status.totalChunks);
+                                 status.processedChunks, status.totalChunks, fmt.format(sectionPct));
         StyledTextLine.translate(lines, "litematica.label.schematic_verifier.status.counts_1",
                                  status.totalBlocks, fmt.format(pct), status.correctBlocks);
         StyledTextLine.translate(lines, "litematica.label.schematic_verifier.status.counts_2",
@@ -1,8 +1,17 @@
 package litematica.interfaces;
 
+import javax.annotation.Nullable;
+
+import litematica.schematic.util.PasteFinalizer;
+
 public interface IWorldUpdateSuppressor
 {
     boolean getShouldPreventUpdates();
 
     void setShouldPreventUpdates(boolean preventUpdates);
+
+    @Nullable
+    PasteFinalizer getPasteFinalizer();
+
+    void setPasteFinalizer(@Nullable PasteFinalizer finalizer);
 }
@@ -7,9 +7,11 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import net.minecraft.client.network.NetHandlerPlayClient;
 import net.minecraft.network.play.server.SPacketChunkData;
+import net.minecraft.network.play.server.SPacketUnloadChunk;
 
 import litematica.config.Configs;
 import litematica.schematic.verifier.SchematicVerifierManager;
+import litematica.world.ClientSectionHashCache;
 import litematica.world.SchematicWorldRenderingNotifier;
 
 @Mixin(NetHandlerPlayClient.class)
@@ -18,6 +20,8 @@ public abstract class MixinNetHandlerPlayClient
     @Inject(method = "handleChunkData", at = @At("RETURN"))
     private void onChunkData(SPacketChunkData packetIn, CallbackInfo ci)
     {
+        ClientSectionHashCache.INSTANCE.onChunkChanged(packetIn.getChunkX(), packetIn.getChunkZ());
+
         if (Configs.Visuals.MAIN_RENDERING_TOGGLE.getBooleanValue() &&
             Configs.Visuals.SCHEMATIC_RENDERING.getBooleanValue())
         {
@@ -26,4 +30,10 @@ public abstract class MixinNetHandlerPlayClient
 
         SchematicVerifierManager.INSTANCE.onChunkChanged(packetIn.getChunkX(), packetIn.getChunkZ());
     }
+
+    @Inject(method = "processChunkUnload", at = @At("RETURN"))
+    private void onChunkUnload(SPacketUnloadChunk packetIn, CallbackInfo ci)
+    {
+        ClientSectionHashCache.INSTANCE.onChunkChanged(packetIn.getX(), packetIn.getZ());
+    }
 }
@@ -10,6 +10,7 @@ import malilib.util.position.BlockPos;
 import litematica.config.Configs;
 import litematica.render.LitematicaRenderer;
 import litematica.schematic.verifier.SchematicVerifierManager;
+import litematica.world.ClientSectionHashCache;
 import litematica.world.SchematicWorldRenderingNotifier;
 
 @Mixin(net.minecraft.client.renderer.RenderGlobal.class)
@@ -37,6 +38,7 @@ public abstract class MixinRenderGlobal
         if (oldState != newState)
         {
             BlockPos bp = BlockPos.of(pos);
+            ClientSectionHashCache.INSTANCE.onBlockChanged(bp);
             SchematicVerifierManager.INSTANCE.onBlockChanged(bp);
 
             if (Configs.Visuals.MAIN_RENDERING_TOGGLE.getBooleanValue() &&
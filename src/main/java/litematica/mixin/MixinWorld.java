@@ -1,15 +1,22 @@
 package litematica.mixin;
 
+import javax.annotation.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
 import litematica.interfaces.IWorldUpdateSuppressor;
+import litematica.schematic.util.PasteFinalizer;
 
 @Mixin(World.class)
 public class MixinWorld implements IWorldUpdateSuppressor
 {
     private boolean preventUpdates;
+    @Nullable private PasteFinalizer pasteFinalizer;
 
     @Override
     public boolean getShouldPreventUpdates()
@@ -22,4 +29,27 @@ public class MixinWorld implements IWorldUpdateSuppressor
     {
         this.preventUpdates = preventUpdates;
     }
+
+    @Override
+    @Nullable
+    public PasteFinalizer getPasteFinalizer()
+    {
+        return this.pasteFinalizer;
+    }
+
+    @Override
+    public void setPasteFinalizer(@Nullable PasteFinalizer finalizer)
+    {
+        this.pasteFinalizer = finalizer;
+    }
+
+    @Inject(method = "checkLight(Lnet/minecraft/util/math/BlockPos;)Z", at = @At("HEAD"), cancellable = true)
+    private void deferLightCheckDuringPaste(BlockPos pos, CallbackInfoReturnable<Boolean> cir)
+    {
+        // The paste finalizer checks the lighting of all the changed positions after the paste
+        if (this.pasteFinalizer != null)
+        {
+            cir.setReturnValue(false);
+        }
+    }
 }
@@ -2,8 +2,8 @@ package litematica.render;
 
 import java.util.List;
 
-import net.minecraft.client.renderer.RenderGlobal;
-
+import litematica.render.schematic.CompiledSectionCache;
+import litematica.render.schematic.RenderGlobalSchematic;
 import litematica.world.SchematicWorldHandler;
 import litematica.world.WorldSchematic;
 
@@ -15,7 +15,7 @@ public class DebugScreenMessages
 
         if (world != null)
         {
-            RenderGlobal render = LitematicaRenderer.getInstance().getWorldRenderer();
+            RenderGlobalSchematic render = LitematicaRenderer.getInstance().getWorldRenderer();
 
             /*
                world.getRegularEntityCount(),
@@ -28,6 +28,8 @@ public class DebugScreenMessages
                                    render.getDebugInfoEntities(),
                                    world.getDebugLoadedEntities(),
                                    world.loadedTileEntityList.size()));
+            list.add(String.format("§6[Litematica]§r %s", render.getDebugInfoCompileQueue()));
+            list.add(String.format("§6[Litematica]§r %s", CompiledSectionCache.INSTANCE.getDebugInfo()));
         }
     }
 }
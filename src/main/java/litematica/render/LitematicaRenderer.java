@@ -81,7 +81,13 @@ public class LitematicaRenderer
         long fpsMin = Math.min(Minecraft.getDebugFPS(), fpsLimit);
         fpsMin = Math.max(fpsMin, 60L);
 
-        if (Configs.Generic.RENDER_THREAD_NO_TIMEOUT.getBooleanValue())
+        int mainThreadCompileTime = Configs.Generic.RENDER_MAIN_THREAD_COMPILE_TIME.getIntegerValue();
+
+        if (mainThreadCompileTime > 0)
+        {
+            this.finishTimeNano = System.nanoTime() + (long) mainThreadCompileTime * 1000000L;
+        }
+        else if (Configs.Generic.RENDER_THREAD_NO_TIMEOUT.getBooleanValue())
         {
             this.finishTimeNano = Long.MAX_VALUE;
         }
@@ -2,6 +2,7 @@ package litematica.render;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -11,6 +12,8 @@ import org.lwjgl.opengl.GL11;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.culling.ICamera;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.entity.Entity;
 import net.minecraft.init.Blocks;
@@ -47,6 +50,7 @@ import litematica.data.DataManager;
 import litematica.gui.widget.SchematicVerifierBlockInfoWidget;
 import litematica.schematic.placement.SchematicPlacement;
 import litematica.schematic.placement.SchematicPlacementManager;
+import litematica.schematic.placement.SchematicPlacementManager.PlacementBox;
 import litematica.schematic.projects.SchematicProject;
 import litematica.schematic.verifier.BlockPairTypePosition;
 import litematica.schematic.verifier.SchematicVerifier;
@@ -58,6 +62,7 @@ import litematica.selection.BoxCorner;
 import litematica.selection.CornerDefinedBox;
 import litematica.selection.SelectionBox;
 import litematica.util.ItemUtils;
+import litematica.util.PositionUtils;
 import litematica.util.RayTraceUtils;
 import litematica.util.RayTraceUtils.RayTraceWrapper;
 import litematica.util.value.BlockInfoAlignment;
@@ -70,6 +75,7 @@ public class OverlayRenderer
     private final Minecraft mc;
     private final Map<SchematicPlacement, ImmutableMap<String, SelectionBox>> placements = new HashMap<>();
     private final List<String> blockInfoLines = new ArrayList<>();
+    private final Map<SchematicVerifier, VerifierHighlightCache> verifierHighlightCaches = new HashMap<>();
     private Color4f colorPos1 = new Color4f(1f, 0.0625f, 0.0625f);
     private Color4f colorPos2 = new Color4f(0.0625f, 0.0625f, 1f);
     private Color4f colorOverlapping = new Color4f(1f, 0.0625f, 1f);
@@ -99,6 +105,7 @@ public class OverlayRenderer
     public void updatePlacementCache()
     {
         this.placements.clear();
+        DataManager.getSchematicPlacementManager().invalidatePlacementBoxBvh();
 
         for (SchematicPlacement placement : DataManager.getSchematicPlacementManager().getVisibleSchematicPlacements())
         {
@@ -130,6 +137,11 @@ public class OverlayRenderer
             RenderWrap.pushMatrix(ctx);
             RenderWrap.setupBlendSeparate();
 
+            ICamera camera = new Frustum();
+            camera.setPosition(EntityWrap.lerpX(renderViewEntity, partialTicks),
+                               EntityWrap.lerpY(renderViewEntity, partialTicks),
+                               EntityWrap.lerpZ(renderViewEntity, partialTicks));
+
             if (renderAreas)
             {
                 RenderWrap.enablePolygonOffset();
@@ -140,6 +152,11 @@ public class OverlayRenderer
 
                 for (SelectionBox box : currentSelection.getAllSelectionBoxes())
                 {
+                    if (camera.isBoundingBoxInFrustum(PositionUtils.createEnclosingAABB(box.getCorner1(), box.getCorner2())) == false)
+                    {
+                        continue;
+                    }
+
                     BoxType type = box == currentBox ? BoxType.AREA_SELECTED : BoxType.AREA_UNSELECTED;
                     this.renderSelectionBox(box, type, expand, lineWidthBlockBox, lineWidthArea, renderViewEntity, partialTicks, null);
                 }
@@ -168,26 +185,38 @@ public class OverlayRenderer
                 SchematicPlacementManager spm = DataManager.getSchematicPlacementManager();
                 SchematicPlacement currentPlacement = spm.getSelectedSchematicPlacement();
 
-                for (Map.Entry<SchematicPlacement, ImmutableMap<String, SelectionBox>> entry : this.placements.entrySet())
-                {
-                    SchematicPlacement schematicPlacement = entry.getKey();
-                    ImmutableMap<String, SelectionBox> boxMap = entry.getValue();
+                // Only the boxes and origins within the view frustum are rendered
+                spm.getPlacementBoxBvh().forEachInFrustum(camera, (entry) -> {
+                    SchematicPlacement schematicPlacement = entry.getPlacement();
                     boolean origin = schematicPlacement.getSelectedSubRegionPlacement() == null;
 
-                    for (Map.Entry<String, SelectionBox> entryBox : boxMap.entrySet())
+                    if (entry.isOrigin())
+                    {
+                        Color4f color = schematicPlacement == currentPlacement && origin ? this.colorSelectedCorner : schematicPlacement.getBoundingBoxColor();
+                        RenderUtils.renderBlockOutline(schematicPlacement.getPosition(), expand, lineWidthBlockBox, color, renderViewEntity, partialTicks);
+                    }
+                    else
                     {
-                        String boxName = entryBox.getKey();
+                        String boxName = entry.getSubRegionName();
                         boolean boxSelected = schematicPlacement == currentPlacement && (origin || boxName.equals(schematicPlacement.getSelectedSubRegionName()));
                         BoxType type = boxSelected ? BoxType.PLACEMENT_SELECTED : BoxType.PLACEMENT_UNSELECTED;
-                        this.renderSelectionBox(entryBox.getValue(), type, expand, 1f, 1f, renderViewEntity, partialTicks, schematicPlacement);
+                        this.renderSelectionBox(entry.getBox(), type, expand, 1f, 1f, renderViewEntity, partialTicks, schematicPlacement);
                     }
+                });
 
-                    Color4f color = schematicPlacement == currentPlacement && origin ? this.colorSelectedCorner : schematicPlacement.getBoundingBoxColor();
-                    RenderUtils.renderBlockOutline(schematicPlacement.getPosition(), expand, lineWidthBlockBox, color, renderViewEntity, partialTicks);
-
+                for (SchematicPlacement schematicPlacement : this.placements.keySet())
+                {
                     if (schematicPlacement.shouldRenderEnclosingBox())
                     {
                         IntBoundingBox box = schematicPlacement.getEnclosingBox();
+
+                        if (camera.isBoundingBoxInFrustum(PositionUtils.createAABBFrom(box)) == false)
+                        {
+                            continue;
+                        }
+
+                        boolean origin = schematicPlacement.getSelectedSubRegionPlacement() == null;
+                        Color4f color = schematicPlacement == currentPlacement && origin ? this.colorSelectedCorner : schematicPlacement.getBoundingBoxColor();
                         RenderUtils.renderAreaOutline(box, 1f, color, color, color, renderViewEntity, partialTicks);
 
                         if (Configs.Visuals.PLACEMENT_ENCLOSING_BOX_SIDES.getBooleanValue())
@@ -325,13 +354,72 @@ public class OverlayRenderer
 
                 if (list.isEmpty() == false)
                 {
-                    List<BlockPairTypePosition> posList = verifier.getClosestSelectedPositions(cameraPos);
                     Entity entity = GameWrap.getCameraEntity();
-                    BlockPairTypePosition lookPos = RayTraceUtils.traceToVerifierResultPositions(posList, entity, 128);
-                    this.renderSchematicMismatches(list, lookPos, partialTicks, ctx);
+                    BlockPairTypePosition lookPos = RayTraceUtils.traceToVerifierResultPositions(verifier, entity, 128);
+
+                    if (RenderWrap.useVbo())
+                    {
+                        VerifierHighlightCache cache = this.verifierHighlightCaches.computeIfAbsent(verifier, v -> new VerifierHighlightCache());
+                        this.renderCachedSchematicMismatches(verifier, cache, list, lookPos, partialTicks, ctx);
+                    }
+                    else
+                    {
+                        this.renderSchematicMismatches(list, lookPos, partialTicks, ctx);
+                    }
                 }
             }
         }
+
+        this.removeUnusedVerifierHighlightCaches(activeVerifiers);
+    }
+
+    private void removeUnusedVerifierHighlightCaches(List<SchematicVerifier> activeVerifiers)
+    {
+        Iterator<Map.Entry<SchematicVerifier, VerifierHighlightCache>> iter = this.verifierHighlightCaches.entrySet().iterator();
+
+        while (iter.hasNext())
+        {
+            Map.Entry<SchematicVerifier, VerifierHighlightCache> entry = iter.next();
+
+            if (activeVerifiers.contains(entry.getKey()) == false)
+            {
+                entry.getValue().deleteBuffers();
+                iter.remove();
+            }
+        }
+    }
+
+    private void renderCachedSchematicMismatches(SchematicVerifier verifier,
+                                                 VerifierHighlightCache cache,
+                                                 List<BlockPairTypePosition> posList,
+                                                 @Nullable BlockPairTypePosition lookPos,
+                                                 float partialTicks, RenderContext ctx)
+    {
+        RenderWrap.disableDepthTest();
+        RenderWrap.depthMask(false);
+        RenderWrap.disableLighting();
+        RenderWrap.disableTexture2D();
+
+        Entity entity = GameWrap.getCameraEntity();
+        cache.render(verifier, posList, entity, partialTicks, ctx);
+
+        // The looked-at position is drawn on top of the cached geometry with a thicker outline
+        if (lookPos != null)
+        {
+            VertexBuilder lineBuilder = VanillaWrappingVertexBuilder.coloredLines();
+            Color4f color = lookPos.type.getOverlayColor().withAlpha(1f);
+
+            RenderWrap.pushMatrix(ctx);
+            RenderWrap.lineWidth(6f);
+            RenderUtils.drawBlockBoundingBoxOutlinesBatchedLines(lookPos.posLong, color, 0.002, lineBuilder, entity, partialTicks);
+            lineBuilder.draw();
+            RenderWrap.popMatrix(ctx);
+        }
+
+        RenderWrap.enableTexture2D();
+        RenderWrap.enableCull();
+        RenderWrap.depthMask(true);
+        RenderWrap.enableDepthTest();
     }
 
     private void renderSchematicMismatches(List<BlockPairTypePosition> posList,
@@ -493,13 +581,10 @@ public class OverlayRenderer
 
         if (activeVerifiers.isEmpty() == false)
         {
-            BlockPos cameraPos = EntityWrap.getCameraEntityBlockPos();
-
             for (SchematicVerifier verifier : activeVerifiers)
             {
                 Entity entity = GameWrap.getCameraEntity();
-                List<BlockPairTypePosition> posList = verifier.getClosestSelectedPositions(cameraPos);
-                BlockPairTypePosition lookPos = RayTraceUtils.traceToVerifierResultPositions(posList, entity, 32);
+                BlockPairTypePosition lookPos = RayTraceUtils.traceToVerifierResultPositions(verifier, entity, 32);
 
                 if (lookPos != null)
                 {
@@ -0,0 +1,265 @@
+package litematica.render;
+
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.lwjgl.opengl.GL11;
+
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
+import net.minecraft.entity.Entity;
+
+import malilib.render.RenderContext;
+import malilib.render.ShapeRenderUtils;
+import malilib.render.buffer.VanillaWrappingVertexBuilder;
+import malilib.render.buffer.VertexBuilder;
+import malilib.util.data.Color4f;
+import malilib.util.game.wrap.EntityWrap;
+import malilib.util.game.wrap.RenderWrap;
+import malilib.util.position.BlockPos;
+import malilib.util.position.PositionUtils;
+import litematica.config.Configs;
+import litematica.schematic.verifier.BlockPairTypePosition;
+import litematica.schematic.verifier.SchematicVerifier;
+import litematica.schematic.verifier.VerifierResultType;
+
+/**
+ * The cached mismatch highlight geometry of one verifier. The outlines and the sides
+ * are built into vertex buffers only when the verifier's closest positions change,
+ * using coordinates relative to the position the list was built for, and the buffers
+ * are then just translated relative to the camera each frame.
+ * The positions farther than the LOD distance are merged into one box per cluster cell and type.
+ */
+public class VerifierHighlightCache
+{
+    private static final double EXPAND = 0.002;
+    private static final int LOD_CELL_SHIFT = 3;
+
+    private final Color4f[] outlineColors = new Color4f[VerifierResultType.values().length];
+    private final Color4f[] sideColors = new Color4f[VerifierResultType.values().length];
+    @Nullable private VertexBuffer lineBuffer;
+    @Nullable private VertexBuffer quadBuffer;
+    @Nullable private VertexBuilder lineBuilder;
+    @Nullable private VertexBuilder quadBuilder;
+    private int builtVersion = -1;
+    private int builtSettings;
+    private int originX;
+    private int originY;
+    private int originZ;
+    private boolean hasLines;
+    private boolean hasQuads;
+
+    public void render(SchematicVerifier verifier, List<BlockPairTypePosition> posList,
+                       Entity entity, float partialTicks, RenderContext ctx)
+    {
+        int settings = getSettingsHash();
+
+        if (this.lineBuffer == null || verifier.getClosestPositionsVersion() != this.builtVersion || settings != this.builtSettings)
+        {
+            this.rebuild(posList, EntityWrap.getCameraEntityBlockPos());
+            this.builtVersion = verifier.getClosestPositionsVersion();
+            this.builtSettings = settings;
+        }
+
+        double dx = EntityWrap.lerpX(entity, partialTicks);
+        double dy = EntityWrap.lerpY(entity, partialTicks);
+        double dz = EntityWrap.lerpZ(entity, partialTicks);
+
+        RenderWrap.pushMatrix(ctx);
+        RenderWrap.translate(this.originX - dx, this.originY - dy, this.originZ - dz, ctx);
+        RenderWrap.enableClientState(GL11.GL_VERTEX_ARRAY);
+        RenderWrap.enableClientState(GL11.GL_COLOR_ARRAY);
+
+        if (this.hasLines)
+        {
+            RenderWrap.lineWidth(2f);
+            this.drawBuffer(this.lineBuffer, GL11.GL_LINES);
+        }
+
+        if (this.hasQuads)
+        {
+            RenderWrap.enableBlend();
+            RenderWrap.disableCull();
+            this.drawBuffer(this.quadBuffer, GL11.GL_QUADS);
+            RenderWrap.disableBlend();
+        }
+
+        RenderWrap.disableClientState(GL11.GL_VERTEX_ARRAY);
+        RenderWrap.disableClientState(GL11.GL_COLOR_ARRAY);
+        RenderWrap.bindBuffer(RenderWrap.GL_ARRAY_BUFFER, 0);
+        RenderWrap.resetColor();
+        RenderWrap.popMatrix(ctx);
+    }
+
+    private void drawBuffer(VertexBuffer vertexBuffer, int glMode)
+    {
+        vertexBuffer.bindBuffer();
+        RenderWrap.vertexPointer(3, GL11.GL_FLOAT, 16, 0);
+        RenderWrap.colorPointer(4, GL11.GL_UNSIGNED_BYTE, 16, 12);
+        vertexBuffer.drawArrays(glMode);
+    }
+
+    private void rebuild(List<BlockPairTypePosition> posList, BlockPos origin)
+    {
+        if (this.lineBuffer == null)
+        {
+            this.lineBuffer = new VertexBuffer(DefaultVertexFormats.POSITION_COLOR);
+            this.quadBuffer = new VertexBuffer(DefaultVertexFormats.POSITION_COLOR);
+            this.lineBuilder = VanillaWrappingVertexBuilder.create(65536, GL11.GL_LINES, DefaultVertexFormats.POSITION_COLOR);
+            this.quadBuilder = VanillaWrappingVertexBuilder.create(65536, GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+        }
+
+        boolean connections = Configs.Visuals.VERIFIER_HIGHLIGHT_CONNECTIONS.getBooleanValue();
+        boolean sides = Configs.Visuals.VERIFIER_HIGHLIGHT_SIDES.getBooleanValue();
+        int lodDistance = Configs.Visuals.VERIFIER_HIGHLIGHT_LOD_DISTANCE.getIntegerValue();
+        long lodDistanceSq = lodDistance > 0 ? (long) lodDistance * lodDistance : Long.MAX_VALUE;
+        float alpha = (float) Configs.InfoOverlays.VERIFIER_ERROR_HIGHLIGHT_ALPHA.getDoubleValue();
+        @SuppressWarnings("unchecked")
+        Long2ObjectOpenHashMap<int[]>[] clusters = new Long2ObjectOpenHashMap[this.outlineColors.length];
+        BlockPairTypePosition prevEntry = null;
+
+        for (VerifierResultType type : VerifierResultType.values())
+        {
+            Color4f color = type.getOverlayColor();
+            this.outlineColors[type.ordinal()] = color.withAlpha(1f);
+            this.sideColors[type.ordinal()] = new Color4f(color.r, color.g, color.b, alpha);
+        }
+
+        this.originX = origin.getX();
+        this.originY = origin.getY();
+        this.originZ = origin.getZ();
+        this.lineBuilder.start();
+        this.quadBuilder.start();
+
+        for (BlockPairTypePosition entry : posList)
+        {
+            int x = PositionUtils.unpackX(entry.posLong);
+            int y = PositionUtils.unpackY(entry.posLong);
+            int z = PositionUtils.unpackZ(entry.posLong);
+            long diffX = x - this.originX;
+            long diffY = y - this.originY;
+            long diffZ = z - this.originZ;
+            int typeIndex = entry.type.ordinal();
+
+            if (diffX * diffX + diffY * diffY + diffZ * diffZ > lodDistanceSq)
+            {
+                this.addToCluster(clusters, typeIndex, x, y, z);
+            }
+            else
+            {
+                this.addBox(x, y, z, x, y, z, typeIndex, sides);
+            }
+
+            if (connections && prevEntry != null)
+            {
+                this.addConnection(prevEntry.posLong, entry.posLong, this.outlineColors[typeIndex]);
+            }
+
+            prevEntry = entry;
+        }
+
+        for (int typeIndex = 0; typeIndex < clusters.length; ++typeIndex)
+        {
+            if (clusters[typeIndex] != null)
+            {
+                for (int[] bounds : clusters[typeIndex].values())
+                {
+                    this.addBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], typeIndex, sides);
+                }
+            }
+        }
+
+        this.hasLines = posList.isEmpty() == false;
+        this.hasQuads = this.hasLines && sides;
+        this.uploadBuffer(this.lineBuilder, this.lineBuffer);
+        this.uploadBuffer(this.quadBuilder, this.quadBuffer);
+    }
+
+    private void addToCluster(Long2ObjectOpenHashMap<int[]>[] clusters, int typeIndex, int x, int y, int z)
+    {
+        if (clusters[typeIndex] == null)
+        {
+            clusters[typeIndex] = new Long2ObjectOpenHashMap<>();
+        }
+
+        long key = ((long) ((x >> LOD_CELL_SHIFT) & 0x1FFFFF) << 42) |
+                   ((long) ((y >> LOD_CELL_SHIFT) & 0x1FFFFF) << 21) |
+                   (long) ((z >> LOD_CELL_SHIFT) & 0x1FFFFF);
+        int[] bounds = clusters[typeIndex].get(key);
+
+        if (bounds == null)
+        {
+            clusters[typeIndex].put(key, new int[] { x, y, z, x, y, z });
+        }
+        else
+        {
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.min(bounds[1], y);
+            bounds[2] = Math.min(bounds[2], z);
+            bounds[3] = Math.max(bounds[3], x);
+            bounds[4] = Math.max(bounds[4], y);
+            bounds[5] = Math.max(bounds[5], z);
+        }
+    }
+
+    private void addBox(int x1, int y1, int z1, int x2, int y2, int z2, int typeIndex, boolean sides)
+    {
+        double minX = x1 - this.originX - EXPAND;
+        double minY = y1 - this.originY - EXPAND;
+        double minZ = z1 - this.originZ - EXPAND;
+        double maxX = x2 - this.originX + 1 + EXPAND;
+        double maxY = y2 - this.originY + 1 + EXPAND;
+        double maxZ = z2 - this.originZ + 1 + EXPAND;
+
+        ShapeRenderUtils.renderBoxEdgeLines(minX, minY, minZ, maxX, maxY, maxZ, this.outlineColors[typeIndex], this.lineBuilder);
+
+        if (sides)
+        {
+            ShapeRenderUtils.renderBoxSideQuads(minX, minY, minZ, maxX, maxY, maxZ, this.sideColors[typeIndex], this.quadBuilder);
+        }
+    }
+
+    private void addConnection(long pos1, long pos2, Color4f color)
+    {
+        double x1 = PositionUtils.unpackX(pos1) - this.originX;
+        double y1 = PositionUtils.unpackY(pos1) - this.originY;
+        double z1 = PositionUtils.unpackZ(pos1) - this.originZ;
+        double x2 = PositionUtils.unpackX(pos2) - this.originX;
+        double y2 = PositionUtils.unpackY(pos2) - this.originY;
+        double z2 = PositionUtils.unpackZ(pos2) - this.originZ;
+
+        this.lineBuilder.posColor(x1, y1, z1, color);
+        this.lineBuilder.posColor(x2, y2, z2, color);
+    }
+
+    private void uploadBuffer(VertexBuilder builder, VertexBuffer vertexBuffer)
+    {
+        builder.finishDrawing();
+        builder.reset();
+        vertexBuffer.bufferData(builder.getByteBuffer());
+    }
+
+    public void deleteBuffers()
+    {
+        if (this.lineBuffer != null)
+        {
+            this.lineBuffer.deleteGlBuffers();
+            this.quadBuffer.deleteGlBuffers();
+            this.lineBuffer = null;
+            this.quadBuffer = null;
+            this.lineBuilder = null;
+            this.quadBuilder = null;
+        }
+
+        this.builtVersion = -1;
+    }
+
+    private static int getSettingsHash()
+    {
+        return Objects.hash(Configs.Visuals.VERIFIER_HIGHLIGHT_CONNECTIONS.getBooleanValue(),
+                            Configs.Visuals.VERIFIER_HIGHLIGHT_SIDES.getBooleanValue(),
+                            Configs.Visuals.VERIFIER_HIGHLIGHT_LOD_DISTANCE.getIntegerValue(),
+                            Configs.InfoOverlays.VERIFIER_ERROR_HIGHLIGHT_ALPHA.getDoubleValue());
+    }
+}
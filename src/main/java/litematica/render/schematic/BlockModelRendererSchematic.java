@@ -25,7 +25,6 @@ import malilib.util.position.BlockPos;
 import malilib.util.position.BlockPos.MutBlockPos;
 import malilib.util.position.Direction;
 import litematica.config.Configs;
-import litematica.data.DataManager;
 
 public class BlockModelRendererSchematic extends BlockModelRenderer
 {
@@ -133,7 +132,7 @@ public class BlockModelRendererSchematic extends BlockModelRenderer
 
     private boolean shouldRenderModelSide(IBlockAccess worldIn, IBlockState stateIn, BlockPos posIn, Direction side)
     {
-        return DataManager.getRenderLayerRange().isPositionAtRenderEdgeOnSide(posIn, side) ||
+        return ChunkRenderContainerSchematic.getCompileLayerRange().isPositionAtRenderEdgeOnSide(posIn, side) ||
                (Configs.Visuals.TRANSLUCENT_SCHEMATIC_RENDERING.getBooleanValue() && Configs.Visuals.TRANSLUCENT_INNER_SIDES.getBooleanValue()) ||
                stateIn.shouldSideBeRendered(worldIn, posIn, side.getVanillaDirection());
     }
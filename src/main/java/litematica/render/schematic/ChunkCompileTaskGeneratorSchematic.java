@@ -11,7 +11,9 @@ public class ChunkCompileTaskGeneratorSchematic implements Comparable<ChunkCompi
     private final ReentrantLock lock = new ReentrantLock();
     private final List<Runnable> listFinishRunnables = Lists.<Runnable>newArrayList();
     private final ChunkCompileTaskGeneratorSchematic.Type type;
-    private final double distanceSq;
+    private final long creationTime;
+    private volatile double distanceSq;
+    private volatile boolean visible;
     private VertexBuilderCache vertexBuilderCache;
     private CompiledChunkSchematic compiledChunk;
     private ChunkCompileTaskGeneratorSchematic.Status status = ChunkCompileTaskGeneratorSchematic.Status.PENDING;
@@ -22,6 +24,8 @@ public class ChunkCompileTaskGeneratorSchematic implements Comparable<ChunkCompi
         this.renderChunk = renderChunkIn;
         this.type = typeIn;
         this.distanceSq = distanceSqIn;
+        this.visible = renderChunkIn.isCompileVisible();
+        this.creationTime = System.nanoTime();
     }
 
     public ChunkCompileTaskGeneratorSchematic.Status getStatus()
@@ -129,6 +133,12 @@ public class ChunkCompileTaskGeneratorSchematic implements Comparable<ChunkCompi
 
     public int compareTo(ChunkCompileTaskGeneratorSchematic other)
     {
+        // Sections inside the view frustum get compiled first, then by distance
+        if (this.visible != other.visible)
+        {
+            return this.visible ? -1 : 1;
+        }
+
         return Doubles.compare(this.distanceSq, other.distanceSq);
     }
 
@@ -137,6 +147,26 @@ public class ChunkCompileTaskGeneratorSchematic implements Comparable<ChunkCompi
         return this.distanceSq;
     }
 
+    public boolean isVisible()
+    {
+        return this.visible;
+    }
+
+    public long getCreationTime()
+    {
+        return this.creationTime;
+    }
+
+    /**
+     * Updates the priority of this task from the current values of the render chunk.
+     * This must not be called while this task is inside a priority queue.
+     */
+    public void updatePriority()
+    {
+        this.distanceSq = this.renderChunk.getCompileDistanceSq();
+        this.visible = this.renderChunk.isCompileVisible();
+    }
+
     public static enum Status
     {
         PENDING,
@@ -1,28 +1,143 @@
 package litematica.render.schematic;
 
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
 
 import net.minecraft.client.renderer.ChunkRenderContainer;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.chunk.RenderChunk;
 
+import malilib.config.value.LayerMode;
+import malilib.util.position.LayerRange;
+import litematica.config.Configs;
+import litematica.data.DataManager;
 import litematica.render.schematic.RenderChunkSchematicVbo.OverlayRenderType;
+import litematica.schematic.placement.PlacementMovePreview;
+import litematica.world.SchematicWorldRenderingNotifier;
 
 public abstract class ChunkRenderContainerSchematic extends ChunkRenderContainer
 {
+    /** A range that doesn't restrict anything, used for building the chunks in the clip plane mode */
+    public static final LayerRange FULL_RANGE = new LayerRange(SchematicWorldRenderingNotifier.INSTANCE);
+
     protected List<RenderChunkSchematicVbo> overlayRenderChunks = new ArrayList<>(128);
+    protected final DoubleBuffer clipPlaneBuffer = BufferUtils.createDoubleBuffer(4);
+    protected double viewX;
+    protected double viewY;
+    protected double viewZ;
+    protected boolean clipPlanesEnabled;
+    @Nullable protected PlacementMovePreview movePreview;
 
     @Override
     public void initialize(double viewEntityXIn, double viewEntityYIn, double viewEntityZIn)
     {
         super.initialize(viewEntityXIn, viewEntityYIn, viewEntityZIn);
 
+        this.viewX = viewEntityXIn;
+        this.viewY = viewEntityYIn;
+        this.viewZ = viewEntityZIn;
+        this.movePreview = DataManager.getSchematicPlacementManager().getMovePreview();
         this.overlayRenderChunks.clear();
     }
 
+    @Override
+    public void preRenderChunk(RenderChunk renderChunk)
+    {
+        super.preRenderChunk(renderChunk);
+
+        PlacementMovePreview preview = this.movePreview;
+
+        // The placement being moved is drawn using its existing geometry from the old position
+        if (preview != null && renderChunk instanceof RenderChunkSchematicVbo &&
+            preview.hasRenderOffset((RenderChunkSchematicVbo) renderChunk))
+        {
+            GlStateManager.translate((float) preview.getOffsetX(), (float) preview.getOffsetY(), (float) preview.getOffsetZ());
+        }
+    }
+
     public void addOverlayChunk(RenderChunkSchematicVbo renderChunk)
     {
         this.overlayRenderChunks.add(renderChunk);
     }
 
     public abstract void renderBlockOverlays(OverlayRenderType type);
+
+    /**
+     * @return true if the render layer range is applied at draw time using clip planes,
+     *         instead of when building the chunks
+     */
+    public static boolean useLayerRangeClipPlanes()
+    {
+        return Configs.Visuals.LAYER_RANGE_CLIP_PLANES.getBooleanValue();
+    }
+
+    /**
+     * @return the layer range to use when building the chunks
+     */
+    public static LayerRange getCompileLayerRange()
+    {
+        return useLayerRangeClipPlanes() ? FULL_RANGE : DataManager.getRenderLayerRange();
+    }
+
+    /**
+     * Sets up two clip planes for the min and max boundaries of the render layer range,
+     * if the clip plane mode is enabled. The planes are specified relative to the view position,
+     * as that is the space in which the chunks are drawn before the per-chunk translation.
+     */
+    protected void enableLayerRangeClipPlanes()
+    {
+        LayerRange range = DataManager.getRenderLayerRange();
+
+        if (useLayerRangeClipPlanes() == false || range.getLayerMode() == LayerMode.ALL)
+        {
+            return;
+        }
+
+        double viewPos;
+        double normalX = 0.0;
+        double normalY = 0.0;
+        double normalZ = 0.0;
+
+        switch (range.getAxis())
+        {
+            case X:     viewPos = this.viewX; normalX = 1.0; break;
+            case Z:     viewPos = this.viewZ; normalZ = 1.0; break;
+            case Y:
+            default:    viewPos = this.viewY; normalY = 1.0;
+        }
+
+        double min = (double) range.getMinLayerBoundary() - viewPos;
+        double max = (double) range.getMaxLayerBoundary() + 1.0 - viewPos;
+
+        // Keeps the points where normal * pos - min >= 0
+        this.setClipPlane(GL11.GL_CLIP_PLANE0, normalX, normalY, normalZ, -min);
+        // Keeps the points where -normal * pos + max >= 0
+        this.setClipPlane(GL11.GL_CLIP_PLANE1, -normalX, -normalY, -normalZ, max);
+
+        GL11.glEnable(GL11.GL_CLIP_PLANE0);
+        GL11.glEnable(GL11.GL_CLIP_PLANE1);
+        this.clipPlanesEnabled = true;
+    }
+
+    protected void disableLayerRangeClipPlanes()
+    {
+        if (this.clipPlanesEnabled)
+        {
+            GL11.glDisable(GL11.GL_CLIP_PLANE0);
+            GL11.glDisable(GL11.GL_CLIP_PLANE1);
+            this.clipPlanesEnabled = false;
+        }
+    }
+
+    private void setClipPlane(int plane, double a, double b, double c, double d)
+    {
+        this.clipPlaneBuffer.clear();
+        this.clipPlaneBuffer.put(a).put(b).put(c).put(d);
+        this.clipPlaneBuffer.flip();
+        GL11.glClipPlane(plane, this.clipPlaneBuffer);
+    }
 }
@@ -1,11 +1,16 @@
 package litematica.render.schematic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
 import com.google.common.primitives.Doubles;
@@ -18,6 +23,7 @@ import org.apache.logging.log4j.Logger;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.chunk.CompiledChunk;
 import net.minecraft.client.renderer.chunk.RenderChunk;
+import net.minecraft.client.renderer.culling.ICamera;
 import net.minecraft.client.renderer.vertex.VertexBuffer;
 import net.minecraft.util.BlockRenderLayer;
 
@@ -25,62 +31,229 @@ import malilib.render.buffer.VertexBuilder;
 import malilib.util.MathUtils;
 import malilib.util.game.wrap.RenderWrap;
 import litematica.Litematica;
+import litematica.config.Configs;
 import litematica.render.schematic.RenderChunkSchematicVbo.OverlayRenderType;
 
 public class ChunkRenderDispatcherLitematica
 {
     private static final Logger LOGGER = Litematica.LOGGER;
+    private static final long RENDER_BUILDER_IDLE_TIMEOUT = 30000L;
     private static final ThreadFactory THREAD_FACTORY = (new ThreadFactoryBuilder()).setNameFormat("Litematica Chunk Batcher %d").setDaemon(true).build();
 
     private final List<Thread> listWorkerThreads = Lists.newArrayList();
     private final List<ChunkRenderWorkerLitematica> listThreadedWorkers = new ArrayList<>();
     private final PriorityBlockingQueue<ChunkCompileTaskGeneratorSchematic> queueChunkUpdates = Queues.newPriorityBlockingQueue();
-    private final BlockingQueue<VertexBuilderCache> queueFreeRenderBuilders;
+    // The most recently freed caches are at the head, so the idle ones accumulate at the tail
+    private final LinkedBlockingDeque<VertexBuilderCache> queueFreeRenderBuilders = new LinkedBlockingDeque<>();
+    private final List<VertexBuilderCache> allRenderBuilders = new CopyOnWriteArrayList<>();
+    private final AtomicInteger createdRenderBuilders = new AtomicInteger();
     private final Queue<ChunkRenderDispatcherLitematica.PendingUpload> queueChunkUploads = Queues.newPriorityQueue();
     private final ChunkRenderWorkerLitematica renderWorker;
-    private final int countRenderBuilders;
+    private volatile int maxRenderBuilders;
+    private long lastIdleCheckTime;
+    private final long[] taskLatencies = new long[256];
+    private int taskLatencyIndex;
+    private int taskLatencyCount;
+    private int droppedTasks;
 
     public ChunkRenderDispatcherLitematica()
     {
-        int threadLimitMemory = Math.max(1, (int)((double)Runtime.getRuntime().maxMemory() * 0.15D) / 10485760);
-        int threadLimitCPU = Math.max(1, MathUtils.clamp(Runtime.getRuntime().availableProcessors(), 1, threadLimitMemory / 5));
-        this.countRenderBuilders = MathUtils.clamp(threadLimitCPU * 8, 1, threadLimitMemory);
+        this.renderWorker = new ChunkRenderWorkerLitematica(this, new VertexBuilderCache());
+        this.updateWorkerThreadCount();
+    }
+
+    /**
+     * @return the number of worker threads to use based on the configs,
+     *         or 0 if the chunks should be compiled on the main thread
+     */
+    public static int getConfiguredThreadCount()
+    {
+        if (Configs.Generic.RENDER_MAIN_THREAD_COMPILE_TIME.getIntegerValue() > 0)
+        {
+            return 0;
+        }
+
+        int count = Configs.Generic.RENDER_THREAD_COUNT.getIntegerValue();
+
+        if (count > 0)
+        {
+            return count;
+        }
+
+        int threadLimitMemory = getThreadLimitMemory();
+        int cores = (int) Math.ceil(Runtime.getRuntime().availableProcessors() * Configs.Generic.RENDER_THREAD_CORE_FRACTION.getDoubleValue());
+        int threadLimitCPU = Math.max(1, MathUtils.clamp(cores, 1, threadLimitMemory / 5));
+
+        return threadLimitCPU > 1 ? threadLimitCPU : 0;
+    }
+
+    private static int getThreadLimitMemory()
+    {
+        return Math.max(1, (int)((double)Runtime.getRuntime().maxMemory() * 0.15D) / 10485760);
+    }
+
+    /**
+     * Starts or stops worker threads to match the currently configured thread count.
+     * The already compiled render chunks and the queued tasks are kept.
+     * The stopped workers finish their current task before exiting.
+     */
+    public void updateWorkerThreadCount()
+    {
+        int threadCount = getConfiguredThreadCount();
+        int oldCount = this.listWorkerThreads.size();
+
+        if (threadCount == oldCount && this.maxRenderBuilders > 0)
+        {
+            return;
+        }
 
-        if (threadLimitCPU > 1)
+        this.maxRenderBuilders = MathUtils.clamp(Math.max(threadCount, 1) * 8, 1, getThreadLimitMemory());
+
+        while (this.listWorkerThreads.size() < threadCount)
+        {
+            ChunkRenderWorkerLitematica worker = new ChunkRenderWorkerLitematica(this);
+            Thread thread = THREAD_FACTORY.newThread(worker);
+            thread.start();
+            this.listThreadedWorkers.add(worker);
+            this.listWorkerThreads.add(thread);
+        }
+
+        while (this.listWorkerThreads.size() > threadCount)
         {
-            Litematica.LOGGER.info("Creating {} render threads", threadLimitCPU);
+            int index = this.listWorkerThreads.size() - 1;
+            this.listThreadedWorkers.remove(index).notifyToStop();
+            this.listWorkerThreads.remove(index);
+        }
+
+        Litematica.LOGGER.info("Using {} render threads (was {}), and up to {} total BufferBuilder caches",
+                               threadCount, oldCount, this.maxRenderBuilders + 1);
+    }
 
-            for (int i = 0; i < threadLimitCPU; ++i)
+    public String getDebugInfo()
+    {
+        return this.listWorkerThreads.isEmpty() ? String.format("pC: %03d, single-threaded, %s", this.queueChunkUpdates.size(), this.getDebugInfoBuffers()) : String.format("pC: %03d, pU: %1d, aB: %1d/%1d, %s", this.queueChunkUpdates.size(), this.queueChunkUploads.size(), this.queueFreeRenderBuilders.size(), this.createdRenderBuilders.get(), this.getDebugInfoBuffers());
+    }
+
+    protected String getDebugInfoBuffers()
+    {
+        long allocatedBytes = this.renderWorker.getBufferCache().getAllocatedBytes();
+        long freeBytes = 0;
+
+        for (VertexBuilderCache cache : this.allRenderBuilders)
+        {
+            allocatedBytes += cache.getAllocatedBytes();
+        }
+
+        for (VertexBuilderCache cache : this.queueFreeRenderBuilders)
+        {
+            freeBytes += cache.getAllocatedBytes();
+        }
+
+        // The free caches are the pooled ones, the rest are currently used by compile tasks
+        return String.format("VB: %.1f MB used, %.1f MB pooled",
+                             (double) (allocatedBytes - freeBytes) / 1048576.0, (double) freeBytes / 1048576.0);
+    }
+
+    public String getDebugInfoQueue()
+    {
+        int visible = 0;
+
+        for (ChunkCompileTaskGeneratorSchematic generator : this.queueChunkUpdates)
+        {
+            if (generator.isVisible())
             {
-                ChunkRenderWorkerLitematica worker = new ChunkRenderWorkerLitematica(this);
-                Thread thread = THREAD_FACTORY.newThread(worker);
-                thread.start();
-                this.listThreadedWorkers.add(worker);
-                this.listWorkerThreads.add(thread);
+                ++visible;
             }
         }
 
-        Litematica.LOGGER.info("Using {} total BufferBuilder caches", this.countRenderBuilders + 1);
+        long[] latencies;
 
-        this.queueFreeRenderBuilders = Queues.newArrayBlockingQueue(this.countRenderBuilders);
+        synchronized (this.taskLatencies)
+        {
+            latencies = Arrays.copyOf(this.taskLatencies, this.taskLatencyCount);
+        }
+
+        Arrays.sort(latencies);
 
-        for (int i = 0; i < this.countRenderBuilders; ++i)
+        return String.format("Compile queue: %d (%d visible), dropped: %d, latency p50/p90/p99: %.1f / %.1f / %.1f ms",
+                             this.queueChunkUpdates.size(), visible, this.droppedTasks,
+                             getPercentileMs(latencies, 0.5), getPercentileMs(latencies, 0.9), getPercentileMs(latencies, 0.99));
+    }
+
+    private static double getPercentileMs(long[] sortedValues, double percentile)
+    {
+        if (sortedValues.length == 0)
         {
-            this.queueFreeRenderBuilders.add(new VertexBuilderCache());
+            return 0.0;
         }
 
-        this.renderWorker = new ChunkRenderWorkerLitematica(this, new VertexBuilderCache());
+        int index = Math.min((int) (percentile * sortedValues.length), sortedValues.length - 1);
+        return (double) sortedValues[index] / 1000000.0;
     }
 
-    public String getDebugInfo()
+    /**
+     * Records the time from the creation of the task to the upload of its results
+     */
+    public void onTaskCompleted(ChunkCompileTaskGeneratorSchematic generator)
+    {
+        if (generator.getType() == ChunkCompileTaskGeneratorSchematic.Type.REBUILD_CHUNK)
+        {
+            long latency = System.nanoTime() - generator.getCreationTime();
+
+            synchronized (this.taskLatencies)
+            {
+                this.taskLatencies[this.taskLatencyIndex] = latency;
+                this.taskLatencyIndex = (this.taskLatencyIndex + 1) % this.taskLatencies.length;
+                this.taskLatencyCount = Math.min(this.taskLatencyCount + 1, this.taskLatencies.length);
+            }
+        }
+    }
+
+    /**
+     * Re-sorts the queued compile tasks by the current camera position and frustum,
+     * and cancels the tasks of render chunks that are no longer within the render range.
+     * Cancelled rebuild tasks mark their render chunk as needing an update again,
+     * so they will get re-queued if the chunk comes back into range.
+     */
+    public void updateChunkUpdatePriorities(double viewX, double viewY, double viewZ, ICamera camera,
+                                            int centerChunkX, int centerChunkZ, int renderDistance)
     {
-        return this.listWorkerThreads.isEmpty() ? String.format("pC: %03d, single-threaded", this.queueChunkUpdates.size()) : String.format("pC: %03d, pU: %1d, aB: %1d", this.queueChunkUpdates.size(), this.queueChunkUploads.size(), this.queueFreeRenderBuilders.size());
+        if (this.queueChunkUpdates.isEmpty())
+        {
+            return;
+        }
+
+        List<ChunkCompileTaskGeneratorSchematic> tasks = new ArrayList<>(this.queueChunkUpdates.size());
+        this.queueChunkUpdates.drainTo(tasks);
+
+        for (ChunkCompileTaskGeneratorSchematic generator : tasks)
+        {
+            if (generator.isFinished())
+            {
+                continue;
+            }
+
+            RenderChunkSchematicVbo renderChunk = generator.getRenderChunk();
+
+            if (renderChunk.isWithinRenderRange(centerChunkX, centerChunkZ, renderDistance) == false)
+            {
+                generator.finish();
+                ++this.droppedTasks;
+                continue;
+            }
+
+            renderChunk.updateCompilePriority(viewX, viewY, viewZ, camera);
+            generator.updatePriority();
+            this.queueChunkUpdates.offer(generator);
+        }
     }
 
     public boolean runChunkUploads(long finishTimeNano)
     {
         boolean ranTasks = false;
 
+        this.releaseIdleRenderBuilders();
+
         while (true)
         {
             boolean processedTask = false;
@@ -190,35 +363,107 @@ public class ChunkRenderDispatcherLitematica
         this.clearChunkUpdates();
         List<VertexBuilderCache> list = new ArrayList<>();
 
-        while (list.size() != this.countRenderBuilders)
+        // Wait for all the currently allocated caches to be returned
+        while (list.size() < this.createdRenderBuilders.get())
         {
             this.runChunkUploads(Long.MAX_VALUE);
 
             try
             {
-                list.add(this.allocateRenderBuilder());
+                VertexBuilderCache cache = this.queueFreeRenderBuilders.pollFirst(10, TimeUnit.MILLISECONDS);
+
+                if (cache != null)
+                {
+                    list.add(cache);
+                }
             }
             catch (InterruptedException e)
             {
             }
         }
 
-        this.queueFreeRenderBuilders.addAll(list);
+        for (VertexBuilderCache cache : list)
+        {
+            this.queueFreeRenderBuilders.offerLast(cache);
+        }
     }
 
     public void freeRenderBuilder(VertexBuilderCache builderCache)
     {
-        this.queueFreeRenderBuilders.add(builderCache);
+        builderCache.setLastFreeTime(System.currentTimeMillis());
+        this.queueFreeRenderBuilders.offerFirst(builderCache);
     }
 
+    /**
+     * Returns a free cache from the pool, or creates a new one if the pool is not yet
+     * at its maximum size. Otherwise waits until some other task frees a cache.
+     */
     public VertexBuilderCache allocateRenderBuilder() throws InterruptedException
     {
-        return this.queueFreeRenderBuilders.take();
+        while (true)
+        {
+            VertexBuilderCache cache = this.queueFreeRenderBuilders.pollFirst();
+
+            if (cache != null)
+            {
+                return cache;
+            }
+
+            int count = this.createdRenderBuilders.get();
+
+            if (count < this.maxRenderBuilders)
+            {
+                if (this.createdRenderBuilders.compareAndSet(count, count + 1))
+                {
+                    cache = new VertexBuilderCache();
+                    this.allRenderBuilders.add(cache);
+                    return cache;
+                }
+
+                continue;
+            }
+
+            cache = this.queueFreeRenderBuilders.pollFirst(100, TimeUnit.MILLISECONDS);
+
+            if (cache != null)
+            {
+                return cache;
+            }
+        }
+    }
+
+    /**
+     * Drops the pooled caches that have not been used for a while,
+     * so that their buffers can be garbage collected.
+     */
+    protected void releaseIdleRenderBuilders()
+    {
+        long currentTime = System.currentTimeMillis();
+
+        if (currentTime - this.lastIdleCheckTime < 1000L)
+        {
+            return;
+        }
+
+        this.lastIdleCheckTime = currentTime;
+        VertexBuilderCache cache;
+
+        while ((cache = this.queueFreeRenderBuilders.peekLast()) != null &&
+               currentTime - cache.getLastFreeTime() > RENDER_BUILDER_IDLE_TIMEOUT)
+        {
+            // Another thread may have just taken the same cache
+            if (this.queueFreeRenderBuilders.removeLastOccurrence(cache))
+            {
+                this.allRenderBuilders.remove(cache);
+                this.createdRenderBuilders.decrementAndGet();
+            }
+        }
     }
 
-    public ChunkCompileTaskGeneratorSchematic getNextChunkUpdate() throws InterruptedException
+    @Nullable
+    public ChunkCompileTaskGeneratorSchematic getNextChunkUpdate(long timeoutMs) throws InterruptedException
     {
-        return this.queueChunkUpdates.take();
+        return this.queueChunkUpdates.poll(timeoutMs, TimeUnit.MILLISECONDS);
     }
 
     public boolean updateTransparencyLater(RenderChunkSchematicVbo renderChunk)
@@ -387,12 +632,16 @@ public class ChunkRenderDispatcherLitematica
             }
         }
 
+        this.listThreadedWorkers.clear();
+        this.listWorkerThreads.clear();
         this.queueFreeRenderBuilders.clear();
+        this.allRenderBuilders.clear();
+        this.createdRenderBuilders.set(0);
     }
 
     public boolean hasNoFreeRenderBuilders()
     {
-        return this.queueFreeRenderBuilders.isEmpty();
+        return this.queueFreeRenderBuilders.isEmpty() && this.createdRenderBuilders.get() >= this.maxRenderBuilders;
     }
 
     public static class PendingUpload implements Comparable<ChunkRenderDispatcherLitematica.PendingUpload>
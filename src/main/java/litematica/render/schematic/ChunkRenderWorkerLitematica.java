@@ -23,7 +23,7 @@ public class ChunkRenderWorkerLitematica implements Runnable
 {
     private final ChunkRenderDispatcherLitematica chunkRenderDispatcher;
     @Nullable private final VertexBuilderCache bufferCache;
-    private boolean shouldRun;
+    private volatile boolean shouldRun;
 
     public ChunkRenderWorkerLitematica(ChunkRenderDispatcherLitematica chunkRenderDispatcherIn)
     {
@@ -44,7 +44,13 @@ public class ChunkRenderWorkerLitematica implements Runnable
         {
             try
             {
-                this.processTask(this.chunkRenderDispatcher.getNextChunkUpdate());
+                // Poll with a timeout, so that a stopped worker notices it while the queue is empty
+                ChunkCompileTaskGeneratorSchematic generator = this.chunkRenderDispatcher.getNextChunkUpdate(100L);
+
+                if (generator != null)
+                {
+                    this.processTask(generator);
+                }
             }
             catch (InterruptedException e)
             {
@@ -214,6 +220,13 @@ public class ChunkRenderWorkerLitematica implements Runnable
                     }
 
                     generator.getRenderChunk().setChunkRenderData(compiledChunk);
+
+                    if (generatorType == ChunkCompileTaskGeneratorSchematic.Type.REBUILD_CHUNK)
+                    {
+                        generator.getRenderChunk().onRebuildUploaded();
+                    }
+
+                    ChunkRenderWorkerLitematica.this.chunkRenderDispatcher.onTaskCompleted(generator);
                 }
 
                 @Override
@@ -243,6 +256,12 @@ public class ChunkRenderWorkerLitematica implements Runnable
         }
     }
 
+    @Nullable
+    public VertexBuilderCache getBufferCache()
+    {
+        return this.bufferCache;
+    }
+
     public void notifyToStop()
     {
         this.shouldRun = false;
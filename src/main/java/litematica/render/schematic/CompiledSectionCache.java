@@ -0,0 +1,194 @@
+package litematica.render.schematic;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.util.BlockRenderLayer;
+
+import litematica.config.Configs;
+import litematica.render.schematic.RenderChunkSchematicVbo.OverlayRenderType;
+
+/**
+ * An LRU cache of the compiled vertex data of schematic render sections.
+ * The entries are keyed by a hash of the section contents (relative to the section origin),
+ * so identical sections can be re-uploaded without tessellating them again,
+ * for example after toggling or moving a placement by a multiple of 16 blocks.
+ */
+public class CompiledSectionCache
+{
+    public static final CompiledSectionCache INSTANCE = new CompiledSectionCache();
+
+    private final LinkedHashMap<SectionKey, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public boolean isEnabled()
+    {
+        return getMaxBytes() > 0;
+    }
+
+    @Nullable
+    public synchronized Entry get(SectionKey key)
+    {
+        Entry entry = this.entries.get(key);
+
+        if (entry != null)
+        {
+            ++this.hits;
+        }
+        else
+        {
+            ++this.misses;
+        }
+
+        return entry;
+    }
+
+    public synchronized void put(SectionKey key, Entry entry)
+    {
+        long maxBytes = getMaxBytes();
+
+        if (entry.getSizeBytes() > maxBytes)
+        {
+            return;
+        }
+
+        Entry old = this.entries.put(key, entry);
+
+        if (old != null)
+        {
+            this.usedBytes -= old.getSizeBytes();
+        }
+
+        this.usedBytes += entry.getSizeBytes();
+        this.trimToSize(maxBytes);
+    }
+
+    public synchronized void clear()
+    {
+        this.entries.clear();
+        this.usedBytes = 0;
+    }
+
+    public synchronized String getDebugInfo()
+    {
+        long total = this.hits + this.misses;
+        double hitRate = total > 0 ? (double) this.hits * 100.0 / (double) total : 0.0;
+
+        return String.format("Mesh cache: %d entries, %.1f / %d MB, hits: %d, misses: %d (%.1f%%), evicted: %d",
+                             this.entries.size(), (double) this.usedBytes / 1048576.0, getMaxBytes() / 1048576L,
+                             this.hits, this.misses, hitRate, this.evictions);
+    }
+
+    private void trimToSize(long maxBytes)
+    {
+        Iterator<Map.Entry<SectionKey, Entry>> it = this.entries.entrySet().iterator();
+
+        // The iteration order of an access-ordered LinkedHashMap is from the least recently used entry
+        while (this.usedBytes > maxBytes && it.hasNext())
+        {
+            this.usedBytes -= it.next().getValue().getSizeBytes();
+            it.remove();
+            ++this.evictions;
+        }
+    }
+
+    private static long getMaxBytes()
+    {
+        return (long) Configs.Generic.RENDER_MESH_CACHE_SIZE.getIntegerValue() * 1048576L;
+    }
+
+    public static class Entry
+    {
+        private final BufferBuilder.State[] blockStates = new BufferBuilder.State[BlockRenderLayer.values().length];
+        private final boolean[] layersUsed = new boolean[BlockRenderLayer.values().length];
+        private final BufferBuilder.State[] overlayStates = new BufferBuilder.State[OverlayRenderType.COUNT];
+        // Roughly the overhead of the objects themselves, so that even empty entries count towards the limit
+        private long sizeBytes = 128L;
+
+        @Nullable
+        public BufferBuilder.State getBlockState(BlockRenderLayer layer)
+        {
+            return this.blockStates[layer.ordinal()];
+        }
+
+        public boolean isLayerUsed(BlockRenderLayer layer)
+        {
+            return this.layersUsed[layer.ordinal()];
+        }
+
+        public void setBlockState(BlockRenderLayer layer, BufferBuilder.State state, boolean used)
+        {
+            this.blockStates[layer.ordinal()] = state;
+            this.layersUsed[layer.ordinal()] = used;
+            this.sizeBytes += (long) state.getRawBuffer().length * 4L;
+        }
+
+        @Nullable
+        public BufferBuilder.State getOverlayState(OverlayRenderType type)
+        {
+            return this.overlayStates[type.ordinal()];
+        }
+
+        public void setOverlayState(OverlayRenderType type, BufferBuilder.State state)
+        {
+            this.overlayStates[type.ordinal()] = state;
+            this.sizeBytes += (long) state.getRawBuffer().length * 4L;
+        }
+
+        public long getSizeBytes()
+        {
+            return this.sizeBytes;
+        }
+    }
+
+    /**
+     * Two independently mixed 64-bit hashes of the same input,
+     * to make an accidental collision practically impossible.
+     */
+    public static class SectionKey
+    {
+        private long hash1 = 0x6A09E667F3BCC909L;
+        private long hash2 = 0xBB67AE8584CAA73BL;
+
+        public SectionKey add(long value)
+        {
+            this.hash1 = mix(this.hash1 ^ value) * 0x9E3779B97F4A7C15L;
+            this.hash2 = mix(this.hash2 + value * 0xC2B2AE3D27D4EB4FL) ^ (this.hash2 >>> 29);
+            return this;
+        }
+
+        public SectionKey add(boolean value)
+        {
+            return this.add(value ? 1L : 2L);
+        }
+
+        private static long mix(long value)
+        {
+            value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+            value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return value ^ (value >>> 33);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) { return true; }
+            if (o == null || this.getClass() != o.getClass()) { return false; }
+
+            SectionKey other = (SectionKey) o;
+            return this.hash1 == other.hash1 && this.hash2 == other.hash2;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (int) (this.hash1 ^ (this.hash1 >>> 32));
+        }
+    }
+}
@@ -19,6 +19,7 @@ import net.minecraft.client.renderer.RenderGlobal;
 import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.chunk.CompiledChunk;
 import net.minecraft.client.renderer.chunk.RenderChunk;
+import net.minecraft.client.renderer.culling.ICamera;
 import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
 import net.minecraft.client.renderer.tileentity.TileEntitySpecialRenderer;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
@@ -68,6 +69,9 @@ public class RenderChunkSchematicVbo extends RenderChunk
     private CompiledChunkSchematic schematicChunkRenderData;
 
     private boolean hasOverlay = false;
+    private double compileDistanceSq;
+    private boolean compileVisible = true;
+    private volatile long lastRebuildTime;
 
     private boolean ignoreClientWorldFluids;
     private boolean overlayEnabled;
@@ -123,6 +127,48 @@ public class RenderChunkSchematicVbo extends RenderChunk
         }
     }
 
+    /**
+     * @return the System.nanoTime() value of when the last rebuild of this chunk was uploaded
+     */
+    public long getLastRebuildTime()
+    {
+        return this.lastRebuildTime;
+    }
+
+    public void onRebuildUploaded()
+    {
+        this.lastRebuildTime = System.nanoTime();
+    }
+
+    public double getCompileDistanceSq()
+    {
+        return this.compileDistanceSq;
+    }
+
+    public boolean isCompileVisible()
+    {
+        return this.compileVisible;
+    }
+
+    public void updateCompilePriority(double viewX, double viewY, double viewZ, ICamera camera)
+    {
+        net.minecraft.util.math.BlockPos pos = this.getPosition();
+        double dx = viewX - (double) pos.getX() - 8.0;
+        double dy = viewY - (double) pos.getY() - 8.0;
+        double dz = viewZ - (double) pos.getZ() - 8.0;
+
+        this.compileDistanceSq = dx * dx + dy * dy + dz * dz;
+        this.compileVisible = camera.isBoundingBoxInFrustum(this.boundingBox);
+    }
+
+    public boolean isWithinRenderRange(int centerChunkX, int centerChunkZ, int renderDistance)
+    {
+        net.minecraft.util.math.BlockPos pos = this.getPosition();
+
+        return Math.abs((pos.getX() >> 4) - centerChunkX) <= renderDistance &&
+               Math.abs((pos.getZ() >> 4) - centerChunkZ) <= renderDistance;
+    }
+
     public boolean hasOverlay()
     {
         return this.hasOverlay;
@@ -221,7 +267,7 @@ public class RenderChunkSchematicVbo extends RenderChunk
 
         //if (GuiBase.isCtrlDown()) System.out.printf("rebuildChunk pos: %s gen: %s\n", this.getPosition(), generator);
         Set<TileEntity> tileEntities = new HashSet<>();
-        LayerRange range = DataManager.getRenderLayerRange();
+        LayerRange range = ChunkRenderContainerSchematic.getCompileLayerRange();
 
         this.existingOverlays.clear();
         this.hasOverlay = false;
@@ -234,57 +280,18 @@ public class RenderChunkSchematicVbo extends RenderChunk
             {
                 ++schematicRenderChunksUpdated;
 
-                boolean[] usedLayers = new boolean[BlockRenderLayer.values().length];
                 VertexBuilderCache buffers = generator.getBufferCache();
-                BlockPos.MutBlockPos posMutable = new BlockPos.MutBlockPos();
+                CompiledSectionCache cache = CompiledSectionCache.INSTANCE;
+                CompiledSectionCache.SectionKey cacheKey = cache.isEnabled() ? this.createCacheKey(range) : null;
+                CompiledSectionCache.Entry cached = cacheKey != null ? cache.get(cacheKey) : null;
 
-                for (IntBoundingBox box : this.boxes)
+                if (cached != null)
                 {
-                    box = range.getClampedBox(box);
-
-                    // The rendered layer(s) don't intersect this sub-volume
-                    if (box == null)
-                    {
-                        continue;
-                    }
-
-                    for (int by = box.minY; by <= box.maxY; ++by)
-                    {
-                        for (int bz = box.minZ; bz <= box.maxZ; ++bz)
-                        {
-                            for (int bx = box.minX; bx <= box.maxX; ++bx)
-                            {
-                                posMutable.set(bx, by, bz);
-                                this.renderBlocksAndOverlay(posMutable, tileEntities, usedLayers, data, buffers);
-                            }
-                        }
-                    }
+                    this.restoreFromCache(cached, x, y, z, data, buffers);
                 }
-
-                for (BlockRenderLayer layerTmp : BlockRenderLayer.values())
-                {
-                    if (usedLayers[layerTmp.ordinal()])
-                    {
-                        ((IMixinCompiledChunk) data).invokeSetLayerUsed(layerTmp);
-                    }
-
-                    if (data.isLayerStarted(layerTmp))
-                    {
-                        this.postRenderBlocks(layerTmp, x, y, z, buffers.getWorldRendererByLayer(layerTmp), data);
-                    }
-                }
-
-                if (this.hasOverlay)
+                else
                 {
-                    //if (GuiBase.isCtrlDown()) System.out.printf("postRenderOverlays\n");
-                    for (OverlayRenderType type : this.existingOverlays)
-                    {
-                        if (data.isOverlayTypeStarted(type))
-                        {
-                            data.setOverlayTypeUsed(type);
-                            this.postRenderOverlay(type, x, y, z, buffers.getOverlayBuffer(type), data);
-                        }
-                    }
+                    this.compileSection(x, y, z, range, tileEntities, data, buffers, cacheKey);
                 }
             }
         }
@@ -307,6 +314,187 @@ public class RenderChunkSchematicVbo extends RenderChunk
         }
     }
 
+    protected void compileSection(float x, float y, float z, LayerRange range, Set<TileEntity> tileEntities,
+                                  CompiledChunkSchematic data, VertexBuilderCache buffers,
+                                  @Nullable CompiledSectionCache.SectionKey cacheKey)
+    {
+        boolean[] usedLayers = new boolean[BlockRenderLayer.values().length];
+        BlockPos.MutBlockPos posMutable = new BlockPos.MutBlockPos();
+
+        for (IntBoundingBox box : this.boxes)
+        {
+            box = range.getClampedBox(box);
+
+            // The rendered layer(s) don't intersect this sub-volume
+            if (box == null)
+            {
+                continue;
+            }
+
+            for (int by = box.minY; by <= box.maxY; ++by)
+            {
+                for (int bz = box.minZ; bz <= box.maxZ; ++bz)
+                {
+                    for (int bx = box.minX; bx <= box.maxX; ++bx)
+                    {
+                        posMutable.set(bx, by, bz);
+                        this.renderBlocksAndOverlay(posMutable, tileEntities, usedLayers, data, buffers);
+                    }
+                }
+            }
+        }
+
+        // Sections with block entities reference the world's TileEntity instances, so they can't be cached
+        CompiledSectionCache.Entry cacheEntry = cacheKey != null && tileEntities.isEmpty() &&
+                                                data.getTileEntities().isEmpty() ? new CompiledSectionCache.Entry() : null;
+
+        for (BlockRenderLayer layerTmp : BlockRenderLayer.values())
+        {
+            if (usedLayers[layerTmp.ordinal()])
+            {
+                ((IMixinCompiledChunk) data).invokeSetLayerUsed(layerTmp);
+            }
+
+            if (data.isLayerStarted(layerTmp))
+            {
+                VertexBuilder builder = buffers.getWorldRendererByLayer(layerTmp);
+
+                if (cacheEntry != null)
+                {
+                    cacheEntry.setBlockState(layerTmp, builder.getVertexData(), usedLayers[layerTmp.ordinal()]);
+                }
+
+                this.postRenderBlocks(layerTmp, x, y, z, builder, data);
+            }
+        }
+
+        if (this.hasOverlay)
+        {
+            //if (GuiBase.isCtrlDown()) System.out.printf("postRenderOverlays\n");
+            for (OverlayRenderType type : this.existingOverlays)
+            {
+                if (data.isOverlayTypeStarted(type))
+                {
+                    VertexBuilder builder = buffers.getOverlayBuffer(type);
+
+                    if (cacheEntry != null)
+                    {
+                        cacheEntry.setOverlayState(type, builder.getVertexData());
+                    }
+
+                    data.setOverlayTypeUsed(type);
+                    this.postRenderOverlay(type, x, y, z, builder, data);
+                }
+            }
+        }
+
+        if (cacheEntry != null)
+        {
+            CompiledSectionCache.INSTANCE.put(cacheKey, cacheEntry);
+        }
+    }
+
+    protected void restoreFromCache(CompiledSectionCache.Entry entry, float x, float y, float z,
+                                    CompiledChunkSchematic data, VertexBuilderCache buffers)
+    {
+        for (BlockRenderLayer layer : BlockRenderLayer.values())
+        {
+            BufferBuilder.State state = entry.getBlockState(layer);
+
+            if (state != null)
+            {
+                VertexBuilder builder = buffers.getWorldRendererByLayer(layer);
+
+                data.setLayerStarted(layer);
+                this.preRenderBlocks(builder, this.getPosition());
+                builder.setVertexData(state);
+
+                if (entry.isLayerUsed(layer))
+                {
+                    ((IMixinCompiledChunk) data).invokeSetLayerUsed(layer);
+                }
+
+                this.postRenderBlocks(layer, x, y, z, builder, data);
+            }
+        }
+
+        for (OverlayRenderType type : OverlayRenderType.values())
+        {
+            BufferBuilder.State state = entry.getOverlayState(type);
+
+            if (state != null)
+            {
+                VertexBuilder builder = buffers.getOverlayBuffer(type);
+
+                data.setOverlayTypeStarted(type);
+                this.preRenderOverlay(builder, type);
+                builder.setVertexData(state);
+                data.setOverlayTypeUsed(type);
+                this.postRenderOverlay(type, x, y, z, builder, data);
+            }
+        }
+    }
+
+    /**
+     * Creates the cache key for the current contents of this section.
+     * Everything that affects the tessellation is included: the schematic and client world
+     * block states in and around the section (relative to the section origin, so that identical
+     * content at another location produces the same key), the clamped rendered boxes
+     * and the render settings.
+     */
+    protected CompiledSectionCache.SectionKey createCacheKey(LayerRange range)
+    {
+        CompiledSectionCache.SectionKey key = new CompiledSectionCache.SectionKey();
+        net.minecraft.util.math.BlockPos origin = this.getPosition();
+        final int originX = origin.getX();
+        final int originY = origin.getY();
+        final int originZ = origin.getZ();
+
+        key.add(this.ignoreClientWorldFluids).add(this.overlayEnabled).add(this.overlayLinesEnabled)
+           .add(this.overlayModelLines).add(this.overlayModelSides).add(this.overlayReducedInnerSides)
+           .add(this.overlaySidesEnabled).add(this.overlayTypeExtra).add(this.overlayTypeMissing)
+           .add(this.overlayTypeWrongBlock).add(this.overlayTypeWrongState).add(this.renderColliding)
+           .add(this.renderAsTranslucent).add(Minecraft.isAmbientOcclusionEnabled())
+           .add(this.overlayColorExtra.intValue).add(this.overlayColorMissing.intValue)
+           .add(this.overlayColorWrongBlock.intValue).add(this.overlayColorWrongState.intValue);
+
+        for (IntBoundingBox box : this.boxes)
+        {
+            box = range.getClampedBox(box);
+
+            if (box != null)
+            {
+                key.add(box.minX - originX).add(box.minY - originY).add(box.minZ - originZ)
+                   .add(box.maxX - originX).add(box.maxY - originY).add(box.maxZ - originZ);
+            }
+            else
+            {
+                key.add(-1L);
+            }
+        }
+
+        // The tessellation reads neighbor states up to two blocks outside the rendered blocks (ambient occlusion)
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = new net.minecraft.util.math.BlockPos.MutableBlockPos();
+        final int minY = Math.max(originY - 2, 0);
+        final int maxY = Math.min(originY + 17, 255);
+
+        for (int y = minY; y <= maxY; ++y)
+        {
+            for (int z = originZ - 2; z <= originZ + 17; ++z)
+            {
+                for (int x = originX - 2; x <= originX + 17; ++x)
+                {
+                    pos.setPos(x, y, z);
+                    int idSchematic = Block.getStateId(this.schematicWorldView.getBlockState(pos));
+                    int idClient = Block.getStateId(this.clientWorldView.getBlockState(pos));
+                    key.add(((long) idSchematic << 32) | (long) idClient);
+                }
+            }
+        }
+
+        return key;
+    }
+
     protected void renderBlocksAndOverlay(BlockPos pos, Set<TileEntity> tileEntities, boolean[] usedLayers, CompiledChunkSchematic data, VertexBuilderCache buffers)
     {
         IBlockState stateSchematic = this.schematicWorldView.getBlockState(pos);
@@ -2,12 +2,14 @@ package litematica.render.schematic;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import org.lwjgl.opengl.GL11;
 
 import net.minecraft.block.state.IBlockState;
@@ -56,6 +58,7 @@ import litematica.data.DataManager;
 import litematica.mixin.IMixinBlockRendererDispatcher;
 import litematica.mixin.IMixinViewFrustum;
 import litematica.render.schematic.RenderChunkSchematicVbo.OverlayRenderType;
+import litematica.schematic.placement.PlacementChunkIndex;
 
 public class RenderGlobalSchematic extends RenderGlobal
 {
@@ -67,6 +70,16 @@ public class RenderGlobalSchematic extends RenderGlobal
     private final Set<TileEntity> setTileEntities = new HashSet<>();
     private final List<RenderChunkSchematicVbo> renderInfos = new ArrayList<>(1024);
     private final List<ChunkSectionPos> subChunksWithinRenderRange = new ArrayList<>();
+    private static final Comparator<RenderChunkSchematicVbo> COMPILE_PRIORITY_COMPARATOR = (c1, c2) ->
+    {
+        if (c1.isCompileVisible() != c2.isCompileVisible())
+        {
+            return c1.isCompileVisible() ? -1 : 1;
+        }
+
+        return Double.compare(c1.getCompileDistanceSq(), c2.getCompileDistanceSq());
+    };
+
     private Set<RenderChunkSchematicVbo> chunksToUpdate = new LinkedHashSet<>();
     private WorldClient world;
     private ViewFrustum viewFrustum;
@@ -147,6 +160,24 @@ public class RenderGlobalSchematic extends RenderGlobal
         return String.format("C: %d/%d %sD: %d, L: %d, %s", rcRendered, rcTotal, this.mc.renderChunksMany ? "(s) " : "", this.renderDistanceChunks, 0, this.renderDispatcher == null ? "null" : this.renderDispatcher.getDebugInfo());
     }
 
+    /**
+     * Applies the current render thread configs to the chunk render dispatcher,
+     * without reloading the renderers.
+     */
+    public void updateRenderThreadCount()
+    {
+        if (this.renderDispatcher != null)
+        {
+            this.renderDispatcher.updateWorkerThreadCount();
+        }
+    }
+
+    public String getDebugInfoCompileQueue()
+    {
+        String queueInfo = this.renderDispatcher == null ? "Compile queue: null" : this.renderDispatcher.getDebugInfoQueue();
+        return String.format("%s, pending: %d", queueInfo, this.chunksToUpdate.size());
+    }
+
     @Override
     public String getDebugInfoEntities()
     {
@@ -210,6 +241,7 @@ public class RenderGlobalSchematic extends RenderGlobal
             }
 
             this.renderDispatcher = null;
+            CompiledSectionCache.INSTANCE.clear();
         }
     }
 
@@ -249,6 +281,9 @@ public class RenderGlobalSchematic extends RenderGlobal
 
             this.stopChunkUpdates();
 
+            // The cached vertex data may refer to an outdated texture atlas or render settings
+            CompiledSectionCache.INSTANCE.clear();
+
             synchronized (this.setTileEntities)
             {
                 this.setTileEntities.clear();
@@ -350,17 +385,20 @@ public class RenderGlobalSchematic extends RenderGlobal
                 Math.abs(this.viewPosSubChunk.getX() - this.lastSubChunkUpdatePos.getX()) > 32 ||
                 Math.abs(this.viewPosSubChunk.getZ() - this.lastSubChunkUpdatePos.getZ()) > 32)
             {
-                Set<ChunkSectionPos> set = DataManager.getSchematicPlacementManager().getAllTouchedSubChunks();
+                LongSet set = DataManager.getSchematicPlacementManager().getAllTouchedSubChunks();
                 int maxChunkDist = renderDistance + 2;
 
                 this.subChunksWithinRenderRange.clear();
 
-                for (ChunkSectionPos p : set)
+                for (long packedPos : set)
                 {
-                    if (Math.abs(p.getX() - centerChunkX) <= maxChunkDist &&
-                        Math.abs(p.getZ() - centerChunkZ) <= maxChunkDist)
+                    int cx = PlacementChunkIndex.unpackSectionX(packedPos);
+                    int cz = PlacementChunkIndex.unpackSectionZ(packedPos);
+
+                    if (Math.abs(cx - centerChunkX) <= maxChunkDist &&
+                        Math.abs(cz - centerChunkZ) <= maxChunkDist)
                     {
-                        this.subChunksWithinRenderRange.add(p);
+                        this.subChunksWithinRenderRange.add(new ChunkSectionPos(cx, PlacementChunkIndex.unpackSectionY(packedPos), cz));
                     }
                 }
 
@@ -437,10 +475,42 @@ public class RenderGlobalSchematic extends RenderGlobal
 
         this.chunksToUpdate.addAll(set);
 
+        GameWrap.profilerSwap("prioritize");
+        this.prioritizeChunkUpdates(x, y, z, camera, centerChunkX, centerChunkZ, renderDistance);
+
         GameWrap.profilerPop();
         GameWrap.profilerPop();
     }
 
+    /**
+     * Orders the not yet queued and the already queued chunk updates by the current
+     * frustum visibility and camera distance, and drops the updates of render chunks
+     * that are no longer within the render range. The dropped chunks keep their
+     * dirty status, so they will get updated once they come back into range.
+     */
+    protected void prioritizeChunkUpdates(double x, double y, double z, ICamera camera,
+                                          int centerChunkX, int centerChunkZ, int renderDistance)
+    {
+        if (this.chunksToUpdate.isEmpty() == false)
+        {
+            List<RenderChunkSchematicVbo> list = new ArrayList<>(this.chunksToUpdate.size());
+
+            for (RenderChunkSchematicVbo renderChunk : this.chunksToUpdate)
+            {
+                if (renderChunk.isWithinRenderRange(centerChunkX, centerChunkZ, renderDistance))
+                {
+                    renderChunk.updateCompilePriority(x, y, z, camera);
+                    list.add(renderChunk);
+                }
+            }
+
+            list.sort(COMPILE_PRIORITY_COMPARATOR);
+            this.chunksToUpdate = new LinkedHashSet<>(list);
+        }
+
+        this.renderDispatcher.updateChunkUpdatePriorities(x, y, z, camera, centerChunkX, centerChunkZ, renderDistance);
+    }
+
     @Override
     public void updateChunks(long finishTimeNano)
     {
@@ -834,7 +904,12 @@ public class RenderGlobalSchematic extends RenderGlobal
                 {
                     for (TileEntity te : tiles)
                     {
-                        TileEntityRendererDispatcher.instance.render(te, partialTicks, -1);
+                        // The clip plane layer mode compiles the whole chunks, so the block entities
+                        // need to be limited to the layer range here
+                        if (isTileEntityWithinRange(te, layerRange))
+                        {
+                            TileEntityRendererDispatcher.instance.render(te, partialTicks, -1);
+                        }
                     }
                 }
             }
@@ -843,7 +918,10 @@ public class RenderGlobalSchematic extends RenderGlobal
             {
                 for (TileEntity te : this.setTileEntities)
                 {
-                    TileEntityRendererDispatcher.instance.render(te, partialTicks, -1);
+                    if (isTileEntityWithinRange(te, layerRange))
+                    {
+                        TileEntityRendererDispatcher.instance.render(te, partialTicks, -1);
+                    }
                 }
             }
 
@@ -852,6 +930,12 @@ public class RenderGlobalSchematic extends RenderGlobal
         }
     }
 
+    private static boolean isTileEntityWithinRange(TileEntity te, LayerRange layerRange)
+    {
+        net.minecraft.util.math.BlockPos pos = te.getPos();
+        return layerRange.isPositionWithinRange(pos.getX(), pos.getY(), pos.getZ());
+    }
+
     private boolean isOutlineActive(Entity entityIn, Entity viewer, ICamera camera)
     {
         boolean sleeping = viewer instanceof EntityLivingBase && ((EntityLivingBase)viewer).isPlayerSleeping();
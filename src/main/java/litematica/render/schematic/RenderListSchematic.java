@@ -16,6 +16,7 @@ public class RenderListSchematic extends ChunkRenderContainerSchematic
         if (this.initialized)
         {
             RenderContext ctx = RenderContext.DUMMY;
+            this.enableLayerRangeClipPlanes();
 
             for (RenderChunk renderChunk : this.renderChunks)
             {
@@ -26,6 +27,8 @@ public class RenderListSchematic extends ChunkRenderContainerSchematic
                 RenderWrap.popMatrix(ctx);
             }
 
+            this.disableLayerRangeClipPlanes();
+
             RenderWrap.resetColor();
             this.renderChunks.clear();
         }
@@ -37,6 +40,7 @@ public class RenderListSchematic extends ChunkRenderContainerSchematic
         if (this.initialized)
         {
             RenderContext ctx = RenderContext.DUMMY;
+            this.enableLayerRangeClipPlanes();
 
             for (RenderChunkSchematicVbo renderChunk : this.overlayRenderChunks)
             {
@@ -48,6 +52,8 @@ public class RenderListSchematic extends ChunkRenderContainerSchematic
                 RenderWrap.popMatrix(ctx);
             }
 
+            this.disableLayerRangeClipPlanes();
+
             RenderWrap.resetColor();
             this.overlayRenderChunks.clear();
         }
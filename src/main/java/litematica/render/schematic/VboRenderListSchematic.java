@@ -17,11 +17,14 @@ public class VboRenderListSchematic extends ChunkRenderContainerSchematic
     {
         if (this.initialized)
         {
+            this.enableLayerRangeClipPlanes();
+
             for (RenderChunk renderChunk : this.renderChunks)
             {
                 this.renderBlocks(renderChunk.getVertexBufferByLayer(layer.ordinal()), renderChunk, RenderContext.DUMMY);
             }
 
+            this.disableLayerRangeClipPlanes();
             RenderWrap.bindBuffer(RenderWrap.GL_ARRAY_BUFFER, 0);
             RenderWrap.resetColor();
 
@@ -34,11 +37,14 @@ public class VboRenderListSchematic extends ChunkRenderContainerSchematic
     {
         if (this.initialized)
         {
+            this.enableLayerRangeClipPlanes();
+
             for (RenderChunkSchematicVbo renderChunk : this.overlayRenderChunks)
             {
                 this.renderOverlay(renderChunk.getOverlayVertexBuffer(type), renderChunk, type.getGlMode(), RenderContext.DUMMY);
             }
 
+            this.disableLayerRangeClipPlanes();
             RenderWrap.bindBuffer(RenderWrap.GL_ARRAY_BUFFER, 0);
             RenderWrap.resetColor();
 
@@ -1,5 +1,6 @@
 package litematica.render.schematic;
 
+import java.nio.ByteBuffer;
 import org.lwjgl.opengl.GL11;
 
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
@@ -9,37 +10,89 @@ import malilib.render.buffer.VanillaWrappingVertexBuilder;
 import malilib.render.buffer.VertexBuilder;
 import litematica.render.schematic.RenderChunkSchematicVbo.OverlayRenderType;
 
+/**
+ * A set of vertex builders for compiling one render chunk.
+ * The builders are created lazily on first use, using a per-layer initial size class.
+ * The builders grow on demand, and keep their grown size while the cache is pooled.
+ */
 public class VertexBuilderCache
 {
+    private static final int[] BLOCK_LAYER_INITIAL_SIZES = new int[] { 262144, 65536, 65536, 131072 };
+    private static final int OVERLAY_INITIAL_SIZE = 65536;
+
     private final VertexBuilder[] worldRenderers;
     private final VertexBuilder[] overlayBufferBuilders;
+    private long lastFreeTime;
 
     public VertexBuilderCache()
     {
         this.worldRenderers = new VertexBuilder[BlockRenderLayer.values().length];
-        this.overlayBufferBuilders = new VertexBuilder[2];
-
-        this.worldRenderers[BlockRenderLayer.SOLID.ordinal()] = VanillaWrappingVertexBuilder.create(2097152, GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
-        this.worldRenderers[BlockRenderLayer.CUTOUT.ordinal()] = VanillaWrappingVertexBuilder.create(131072, GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
-        this.worldRenderers[BlockRenderLayer.CUTOUT_MIPPED.ordinal()] = VanillaWrappingVertexBuilder.create(131072, GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
-        this.worldRenderers[BlockRenderLayer.TRANSLUCENT.ordinal()] = VanillaWrappingVertexBuilder.create(262144, GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
-
-        this.overlayBufferBuilders[0] = VanillaWrappingVertexBuilder.create(262144, GL11.GL_LINES, DefaultVertexFormats.POSITION_COLOR);
-        this.overlayBufferBuilders[1] = VanillaWrappingVertexBuilder.create(262144, GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+        this.overlayBufferBuilders = new VertexBuilder[OverlayRenderType.COUNT];
     }
 
     public VertexBuilder getWorldRendererByLayer(BlockRenderLayer layer)
     {
-        return this.worldRenderers[layer.ordinal()];
+        return this.getWorldRendererByLayerId(layer.ordinal());
     }
 
     public VertexBuilder getWorldRendererByLayerId(int id)
     {
-        return this.worldRenderers[id];
+        VertexBuilder builder = this.worldRenderers[id];
+
+        if (builder == null)
+        {
+            int size = id < BLOCK_LAYER_INITIAL_SIZES.length ? BLOCK_LAYER_INITIAL_SIZES[id] : 131072;
+            builder = VanillaWrappingVertexBuilder.create(size, GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+            this.worldRenderers[id] = builder;
+        }
+
+        return builder;
     }
 
     public VertexBuilder getOverlayBuffer(OverlayRenderType type)
     {
-        return this.overlayBufferBuilders[type.ordinal()];
+        VertexBuilder builder = this.overlayBufferBuilders[type.ordinal()];
+
+        if (builder == null)
+        {
+            builder = VanillaWrappingVertexBuilder.create(OVERLAY_INITIAL_SIZE, type.getGlMode(), DefaultVertexFormats.POSITION_COLOR);
+            this.overlayBufferBuilders[type.ordinal()] = builder;
+        }
+
+        return builder;
+    }
+
+    /**
+     * @return the number of bytes currently allocated by the builders of this cache
+     */
+    public long getAllocatedBytes()
+    {
+        return getAllocatedBytes(this.worldRenderers) + getAllocatedBytes(this.overlayBufferBuilders);
+    }
+
+    public long getLastFreeTime()
+    {
+        return this.lastFreeTime;
+    }
+
+    public void setLastFreeTime(long lastFreeTime)
+    {
+        this.lastFreeTime = lastFreeTime;
+    }
+
+    private static long getAllocatedBytes(VertexBuilder[] builders)
+    {
+        long total = 0;
+
+        for (VertexBuilder builder : builders)
+        {
+            if (builder != null)
+            {
+                ByteBuffer buffer = builder.getByteBuffer();
+                total += buffer != null ? buffer.capacity() : 0;
+            }
+        }
+
+        return total;
     }
 }
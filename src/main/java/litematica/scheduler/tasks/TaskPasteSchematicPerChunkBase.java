@@ -2,12 +2,17 @@ package litematica.scheduler.tasks;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import javax.annotation.Nullable;
 import com.google.common.collect.ArrayListMultimap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.LongSet;
 
 import net.minecraft.client.multiplayer.WorldClient;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
 import malilib.overlay.message.MessageDispatcher;
 import malilib.util.StringUtils;
@@ -22,6 +27,8 @@ import litematica.data.DataManager;
 import litematica.render.infohud.IInfoHudRenderer;
 import litematica.render.infohud.InfoHud;
 import litematica.schematic.placement.SchematicPlacement;
+import litematica.schematic.util.ChunkPasteDiff;
+import litematica.schematic.util.PasteFinalizer;
 import litematica.util.PositionUtils.ChunkPosComparator;
 import litematica.util.value.ReplaceBehavior;
 import litematica.world.SchematicWorldHandler;
@@ -29,6 +36,11 @@ import litematica.world.WorldSchematic;
 
 public abstract class TaskPasteSchematicPerChunkBase extends TaskBase implements IInfoHudRenderer
 {
+    // The maximum time to spend on the deferred updates per tick
+    private static final long FINALIZE_TIME_LIMIT = 40000000L;
+    // The maximum time to spend comparing the chunks for the diff-first paste per tick
+    private static final long COMPARE_TIME_LIMIT = 20000000L;
+
     protected final ArrayListMultimap<ChunkPos, IntBoundingBox> boxesInChunks = ArrayListMultimap.create();
     protected final List<ChunkPos> chunks = new ArrayList<>();
     private final HashSet<ChunkPos> individualChunks = new HashSet<>();
@@ -37,6 +49,12 @@ public abstract class TaskPasteSchematicPerChunkBase extends TaskBase implements
     protected final ChunkPosComparator comparator;
     protected final boolean changedBlockOnly;
     protected final ReplaceBehavior replace;
+    @Nullable protected PasteFinalizer finalizer;
+    // The differing positions per chunk for the diff-first paste, packed as y << 8 | z << 4 | x
+    protected final HashMap<ChunkPos, IntArrayList> diffPositions = new HashMap<>();
+    private final List<ChunkPos> chunksToCompare = new ArrayList<>();
+    protected final boolean diffFirst;
+    protected long blocksToChange;
 
     public TaskPasteSchematicPerChunkBase(Collection<SchematicPlacement> placements, LayerRange range, boolean changedBlocksOnly)
     {
@@ -46,6 +64,7 @@ public abstract class TaskPasteSchematicPerChunkBase extends TaskBase implements
         this.comparator = new ChunkPosComparator();
         this.comparator.setClosestFirst(true);
         this.replace = Configs.Generic.PASTE_REPLACE_BEHAVIOR.getValue();
+        this.diffFirst = changedBlocksOnly && Configs.Generic.PASTE_DIFF_FIRST.getBooleanValue();
         this.name = StringUtils.translate("litematica.gui.label.task_name.paste");
     }
 
@@ -60,6 +79,11 @@ public abstract class TaskPasteSchematicPerChunkBase extends TaskBase implements
         this.chunks.addAll(this.individualChunks);
         this.sortChunkList();
 
+        if (this.diffFirst)
+        {
+            this.chunksToCompare.addAll(this.chunks);
+        }
+
         InfoHud.getInstance().addInfoHudRenderer(this, true);
         this.updateInfoHudLines();
     }
@@ -105,10 +129,118 @@ public abstract class TaskPasteSchematicPerChunkBase extends TaskBase implements
     {
     }
 
+    /**
+     * Enables the deferred neighbor updates and lighting after the paste, if enabled in the configs.
+     * This is only meant for the direct pastes in single player.
+     */
+    protected void initFinalizer()
+    {
+        if (Configs.Generic.PASTE_DEFERRED_UPDATES.getBooleanValue())
+        {
+            this.finalizer = new PasteFinalizer();
+        }
+    }
+
+    protected boolean isComparing()
+    {
+        return this.chunksToCompare.isEmpty() == false;
+    }
+
+    /**
+     * Compares the schematic world to the target world in the chunks that are ready,
+     * until the time limit. The chunks without any differences are removed from the chunk list.
+     * @return true once all the chunks have been compared
+     */
+    protected boolean compareChunks(WorldSchematic worldSchematic, WorldClient worldClient, World targetWorld)
+    {
+        if (this.chunksToCompare.isEmpty())
+        {
+            return true;
+        }
+
+        ChunkPasteDiff diff = new ChunkPasteDiff(this.replace);
+        long endTime = System.nanoTime() + COMPARE_TIME_LIMIT;
+        boolean modified = false;
+
+        for (int i = 0; i < this.chunksToCompare.size() && System.nanoTime() < endTime; ++i)
+        {
+            ChunkPos pos = this.chunksToCompare.get(i);
+
+            if (this.canProcessChunk(pos, worldSchematic, worldClient) == false)
+            {
+                continue;
+            }
+
+            Chunk chunkSchematic = worldSchematic.getChunkProvider().getLoadedChunk(pos.x, pos.z);
+            Chunk chunkTarget = targetWorld.getChunk(pos.x, pos.z);
+            IntArrayList positions = new IntArrayList();
+
+            if (chunkSchematic != null && diff.collectDifferences(chunkSchematic, chunkTarget, this.boxesInChunks.get(pos), positions) > 0)
+            {
+                this.diffPositions.put(pos, positions);
+                this.blocksToChange += positions.size();
+            }
+            else
+            {
+                this.chunks.remove(pos);
+            }
+
+            this.chunksToCompare.remove(i);
+            --i;
+            modified = true;
+        }
+
+        if (this.chunksToCompare.isEmpty())
+        {
+            MessageDispatcher.generic().customHotbar().translate("litematica.message.schematic_paste.blocks_to_change", this.blocksToChange);
+            this.updateInfoHudLines();
+            return true;
+        }
+
+        if (modified)
+        {
+            this.updateInfoHudLines();
+        }
+
+        return false;
+    }
+
+    protected boolean isFinalizing()
+    {
+        return this.chunks.isEmpty() && this.finalizer != null && this.finalizer.isFinished() == false;
+    }
+
+    /**
+     * Runs the deferred neighbor updates and lighting checks, once all the chunks have been pasted
+     * @return true when everything is done
+     */
+    protected boolean runFinalizer(World world)
+    {
+        if (this.finalizer == null)
+        {
+            return true;
+        }
+
+        if (this.finalizer.processSections(world, System.nanoTime() + FINALIZE_TIME_LIMIT))
+        {
+            if (this.finalizer.getSkippedSectionCount() > 0)
+            {
+                MessageDispatcher.warning("litematica.message.warn.schematic_paste.skipped_sections",
+                                          this.finalizer.getSkippedSectionCount());
+            }
+
+            return true;
+        }
+
+        this.updateInfoHudLines();
+
+        return false;
+    }
+
     @Override
     public boolean canExecute()
     {
-        return this.chunks.isEmpty() == false &&
+        return (this.chunks.isEmpty() == false || this.isFinalizing()) &&
                this.mc.world != null &&
                this.mc.player != null &&
                SchematicWorldHandler.getSchematicWorld() != null;
@@ -143,6 +275,23 @@ public abstract class TaskPasteSchematicPerChunkBase extends TaskBase implements
     protected void updateInfoHudLines()
     {
         List<String> hudLines = new ArrayList<>();
+
+        if (this.isComparing())
+        {
+            hudLines.add(StringUtils.translate("litematica.title.hud.schematic_paste.comparing",
+                                               this.chunksToCompare.size(), this.blocksToChange));
+            this.infoHudLines = hudLines;
+            return;
+        }
+
+        if (this.isFinalizing())
+        {
+            hudLines.add(StringUtils.translate("litematica.title.hud.schematic_paste.finalizing",
+                                               this.finalizer.getProcessedSectionCount(), this.finalizer.getSectionCount()));
+            this.infoHudLines = hudLines;
+            return;
+        }
+
         int maxLines = Math.min(this.chunks.size(), Configs.InfoOverlays.INFO_HUD_MAX_LINES.getIntegerValue());
 
         hudLines.add(StringUtils.translate("litematica.title.hud.missing_chunks.schematic_paste", this.chunks.size()));
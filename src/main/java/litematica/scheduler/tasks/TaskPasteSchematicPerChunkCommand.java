@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
@@ -41,6 +42,7 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
     private int currentY;
     private int currentZ;
     private int currentIndex;
+    private int diffIndex;
     private int boxVolume;
     private boolean boxInProgress;
 
@@ -60,6 +62,11 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         int processed = 0;
         int chunkAttempts = 0;
 
+        if (this.diffFirst)
+        {
+            return this.executeDiffPaste(worldSchematic, worldClient);
+        }
+
         if (this.sentCommandsTotal == 0)
         {
             GameWrap.sendChatMessage("/gamerule sendCommandFeedback false");
@@ -132,6 +139,86 @@ public class TaskPasteSchematicPerChunkCommand extends TaskPasteSchematicPerChun
         return false;
     }
 
+    /**
+     * Sends the commands only for the positions that differ between the schematic world
+     * and the client world, once all the chunks have been compared.
+     * The entities are not summoned in this mode, as they would just get duplicated on every re-paste.
+     */
+    private boolean executeDiffPaste(WorldSchematic worldSchematic, WorldClient worldClient)
+    {
+        if (this.compareChunks(worldSchematic, worldClient, worldClient) == false)
+        {
+            return false;
+        }
+
+        if (this.sentCommandsTotal == 0 && this.chunks.isEmpty() == false)
+        {
+            GameWrap.sendChatMessage("/gamerule sendCommandFeedback false");
+        }
+
+        int processed = 0;
+
+        while (this.chunks.isEmpty() == false)
+        {
+            // Only re-sort between the chunks, so that the chunk in progress stays first
+            if (this.diffIndex == 0)
+            {
+                this.sortChunkList();
+            }
+
+            ChunkPos pos = this.chunks.get(0);
+            IntArrayList positions = this.diffPositions.get(pos);
+
+            if (this.canProcessChunk(pos, worldSchematic, worldClient) == false)
+            {
+                break;
+            }
+
+            if (positions != null)
+            {
+                Chunk chunkSchematic = worldSchematic.getChunkProvider().getLoadedChunk(pos.x, pos.z);
+                final int baseX = pos.x << 4;
+                final int baseZ = pos.z << 4;
+
+                while (this.diffIndex < positions.size())
+                {
+                    if (this.sentCommandsThisTick >= this.maxCommandsPerTick)
+                    {
+                        this.updateInfoHudLines();
+                        return false;
+                    }
+
+                    int packed = positions.getInt(this.diffIndex++);
+                    int x = baseX + (packed & 0xF);
+                    int y = packed >> 8;
+                    int z = baseZ + ((packed >> 4) & 0xF);
+
+                    this.sendSetBlockCommand(x, y, z, chunkSchematic.getBlockState(x, y, z));
+                    ++this.sentCommandsThisTick;
+                }
+            }
+
+            this.diffPositions.remove(pos);
+            this.boxesInChunks.removeAll(pos);
+            this.chunks.remove(0);
+            this.diffIndex = 0;
+            ++processed;
+        }
+
+        if (this.chunks.isEmpty())
+        {
+            this.finished = true;
+            return true;
+        }
+
+        if (processed > 0)
+        {
+            this.updateInfoHudLines();
+        }
+
+        return false;
+    }
+
     @Override
     protected void onChunkListSorted()
     {
@@ -3,9 +3,11 @@ package litematica.scheduler.tasks;
 import java.util.ArrayList;
 import java.util.Collection;
 import com.google.common.collect.ArrayListMultimap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import net.minecraft.client.multiplayer.WorldClient;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
 import malilib.overlay.message.MessageDispatcher;
 import malilib.util.game.wrap.WorldWrap;
@@ -15,12 +17,16 @@ import malilib.util.position.LayerRange;
 import litematica.config.Configs;
 import litematica.schematic.placement.SchematicPlacement;
 import litematica.schematic.util.SchematicPlacingUtils;
+import litematica.util.WorldUtils;
 import litematica.util.value.ReplaceBehavior;
 import litematica.world.SchematicWorldHandler;
 import litematica.world.WorldSchematic;
 
 public class TaskPasteSchematicPerChunkDirect extends TaskPasteSchematicPerChunkBase
 {
+    // The maximum time to spend placing the differing blocks for the diff-first paste per tick
+    private static final long DIFF_PASTE_TIME_LIMIT = 40000000L;
+
     private final ArrayListMultimap<ChunkPos, SchematicPlacement> placementsPerChunk = ArrayListMultimap.create();
     private final ReplaceBehavior replace;
 
@@ -29,6 +35,7 @@ public class TaskPasteSchematicPerChunkDirect extends TaskPasteSchematicPerChunk
         super(placements, range, changedBlocksOnly);
 
         this.replace = Configs.Generic.PASTE_REPLACE_BEHAVIOR.getValue();
+        this.initFinalizer();
     }
 
     @Override
@@ -59,38 +66,158 @@ public class TaskPasteSchematicPerChunkDirect extends TaskPasteSchematicPerChunk
         World world = WorldWrap.getBestWorld();
         int processed = 0;
 
+        if (this.diffFirst)
+        {
+            return this.executeDiffPaste(worldSchematic, worldClient, world);
+        }
+
+        this.sortChunkList();
+
+        try
+        {
+            WorldUtils.setPasteFinalizer(world, this.finalizer);
+
+            for (int chunkIndex = 0; chunkIndex < this.chunks.size(); ++chunkIndex)
+            {
+                ChunkPos pos = this.chunks.get(chunkIndex);
+
+                if (this.canProcessChunk(pos, worldSchematic, worldClient))
+                {
+                    // New list to avoid CME
+                    ArrayList<SchematicPlacement> placements = new ArrayList<>(this.placementsPerChunk.get(pos));
+
+                    for (SchematicPlacement placement : placements)
+                    {
+                        if (placement.isSchematicLoaded() == false ||
+                            placement.isValid() == false ||
+                            SchematicPlacingUtils.placeToWorldWithinChunk(placement, pos, world, this.replace, false))
+                        {
+                            this.placementsPerChunk.remove(pos, placement);
+                            ++processed;
+                        }
+                    }
+
+                    if (this.placementsPerChunk.containsKey(pos) == false)
+                    {
+                        this.chunks.remove(chunkIndex);
+                        --chunkIndex;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            WorldUtils.setPasteFinalizer(world, null);
+        }
+
+        if (this.chunks.isEmpty())
+        {
+            if (this.runFinalizer(world) == false)
+            {
+                return false;
+            }
+
+            this.finished = true;
+            return true;
+        }
+
+        if (processed > 0)
+        {
+            this.updateInfoHudLines();
+        }
+
+        return false;
+    }
+
+    /**
+     * Pastes only the positions that differ between the schematic world and the world,
+     * once all the chunks have been compared. The entities are not pasted in this mode,
+     * as they can't be compared, and would just get duplicated on every re-paste.
+     * The blocks are placed until the per-tick time limit runs out, and a partially
+     * placed chunk keeps its remaining positions for the next tick.
+     */
+    private boolean executeDiffPaste(WorldSchematic worldSchematic, WorldClient worldClient, World world)
+    {
+        if (this.compareChunks(worldSchematic, worldClient, world) == false)
+        {
+            return false;
+        }
+
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = new net.minecraft.util.math.BlockPos.MutableBlockPos();
+        long endTime = System.nanoTime() + DIFF_PASTE_TIME_LIMIT;
+        boolean outOfTime = false;
+        int processed = 0;
+
         this.sortChunkList();
 
-        for (int chunkIndex = 0; chunkIndex < this.chunks.size(); ++chunkIndex)
+        try
         {
-            ChunkPos pos = this.chunks.get(chunkIndex);
+            WorldUtils.setShouldPreventBlockUpdates(world, true);
+            WorldUtils.setPasteFinalizer(world, this.finalizer);
 
-            if (this.canProcessChunk(pos, worldSchematic, worldClient))
+            for (int chunkIndex = 0; chunkIndex < this.chunks.size(); ++chunkIndex)
             {
-                // New list to avoid CME
-                ArrayList<SchematicPlacement> placements = new ArrayList<>(this.placementsPerChunk.get(pos));
+                ChunkPos chunkPos = this.chunks.get(chunkIndex);
 
-                for (SchematicPlacement placement : placements)
+                if (this.canProcessChunk(chunkPos, worldSchematic, worldClient) == false)
                 {
-                    if (placement.isSchematicLoaded() == false ||
-                        placement.isValid() == false ||
-                        SchematicPlacingUtils.placeToWorldWithinChunk(placement, pos, world, this.replace, false))
+                    continue;
+                }
+
+                Chunk chunkSchematic = worldSchematic.getChunkProvider().getLoadedChunk(chunkPos.x, chunkPos.z);
+                IntArrayList positions = this.diffPositions.remove(chunkPos);
+
+                if (chunkSchematic != null && positions != null)
+                {
+                    final int baseX = chunkPos.x << 4;
+                    final int baseZ = chunkPos.z << 4;
+
+                    for (int i = 0; i < positions.size(); ++i)
                     {
-                        this.placementsPerChunk.remove(pos, placement);
-                        ++processed;
+                        // Only check the time every 256 blocks
+                        if ((i & 0xFF) == 0xFF && System.nanoTime() >= endTime)
+                        {
+                            positions.removeElements(0, i);
+                            this.diffPositions.put(chunkPos, positions);
+                            outOfTime = true;
+                            break;
+                        }
+
+                        int packed = positions.getInt(i);
+                        pos.setPos(baseX + (packed & 0xF), packed >> 8, baseZ + ((packed >> 4) & 0xF));
+                        SchematicPlacingUtils.placeBlockFromSchematicChunk(world, chunkSchematic, pos);
                     }
                 }
 
-                if (this.placementsPerChunk.containsKey(pos) == false)
+                ++processed;
+
+                if (outOfTime)
                 {
-                    this.chunks.remove(chunkIndex);
-                    --chunkIndex;
+                    break;
+                }
+
+                this.chunks.remove(chunkIndex);
+                --chunkIndex;
+
+                if (System.nanoTime() >= endTime)
+                {
+                    break;
                 }
             }
         }
+        finally
+        {
+            WorldUtils.setShouldPreventBlockUpdates(world, false);
+            WorldUtils.setPasteFinalizer(world, null);
+        }
 
         if (this.chunks.isEmpty())
         {
+            if (this.runFinalizer(world) == false)
+            {
+                return false;
+            }
+
             this.finished = true;
             return true;
         }
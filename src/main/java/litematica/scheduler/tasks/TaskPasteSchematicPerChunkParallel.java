@@ -0,0 +1,229 @@
+package litematica.scheduler.tasks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nullable;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import net.minecraft.client.multiplayer.WorldClient;
+import net.minecraft.world.World;
+
+import malilib.overlay.message.MessageDispatcher;
+import malilib.util.game.wrap.GameWrap;
+import malilib.util.game.wrap.WorldWrap;
+import malilib.util.position.ChunkPos;
+import malilib.util.position.LayerRange;
+import litematica.Litematica;
+import litematica.config.Configs;
+import litematica.schematic.placement.SchematicPlacement;
+import litematica.schematic.util.PreparedChunkPaste;
+import litematica.world.SchematicWorldHandler;
+import litematica.world.WorldSchematic;
+
+/**
+ * A direct paste for single player, where the blocks of each chunk are prepared on worker threads,
+ * and the prepared chunks are then written directly to the chunk section storage on the server thread.
+ */
+public class TaskPasteSchematicPerChunkParallel extends TaskPasteSchematicPerChunkBase
+{
+    private static final ThreadFactory THREAD_FACTORY = (new ThreadFactoryBuilder()).setNameFormat("Litematica Paste Worker %d").setDaemon(true).build();
+    // The maximum time to spend committing the prepared chunks per tick
+    private static final long COMMIT_TIME_LIMIT = 40000000L;
+
+    private final ArrayListMultimap<ChunkPos, SchematicPlacement> placementsPerChunk = ArrayListMultimap.create();
+    private final ConcurrentLinkedQueue<PreparedChunkPaste> preparedChunks = new ConcurrentLinkedQueue<>();
+    private final Set<ChunkPos> chunksInProgress = new HashSet<>();
+    private final int threadCount;
+    @Nullable private ExecutorService executor;
+
+    public TaskPasteSchematicPerChunkParallel(Collection<SchematicPlacement> placements, LayerRange range, boolean changedBlocksOnly)
+    {
+        super(placements, range, changedBlocksOnly);
+
+        this.threadCount = Math.max(Configs.Generic.PASTE_PARALLEL_THREADS.getIntegerValue(), 1);
+        this.initFinalizer();
+    }
+
+    @Override
+    public void init()
+    {
+        super.init();
+
+        this.executor = Executors.newFixedThreadPool(this.threadCount, THREAD_FACTORY);
+    }
+
+    @Override
+    protected void onChunkAddedForHandling(ChunkPos pos, SchematicPlacement placement)
+    {
+        super.onChunkAddedForHandling(pos, placement);
+
+        this.placementsPerChunk.put(pos, placement);
+    }
+
+    @Override
+    public boolean canExecute()
+    {
+        if (super.canExecute() == false || GameWrap.isSinglePlayer() == false)
+        {
+            return false;
+        }
+
+        World world = WorldWrap.getBestWorld();
+        return world != null && world.isRemote == false;
+    }
+
+    @Override
+    public boolean execute()
+    {
+        World world = WorldWrap.getBestWorld();
+        boolean modified = this.commitPreparedChunks(world);
+
+        this.submitChunksForPreparation();
+
+        if (this.chunks.isEmpty())
+        {
+            if (this.runFinalizer(world) == false)
+            {
+                return false;
+            }
+
+            this.finished = true;
+            return true;
+        }
+
+        if (modified)
+        {
+            this.updateInfoHudLines();
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes the chunks prepared by the workers into the world, for up to the time limit
+     * @return true if some chunks were handled
+     */
+    private boolean commitPreparedChunks(World world)
+    {
+        long endTime = System.nanoTime() + COMMIT_TIME_LIMIT;
+        boolean modified = false;
+        PreparedChunkPaste prepared;
+
+        while (System.nanoTime() < endTime && (prepared = this.preparedChunks.poll()) != null)
+        {
+            ChunkPos pos = prepared.getChunkPos();
+            boolean allValid = true;
+
+            this.chunksInProgress.remove(pos);
+
+            for (SchematicPlacement placement : prepared.getPlacements())
+            {
+                if (placement.isValid() == false)
+                {
+                    this.placementsPerChunk.remove(pos, placement);
+                    allValid = false;
+                }
+            }
+
+            // A chunk that failed to prepare is dropped, the reason has already been logged
+            if (prepared.hasFailed())
+            {
+                Litematica.LOGGER.warn("Skipping the paste of chunk [{}, {}], it failed to prepare", pos.x, pos.z);
+                this.placementsPerChunk.removeAll(pos);
+            }
+            // If some placement was removed while the chunk was being prepared, then the chunk
+            // is prepared again for the remaining placements
+            else if (allValid)
+            {
+                prepared.commit(world, this.finalizer);
+                this.placementsPerChunk.removeAll(pos);
+            }
+
+            if (this.placementsPerChunk.containsKey(pos) == false)
+            {
+                this.chunks.remove(pos);
+            }
+
+            modified = true;
+        }
+
+        return modified;
+    }
+
+    private void submitChunksForPreparation()
+    {
+        int maxInProgress = this.threadCount * 4;
+
+        if (this.executor == null || this.chunksInProgress.size() >= maxInProgress)
+        {
+            return;
+        }
+
+        WorldSchematic worldSchematic = SchematicWorldHandler.getSchematicWorld();
+        WorldClient worldClient = GameWrap.getClientWorld();
+
+        this.sortChunkList();
+
+        for (ChunkPos pos : this.chunks)
+        {
+            if (this.chunksInProgress.size() >= maxInProgress)
+            {
+                break;
+            }
+
+            if (this.chunksInProgress.contains(pos) || this.canProcessChunk(pos, worldSchematic, worldClient) == false)
+            {
+                continue;
+            }
+
+            List<SchematicPlacement> placements = new ArrayList<>();
+
+            for (SchematicPlacement placement : this.placementsPerChunk.get(pos))
+            {
+                if (placement.isSchematicLoaded() && placement.isValid())
+                {
+                    placements.add(placement);
+                }
+            }
+
+            PreparedChunkPaste prepared = new PreparedChunkPaste(pos, placements, this.replace);
+            this.chunksInProgress.add(pos);
+
+            // prepare() catches everything itself, so the chunk always comes back
+            // and gets removed from the in-progress set, even if its preparation fails
+            this.executor.execute(() -> {
+                prepared.prepare();
+                this.preparedChunks.add(prepared);
+            });
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if (this.executor != null)
+        {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+
+        if (this.finished)
+        {
+            MessageDispatcher.success().screenOrActionbar().translate("litematica.message.schematic_placements_pasted");
+        }
+        else
+        {
+            MessageDispatcher.error().screenOrActionbar().translate("litematica.message.error.schematic_paste_failed");
+        }
+
+        super.stop();
+    }
+}
@@ -1,10 +1,14 @@
 package litematica.schematic;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
 import malilib.util.data.tag.CompoundData;
 import malilib.util.position.BlockPos;
+import malilib.util.position.ChunkPos;
 import malilib.util.position.Vec3i;
 import malilib.util.world.ScheduledBlockTickData;
 import litematica.schematic.container.BlockContainer;
@@ -19,6 +23,9 @@ public class SchematicRegion
     protected final Map<BlockPos, ScheduledBlockTickData> blockTickData;
     protected final List<EntityData> entityData;
     protected final int minecraftDataVersion;
+    // The BlockEntity data entries bucketed into 16x16 columns of the region-relative positions
+    @Nullable protected Long2ObjectOpenHashMap<List<Map.Entry<BlockPos, CompoundData>>> blockEntityColumns;
+    protected int blockEntityColumnsSize = -1;
 
     public SchematicRegion(BlockPos relativePosition,
                            Vec3i size,
@@ -71,6 +78,64 @@ public class SchematicRegion
         return this.blockEntityData;
     }
 
+    /**
+     * Adds the BlockEntity data entries whose region-relative x and z coordinates are within
+     * the given (inclusive) range to the list. The entries are bucketed into 16x16 columns
+     * on first use, so that the per-chunk placing doesn't need to go through the entire map for every chunk.
+     */
+    public void getBlockEntitiesWithinColumns(int minX, int minZ, int maxX, int maxZ,
+                                              List<Map.Entry<BlockPos, CompoundData>> listOut)
+    {
+        Long2ObjectOpenHashMap<List<Map.Entry<BlockPos, CompoundData>>> columns = this.getBlockEntityColumns();
+
+        for (int cz = minZ >> 4; cz <= (maxZ >> 4); ++cz)
+        {
+            for (int cx = minX >> 4; cx <= (maxX >> 4); ++cx)
+            {
+                List<Map.Entry<BlockPos, CompoundData>> list = columns.get(ChunkPos.asLong(cx, cz));
+
+                if (list == null)
+                {
+                    continue;
+                }
+
+                for (Map.Entry<BlockPos, CompoundData> entry : list)
+                {
+                    BlockPos pos = entry.getKey();
+
+                    if (pos.getX() >= minX && pos.getX() <= maxX && pos.getZ() >= minZ && pos.getZ() <= maxZ)
+                    {
+                        listOut.add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The columns are re-built if the map has changed size since they were built,
+     * as the map is still populated after the region is created when creating schematics in multiplayer.
+     * This is synchronized, as the paste preparation can call this from several worker threads.
+     */
+    protected synchronized Long2ObjectOpenHashMap<List<Map.Entry<BlockPos, CompoundData>>> getBlockEntityColumns()
+    {
+        if (this.blockEntityColumns == null || this.blockEntityColumnsSize != this.blockEntityData.size())
+        {
+            Long2ObjectOpenHashMap<List<Map.Entry<BlockPos, CompoundData>>> columns = new Long2ObjectOpenHashMap<>();
+
+            for (Map.Entry<BlockPos, CompoundData> entry : this.blockEntityData.entrySet())
+            {
+                BlockPos pos = entry.getKey();
+                columns.computeIfAbsent(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), p -> new ArrayList<>()).add(entry);
+            }
+
+            this.blockEntityColumns = columns;
+            this.blockEntityColumnsSize = this.blockEntityData.size();
+        }
+
+        return this.blockEntityColumns;
+    }
+
     /**
      * @return the entity list for this region
      */
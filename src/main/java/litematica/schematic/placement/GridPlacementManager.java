@@ -1,28 +1,29 @@
 package litematica.schematic.placement;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 
 import malilib.util.game.wrap.EntityWrap;
 import malilib.util.game.wrap.GameWrap;
 import malilib.util.position.BlockPos;
 import malilib.util.position.IntBoundingBox;
-import malilib.util.position.Vec3i;
 import litematica.render.OverlayRenderer;
-import litematica.util.PositionUtils;
+import litematica.schematic.placement.PlacementGrid.PointRange;
 
 public class GridPlacementManager
 {
     private final SchematicPlacementManager schematicPlacementManager;
-    private final Map<SchematicPlacement, Map<Vec3i, SchematicPlacement>> gridPlacementsPerPlacement = new HashMap<>();
+    private final Map<SchematicPlacement, GridEntry> gridsPerPlacement = new HashMap<>();
 
-    // This base placement set is used instead of the keySet of gridPlacementsPerPlacement
+    // This base placement set is used instead of the keySet of gridsPerPlacement
     // mostly because when logging in, the client player is at first in a wrong location,
     // and thus the repeat area might not overlap that initial client player's loaded area.
     // That would cause no grid placements to be created when loading the base placement from file,
@@ -36,23 +37,37 @@ public class GridPlacementManager
 
     public void clear()
     {
-        this.gridPlacementsPerPlacement.clear();
+        this.gridsPerPlacement.clear();
         this.basePlacements.clear();
     }
 
+    /**
+     * @return the repeated copies of the given base placement that currently exist,
+     *         which are the ones within the loaded area
+     */
     public List<SchematicPlacement> getGridPlacementsForBasePlacement(SchematicPlacement basePlacement)
     {
         List<SchematicPlacement> gridPlacements = new ArrayList<>();
-        Map<Vec3i, SchematicPlacement> map = this.gridPlacementsPerPlacement.get(basePlacement);
+        GridEntry entry = this.gridsPerPlacement.get(basePlacement);
 
-        if (map != null)
+        if (entry != null)
         {
-            gridPlacements.addAll(map.values());
+            gridPlacements.addAll(entry.copies.values());
         }
 
         return gridPlacements;
     }
 
+    /**
+     * @return the virtual lattice of the given base placement, or null if it doesn't have grid repeating enabled
+     */
+    @Nullable
+    public PlacementGrid getGrid(SchematicPlacement basePlacement)
+    {
+        GridEntry entry = this.gridsPerPlacement.get(basePlacement);
+        return entry != null ? entry.grid : null;
+    }
+
     void updateGridPlacementsFor(SchematicPlacement basePlacement)
     {
         // Never accidentally repeat the repeated placements
@@ -77,7 +92,12 @@ public class GridPlacementManager
                 this.basePlacements.add(basePlacement);
             }
 
-            modified |= this.addGridPlacementsWithinLoadedAreaFor(basePlacement);
+            IntBoundingBox currentArea = this.getCurrentLoadedArea(1);
+
+            if (currentArea != null)
+            {
+                modified |= this.updateGridPlacementsWithinArea(basePlacement, currentArea);
+            }
         }
         // Grid repeating disabled
         else if (existedBefore)
@@ -92,155 +112,6 @@ public class GridPlacementManager
         }
     }
 
-    private Map<Vec3i, SchematicPlacement> createGridPlacementsWithinLoadedAreaFor(SchematicPlacement basePlacement)
-    {
-        IntBoundingBox currentArea = this.getCurrentLoadedArea(1);
-
-        if (currentArea != null)
-        {
-            return this.createGridPlacementsWithinAreaFor(basePlacement, currentArea);
-        }
-
-        return new HashMap<>();
-    }
-
-    private Set<Vec3i> getGridPointsWithinAreaFor(SchematicPlacement basePlacement, IntBoundingBox area)
-    {
-        Set<Vec3i> points = new HashSet<>();
-        GridSettings settings = basePlacement.getGridSettings();
-        Vec3i size = settings.getSize();
-
-        if (settings.isEnabled() && PositionUtils.areAllCoordinatesAtLeast(size, 1))
-        {
-            Vec3i repeatNeg = settings.getRepeatNegative();
-            Vec3i repeatPos = settings.getRepeatPositive();
-            int sizeX = size.getX();
-            int sizeY = size.getY();
-            int sizeZ = size.getZ();
-            IntBoundingBox baseBox = basePlacement.getEnclosingBox();
-            IntBoundingBox repeatEnclosingBox = IntBoundingBox.createProper(baseBox.minX - repeatNeg.getX() * sizeX,
-                                                                            baseBox.minY - repeatNeg.getY() * sizeY,
-                                                                            baseBox.minZ - repeatNeg.getZ() * sizeZ,
-                                                                            baseBox.maxX + repeatPos.getX() * sizeX,
-                                                                            baseBox.maxY + repeatPos.getY() * sizeY,
-                                                                            baseBox.maxZ + repeatPos.getZ() * sizeZ);
-
-            // Get the box where the repeated placements intersect the target area
-            //Box intersectingBox = repeatEnclosingBox.createIntersectingBox(area);
-            IntBoundingBox intersectingBox = repeatEnclosingBox.createIntersectingBox(area);
-            //System.out.printf("plop 2, size: %s, rep encl: %s .. %s\n", size, repeatEnclosingBox.getPos1(), repeatEnclosingBox.getPos2());
-
-            if (intersectingBox != null)
-            {
-                // Get the minimum and maximum repeat counts of the edge-most repeated placements that
-                // touch the intersection box.
-                //System.out.printf("inters min: %s, max: %s\n", p1, p2);
-                int minX = (intersectingBox.minX - baseBox.minX) / sizeX;
-                int minY = (intersectingBox.minY - baseBox.minY) / sizeY;
-                int minZ = (intersectingBox.minZ - baseBox.minZ) / sizeZ;
-                int maxX = (intersectingBox.maxX - baseBox.minX) / sizeX;
-                int maxY = (intersectingBox.maxY - baseBox.minY) / sizeY;
-                int maxZ = (intersectingBox.maxZ - baseBox.minZ) / sizeZ;
-                //System.out.printf("rep: x: %d .. %d, y: %d .. %d, z: %d .. %s\n", minX, maxX, minY, maxY, minZ, maxZ);
-
-                for (int y = minY; y <= maxY; ++y)
-                {
-                    for (int z = minZ; z <= maxZ; ++z)
-                    {
-                        for (int x = minX; x <= maxX; ++x)
-                        {
-                            if (x != 0 || y != 0 || z != 0)
-                            {
-                                points.add(new Vec3i(x, y, z));
-                                //System.out.printf("repeat placement @ %s [%d, %d, %d]\n", placement.getOrigin(), repX, repY, repZ);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return points;
-    }
-
-    private Map<Vec3i, SchematicPlacement> createGridPlacementsWithinAreaFor(SchematicPlacement basePlacement, IntBoundingBox area)
-    {
-        Set<Vec3i> gridPoints = this.getGridPointsWithinAreaFor(basePlacement, area);
-        return this.createGridPlacementsForPoints(basePlacement, gridPoints);
-    }
-
-    private Map<Vec3i, SchematicPlacement> createGridPlacementsForPoints(SchematicPlacement basePlacement, Set<Vec3i> gridPoints)
-    {
-        Map<Vec3i, SchematicPlacement> placements = new HashMap<>();
-
-        if (gridPoints.isEmpty() == false)
-        {
-            BlockPos baseOrigin = basePlacement.getPosition();
-            Vec3i size = basePlacement.getGridSettings().getSize();
-            int sizeX = size.getX();
-            int sizeY = size.getY();
-            int sizeZ = size.getZ();
-
-            for (Vec3i point : gridPoints)
-            {
-                SchematicPlacement placement = basePlacement.createRepeatedCopy();
-                placement.setOrigin(baseOrigin.add(point.getX() * sizeX, point.getY() * sizeY, point.getZ() * sizeZ));
-                placement.updateEnclosingBox();
-                placements.put(point, placement);
-                //System.out.printf("repeat placement @ %s [%d, %d, %d]\n", placement.getOrigin(), point.getX(), point.getY(), point.getZ());
-            }
-        }
-
-        return placements;
-    }
-
-    private Set<Vec3i> getExistingOutOfRangeGridPointsFor(SchematicPlacement basePlacement, Set<Vec3i> currentGridPoints)
-    {
-        Map<Vec3i, SchematicPlacement> placements = this.gridPlacementsPerPlacement.get(basePlacement);
-
-        if (placements != null)
-        {
-            Set<Vec3i> outOfRangePoints = new HashSet<>(placements.keySet());
-            outOfRangePoints.removeAll(currentGridPoints);
-            return outOfRangePoints;
-        }
-
-        return new HashSet<>();
-    }
-
-    private Set<Vec3i> getNewGridPointsFor(SchematicPlacement basePlacement, Set<Vec3i> currentGridPoints)
-    {
-        Map<Vec3i, SchematicPlacement> placements = this.gridPlacementsPerPlacement.get(basePlacement);
-
-        if (placements != null)
-        {
-            Set<Vec3i> newPoints = new HashSet<>(currentGridPoints);
-            newPoints.removeAll(placements.keySet());
-            return newPoints;
-        }
-        else
-        {
-            return currentGridPoints;
-        }
-    }
-
-    /**
-     * Creates and adds all the grid placements within the loaded area
-     * for the provided normal placement
-     * @return true if some placements were added
-     */
-    private boolean addGridPlacementsWithinLoadedAreaFor(SchematicPlacement basePlacement)
-    {
-        Map<Vec3i, SchematicPlacement> placements = this.createGridPlacementsWithinLoadedAreaFor(basePlacement);
-
-        if (placements.isEmpty() == false)
-        {
-            return this.addGridPlacements(basePlacement, placements);
-        }
-
-        return false;
-    }
-
     /**
      * Removes all grid placements of the provided placement, and the base placement itself
      * so that the automatic updating doesn't re-create them.
@@ -252,25 +123,29 @@ public class GridPlacementManager
     }
 
     /**
-     * Removes all repeated grid placements of the provided normal placement
+     * Removes all repeated grid placements of the provided normal placement,
+     * and forgets its lattice, so that it gets re-created from the current settings.
      * @return true if some placements were removed
      */
     private boolean removeAllGridPlacementsOf(SchematicPlacement basePlacement)
     {
-        Map<Vec3i, SchematicPlacement> placements = this.gridPlacementsPerPlacement.get(basePlacement);
+        GridEntry entry = this.gridsPerPlacement.remove(basePlacement);
+        boolean modified = false;
 
-        if (placements != null)
+        if (entry != null)
         {
-            // Create a copy of the key set to avoid CME
-            HashSet<Vec3i> points = new HashSet<>(placements.keySet());
-            return this.removeGridPlacements(basePlacement, points);
+            for (SchematicPlacement placement : entry.copies.values())
+            {
+                this.removeGridPlacement(placement);
+                modified = true;
+            }
         }
 
-        return false;
+        return modified;
     }
 
     /**
-     * Updates the grid placements for the provided normal placement,
+     * Updates the grid placements for all the base placements,
      * adding or removing placements as needed so that the current
      * loaded area has all the required grid placements.
      * @return true if some placements were added or removed
@@ -284,21 +159,7 @@ public class GridPlacementManager
         {
             for (SchematicPlacement basePlacement : this.basePlacements)
             {
-                Set<Vec3i> currentGridPoints = this.getGridPointsWithinAreaFor(basePlacement, currentArea);
-                Set<Vec3i> outOfRangePoints = this.getExistingOutOfRangeGridPointsFor(basePlacement, currentGridPoints);
-                Set<Vec3i> newPoints = this.getNewGridPointsFor(basePlacement, currentGridPoints);
-                //System.out.printf("c: %d, o: %d, n: %d\n", currentGridPoints.size(), outOfRangePoints.size(), newPoints.size());
-
-                if (outOfRangePoints.isEmpty() == false)
-                {
-                    modified |= this.removeGridPlacements(basePlacement, outOfRangePoints);
-                }
-
-                if (newPoints.isEmpty() == false)
-                {
-                    Map<Vec3i, SchematicPlacement> placements = this.createGridPlacementsForPoints(basePlacement, newPoints);
-                    modified |= this.addGridPlacements(basePlacement, placements);
-                }
+                modified |= this.updateGridPlacementsWithinArea(basePlacement, currentArea);
             }
         }
 
@@ -311,67 +172,93 @@ public class GridPlacementManager
     }
 
     /**
-     * Adds the provided grid placements for the provided normal placement,
-     * if there are no grid placements yet for those grid points.
-     * @param basePlacement
-     * @param placements
-     * @return true if some placements were added
+     * Creates the copies of the base placement for the lattice points within the given area
+     * that don't have them yet, and removes the copies that are no longer within the area.
+     * The range of the points within the area is calculated arithmetically, so if the range
+     * didn't change since the last update, then nothing needs to be done.
+     * @return true if some placements were added or removed
      */
-    private boolean addGridPlacements(SchematicPlacement basePlacement, Map<Vec3i, SchematicPlacement> placements)
+    private boolean updateGridPlacementsWithinArea(SchematicPlacement basePlacement, IntBoundingBox area)
     {
-        boolean modified = false;
+        GridEntry entry = this.gridsPerPlacement.get(basePlacement);
 
-        if (placements.isEmpty() == false)
+        if (entry == null)
         {
-            Map<Vec3i, SchematicPlacement> map = this.gridPlacementsPerPlacement.computeIfAbsent(basePlacement, k -> new HashMap<>());
+            PlacementGrid grid = PlacementGrid.of(basePlacement);
 
-            for (Map.Entry<Vec3i, SchematicPlacement> entry : placements.entrySet())
+            if (grid == null)
             {
-                Vec3i point = entry.getKey();
-                SchematicPlacement placement = entry.getValue();
-
-                if (map.containsKey(point) == false)
-                {
-                    map.put(point, placement);
-                    this.schematicPlacementManager.addVisiblePlacement(placement);
-                    this.schematicPlacementManager.addTouchedChunksFor(placement, false);
-                    modified = true;
-                }
+                return false;
             }
+
+            entry = new GridEntry(grid);
+            this.gridsPerPlacement.put(basePlacement, entry);
         }
 
-        return modified;
-    }
+        PointRange oldRange = entry.range;
+        PointRange newRange = entry.grid.getPointsWithin(area);
+
+        if (newRange == null ? oldRange == null : newRange.equals(oldRange))
+        {
+            return false;
+        }
 
-    /**
-     * Removes the grid placements of the provided normal placement
-     * from the requested grid points, if they exist
-     * @return true if some placements were removed
-     */
-    private boolean removeGridPlacements(SchematicPlacement basePlacement, Collection<Vec3i> gridPoints)
-    {
-        Map<Vec3i, SchematicPlacement> map = this.gridPlacementsPerPlacement.get(basePlacement);
         boolean modified = false;
+        ObjectIterator<Long2ObjectMap.Entry<SchematicPlacement>> iter = entry.copies.long2ObjectEntrySet().iterator();
 
-        if (gridPoints.isEmpty() == false && map != null)
+        while (iter.hasNext())
         {
-            for (Vec3i point : gridPoints)
+            Long2ObjectMap.Entry<SchematicPlacement> copyEntry = iter.next();
+            long point = copyEntry.getLongKey();
+
+            if (newRange == null || newRange.contains(PlacementGrid.unpackPointX(point),
+                                                      PlacementGrid.unpackPointY(point),
+                                                      PlacementGrid.unpackPointZ(point)) == false)
             {
-                SchematicPlacement placement = map.get(point);
+                this.removeGridPlacement(copyEntry.getValue());
+                iter.remove();
+                modified = true;
+            }
+        }
 
-                if (placement != null)
+        if (newRange != null)
+        {
+            for (int y = newRange.minY; y <= newRange.maxY; ++y)
+            {
+                for (int z = newRange.minZ; z <= newRange.maxZ; ++z)
                 {
-                    this.schematicPlacementManager.removeTouchedChunksFor(placement);
-                    this.schematicPlacementManager.removeVisiblePlacement(placement);
-                    map.remove(point);
-                    modified = true;
+                    for (int x = newRange.minX; x <= newRange.maxX; ++x)
+                    {
+                        // The base placement itself is at the lattice origin
+                        if ((x == 0 && y == 0 && z == 0) || (oldRange != null && oldRange.contains(x, y, z)))
+                        {
+                            continue;
+                        }
+
+                        SchematicPlacement placement = basePlacement.createRepeatedCopy();
+                        placement.setOrigin(entry.grid.getOriginForPoint(x, y, z));
+                        placement.updateEnclosingBox();
+
+                        entry.copies.put(PlacementGrid.packPoint(x, y, z), placement);
+                        this.schematicPlacementManager.addVisiblePlacement(placement);
+                        this.schematicPlacementManager.addTouchedChunksFor(placement, false);
+                        modified = true;
+                    }
                 }
             }
         }
 
+        entry.range = newRange;
+
         return modified;
     }
 
+    private void removeGridPlacement(SchematicPlacement placement)
+    {
+        this.schematicPlacementManager.removeTouchedChunksFor(placement);
+        this.schematicPlacementManager.removeVisiblePlacement(placement);
+    }
+
     @Nullable
     private IntBoundingBox getCurrentLoadedArea(int expandChunks)
     {
@@ -389,4 +276,20 @@ public class GridPlacementManager
         return IntBoundingBox.createProper( (centerChunkX - chunkRadius) << 4      , playerY - 512,  (centerChunkZ - chunkRadius) << 4,
                                            ((centerChunkX + chunkRadius) << 4) + 15, playerY + 512, ((centerChunkZ + chunkRadius) << 4) + 15);
     }
+
+    /**
+     * The lattice of one base placement, and the copies that currently exist for it.
+     * The copies are keyed by their packed lattice point.
+     */
+    private static class GridEntry
+    {
+        private final PlacementGrid grid;
+        private final Long2ObjectOpenHashMap<SchematicPlacement> copies = new Long2ObjectOpenHashMap<>();
+        @Nullable private PointRange range;
+
+        private GridEntry(PlacementGrid grid)
+        {
+            this.grid = grid;
+        }
+    }
 }
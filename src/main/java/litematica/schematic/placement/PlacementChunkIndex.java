@@ -0,0 +1,334 @@
+package litematica.schematic.placement;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import malilib.util.data.EnabledCondition;
+import malilib.util.position.IntBoundingBox;
+import litematica.schematic.placement.SchematicPlacementManager.PlacementPart;
+
+/**
+ * A spatial index of the placements touching each chunk, and of the placement
+ * sub-region boxes within each sub-chunk. The sub-chunks are keyed by a packed long,
+ * and the boxes are stored in flat int arrays, and they are updated per placement
+ * instead of re-building all the parts in the affected chunks.
+ */
+public class PlacementChunkIndex
+{
+    private final Long2ObjectOpenHashMap<List<SchematicPlacement>> placementsTouchingChunk = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<SectionEntry> sections = new Long2ObjectOpenHashMap<>();
+
+    public void clear()
+    {
+        this.placementsTouchingChunk.clear();
+        this.sections.clear();
+    }
+
+    public boolean isChunkTouched(long chunkPosLong)
+    {
+        return this.placementsTouchingChunk.containsKey(chunkPosLong);
+    }
+
+    @Nullable
+    public List<SchematicPlacement> getPlacementsTouchingChunk(long chunkPosLong)
+    {
+        return this.placementsTouchingChunk.get(chunkPosLong);
+    }
+
+    public boolean hasPlacementInChunk(long chunkPosLong, SchematicPlacement placement)
+    {
+        List<SchematicPlacement> list = this.placementsTouchingChunk.get(chunkPosLong);
+        return list != null && list.contains(placement);
+    }
+
+    /**
+     * @return the packed positions of all the sub-chunks that have at least one placement box in them
+     */
+    public LongSet getTouchedSections()
+    {
+        return this.sections.keySet();
+    }
+
+    @Nullable
+    public SectionEntry getSection(int cx, int cy, int cz)
+    {
+        return this.sections.get(packSectionPos(cx, cy, cz));
+    }
+
+    /**
+     * Adds the placement to the given chunk, if it's not there already, and adds its boxes within the chunk.
+     * If the placement was already in the chunk, then its boxes are updated instead.
+     */
+    public void addPlacement(long chunkPosLong, SchematicPlacement placement)
+    {
+        List<SchematicPlacement> list = this.placementsTouchingChunk.computeIfAbsent(chunkPosLong, cp -> new ArrayList<>());
+
+        if (list.contains(placement))
+        {
+            this.removeBoxes(chunkPosLong, placement);
+        }
+        else
+        {
+            list.add(placement);
+        }
+
+        this.addBoxes(chunkPosLong, placement);
+    }
+
+    /**
+     * Removes the placement and all of its boxes from the given chunk
+     */
+    public void removePlacement(long chunkPosLong, SchematicPlacement placement)
+    {
+        List<SchematicPlacement> list = this.placementsTouchingChunk.get(chunkPosLong);
+
+        if (list != null && list.remove(placement))
+        {
+            if (list.isEmpty())
+            {
+                this.placementsTouchingChunk.remove(chunkPosLong);
+            }
+
+            this.removeBoxes(chunkPosLong, placement);
+        }
+    }
+
+    private void addBoxes(long chunkPosLong, SchematicPlacement placement)
+    {
+        if (placement.matchesRequirement(EnabledCondition.ENABLED) == false)
+        {
+            return;
+        }
+
+        int chunkX = malilib.util.position.PositionUtils.getChunkPosX(chunkPosLong);
+        int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(chunkPosLong);
+        Map<String, IntBoundingBox> boxMap = placement.getBoxesWithinChunk(chunkX, chunkZ);
+
+        for (Map.Entry<String, IntBoundingBox> entry : boxMap.entrySet())
+        {
+            IntBoundingBox bb = entry.getValue();
+            // Only the sub-chunks within the world height are tracked
+            final int startCY = Math.max(bb.minY >> 4, 0);
+            final int endCY = Math.min(bb.maxY >> 4, 15);
+
+            for (int cy = startCY; cy <= endCY; ++cy)
+            {
+                int y1 = Math.max((cy << 4)     , bb.minY);
+                int y2 = Math.min((cy << 4) + 15, bb.maxY);
+
+                SectionEntry section = this.sections.computeIfAbsent(packSectionPos(chunkX, cy, chunkZ), p -> new SectionEntry());
+                section.add(placement, entry.getKey(), bb.minX, y1, bb.minZ, bb.maxX, y2, bb.maxZ);
+            }
+        }
+    }
+
+    private void removeBoxes(long chunkPosLong, SchematicPlacement placement)
+    {
+        int chunkX = malilib.util.position.PositionUtils.getChunkPosX(chunkPosLong);
+        int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(chunkPosLong);
+
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            long sectionPos = packSectionPos(chunkX, cy, chunkZ);
+            SectionEntry section = this.sections.get(sectionPos);
+
+            if (section != null && section.removePlacement(placement) && section.size() == 0)
+            {
+                this.sections.remove(sectionPos);
+            }
+        }
+    }
+
+    public static long packSectionPos(int cx, int cy, int cz)
+    {
+        return ((long) (cx & 0x3FFFFF) << 42) | ((long) (cz & 0x3FFFFF) << 20) | (long) (cy & 0xFFFFF);
+    }
+
+    public static int unpackSectionX(long packed)
+    {
+        return (int) (packed >> 42);
+    }
+
+    public static int unpackSectionY(long packed)
+    {
+        return (int) (packed << 44 >> 44);
+    }
+
+    public static int unpackSectionZ(long packed)
+    {
+        return (int) (packed << 22 >> 42);
+    }
+
+    /**
+     * The placement parts within one sub-chunk. The boxes are stored as
+     * six consecutive ints per part, in the order minX, minY, minZ, maxX, maxY, maxZ.
+     */
+    public static class SectionEntry
+    {
+        private SchematicPlacement[] placements = new SchematicPlacement[2];
+        private String[] regionNames = new String[2];
+        private int[] boxes = new int[12];
+        private int count;
+
+        private final List<IntBoundingBox> boxView = new AbstractList<IntBoundingBox>()
+        {
+            @Override
+            public IntBoundingBox get(int index)
+            {
+                return SectionEntry.this.getBox(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return SectionEntry.this.count;
+            }
+        };
+
+        private final List<PlacementPart> partView = new AbstractList<PlacementPart>()
+        {
+            @Override
+            public PlacementPart get(int index)
+            {
+                return SectionEntry.this.getPart(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return SectionEntry.this.count;
+            }
+        };
+
+        public int size()
+        {
+            return this.count;
+        }
+
+        public SchematicPlacement getPlacement(int index)
+        {
+            return this.placements[index];
+        }
+
+        public String getRegionName(int index)
+        {
+            return this.regionNames[index];
+        }
+
+        public IntBoundingBox getBox(int index)
+        {
+            int i = index * 6;
+            int[] b = this.boxes;
+            return new IntBoundingBox(b[i], b[i + 1], b[i + 2], b[i + 3], b[i + 4], b[i + 5]);
+        }
+
+        public PlacementPart getPart(int index)
+        {
+            return new PlacementPart(this.placements[index], this.regionNames[index], this.getBox(index));
+        }
+
+        /**
+         * @return a read-only view of the boxes in this sub-chunk
+         */
+        public List<IntBoundingBox> getBoxView()
+        {
+            return this.boxView;
+        }
+
+        /**
+         * @return a read-only view of the placement parts in this sub-chunk
+         */
+        public List<PlacementPart> getPartView()
+        {
+            return this.partView;
+        }
+
+        /**
+         * @return true if the given position is within the given range of any of the boxes in this sub-chunk
+         */
+        public boolean isWithinRangeOfAnyBox(int x, int y, int z, int range)
+        {
+            int[] b = this.boxes;
+            int end = this.count * 6;
+
+            for (int i = 0; i < end; i += 6)
+            {
+                if (x >= b[i    ] - range && x <= b[i + 3] + range &&
+                    y >= b[i + 1] - range && y <= b[i + 4] + range &&
+                    z >= b[i + 2] - range && z <= b[i + 5] + range)
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        protected void add(SchematicPlacement placement, String regionName,
+                           int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+        {
+            if (this.count == this.placements.length)
+            {
+                int newSize = this.count * 2;
+                this.placements = Arrays.copyOf(this.placements, newSize);
+                this.regionNames = Arrays.copyOf(this.regionNames, newSize);
+                this.boxes = Arrays.copyOf(this.boxes, newSize * 6);
+            }
+
+            int i = this.count * 6;
+            this.placements[this.count] = placement;
+            this.regionNames[this.count] = regionName;
+            this.boxes[i    ] = minX;
+            this.boxes[i + 1] = minY;
+            this.boxes[i + 2] = minZ;
+            this.boxes[i + 3] = maxX;
+            this.boxes[i + 4] = maxY;
+            this.boxes[i + 5] = maxZ;
+            ++this.count;
+        }
+
+        /**
+         * Removes all the parts of the given placement, keeping the order of the remaining parts
+         * @return true if anything was removed
+         */
+        protected boolean removePlacement(SchematicPlacement placement)
+        {
+            int dst = 0;
+
+            for (int src = 0; src < this.count; ++src)
+            {
+                if (this.placements[src] == placement)
+                {
+                    continue;
+                }
+
+                if (dst != src)
+                {
+                    this.placements[dst] = this.placements[src];
+                    this.regionNames[dst] = this.regionNames[src];
+                    System.arraycopy(this.boxes, src * 6, this.boxes, dst * 6, 6);
+                }
+
+                ++dst;
+            }
+
+            boolean removed = dst != this.count;
+
+            for (int i = dst; i < this.count; ++i)
+            {
+                this.placements[i] = null;
+                this.regionNames[i] = null;
+            }
+
+            this.count = dst;
+
+            return removed;
+        }
+    }
+}
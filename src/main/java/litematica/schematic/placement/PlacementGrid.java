@@ -0,0 +1,179 @@
+package litematica.schematic.placement;
+
+import javax.annotation.Nullable;
+
+import malilib.util.position.BlockPos;
+import malilib.util.position.IntBoundingBox;
+import malilib.util.position.Vec3i;
+import litematica.util.PositionUtils;
+
+/**
+ * The virtual lattice of the repeated copies of a grid base placement.
+ * The lattice points are the repeat counts along each axis, and the copy at point (0, 0, 0)
+ * is the base placement itself. All the queries about which copies touch some area
+ * are answered arithmetically, without creating the copies.
+ */
+public class PlacementGrid
+{
+    private final BlockPos baseOrigin;
+    private final IntBoundingBox baseBox;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final PointRange fullRange;
+
+    protected PlacementGrid(BlockPos baseOrigin, IntBoundingBox baseBox, Vec3i size, Vec3i repeatNeg, Vec3i repeatPos)
+    {
+        this.baseOrigin = baseOrigin;
+        this.baseBox = baseBox;
+        this.sizeX = size.getX();
+        this.sizeY = size.getY();
+        this.sizeZ = size.getZ();
+        this.fullRange = new PointRange(-repeatNeg.getX(), -repeatNeg.getY(), -repeatNeg.getZ(),
+                                         repeatPos.getX(),  repeatPos.getY(),  repeatPos.getZ());
+    }
+
+    /**
+     * @return the lattice of the given base placement, or null if the grid is not enabled
+     *         or the grid size is invalid
+     */
+    @Nullable
+    public static PlacementGrid of(SchematicPlacement basePlacement)
+    {
+        GridSettings settings = basePlacement.getGridSettings();
+        Vec3i size = settings.getSize();
+
+        if (settings.isEnabled() && PositionUtils.areAllCoordinatesAtLeast(size, 1))
+        {
+            return new PlacementGrid(basePlacement.getPosition(), basePlacement.getEnclosingBox(), size,
+                                     settings.getRepeatNegative(), settings.getRepeatPositive());
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the total number of copies in the grid, including the base placement
+     */
+    public long getTotalCount()
+    {
+        return this.fullRange.getCount();
+    }
+
+    public BlockPos getOriginForPoint(int x, int y, int z)
+    {
+        return this.baseOrigin.add(x * this.sizeX, y * this.sizeY, z * this.sizeZ);
+    }
+
+    /**
+     * @return the range of the lattice points whose copies intersect the given area, or null if none do
+     */
+    @Nullable
+    public PointRange getPointsWithin(IntBoundingBox area)
+    {
+        return this.getPointsWithin(area.minX, area.minY, area.minZ, area.maxX, area.maxY, area.maxZ);
+    }
+
+    @Nullable
+    public PointRange getPointsWithin(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+    {
+        // The copy at point p covers [base.min + p * size, base.max + p * size] on each axis
+        int x1 = Math.max(ceilDiv(minX - this.baseBox.maxX, this.sizeX), this.fullRange.minX);
+        int y1 = Math.max(ceilDiv(minY - this.baseBox.maxY, this.sizeY), this.fullRange.minY);
+        int z1 = Math.max(ceilDiv(minZ - this.baseBox.maxZ, this.sizeZ), this.fullRange.minZ);
+        int x2 = Math.min(Math.floorDiv(maxX - this.baseBox.minX, this.sizeX), this.fullRange.maxX);
+        int y2 = Math.min(Math.floorDiv(maxY - this.baseBox.minY, this.sizeY), this.fullRange.maxY);
+        int z2 = Math.min(Math.floorDiv(maxZ - this.baseBox.minZ, this.sizeZ), this.fullRange.maxZ);
+
+        if (x1 > x2 || y1 > y2 || z1 > z2)
+        {
+            return null;
+        }
+
+        return new PointRange(x1, y1, z1, x2, y2, z2);
+    }
+
+    private static int ceilDiv(int value, int divisor)
+    {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    public static long packPoint(int x, int y, int z)
+    {
+        return ((long) (x & 0x1FFFFF) << 42) | ((long) (z & 0x1FFFFF) << 21) | (long) (y & 0x1FFFFF);
+    }
+
+    public static int unpackPointX(long packed)
+    {
+        return (int) (packed << 1 >> 43);
+    }
+
+    public static int unpackPointY(long packed)
+    {
+        return (int) (packed << 43 >> 43);
+    }
+
+    public static int unpackPointZ(long packed)
+    {
+        return (int) (packed << 22 >> 43);
+    }
+
+    /**
+     * An inclusive range of lattice points
+     */
+    public static class PointRange
+    {
+        public final int minX;
+        public final int minY;
+        public final int minZ;
+        public final int maxX;
+        public final int maxY;
+        public final int maxZ;
+
+        public PointRange(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+        {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+
+        public boolean contains(int x, int y, int z)
+        {
+            return x >= this.minX && x <= this.maxX &&
+                   y >= this.minY && y <= this.maxY &&
+                   z >= this.minZ && z <= this.maxZ;
+        }
+
+        public long getCount()
+        {
+            return (long) (this.maxX - this.minX + 1) * (long) (this.maxY - this.minY + 1) * (long) (this.maxZ - this.minZ + 1);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) { return true; }
+            if (o == null || this.getClass() != o.getClass()) { return false; }
+
+            PointRange other = (PointRange) o;
+
+            return this.minX == other.minX && this.minY == other.minY && this.minZ == other.minZ &&
+                   this.maxX == other.maxX && this.maxY == other.maxY && this.maxZ == other.maxZ;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = this.minX;
+            result = 31 * result + this.minY;
+            result = 31 * result + this.minZ;
+            result = 31 * result + this.maxX;
+            result = 31 * result + this.maxY;
+            result = 31 * result + this.maxZ;
+            return result;
+        }
+    }
+}
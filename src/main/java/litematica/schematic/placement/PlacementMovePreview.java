@@ -0,0 +1,110 @@
+package litematica.schematic.placement;
+
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import malilib.util.position.BlockPos;
+import malilib.util.position.ChunkPos;
+import litematica.render.schematic.RenderChunkSchematicVbo;
+
+/**
+ * The state of a placement that is being moved without re-pasting it into the schematic world.
+ * While the move is in progress, the already built render chunks of the placement are just
+ * drawn with a translation. The actual re-paste is done once the placement has not been moved
+ * for a short while, after which the translation is still used for each old render chunk
+ * until that render chunk has been rebuilt.
+ */
+public class PlacementMovePreview
+{
+    private static final long EXPIRE_TIME = 10000000000L;
+
+    private final SchematicPlacement placement;
+    private final BlockPos pastedOrigin;
+    private final LongSet pastedChunks;
+    private long lastMoveTime;
+    private long commitTime = Long.MAX_VALUE;
+    private int offsetX;
+    private int offsetY;
+    private int offsetZ;
+
+    public PlacementMovePreview(SchematicPlacement placement, LongSet pastedChunks)
+    {
+        this.placement = placement;
+        this.pastedOrigin = placement.getPosition();
+        this.pastedChunks = pastedChunks;
+        this.lastMoveTime = System.nanoTime();
+    }
+
+    public SchematicPlacement getPlacement()
+    {
+        return this.placement;
+    }
+
+    /**
+     * @return the chunks that the placement was touching when it was last pasted into the schematic world
+     */
+    public LongSet getPastedChunks()
+    {
+        return this.pastedChunks;
+    }
+
+    public boolean isCommitted()
+    {
+        return this.commitTime != Long.MAX_VALUE;
+    }
+
+    public void onMoved(BlockPos newOrigin)
+    {
+        this.offsetX = newOrigin.getX() - this.pastedOrigin.getX();
+        this.offsetY = newOrigin.getY() - this.pastedOrigin.getY();
+        this.offsetZ = newOrigin.getZ() - this.pastedOrigin.getZ();
+        this.lastMoveTime = System.nanoTime();
+    }
+
+    /**
+     * @return true if the placement has not been moved within the given delay
+     */
+    public boolean shouldCommit(long delayMs)
+    {
+        return this.isCommitted() == false && System.nanoTime() - this.lastMoveTime >= delayMs * 1000000L;
+    }
+
+    public void setCommitted()
+    {
+        this.commitTime = System.nanoTime();
+    }
+
+    /**
+     * @return true if the re-paste was done long enough ago, that the old render chunks
+     *         should have been rebuilt by now
+     */
+    public boolean isExpired()
+    {
+        return this.isCommitted() && System.nanoTime() - this.commitTime >= EXPIRE_TIME;
+    }
+
+    /**
+     * @return true if the given render chunk still has the geometry from the old position of the placement
+     */
+    public boolean hasRenderOffset(RenderChunkSchematicVbo renderChunk)
+    {
+        net.minecraft.util.math.BlockPos pos = renderChunk.getPosition();
+
+        return renderChunk.getLastRebuildTime() < this.commitTime &&
+               this.pastedChunks.contains(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+    }
+
+    public int getOffsetX()
+    {
+        return this.offsetX;
+    }
+
+    public int getOffsetY()
+    {
+        return this.offsetY;
+    }
+
+    public int getOffsetZ()
+    {
+        return this.offsetZ;
+    }
+}
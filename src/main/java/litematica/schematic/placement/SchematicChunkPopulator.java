@@ -0,0 +1,245 @@
+package litematica.schematic.placement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import litematica.Litematica;
+import litematica.config.Configs;
+import litematica.schematic.util.SchematicPlacingUtils;
+import litematica.world.ChunkSchematic;
+import litematica.world.WorldSchematic;
+
+/**
+ * Populates the schematic world chunks on worker threads.
+ * The workers place the block states into new chunks that are not yet loaded in the world,
+ * so the client thread then only needs to swap in the finished chunks, add the block entities
+ * and entities and mark the chunks for a render update.
+ * All the methods of this class are meant to be called from the client thread.
+ */
+public class SchematicChunkPopulator
+{
+    private static final ThreadFactory THREAD_FACTORY = (new ThreadFactoryBuilder()).setNameFormat("Litematica Chunk Populator %d").setDaemon(true).build();
+
+    private final ConcurrentLinkedQueue<PopulateTask> completedTasks = new ConcurrentLinkedQueue<>();
+    private final LongOpenHashSet chunksInProgress = new LongOpenHashSet();
+    // The chunks that have been invalidated while they were being populated.
+    // Only contains entries for the chunks that are currently in progress.
+    private final Long2IntOpenHashMap generations = new Long2IntOpenHashMap();
+    @Nullable private ThreadPoolExecutor executor;
+
+    public static int getThreadCount()
+    {
+        return Configs.Generic.SCHEMATIC_WORLD_THREADS.getIntegerValue();
+    }
+
+    public boolean isEnabled()
+    {
+        return getThreadCount() > 0;
+    }
+
+    public boolean isInProgress(long chunkPosLong)
+    {
+        return this.chunksInProgress.contains(chunkPosLong);
+    }
+
+    public int getInProgressCount()
+    {
+        return this.chunksInProgress.size();
+    }
+
+    /**
+     * @return the maximum number of chunks to have in progress at once.
+     *         This is kept low, so that the tasks get submitted in the order of
+     *         the camera distance at the time they are actually needed.
+     */
+    public int getMaxInProgressCount()
+    {
+        return getThreadCount() * 4;
+    }
+
+    /**
+     * Marks any in-progress population of the given chunk as stale,
+     * so that its result will get discarded when it completes.
+     */
+    public void invalidate(long chunkPosLong)
+    {
+        if (this.chunksInProgress.contains(chunkPosLong))
+        {
+            this.generations.addTo(chunkPosLong, 1);
+        }
+    }
+
+    public void submit(WorldSchematic world, long chunkPosLong, List<SchematicPlacement> placements, double distanceSq)
+    {
+        int generation = this.generations.get(chunkPosLong);
+        PopulateTask task = new PopulateTask(world, chunkPosLong, generation, placements, distanceSq, this.completedTasks);
+
+        this.chunksInProgress.add(chunkPosLong);
+        this.getExecutor().execute(task);
+    }
+
+    /**
+     * @return the next completed task, which has not been invalidated after it was submitted,
+     *         or null if there are currently no such completed tasks
+     */
+    @Nullable
+    public PopulateTask pollCompleted()
+    {
+        PopulateTask task;
+
+        while ((task = this.completedTasks.poll()) != null)
+        {
+            long chunkPosLong = task.getChunkPosLong();
+            int generation = this.generations.remove(chunkPosLong);
+
+            this.chunksInProgress.remove(chunkPosLong);
+
+            if (task.generation == generation)
+            {
+                return task;
+            }
+        }
+
+        return null;
+    }
+
+    public void clear()
+    {
+        if (this.executor != null)
+        {
+            List<Runnable> removed = new ArrayList<>();
+            this.executor.getQueue().drainTo(removed);
+
+            for (Runnable runnable : removed)
+            {
+                long chunkPosLong = ((PopulateTask) runnable).getChunkPosLong();
+                this.chunksInProgress.remove(chunkPosLong);
+                this.generations.remove(chunkPosLong);
+            }
+        }
+
+        // Invalidate the currently running tasks
+        for (long chunkPosLong : this.chunksInProgress)
+        {
+            this.generations.addTo(chunkPosLong, 1);
+        }
+
+        while (this.pollCompleted() != null)
+        {
+            // Just discard all the results
+        }
+    }
+
+    private ThreadPoolExecutor getExecutor()
+    {
+        int threadCount = Math.max(getThreadCount(), 1);
+
+        if (this.executor == null)
+        {
+            this.executor = new ThreadPoolExecutor(threadCount, threadCount, 30L, TimeUnit.SECONDS,
+                                                   new PriorityBlockingQueue<>(), THREAD_FACTORY);
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+        else if (this.executor.getCorePoolSize() != threadCount)
+        {
+            // The maximum size can't be set below the core size, so the order depends on the direction
+            if (threadCount > this.executor.getMaximumPoolSize())
+            {
+                this.executor.setMaximumPoolSize(threadCount);
+                this.executor.setCorePoolSize(threadCount);
+            }
+            else
+            {
+                this.executor.setCorePoolSize(threadCount);
+                this.executor.setMaximumPoolSize(threadCount);
+            }
+        }
+
+        return this.executor;
+    }
+
+    public static class PopulateTask implements Runnable, Comparable<PopulateTask>
+    {
+        private final WorldSchematic world;
+        private final long chunkPosLong;
+        private final int generation;
+        private final List<SchematicPlacement> placements;
+        private final double distanceSq;
+        private final ConcurrentLinkedQueue<PopulateTask> completedTasks;
+        @Nullable private ChunkSchematic chunk;
+
+        protected PopulateTask(WorldSchematic world, long chunkPosLong, int generation, List<SchematicPlacement> placements,
+                               double distanceSq, ConcurrentLinkedQueue<PopulateTask> completedTasks)
+        {
+            this.world = world;
+            this.chunkPosLong = chunkPosLong;
+            this.generation = generation;
+            this.placements = placements;
+            this.distanceSq = distanceSq;
+            this.completedTasks = completedTasks;
+        }
+
+        public long getChunkPosLong()
+        {
+            return this.chunkPosLong;
+        }
+
+        public List<SchematicPlacement> getPlacements()
+        {
+            return this.placements;
+        }
+
+        /**
+         * @return the populated chunk, or null if the population failed
+         */
+        @Nullable
+        public ChunkSchematic getChunk()
+        {
+            return this.chunk;
+        }
+
+        @Override
+        public void run()
+        {
+            int chunkX = malilib.util.position.PositionUtils.getChunkPosX(this.chunkPosLong);
+            int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(this.chunkPosLong);
+
+            try
+            {
+                ChunkSchematic chunk = new ChunkSchematic(this.world, chunkX, chunkZ);
+
+                for (SchematicPlacement placement : this.placements)
+                {
+                    SchematicPlacingUtils.placeBlockStatesToSchematicChunk(placement, chunk);
+                }
+
+                this.chunk = chunk;
+            }
+            catch (Exception e)
+            {
+                // The placement might have been modified on the client thread while this task was running,
+                // in which case this result would get discarded anyway
+                Litematica.LOGGER.warn("Exception while populating the schematic chunk [{}, {}]", chunkX, chunkZ, e);
+            }
+            finally
+            {
+                this.completedTasks.add(this);
+            }
+        }
+
+        @Override
+        public int compareTo(PopulateTask other)
+        {
+            return Double.compare(this.distanceSq, other.distanceSq);
+        }
+    }
+}
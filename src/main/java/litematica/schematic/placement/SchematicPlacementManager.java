@@ -3,6 +3,8 @@ package litematica.schematic.placement;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -10,15 +12,16 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
-import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 
+import net.minecraft.entity.Entity;
+
 import malilib.config.value.LayerMode;
 import malilib.listener.EventListener;
 import malilib.overlay.message.MessageDispatcher;
@@ -44,14 +47,19 @@ import litematica.render.LitematicaRenderer;
 import litematica.render.OverlayRenderer;
 import litematica.render.infohud.StatusInfoRenderer;
 import litematica.schematic.LoadedSchematic;
+import litematica.schematic.placement.SchematicChunkPopulator.PopulateTask;
 import litematica.schematic.util.SchematicPlacingUtils;
 import litematica.schematic.verifier.SchematicVerifierManager;
+import litematica.selection.SelectionBox;
+import litematica.util.BoxBvh;
 import litematica.util.Nags;
 import litematica.util.PositionUtils;
 import litematica.util.RayTraceUtils;
 import litematica.util.RayTraceUtils.RayTraceWrapper;
 import litematica.util.RayTraceUtils.RayTraceWrapper.HitType;
 import litematica.util.value.ReplaceBehavior;
+import litematica.world.ChunkProviderSchematic;
+import litematica.world.ChunkSchematic;
 import litematica.world.WorldSchematic;
 
 public class SchematicPlacementManager
@@ -59,18 +67,20 @@ public class SchematicPlacementManager
     protected final List<SchematicPlacement> schematicPlacements = new ArrayList<>();
     protected final Set<SchematicPlacement> allVisibleSchematicPlacements = new HashSet<>();
 
-    protected final Long2ObjectOpenHashMap<List<SchematicPlacement>> placementsTouchingChunk = new Long2ObjectOpenHashMap<>();
-    protected final ArrayListMultimap<ChunkSectionPos, PlacementPart> touchedVolumesInSubChunk = ArrayListMultimap.create();
+    protected final PlacementChunkIndex chunkIndex = new PlacementChunkIndex();
 
     protected final LongSet chunksToRebuild = new LongOpenHashSet();
     protected final LongSet chunksToUnload = new LongOpenHashSet();
     protected final LongSet chunksPreChange = new LongOpenHashSet();
 
     protected final List<EventListener> rebuildListeners = new ArrayList<>();
+    protected final SchematicChunkPopulator chunkPopulator = new SchematicChunkPopulator();
     protected final GridPlacementManager gridManager;
     protected final Supplier<WorldSchematic> worldSupplier;
 
     @Nullable protected SchematicPlacement selectedPlacement;
+    @Nullable protected PlacementMovePreview movePreview;
+    @Nullable protected BoxBvh<PlacementBox> placementBoxBvh;
     protected int tickCounter;
 
     public SchematicPlacementManager(Supplier<WorldSchematic> worldSupplier)
@@ -82,14 +92,16 @@ public class SchematicPlacementManager
     public void clear()
     {
         this.selectedPlacement = null;
+        this.movePreview = null;
+        this.placementBoxBvh = null;
         this.gridManager.clear();
         this.allVisibleSchematicPlacements.clear();
         this.schematicPlacements.clear();
-        this.placementsTouchingChunk.clear();
-        this.touchedVolumesInSubChunk.clear();
+        this.chunkIndex.clear();
         this.chunksPreChange.clear();
         this.chunksToRebuild.clear();
         this.chunksToUnload.clear();
+        this.chunkPopulator.clear();
 
         SchematicHolder.INSTANCE.clearLoadedSchematics();
     }
@@ -104,6 +116,15 @@ public class SchematicPlacementManager
         return this.chunksToRebuild.contains(ChunkPos.asLong(chunkX, chunkZ));
     }
 
+    /**
+     * @return the placement currently being moved without re-pasting it, if any
+     */
+    @Nullable
+    public PlacementMovePreview getMovePreview()
+    {
+        return this.movePreview;
+    }
+
     public void addRebuildListener(EventListener listener)
     {
         if (this.rebuildListeners.contains(listener) == false)
@@ -119,6 +140,18 @@ public class SchematicPlacementManager
             this.gridManager.createOrRemoveGridPlacementsForLoadedArea();
         }
 
+        if (this.movePreview != null)
+        {
+            if (this.movePreview.shouldCommit(Configs.Generic.PLACEMENT_MOVE_PREVIEW_DELAY.getIntegerValue()))
+            {
+                this.commitMovePreview();
+            }
+            else if (this.movePreview.isExpired())
+            {
+                this.movePreview = null;
+            }
+        }
+
         if (this.chunksToUnload.isEmpty() == false)
         {
             WorldSchematic schematicWorld = this.worldSupplier.get();
@@ -127,6 +160,7 @@ public class SchematicPlacementManager
             {
                 for (long chunkPosLong : this.chunksToUnload)
                 {
+                    this.chunkPopulator.invalidate(chunkPosLong);
                     this.unloadSchematicChunk(schematicWorld, chunkPosLong);
                 }
             }
@@ -140,76 +174,237 @@ public class SchematicPlacementManager
             if (GameWrap.getClientWorld() == null)
             {
                 this.chunksToRebuild.clear();
+                this.chunkPopulator.clear();
                 return true;
             }
 
             WorldSchematic schematicWorld = this.worldSupplier.get();
-            LongIterator it = this.chunksToRebuild.iterator();
 
-            while (it.hasNext())
+            this.applyPopulatedChunks(schematicWorld);
+
+            if (this.chunkPopulator.isEnabled())
             {
-                if ((System.nanoTime() - DataManager.getClientTickStartTime()) >= 50000000L)
-                {
-                    break;
-                }
+                this.submitChunksForPopulation(schematicWorld);
+            }
+            else
+            {
+                this.populateChunksOnClientThread(schematicWorld);
+            }
 
-                long chunkPosLong = it.next();
+            LitematicaRenderer.getInstance().getWorldRenderer().markNeedsUpdate();
+
+            return this.chunksToRebuild.isEmpty();
+        }
+
+        return false;
+    }
 
-                if (this.placementsTouchingChunk.containsKey(chunkPosLong) == false)
+    /**
+     * Swaps in the chunks that have been populated on the worker threads,
+     * and adds their block entities and entities.
+     */
+    protected void applyPopulatedChunks(WorldSchematic schematicWorld)
+    {
+        ChunkProviderSchematic provider = (ChunkProviderSchematic) schematicWorld.getChunkProvider();
+        PopulateTask task;
+
+        while ((System.nanoTime() - DataManager.getClientTickStartTime()) < 50000000L &&
+               (task = this.chunkPopulator.pollCompleted()) != null)
+        {
+            long chunkPosLong = task.getChunkPosLong();
+            ChunkSchematic chunk = task.getChunk();
+
+            if (this.chunksToRebuild.contains(chunkPosLong) == false)
+            {
+                continue;
+            }
+
+            // The population failed on the worker thread, try again on the client thread
+            if (chunk == null)
+            {
+                if (this.populateChunk(schematicWorld, chunkPosLong))
                 {
-                    it.remove();
-                    continue;
+                    this.chunksToRebuild.remove(chunkPosLong);
                 }
 
-                int chunkX = malilib.util.position.PositionUtils.getChunkPosX(chunkPosLong);
-                int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(chunkPosLong);
+                continue;
+            }
+
+            int chunkX = chunk.x;
+            int chunkZ = chunk.z;
 
-                if (Configs.Generic.LOAD_ENTIRE_SCHEMATICS.getBooleanValue() ||
-                    WorldWrap.isClientChunkLoaded(chunkX, chunkZ, GameWrap.getClientWorld()))
+            if (this.canLoadSchematicChunk(chunkX, chunkZ) == false)
+            {
+                continue;
+            }
+
+            this.unloadSchematicChunk(schematicWorld, chunkX, chunkZ);
+            provider.setLoadedChunk(chunk);
+
+            for (SchematicPlacement placement : task.getPlacements())
+            {
+                SchematicPlacingUtils.placeBlockEntitiesToSchematicChunk(placement, chunk);
+            }
+
+            schematicWorld.markBlockRangeForRenderUpdate( chunkX << 4      ,   0,  chunkZ << 4,
+                                                         (chunkX << 4) + 15, 256, (chunkZ << 4) + 15);
+            this.chunksToRebuild.remove(chunkPosLong);
+        }
+    }
+
+    /**
+     * Submits the queued chunks closest to the camera for population on the worker threads
+     */
+    protected void submitChunksForPopulation(WorldSchematic schematicWorld)
+    {
+        int count = this.chunkPopulator.getMaxInProgressCount() - this.chunkPopulator.getInProgressCount();
+
+        if (count <= 0)
+        {
+            return;
+        }
+
+        Entity camera = GameWrap.getCameraEntity();
+        double cameraX = camera != null ? EntityWrap.getX(camera) : 0.0;
+        double cameraZ = camera != null ? EntityWrap.getZ(camera) : 0.0;
+        List<ChunkDistance> candidates = new ArrayList<>();
+        LongIterator it = this.chunksToRebuild.iterator();
+
+        while (it.hasNext())
+        {
+            long chunkPosLong = it.next();
+
+            if (this.chunkIndex.isChunkTouched(chunkPosLong) == false)
+            {
+                it.remove();
+                continue;
+            }
+
+            if (this.chunkPopulator.isInProgress(chunkPosLong))
+            {
+                continue;
+            }
+
+            int chunkX = malilib.util.position.PositionUtils.getChunkPosX(chunkPosLong);
+            int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(chunkPosLong);
+            double dx = (chunkX << 4) + 8 - cameraX;
+            double dz = (chunkZ << 4) + 8 - cameraZ;
+
+            candidates.add(new ChunkDistance(chunkPosLong, dx * dx + dz * dz));
+        }
+
+        candidates.sort(Comparator.comparingDouble(ChunkDistance::getDistanceSq));
+
+        for (ChunkDistance candidate : candidates)
+        {
+            if (count <= 0 || (System.nanoTime() - DataManager.getClientTickStartTime()) >= 50000000L)
+            {
+                break;
+            }
+
+            long chunkPosLong = candidate.getChunkPosLong();
+            int chunkX = malilib.util.position.PositionUtils.getChunkPosX(chunkPosLong);
+            int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(chunkPosLong);
+
+            if (this.canLoadSchematicChunk(chunkX, chunkZ))
+            {
+                List<SchematicPlacement> placements = new ArrayList<>();
+
+                for (SchematicPlacement placement : this.chunkIndex.getPlacementsTouchingChunk(chunkPosLong))
                 {
-                    // Wipe the old chunk if it exists
-                    if (WorldWrap.isClientChunkLoaded(chunkX, chunkZ, schematicWorld))
+                    if (placement.isEnabled() && placement.isSchematicLoaded())
                     {
-                        //System.out.printf("wiping chunk at %s\n", pos);
-                        this.unloadSchematicChunk(schematicWorld, chunkX, chunkZ);
+                        placements.add(placement);
                     }
-
-                    //System.out.printf("loading chunk at %s\n", pos);
-                    WorldWrap.loadClientChunk(chunkX, chunkZ, schematicWorld);
                 }
 
-                if (WorldWrap.isClientChunkLoaded(chunkX, chunkZ, schematicWorld))
-                {
-                    //System.out.printf("placing at %s\n", pos);
-                    List<SchematicPlacement> placements = this.placementsTouchingChunk.get(chunkPosLong);
+                this.chunkPopulator.submit(schematicWorld, chunkPosLong, placements, candidate.getDistanceSq());
+                --count;
+            }
+            // Not allowed to load a new chunk, but the existing chunk still gets updated, as before
+            else if (this.populateChunk(schematicWorld, chunkPosLong))
+            {
+                this.chunksToRebuild.remove(chunkPosLong);
+            }
+        }
+    }
+
+    protected void populateChunksOnClientThread(WorldSchematic schematicWorld)
+    {
+        LongIterator it = this.chunksToRebuild.iterator();
+
+        while (it.hasNext())
+        {
+            if ((System.nanoTime() - DataManager.getClientTickStartTime()) >= 50000000L)
+            {
+                break;
+            }
+
+            long chunkPosLong = it.next();
+
+            if (this.chunkIndex.isChunkTouched(chunkPosLong) == false ||
+                this.populateChunk(schematicWorld, chunkPosLong))
+            {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Populates the given chunk on the client thread.
+     * The caller is responsible for removing the chunk from the rebuild queue.
+     * @return true if the chunk was populated, false if it's not currently loaded
+     */
+    protected boolean populateChunk(WorldSchematic schematicWorld, long chunkPosLong)
+    {
+        int chunkX = malilib.util.position.PositionUtils.getChunkPosX(chunkPosLong);
+        int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(chunkPosLong);
+
+        if (this.canLoadSchematicChunk(chunkX, chunkZ))
+        {
+            // Wipe the old chunk if it exists
+            if (WorldWrap.isClientChunkLoaded(chunkX, chunkZ, schematicWorld))
+            {
+                //System.out.printf("wiping chunk at %s\n", pos);
+                this.unloadSchematicChunk(schematicWorld, chunkX, chunkZ);
+            }
+
+            //System.out.printf("loading chunk at %s\n", pos);
+            WorldWrap.loadClientChunk(chunkX, chunkZ, schematicWorld);
+        }
+
+        if (WorldWrap.isClientChunkLoaded(chunkX, chunkZ, schematicWorld))
+        {
+            //System.out.printf("placing at %s\n", pos);
+            List<SchematicPlacement> placements = this.chunkIndex.getPlacementsTouchingChunk(chunkPosLong);
 
-                    if (placements != null)
+            if (placements != null)
+            {
+                for (SchematicPlacement placement : placements)
+                {
+                    if (placement.isEnabled() && placement.isSchematicLoaded())
                     {
-                        for (SchematicPlacement placement : placements)
-                        {
-                            if (placement.isEnabled() && placement.isSchematicLoaded())
-                            {
-                                SchematicPlacingUtils.placeToWorldWithinChunk(placement, new ChunkPos(chunkX, chunkZ),
-                                                                              schematicWorld, ReplaceBehavior.ALL, false);
-                            }
-                        }
-
-                        schematicWorld.markBlockRangeForRenderUpdate( chunkX << 4      ,   0,  chunkZ << 4,
-                                                                     (chunkX << 4) + 15, 256, (chunkZ << 4) + 15);
+                        SchematicPlacingUtils.placeToWorldWithinChunk(placement, new ChunkPos(chunkX, chunkZ),
+                                                                      schematicWorld, ReplaceBehavior.ALL, false);
                     }
-
-                    it.remove();
                 }
-            }
 
-            LitematicaRenderer.getInstance().getWorldRenderer().markNeedsUpdate();
+                schematicWorld.markBlockRangeForRenderUpdate( chunkX << 4      ,   0,  chunkZ << 4,
+                                                             (chunkX << 4) + 15, 256, (chunkZ << 4) + 15);
+            }
 
-            return this.chunksToRebuild.isEmpty();
+            return true;
         }
 
         return false;
     }
 
+    protected boolean canLoadSchematicChunk(int chunkX, int chunkZ)
+    {
+        return Configs.Generic.LOAD_ENTIRE_SCHEMATICS.getBooleanValue() ||
+               WorldWrap.isClientChunkLoaded(chunkX, chunkZ, GameWrap.getClientWorld());
+    }
+
     public void onClientChunkUnload(int chunkX, int chunkZ)
     {
         if (Configs.Generic.LOAD_ENTIRE_SCHEMATICS.getBooleanValue() == false)
@@ -218,8 +413,11 @@ public class SchematicPlacementManager
 
             if (schematicWorld != null)
             {
+                long chunkPosLong = ChunkPos.asLong(chunkX, chunkZ);
+                this.commitMovePreviewIfTouches(chunkPosLong);
+                this.chunkPopulator.invalidate(chunkPosLong);
                 this.unloadSchematicChunk(schematicWorld, chunkX, chunkZ);
-                this.chunksToRebuild.add(ChunkPos.asLong(chunkX, chunkZ));
+                this.chunksToRebuild.add(chunkPosLong);
             }
         }
     }
@@ -252,26 +450,87 @@ public class SchematicPlacementManager
         return this.schematicPlacements;
     }
 
-    public List<IntBoundingBox> getTouchedBoxesInSubChunk(ChunkSectionPos subChunk)
+    /**
+     * @return a bounding volume hierarchy over the enabled sub-region boxes and the origins
+     *         of all the visible and enabled placements. It is re-built lazily after it has
+     *         been invalidated by any placement changes.
+     */
+    public BoxBvh<PlacementBox> getPlacementBoxBvh()
     {
-        List<IntBoundingBox> list = new ArrayList<>();
-
-        for (PlacementPart part : this.touchedVolumesInSubChunk.get(subChunk))
+        if (this.placementBoxBvh == null)
         {
-            list.add(part.getBox());
+            BoxBvh.Builder<PlacementBox> builder = new BoxBvh.Builder<>();
+
+            for (SchematicPlacement placement : this.allVisibleSchematicPlacements)
+            {
+                if (placement.isEnabled() == false)
+                {
+                    continue;
+                }
+
+                ImmutableMap<String, SelectionBox> boxes = placement.getSubRegionBoxes(EnabledCondition.ENABLED);
+
+                for (Map.Entry<String, SelectionBox> entry : boxes.entrySet())
+                {
+                    SelectionBox box = entry.getValue();
+                    BlockPos pos1 = box.getCorner1();
+                    BlockPos pos2 = box.getCorner2();
+
+                    builder.add(new PlacementBox(placement, entry.getKey(), box),
+                                pos1.getX(), pos1.getY(), pos1.getZ(), pos2.getX(), pos2.getY(), pos2.getZ());
+                }
+
+                BlockPos origin = placement.getPosition();
+                builder.add(new PlacementBox(placement, null, null),
+                            origin.getX(), origin.getY(), origin.getZ(), origin.getX(), origin.getY(), origin.getZ());
+            }
+
+            this.placementBoxBvh = builder.build();
         }
 
-        return list;
+        return this.placementBoxBvh;
+    }
+
+    public void invalidatePlacementBoxBvh()
+    {
+        this.placementBoxBvh = null;
     }
 
+    /**
+     * @return a read-only view of the placement boxes within the given sub-chunk.
+     *         The view reflects any later changes to the placements.
+     */
+    public List<IntBoundingBox> getTouchedBoxesInSubChunk(ChunkSectionPos subChunk)
+    {
+        PlacementChunkIndex.SectionEntry section = this.chunkIndex.getSection(subChunk.getX(), subChunk.getY(), subChunk.getZ());
+        return section != null ? section.getBoxView() : Collections.emptyList();
+    }
+
+    /**
+     * @return the placement boxes within the given sub-chunk, or null if there are none
+     */
+    @Nullable
+    public PlacementChunkIndex.SectionEntry getTouchedSubChunk(int cx, int cy, int cz)
+    {
+        return this.chunkIndex.getSection(cx, cy, cz);
+    }
+
+    /**
+     * @return a read-only view of the placement parts within the given sub-chunk
+     */
     public List<PlacementPart> getAllPlacementsTouchingSubChunk(ChunkSectionPos pos)
     {
-        return this.touchedVolumesInSubChunk.get(pos);
+        PlacementChunkIndex.SectionEntry section = this.chunkIndex.getSection(pos.getX(), pos.getY(), pos.getZ());
+        return section != null ? section.getPartView() : Collections.emptyList();
     }
 
-    public Set<ChunkSectionPos> getAllTouchedSubChunks()
+    /**
+     * @return the positions of all the sub-chunks touched by placements,
+     *         packed with {@link PlacementChunkIndex#packSectionPos(int, int, int)}
+     */
+    public LongSet getAllTouchedSubChunks()
     {
-        return this.touchedVolumesInSubChunk.keySet();
+        return this.chunkIndex.getTouchedSections();
     }
 
     public void reOrderPlacements(List<SchematicPlacement> newList)
@@ -330,11 +589,13 @@ public class SchematicPlacementManager
     void addVisiblePlacement(SchematicPlacement placement)
     {
         this.allVisibleSchematicPlacements.add(placement);
+        this.placementBoxBvh = null;
     }
 
     void removeVisiblePlacement(SchematicPlacement placement)
     {
         this.allVisibleSchematicPlacements.remove(placement);
+        this.placementBoxBvh = null;
     }
 
     public void addSchematicPlacement(SchematicPlacement placement, boolean printMessages)
@@ -416,6 +677,8 @@ public class SchematicPlacementManager
 
     public boolean removeSchematicPlacement(SchematicPlacement placement, boolean update)
     {
+        this.commitMovePreviewOf(placement);
+
         if (this.selectedPlacement == placement)
         {
             this.selectedPlacement = null;
@@ -521,28 +784,20 @@ public class SchematicPlacementManager
 
     protected boolean hasPlacementInChunk(long chunkPosLong, SchematicPlacement placement)
     {
-        List<SchematicPlacement> list = this.placementsTouchingChunk.get(chunkPosLong);
-        return list != null && list.contains(placement);
+        return this.chunkIndex.hasPlacementInChunk(chunkPosLong, placement);
     }
 
+    /**
+     * Adds the placement to the given chunk, or updates its boxes if it's already there
+     */
     protected void addPlacementToChunk(long chunkPosLong, SchematicPlacement placement)
     {
-        this.placementsTouchingChunk.computeIfAbsent(chunkPosLong, cp -> new ArrayList<>()).add(placement);
+        this.chunkIndex.addPlacement(chunkPosLong, placement);
     }
 
     protected void removePlacementFromChunk(long chunkPosLong, SchematicPlacement placement)
     {
-        List<SchematicPlacement> list = this.placementsTouchingChunk.get(chunkPosLong);
-
-        if (list != null)
-        {
-            list.remove(placement);
-
-            if (list.isEmpty())
-            {
-                this.placementsTouchingChunk.remove(chunkPosLong);
-            }
-        }
+        this.chunkIndex.removePlacement(chunkPosLong, placement);
     }
 
     void addTouchedChunksFor(SchematicPlacement placement, boolean updateOverlay)
@@ -556,7 +811,6 @@ public class SchematicPlacementManager
                 if (this.hasPlacementInChunk(chunkPosLong, placement) == false)
                 {
                     this.addPlacementToChunk(chunkPosLong, placement);
-                    this.updateTouchedBoxesInChunk(chunkPosLong);
                 }
 
                 this.chunksToUnload.remove(chunkPosLong);
@@ -580,9 +834,8 @@ public class SchematicPlacementManager
             for (long chunkPosLong : chunks)
             {
                 this.removePlacementFromChunk(chunkPosLong, placement);
-                this.updateTouchedBoxesInChunk(chunkPosLong);
 
-                if (this.placementsTouchingChunk.containsKey(chunkPosLong) == false)
+                if (this.chunkIndex.isChunkTouched(chunkPosLong) == false)
                 {
                     this.chunksToUnload.add(chunkPosLong);
                 }
@@ -601,6 +854,7 @@ public class SchematicPlacementManager
 
     protected void onPrePlacementChange(SchematicPlacement placement)
     {
+        this.commitMovePreviewOf(placement);
         this.chunksPreChange.clear();
         this.chunksPreChange.addAll(placement.getTouchedChunks());
     }
@@ -616,10 +870,9 @@ public class SchematicPlacementManager
         for (long chunkPosLong : this.chunksPreChange)
         {
             this.removePlacementFromChunk(chunkPosLong, placement);
-            this.updateTouchedBoxesInChunk(chunkPosLong);
             //System.out.printf("removing placement from: %s\n", pos);
 
-            if (this.placementsTouchingChunk.containsKey(chunkPosLong) == false)
+            if (this.chunkIndex.isChunkTouched(chunkPosLong) == false)
             {
                 //System.out.printf("unloading: %s\n", pos);
                 this.chunksToUnload.add(chunkPosLong);
@@ -633,12 +886,7 @@ public class SchematicPlacementManager
 
         for (long chunkPosLong : chunksPost)
         {
-            if (this.hasPlacementInChunk(chunkPosLong, placement) == false)
-            {
-                this.addPlacementToChunk(chunkPosLong, placement);
-            }
-
-            this.updateTouchedBoxesInChunk(chunkPosLong);
+            this.addPlacementToChunk(chunkPosLong, placement);
         }
 
         this.markChunksForRebuild(toRebuild);
@@ -736,9 +984,16 @@ public class SchematicPlacementManager
 
         if (oldOrigin.equals(newOrigin) == false)
         {
-            this.onPrePlacementChange(placement);
-            placement.setOrigin(newOrigin);
-            this.onPlacementModified(placement);
+            if (this.canUseMovePreview(placement))
+            {
+                this.previewMove(placement, newOrigin);
+            }
+            else
+            {
+                this.onPrePlacementChange(placement);
+                placement.setOrigin(newOrigin);
+                this.onPlacementModified(placement);
+            }
         }
         else if (origin.equals(oldOrigin) == false && placement.coordinateLockMask != 0)
         {
@@ -746,6 +1001,93 @@ public class SchematicPlacementManager
         }
     }
 
+    /**
+     * @return true if the placement can be moved by just drawing its existing render chunks
+     *         with a translation, until the move stops and the placement then gets re-pasted
+     */
+    protected boolean canUseMovePreview(SchematicPlacement placement)
+    {
+        if (Configs.Generic.PLACEMENT_MOVE_PREVIEW_DELAY.getIntegerValue() <= 0 ||
+            placement.isEnabled() == false ||
+            placement.isRepeatedPlacement() ||
+            placement.getGridSettings().isEnabled())
+        {
+            return false;
+        }
+
+        if (this.movePreview != null &&
+            this.movePreview.getPlacement() == placement &&
+            this.movePreview.isCommitted() == false)
+        {
+            return true;
+        }
+
+        // The render chunks can only be translated if they don't contain anything else,
+        // and if the placement is already fully pasted into them
+        for (long chunkPosLong : placement.getTouchedChunks())
+        {
+            List<SchematicPlacement> list = this.chunkIndex.getPlacementsTouchingChunk(chunkPosLong);
+
+            if (this.chunksToRebuild.contains(chunkPosLong) ||
+                (list != null && (list.size() != 1 || list.get(0) != placement)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected void previewMove(SchematicPlacement placement, BlockPos newOrigin)
+    {
+        if (this.movePreview == null ||
+            this.movePreview.getPlacement() != placement ||
+            this.movePreview.isCommitted())
+        {
+            this.commitMovePreview();
+            this.movePreview = new PlacementMovePreview(placement, placement.getTouchedChunks());
+        }
+
+        placement.setOrigin(newOrigin);
+        placement.resetEnclosingBox();
+        this.movePreview.onMoved(newOrigin);
+        OverlayRenderer.getInstance().updatePlacementCache();
+    }
+
+    /**
+     * Re-pastes the placement being moved, if the move preview is still in progress
+     */
+    protected void commitMovePreview()
+    {
+        PlacementMovePreview preview = this.movePreview;
+
+        if (preview != null && preview.isCommitted() == false)
+        {
+            preview.setCommitted();
+            this.chunksPreChange.clear();
+            this.chunksPreChange.addAll(preview.getPastedChunks());
+            this.onPlacementModified(preview.getPlacement());
+        }
+    }
+
+    protected void commitMovePreviewOf(SchematicPlacement placement)
+    {
+        if (this.movePreview != null && this.movePreview.getPlacement() == placement)
+        {
+            this.commitMovePreview();
+        }
+    }
+
+    protected void commitMovePreviewIfTouches(long chunkPosLong)
+    {
+        if (this.movePreview != null &&
+            this.movePreview.isCommitted() == false &&
+            this.movePreview.getPastedChunks().contains(chunkPosLong))
+        {
+            this.commitMovePreview();
+        }
+    }
+
     public void setRotation(SchematicPlacement placement, BlockRotation rotation)
     {
         if (placement.isLocked())
@@ -931,51 +1273,6 @@ public class SchematicPlacementManager
         return success;
     }
 
-    protected void updateTouchedBoxesInChunk(long chunkPosLong)
-    {
-        int chunkX = malilib.util.position.PositionUtils.getChunkPosX(chunkPosLong);
-        int chunkZ = malilib.util.position.PositionUtils.getChunkPosZ(chunkPosLong);
-
-        for (int y = 0; y < 16; ++y)
-        {
-            ChunkSectionPos subChunk = new ChunkSectionPos(chunkX, y, chunkZ);
-            this.touchedVolumesInSubChunk.removeAll(subChunk);
-        }
-
-        List<SchematicPlacement> placements = this.placementsTouchingChunk.get(chunkPosLong);
-
-        if (placements == null)
-        {
-            return;
-        }
-
-        for (SchematicPlacement placement : placements)
-        {
-            if (placement.matchesRequirement(EnabledCondition.ENABLED))
-            {
-                Map<String, IntBoundingBox> boxMap = placement.getBoxesWithinChunk(chunkX, chunkZ);
-
-                for (Map.Entry<String, IntBoundingBox> entry : boxMap.entrySet())
-                {
-                    IntBoundingBox bbOrig = entry.getValue();
-                    final int startCY = (bbOrig.minY >> 4);
-                    final int endCY = (bbOrig.maxY >> 4);
-
-                    for (int cy = startCY; cy <= endCY; ++cy)
-                    {
-                        int y1 = Math.max((cy << 4)     , bbOrig.minY);
-                        int y2 = Math.min((cy << 4) + 15, bbOrig.maxY);
-
-                        IntBoundingBox bbSub = new IntBoundingBox(bbOrig.minX, y1, bbOrig.minZ, bbOrig.maxX, y2, bbOrig.maxZ);
-                        PlacementPart part = new PlacementPart(placement, entry.getKey(), bbSub);
-                        this.touchedVolumesInSubChunk.put(new ChunkSectionPos(chunkX, cy, chunkZ), part);
-                        //System.out.printf("updateTouchedBoxesInChunk box at %d, %d, %d: %s\n", pos.x, cy, pos.z, bbSub);
-                    }
-                }
-            }
-        }
-    }
-
     public void markAllPlacementsOfSchematicForRebuild(LoadedSchematic loadedSchematic)
     {
         for (SchematicPlacement placement : this.allVisibleSchematicPlacements)
@@ -1000,6 +1297,12 @@ public class SchematicPlacementManager
         //System.out.printf("rebuilding %d chunks: %s\n", chunks.size(), chunks);
         this.chunksToRebuild.addAll(chunks);
 
+        for (long chunkPosLong : chunks)
+        {
+            this.commitMovePreviewIfTouches(chunkPosLong);
+            this.chunkPopulator.invalidate(chunkPosLong);
+        }
+
         for (EventListener listener : this.rebuildListeners)
         {
             listener.onEvent();
@@ -1008,7 +1311,9 @@ public class SchematicPlacementManager
 
     public void markChunkForRebuild(long chunkPosLong)
     {
+        this.commitMovePreviewIfTouches(chunkPosLong);
         this.chunksToRebuild.add(chunkPosLong);
+        this.chunkPopulator.invalidate(chunkPosLong);
     }
 
     public boolean changeSelection(int maxDistance)
@@ -1268,4 +1573,66 @@ public class SchematicPlacementManager
             return this.bb;
         }
     }
+
+    /**
+     * One entry in the placement box BVH, which is either an enabled sub-region box
+     * of a placement, or the origin of the placement if the box is null.
+     */
+    public static class PlacementBox
+    {
+        private final SchematicPlacement placement;
+        @Nullable private final String subRegionName;
+        @Nullable private final SelectionBox box;
+
+        public PlacementBox(SchematicPlacement placement, @Nullable String subRegionName, @Nullable SelectionBox box)
+        {
+            this.placement = placement;
+            this.subRegionName = subRegionName;
+            this.box = box;
+        }
+
+        public SchematicPlacement getPlacement()
+        {
+            return this.placement;
+        }
+
+        public boolean isOrigin()
+        {
+            return this.box == null;
+        }
+
+        @Nullable
+        public String getSubRegionName()
+        {
+            return this.subRegionName;
+        }
+
+        @Nullable
+        public SelectionBox getBox()
+        {
+            return this.box;
+        }
+    }
+
+    protected static class ChunkDistance
+    {
+        private final long chunkPosLong;
+        private final double distanceSq;
+
+        public ChunkDistance(long chunkPosLong, double distanceSq)
+        {
+            this.chunkPosLong = chunkPosLong;
+            this.distanceSq = distanceSq;
+        }
+
+        public long getChunkPosLong()
+        {
+            return this.chunkPosLong;
+        }
+
+        public double getDistanceSq()
+        {
+            return this.distanceSq;
+        }
+    }
 }
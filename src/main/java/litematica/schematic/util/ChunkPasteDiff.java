@@ -0,0 +1,141 @@
+package litematica.schematic.util;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import malilib.util.position.IntBoundingBox;
+import litematica.util.value.ReplaceBehavior;
+import litematica.util.world.SectionHashUtils;
+
+/**
+ * Finds the positions within the paste boxes of one chunk, where the schematic world
+ * differs from the target world, so that a paste can only touch those positions.
+ * The sub-chunks are first compared as a whole, and the ones that can't have
+ * any changes are skipped without looking at the individual blocks. When pasting into
+ * the client world, this includes the sub-chunks whose content hashes are identical.
+ */
+public class ChunkPasteDiff
+{
+    private final IdentityHashMap<IBlockState, IBlockState> metaStates = new IdentityHashMap<>();
+    private final BitSet sectionBits = new BitSet(4096);
+    private final ReplaceBehavior replace;
+
+    public ChunkPasteDiff(ReplaceBehavior replace)
+    {
+        this.replace = replace;
+    }
+
+    /**
+     * Adds the differing positions within the given boxes to the list.
+     * The positions are packed as y << 8 | z << 4 | x, where y is the world y-coordinate
+     * and x and z are chunk-relative.
+     * @param boxes the paste boxes within this chunk, using world coordinates
+     * @return the number of added positions
+     */
+    public int collectDifferences(Chunk chunkSchematic, Chunk chunkTarget, List<IntBoundingBox> boxes, IntArrayList positionsOut)
+    {
+        ExtendedBlockStorage[] schematicSections = chunkSchematic.getBlockStorageArray();
+        ExtendedBlockStorage[] targetSections = chunkTarget.getBlockStorageArray();
+        int sizeBefore = positionsOut.size();
+        int matchingSections = SectionHashUtils.getMatchingSections(chunkSchematic, chunkTarget, SectionHashUtils.getSectionMask(boxes));
+
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            ExtendedBlockStorage sectionSchematic = schematicSections[cy];
+            ExtendedBlockStorage sectionTarget = targetSections[cy];
+            boolean schematicEmpty = sectionSchematic == Chunk.NULL_BLOCK_STORAGE || sectionSchematic.isEmpty();
+            boolean targetEmpty = sectionTarget == Chunk.NULL_BLOCK_STORAGE || sectionTarget.isEmpty();
+
+            // An empty schematic sub-chunk can only remove blocks, which only the Replace All mode does
+            if (schematicEmpty && (targetEmpty || this.replace != ReplaceBehavior.ALL))
+            {
+                continue;
+            }
+
+            // Identical sub-chunks don't have any differences in any of the replace modes
+            if ((matchingSections & (1 << cy)) != 0)
+            {
+                continue;
+            }
+
+            this.sectionBits.clear();
+
+            for (IntBoundingBox box : boxes)
+            {
+                int minY = Math.max(box.minY, cy << 4);
+                int maxY = Math.min(box.maxY, (cy << 4) + 15);
+
+                if (minY <= maxY)
+                {
+                    this.compareBox(schematicEmpty ? null : sectionSchematic, targetEmpty ? null : sectionTarget,
+                                    box.minX & 0xF, minY & 0xF, box.minZ & 0xF,
+                                    box.maxX & 0xF, maxY & 0xF, box.maxZ & 0xF);
+                }
+            }
+
+            for (int index = this.sectionBits.nextSetBit(0); index >= 0; index = this.sectionBits.nextSetBit(index + 1))
+            {
+                positionsOut.add((cy << 12) | index);
+            }
+        }
+
+        return positionsOut.size() - sizeBefore;
+    }
+
+    private void compareBox(@Nullable ExtendedBlockStorage sectionSchematic, @Nullable ExtendedBlockStorage sectionTarget,
+                            int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+    {
+        IBlockState air = Blocks.AIR.getDefaultState();
+
+        for (int y = minY; y <= maxY; ++y)
+        {
+            for (int z = minZ; z <= maxZ; ++z)
+            {
+                for (int x = minX; x <= maxX; ++x)
+                {
+                    IBlockState stateSchematic = sectionSchematic != null ? sectionSchematic.get(x, y, z) : air;
+                    IBlockState stateTarget = sectionTarget != null ? sectionTarget.get(x, y, z) : air;
+
+                    if (this.isDifferent(stateSchematic, stateTarget))
+                    {
+                        this.sectionBits.set((y << 8) | (z << 4) | x);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isDifferent(IBlockState stateSchematic, IBlockState stateTarget)
+    {
+        if (stateSchematic.getBlock() == Blocks.AIR && stateTarget.getBlock() == Blocks.AIR)
+        {
+            return false;
+        }
+
+        if ((this.replace == ReplaceBehavior.NONE && stateTarget.getMaterial() != Material.AIR) ||
+            (this.replace == ReplaceBehavior.WITH_NON_AIR && stateSchematic.getMaterial() == Material.AIR))
+        {
+            return false;
+        }
+
+        // Discard the non-meta state info, as it depends on neighbor blocks, and it is not stored in the world
+        return this.metaStates.computeIfAbsent(stateSchematic, ChunkPasteDiff::getMetaState) != stateTarget;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static IBlockState getMetaState(IBlockState state)
+    {
+        Block block = state.getBlock();
+        return block.getStateFromMeta(block.getMetaFromState(state));
+    }
+}
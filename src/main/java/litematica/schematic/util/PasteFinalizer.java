@@ -0,0 +1,191 @@
+package litematica.schematic.util;
+
+import java.util.BitSet;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import net.minecraft.block.Block;
+import net.minecraft.world.World;
+
+import malilib.util.position.Direction;
+import litematica.Litematica;
+import litematica.schematic.placement.PlacementChunkIndex;
+
+/**
+ * Collects the positions changed by a direct paste, and then runs the deferred neighbor updates
+ * and lighting checks for them once the paste has finished. The changed positions are stored
+ * as a bit set per sub-chunk, so each changed position notifies its neighbors
+ * only once, no matter how many times it was changed during the paste.
+ * The sub-chunks whose chunk is not loaded when they are reached are re-tried once per call,
+ * after all the other sub-chunks have been handled. If their chunk still isn't loaded
+ * after MAX_RETRY_PASSES tries, they are given up on and counted as skipped.
+ */
+public class PasteFinalizer
+{
+    // The number of times the sub-chunks in unloaded chunks are re-tried, about 5 seconds at one try per tick
+    private static final int MAX_RETRY_PASSES = 100;
+
+    private final Long2ObjectOpenHashMap<BitSet> changedPerSection = new Long2ObjectOpenHashMap<>();
+    private final LongArrayList deferredSections = new LongArrayList();
+    private final net.minecraft.util.math.BlockPos.MutableBlockPos pos = new net.minecraft.util.math.BlockPos.MutableBlockPos();
+    @Nullable private long[] sectionOrder;
+    private int nextSectionIndex;
+    private int processedSections;
+    private int retryPasses;
+    private int skippedSections;
+
+    /**
+     * Marks the given position as changed
+     */
+    public void markChanged(int x, int y, int z)
+    {
+        if (y < 0 || y >= 256 || this.sectionOrder != null)
+        {
+            return;
+        }
+
+        long sectionKey = PlacementChunkIndex.packSectionPos(x >> 4, y >> 4, z >> 4);
+        BitSet changed = this.changedPerSection.computeIfAbsent(sectionKey, p -> new BitSet(4096));
+        changed.set(((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF));
+    }
+
+    public int getSectionCount()
+    {
+        return this.sectionOrder != null ? this.sectionOrder.length : this.changedPerSection.size();
+    }
+
+    public int getProcessedSectionCount()
+    {
+        return this.processedSections;
+    }
+
+    /**
+     * @return the number of sub-chunks that were not updated, because their chunk was not loaded
+     */
+    public int getSkippedSectionCount()
+    {
+        return this.skippedSections;
+    }
+
+    public boolean isFinished()
+    {
+        return this.sectionOrder != null &&
+               this.nextSectionIndex >= this.sectionOrder.length &&
+               this.deferredSections.isEmpty();
+    }
+
+    /**
+     * Runs the deferred updates one sub-chunk at a time, until the given end time.
+     * Once this has been called, no more positions can be marked as changed.
+     * @return true if all the sub-chunks have been handled
+     */
+    public boolean processSections(World world, long endTime)
+    {
+        if (this.sectionOrder == null)
+        {
+            this.sectionOrder = this.changedPerSection.keySet().toLongArray();
+        }
+
+        while (this.nextSectionIndex < this.sectionOrder.length && System.nanoTime() < endTime)
+        {
+            long sectionKey = this.sectionOrder[this.nextSectionIndex++];
+
+            if (this.processSection(world, sectionKey))
+            {
+                ++this.processedSections;
+            }
+            else
+            {
+                this.deferredSections.add(sectionKey);
+            }
+        }
+
+        if (this.nextSectionIndex >= this.sectionOrder.length && this.deferredSections.isEmpty() == false)
+        {
+            this.retryDeferredSections(world);
+        }
+
+        if (this.isFinished())
+        {
+            this.changedPerSection.clear();
+            return true;
+        }
+
+        return false;
+    }
+
+    private void retryDeferredSections(World world)
+    {
+        for (int i = 0; i < this.deferredSections.size(); )
+        {
+            if (this.processSection(world, this.deferredSections.getLong(i)))
+            {
+                ++this.processedSections;
+                // The order doesn't matter, so just move the last entry here
+                this.deferredSections.set(i, this.deferredSections.getLong(this.deferredSections.size() - 1));
+                this.deferredSections.removeLong(this.deferredSections.size() - 1);
+            }
+            else
+            {
+                ++i;
+            }
+        }
+
+        if (this.deferredSections.isEmpty() == false && ++this.retryPasses >= MAX_RETRY_PASSES)
+        {
+            this.skippedSections = this.deferredSections.size();
+            this.deferredSections.clear();
+            Litematica.LOGGER.warn("Skipped the deferred neighbor updates and lighting checks of {} sub-chunks, " +
+                                   "because their chunks were not loaded", this.skippedSections);
+        }
+    }
+
+    /**
+     * @return false if the chunk of the sub-chunk is not loaded, and nothing was done
+     */
+    private boolean processSection(World world, long sectionKey)
+    {
+        int cx = PlacementChunkIndex.unpackSectionX(sectionKey);
+        int cy = PlacementChunkIndex.unpackSectionY(sectionKey);
+        int cz = PlacementChunkIndex.unpackSectionZ(sectionKey);
+        int baseX = cx << 4;
+        int baseY = cy << 4;
+        int baseZ = cz << 4;
+        BitSet changed = this.changedPerSection.get(sectionKey);
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = this.pos;
+
+        if (world.isBlockLoaded(pos.setPos(baseX, baseY, baseZ)) == false)
+        {
+            return false;
+        }
+
+        // Each changed position notifies its neighbors once, from its final block,
+        // like a regular block change would do. The neighbors can be in the adjacent sub-chunks.
+        for (int index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1))
+        {
+            net.minecraft.util.math.BlockPos changedPos = new net.minecraft.util.math.BlockPos(baseX + (index & 0xF), baseY + (index >> 8), baseZ + ((index >> 4) & 0xF));
+            Block changedBlock = world.getBlockState(changedPos).getBlock();
+
+            for (Direction side : Direction.ALL_DIRECTIONS)
+            {
+                pos.setPos(changedPos.getX() + side.getXOffset(), changedPos.getY() + side.getYOffset(), changedPos.getZ() + side.getZOffset());
+
+                if (world.isBlockLoaded(pos))
+                {
+                    world.neighborChanged(pos, changedBlock, changedPos);
+                }
+            }
+        }
+
+        // The lighting is checked once per changed position, now that all the blocks
+        // have their final states, instead of once for every intermediate block change
+        for (int index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1))
+        {
+            pos.setPos(baseX + (index & 0xF), baseY + (index >> 8), baseZ + ((index >> 4) & 0xF));
+            world.checkLight(pos);
+        }
+
+        return true;
+    }
+}
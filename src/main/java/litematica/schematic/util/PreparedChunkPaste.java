@@ -0,0 +1,306 @@
+package litematica.schematic.util;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import malilib.util.data.tag.CompoundData;
+import malilib.util.position.BlockMirror;
+import malilib.util.position.BlockPos;
+import malilib.util.position.BlockRotation;
+import malilib.util.position.ChunkPos;
+import litematica.Litematica;
+import litematica.schematic.placement.SchematicPlacement;
+import litematica.util.value.ReplaceBehavior;
+import litematica.util.world.BatchedBlockLightUpdater;
+
+/**
+ * The target block states and block entity data of one chunk for a direct paste.
+ * These are prepared from the schematic data only, without touching the world,
+ * so the preparation can be done on worker threads. The result is then written
+ * directly into the chunk's section storage on the server thread. The height map and the sky light
+ * are re-generated once for the whole chunk, and the block light is re-calculated once per section,
+ * around the positions where the light value or the light opacity of the block changed.
+ */
+public class PreparedChunkPaste
+{
+    private final ChunkPos chunkPos;
+    private final List<SchematicPlacement> placements;
+    private final ReplaceBehavior replace;
+    // The target states per section, indexed by y << 8 | z << 4 | x. Null for the positions that are not pasted.
+    private final IBlockState[][] sections = new IBlockState[16][];
+    // The block entity data, keyed by the chunk-relative index y << 8 | z << 4 | x
+    private final Int2ObjectOpenHashMap<BlockEntityEntry> blockEntities = new Int2ObjectOpenHashMap<>();
+    private boolean failed;
+
+    public PreparedChunkPaste(ChunkPos chunkPos, List<SchematicPlacement> placements, ReplaceBehavior replace)
+    {
+        this.chunkPos = chunkPos;
+        this.placements = placements;
+        this.replace = replace;
+    }
+
+    public ChunkPos getChunkPos()
+    {
+        return this.chunkPos;
+    }
+
+    public List<SchematicPlacement> getPlacements()
+    {
+        return this.placements;
+    }
+
+    /**
+     * @return true if the preparation failed, in which case nothing from this chunk should be pasted
+     */
+    public boolean hasFailed()
+    {
+        return this.failed;
+    }
+
+    /**
+     * Prepares the blocks of all the placements. This only reads the schematic data,
+     * and is meant to be called on a worker thread.
+     */
+    public void prepare()
+    {
+        try
+        {
+            for (SchematicPlacement placement : this.placements)
+            {
+                if (placement.isSchematicLoaded())
+                {
+                    SchematicPlacingUtils.preparePasteWithinChunk(placement, this);
+                }
+            }
+        }
+        catch (Throwable t)
+        {
+            // Don't paste anything from a partially prepared chunk. Errors are also caught here,
+            // so that the chunk always gets handed back to the task instead of being lost with the worker thread.
+            this.failed = true;
+            Arrays.fill(this.sections, null);
+            this.blockEntities.clear();
+            Litematica.LOGGER.warn("Exception while preparing the paste of chunk [{}, {}]", this.chunkPos.x, this.chunkPos.z, t);
+        }
+    }
+
+    ReplaceBehavior getReplaceBehavior()
+    {
+        return this.replace;
+    }
+
+    /**
+     * @param x the chunk-relative x-coordinate
+     * @param y the world y-coordinate
+     * @param z the chunk-relative z-coordinate
+     */
+    void setBlockState(int x, int y, int z, IBlockState state)
+    {
+        if (y < 0 || y >= 256)
+        {
+            return;
+        }
+
+        IBlockState[] section = this.sections[y >> 4];
+
+        if (section == null)
+        {
+            section = new IBlockState[4096];
+            this.sections[y >> 4] = section;
+        }
+
+        int index = ((y & 0xF) << 8) | (z << 4) | x;
+
+        // Overlapping placements within the same paste must not replace each other's blocks either
+        if (this.replace == ReplaceBehavior.NONE && section[index] != null &&
+            section[index].getMaterial() != Material.AIR)
+        {
+            return;
+        }
+
+        section[index] = state;
+
+        if (this.blockEntities.isEmpty() == false)
+        {
+            this.blockEntities.remove((y << 8) | (z << 4) | x);
+        }
+    }
+
+    void addBlockEntity(BlockPos pos, CompoundData data, BlockMirror mirrorMain, BlockMirror mirrorSub, BlockRotation rotation)
+    {
+        int index = (pos.getY() << 8) | ((pos.getZ() & 0xF) << 4) | (pos.getX() & 0xF);
+        this.blockEntities.put(index, new BlockEntityEntry(pos, data, mirrorMain, mirrorSub, rotation));
+    }
+
+    /**
+     * Writes the prepared blocks into the world. This must be called on the server thread.
+     * The blocks are written directly to the section storage, so there are no neighbor updates,
+     * which matches the regular direct paste that doesn't do them either.
+     * @param finalizer if not null, then the changed positions are added to it, and the lighting
+     *                  checks are left for it, instead of re-calculating the block light per section
+     * @return the number of changed blocks
+     */
+    public int commit(World world, @Nullable PasteFinalizer finalizer)
+    {
+        Chunk chunk = world.getChunk(this.chunkPos.x, this.chunkPos.z);
+        ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+        boolean hasSkyLight = world.provider.hasSkyLight();
+        IBlockState air = Blocks.AIR.getDefaultState();
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = new net.minecraft.util.math.BlockPos.MutableBlockPos();
+        int baseX = this.chunkPos.x << 4;
+        int baseZ = this.chunkPos.z << 4;
+        int changed = 0;
+        BatchedBlockLightUpdater lightUpdater = finalizer == null ? new BatchedBlockLightUpdater() : null;
+
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            IBlockState[] section = this.sections[cy];
+
+            if (section == null)
+            {
+                continue;
+            }
+
+            ExtendedBlockStorage storage = storageArray[cy];
+
+            for (int index = 0; index < 4096; ++index)
+            {
+                IBlockState state = section[index];
+
+                if (state == null)
+                {
+                    continue;
+                }
+
+                int x = index & 0xF;
+                int y = index >> 8;
+                int z = (index >> 4) & 0xF;
+                IBlockState stateOld = storage != Chunk.NULL_BLOCK_STORAGE ? storage.get(x, y, z) : air;
+
+                if (this.replace == ReplaceBehavior.NONE && stateOld.getMaterial() != Material.AIR)
+                {
+                    continue;
+                }
+
+                pos.setPos(baseX + x, (cy << 4) + y, baseZ + z);
+
+                if (stateOld == state && this.blockEntities.containsKey((cy << 12) | index) == false)
+                {
+                    continue;
+                }
+
+                if (storage == Chunk.NULL_BLOCK_STORAGE)
+                {
+                    if (state == air)
+                    {
+                        continue;
+                    }
+
+                    storage = new ExtendedBlockStorage(cy << 4, hasSkyLight);
+                    storageArray[cy] = storage;
+                }
+
+                // The old block entity is just removed without breaking the block,
+                // so that its contents don't get dropped
+                if (chunk.getTileEntityMap().containsKey(pos))
+                {
+                    world.removeTileEntity(pos.toImmutable());
+                }
+
+                storage.set(x, y, z, state);
+                world.notifyBlockUpdate(pos, stateOld, state, 2);
+                ++changed;
+
+                if (finalizer != null)
+                {
+                    finalizer.markChanged(pos.getX(), pos.getY(), pos.getZ());
+                }
+                else if (stateOld.getLightOpacity() != state.getLightOpacity() ||
+                         stateOld.getLightValue() != state.getLightValue())
+                {
+                    lightUpdater.addChangedPosition(pos.getX(), pos.getY(), pos.getZ());
+                }
+            }
+
+            // The block light is re-calculated once for all the changed positions of the section
+            if (lightUpdater != null && lightUpdater.isEmpty() == false)
+            {
+                lightUpdater.update(world);
+            }
+        }
+
+        for (Int2ObjectMap.Entry<BlockEntityEntry> mapEntry : this.blockEntities.int2ObjectEntrySet())
+        {
+            int index = mapEntry.getIntKey();
+            BlockEntityEntry entry = mapEntry.getValue();
+            IBlockState[] section = this.sections[index >> 12];
+
+            // Skip the positions that were not pasted due to the replace behavior
+            if (section == null || chunk.getBlockState(entry.pos) != section[index & 0xFFF])
+            {
+                continue;
+            }
+
+            TileEntity be = chunk.getTileEntity(entry.pos, Chunk.EnumCreateEntityType.IMMEDIATE);
+
+            if (be != null)
+            {
+                SchematicPlacingUtils.loadBlockEntityData(be, entry.data, entry.pos, entry.mirrorMain, entry.mirrorSub, entry.rotation);
+            }
+        }
+
+        if (changed > 0)
+        {
+            // The height map and the sky light are re-generated once for the whole chunk.
+            // That doesn't spread the sky light sideways, so without a finalizer the chunk is also
+            // marked as not light populated, which makes the server re-check its sky light on the next chunk tick.
+            chunk.generateSkylightMap();
+
+            if (finalizer == null)
+            {
+                chunk.setLightPopulated(false);
+            }
+
+            chunk.markDirty();
+        }
+
+        for (SchematicPlacement placement : this.placements)
+        {
+            if (placement.isSchematicLoaded() && placement.isValid())
+            {
+                SchematicPlacingUtils.placeEntitiesToWorldWithinChunk(placement, this.chunkPos, world);
+            }
+        }
+
+        return changed;
+    }
+
+    private static class BlockEntityEntry
+    {
+        private final BlockPos pos;
+        private final CompoundData data;
+        private final BlockMirror mirrorMain;
+        private final BlockMirror mirrorSub;
+        private final BlockRotation rotation;
+
+        private BlockEntityEntry(BlockPos pos, CompoundData data, BlockMirror mirrorMain, BlockMirror mirrorSub, BlockRotation rotation)
+        {
+            this.pos = pos;
+            this.data = data;
+            this.mirrorMain = mirrorMain;
+            this.mirrorSub = mirrorSub;
+            this.rotation = rotation;
+        }
+    }
+}
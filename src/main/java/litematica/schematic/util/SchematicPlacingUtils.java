@@ -1,6 +1,7 @@
 package litematica.schematic.util;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -15,8 +16,10 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.init.Blocks;
 import net.minecraft.inventory.IInventory;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
 import malilib.overlay.message.MessageDispatcher;
 import malilib.util.data.EnabledCondition;
@@ -41,6 +44,7 @@ import litematica.data.DataManager;
 import litematica.scheduler.TaskScheduler;
 import litematica.scheduler.tasks.TaskPasteSchematicPerChunkCommand;
 import litematica.scheduler.tasks.TaskPasteSchematicPerChunkDirect;
+import litematica.scheduler.tasks.TaskPasteSchematicPerChunkParallel;
 import litematica.schematic.Schematic;
 import litematica.schematic.SchematicRegion;
 import litematica.schematic.container.BlockContainer;
@@ -53,6 +57,8 @@ import litematica.selection.SelectionBox;
 import litematica.util.PositionUtils;
 import litematica.util.WorldUtils;
 import litematica.util.value.ReplaceBehavior;
+import litematica.world.ChunkSchematic;
+import litematica.world.WorldSchematic;
 
 public class SchematicPlacingUtils
 {
@@ -112,7 +118,15 @@ public class SchematicPlacingUtils
             {
                 LayerRange range = DataManager.getRenderLayerRange().copy();
 
-                if (GameWrap.isSinglePlayer())
+                boolean diffFirst = changedBlocksOnly && Configs.Generic.PASTE_DIFF_FIRST.getBooleanValue();
+
+                // The diff-first paste only touches the differing positions, so it doesn't need the worker threads
+                if (GameWrap.isSinglePlayer() && Configs.Generic.PASTE_PARALLEL_THREADS.getIntegerValue() > 0 && diffFirst == false)
+                {
+                    TaskPasteSchematicPerChunkParallel task = new TaskPasteSchematicPerChunkParallel(placements, range, changedBlocksOnly);
+                    TaskScheduler.getInstanceServer().scheduleTask(task, 1);
+                }
+                else if (GameWrap.isSinglePlayer())
                 {
                     TaskPasteSchematicPerChunkDirect task = new TaskPasteSchematicPerChunkDirect(placements, range, changedBlocksOnly);
                     TaskScheduler.getInstanceServer().scheduleTask(task, 20);
@@ -451,9 +465,154 @@ public class SchematicPlacingUtils
         return allSuccess;
     }
 
+    /**
+     * Prepares the blocks and the block entity data of the given placement within the chunk
+     * of the given prepared paste. This only reads the schematic data and doesn't touch
+     * the world at all, so this can be used on worker threads.
+     * @return true if all the sub-regions had valid schematic data
+     */
+    public static boolean preparePasteWithinChunk(SchematicPlacement schematicPlacement, PreparedChunkPaste preparedPaste)
+    {
+        Schematic schematic = schematicPlacement.getSchematic();
+        ChunkPos chunkPos = preparedPaste.getChunkPos();
+        ImmutableMap<String, SelectionBox> enabledRegions = schematicPlacement.getSubRegionBoxes(EnabledCondition.ENABLED);
+        Set<String> regionsTouchingChunk = PositionUtils.getSubRegionNamesTouchingChunk(chunkPos.x, chunkPos.z, enabledRegions);
+        BlockPos origin = schematicPlacement.getPosition();
+        boolean allSuccess = true;
+
+        for (String regionName : regionsTouchingChunk)
+        {
+            SubRegionPlacement placement = schematicPlacement.getSubRegion(regionName);
+            SchematicRegion region = schematic.getRegions().get(regionName);
+
+            if (region == null || placement == null)
+            {
+                allSuccess = false;
+                continue;
+            }
+
+            if (placement.isEnabled() &&
+                placeBlocksWithinChunk(null, null, preparedPaste, chunkPos, regionName, region, origin, schematicPlacement,
+                                       placement, preparedPaste.getReplaceBehavior(), false, true, true) == false)
+            {
+                allSuccess = false;
+                Litematica.LOGGER.warn("Invalid/missing schematic data in schematic '{}' for sub-region '{}'", schematic.getMetadata().getSchematicName(), regionName);
+            }
+        }
+
+        return allSuccess;
+    }
+
+    /**
+     * Spawns the entities of all the enabled sub-regions of the given placement within the given chunk
+     */
+    public static void placeEntitiesToWorldWithinChunk(SchematicPlacement schematicPlacement, ChunkPos chunkPos, World world)
+    {
+        if (schematicPlacement.ignoreEntities())
+        {
+            return;
+        }
+
+        Schematic schematic = schematicPlacement.getSchematic();
+        ImmutableMap<String, SelectionBox> enabledRegions = schematicPlacement.getSubRegionBoxes(EnabledCondition.ENABLED);
+        Set<String> regionsTouchingChunk = PositionUtils.getSubRegionNamesTouchingChunk(chunkPos.x, chunkPos.z, enabledRegions);
+        BlockPos origin = schematicPlacement.getPosition();
+
+        for (String regionName : regionsTouchingChunk)
+        {
+            SubRegionPlacement placement = schematicPlacement.getSubRegion(regionName);
+            SchematicRegion region = schematic.getRegions().get(regionName);
+
+            if (region != null && placement != null && placement.isEnabled() && placement.ignoreEntities() == false)
+            {
+                placeEntitiesToWorldWithinChunk(world, chunkPos, region, origin, schematicPlacement, placement);
+            }
+        }
+    }
+
+    /**
+     * Places the block states of the given placement into the given schematic chunk.
+     * The chunk doesn't need to be loaded in the world, and this doesn't touch the world at all,
+     * so this can be used to prepare new chunks on other threads.
+     * The block entities and entities then need to be added via
+     * {@link #placeBlockEntitiesToSchematicChunk(SchematicPlacement, ChunkSchematic)},
+     * after the chunk has been loaded into the world.
+     */
+    public static void placeBlockStatesToSchematicChunk(SchematicPlacement schematicPlacement, ChunkSchematic chunk)
+    {
+        placeToSchematicChunk(schematicPlacement, chunk, true, false);
+    }
+
+    /**
+     * Creates the block entities and spawns the entities of the given placement into the given
+     * schematic chunk, after its block states have been placed via
+     * {@link #placeBlockStatesToSchematicChunk(SchematicPlacement, ChunkSchematic)}
+     * and the chunk has been loaded into the world.
+     */
+    public static void placeBlockEntitiesToSchematicChunk(SchematicPlacement schematicPlacement, ChunkSchematic chunk)
+    {
+        World world = chunk.getWorld();
+
+        try
+        {
+            WorldUtils.setShouldPreventBlockUpdates(world, true);
+            placeToSchematicChunk(schematicPlacement, chunk, false, true);
+        }
+        finally
+        {
+            WorldUtils.setShouldPreventBlockUpdates(world, false);
+        }
+    }
+
+    private static void placeToSchematicChunk(SchematicPlacement schematicPlacement, ChunkSchematic chunk,
+                                              boolean placeBlocks, boolean placeBlockEntities)
+    {
+        Schematic schematic = schematicPlacement.getSchematic();
+        ImmutableMap<String, SelectionBox> enabledRegions = schematicPlacement.getSubRegionBoxes(EnabledCondition.ENABLED);
+        Set<String> regionsTouchingChunk = PositionUtils.getSubRegionNamesTouchingChunk(chunk.x, chunk.z, enabledRegions);
+        ChunkPos chunkPos = new ChunkPos(chunk.x, chunk.z);
+        BlockPos origin = schematicPlacement.getPosition();
+        World world = chunk.getWorld();
+
+        for (String regionName : regionsTouchingChunk)
+        {
+            SubRegionPlacement placement = schematicPlacement.getSubRegion(regionName);
+            SchematicRegion region = schematic.getRegions().get(regionName);
+
+            if (region == null || placement == null || placement.isEnabled() == false)
+            {
+                continue;
+            }
+
+            placeBlocksWithinChunk(world, chunk, null, chunkPos, regionName, region, origin, schematicPlacement,
+                                   placement, ReplaceBehavior.ALL, false, placeBlocks, placeBlockEntities);
+
+            if (placeBlockEntities && schematicPlacement.ignoreEntities() == false && placement.ignoreEntities() == false)
+            {
+                placeEntitiesToWorldWithinChunk(world, chunkPos, region, origin, schematicPlacement, placement);
+            }
+        }
+    }
+
     public static boolean placeBlocksWithinChunk(World world, ChunkPos chunkPos, String regionName, SchematicRegion region,
                                                  BlockPos origin, SchematicPlacement schematicPlacement,
                                                  SubRegionPlacement placement, ReplaceBehavior replace, boolean notifyNeighbors)
+    {
+        // When (re-)populating the schematic world, the blocks are written directly to the chunk's
+        // section storage, and the tile entities are only created for the positions that have block entity data
+        Chunk chunk = replace == ReplaceBehavior.ALL && world instanceof WorldSchematic ? world.getChunk(chunkPos.x, chunkPos.z) : null;
+        ChunkSchematic schematicChunk = chunk instanceof ChunkSchematic ? (ChunkSchematic) chunk : null;
+
+        return placeBlocksWithinChunk(world, schematicChunk, null, chunkPos, regionName, region, origin, schematicPlacement,
+                                      placement, replace, notifyNeighbors, true, true);
+    }
+
+    private static boolean placeBlocksWithinChunk(@Nullable World world, @Nullable ChunkSchematic schematicChunk,
+                                                  @Nullable PreparedChunkPaste preparedPaste, ChunkPos chunkPos,
+                                                  String regionName, SchematicRegion region,
+                                                  BlockPos origin, SchematicPlacement schematicPlacement,
+                                                  SubRegionPlacement placement, ReplaceBehavior replace, boolean notifyNeighbors,
+                                                  boolean placeBlocks, boolean placeBlockEntities)
     {
         CornerDefinedBox box = schematicPlacement.getSubRegionBox(regionName, EnabledCondition.ENABLED);
         IntBoundingBox bounds = box != null ? PositionUtils.getBoundsWithinChunkForBox(box, chunkPos.x, chunkPos.z) : null;
@@ -500,9 +659,6 @@ public class SchematicPlacingUtils
 
         final int startY = 0;
         final int endY = Math.abs(regionSize.getY()) - 1;
-        BlockPos.MutBlockPos posMutable = new BlockPos.MutBlockPos();
-
-        //System.out.printf("sx: %d, sy: %d, sz: %d => ex: %d, ey: %d, ez: %d\n", startX, startY, startZ, endX, endY, endZ);
 
         if (startX < 0 || startZ < 0 || endX >= container.getSize().getX() || endZ >= container.getSize().getZ())
         {
@@ -523,11 +679,38 @@ public class SchematicPlacingUtils
             mirrorSub = mirrorSub == BlockMirror.X ? BlockMirror.Z : BlockMirror.X;
         }
 
-        for (int y = startY; y <= endY; ++y)
+        // The placement transform is linear, so the world position is stepped incrementally
+        // from the transformed start position, using the transformed unit steps along the x and z axes.
+        BlockPos posStart = PositionUtils.getTransformedPlacementPosition(new BlockPos(posMinRel.getX() + startX - regionPos.getX(),
+                                                                                      posMinRel.getY() + startY - regionPos.getY(),
+                                                                                      posMinRel.getZ() + startZ - regionPos.getZ()),
+                                                                         schematicPlacement, placement);
+        BlockPos stepX = PositionUtils.getTransformedPlacementPosition(new BlockPos(1, 0, 0), schematicPlacement, placement);
+        BlockPos stepZ = PositionUtils.getTransformedPlacementPosition(new BlockPos(0, 0, 1), schematicPlacement, placement);
+        final int baseX = posStart.getX() + regionPosTransformed.getX() + origin.getX();
+        final int baseY = posStart.getY() + regionPosTransformed.getY() + origin.getY();
+        final int baseZ = posStart.getZ() + regionPosTransformed.getZ() + origin.getZ();
+        final int stepXX = stepX.getX();
+        final int stepXZ = stepX.getZ();
+        final int stepZX = stepZ.getX();
+        final int stepZZ = stepZ.getZ();
+
+        // The transformed states of the palette entries, computed once per unique state
+        IdentityHashMap<IBlockState, BlockState> transformedStates = new IdentityHashMap<>();
+        BlockPos.MutBlockPos posMutable = new BlockPos.MutBlockPos();
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = new net.minecraft.util.math.BlockPos.MutableBlockPos();
+        PasteFinalizer finalizer = world != null ? WorldUtils.getPasteFinalizer(world) : null;
+
+        for (int y = startY; placeBlocks && y <= endY; ++y)
         {
+            final int worldY = baseY + y - startY;
+
             for (int z = startZ; z <= endZ; ++z)
             {
-                for (int x = startX; x <= endX; ++x)
+                int worldX = baseX + (z - startZ) * stepZX;
+                int worldZ = baseZ + (z - startZ) * stepZZ;
+
+                for (int x = startX; x <= endX; ++x, worldX += stepXX, worldZ += stepXZ)
                 {
                     BlockState state = container.getBlockState(x, y, z);
 
@@ -536,16 +719,34 @@ public class SchematicPlacingUtils
                         continue;
                     }
 
-                    posMutable.set(x, y, z);
-                    CompoundData beData = blockEntityMap.get(posMutable);
+                    BlockState stateTransformed = transformedStates.get(state.vanillaState());
 
-                    posMutable.set(posMinRel.getX() + x - regionPos.getX(),
-                                   posMinRel.getY() + y - regionPos.getY(),
-                                   posMinRel.getZ() + z - regionPos.getZ());
+                    if (stateTransformed == null)
+                    {
+                        stateTransformed = state;
+                        if (mirrorMain != BlockMirror.NONE) { stateTransformed = stateTransformed.withMirror(mirrorMain); }
+                        if (mirrorSub != BlockMirror.NONE)  { stateTransformed = stateTransformed.withMirror(mirrorSub); }
+                        if (rotationCombined != BlockRotation.NONE) { stateTransformed = stateTransformed.withRotation(rotationCombined); }
+                        transformedStates.put(state.vanillaState(), stateTransformed);
+                    }
 
-                    BlockPos pos = PositionUtils.getTransformedPlacementPosition(posMutable, schematicPlacement, placement);
-                    pos = pos.add(regionPosTransformed).add(origin);
+                    if (schematicChunk != null)
+                    {
+                        schematicChunk.setBlockStateDirect(worldX & 0xF, worldY, worldZ & 0xF, stateTransformed.vanillaState(), pos);
+                        continue;
+                    }
 
+                    if (preparedPaste != null)
+                    {
+                        if (replace != ReplaceBehavior.WITH_NON_AIR || state.vanillaState().getMaterial() != Material.AIR)
+                        {
+                            preparedPaste.setBlockState(worldX & 0xF, worldY, worldZ & 0xF, stateTransformed.vanillaState());
+                        }
+
+                        continue;
+                    }
+
+                    pos.setPos(worldX, worldY, worldZ);
                     IBlockState stateOld = world.getBlockState(pos).getActualState(world, pos);
 
                     if ((replace == ReplaceBehavior.NONE && stateOld.getMaterial() != Material.AIR) ||
@@ -554,10 +755,7 @@ public class SchematicPlacingUtils
                         continue;
                     }
 
-                    if (mirrorMain != BlockMirror.NONE) { state = state.withMirror(mirrorMain); }
-                    if (mirrorSub != BlockMirror.NONE)  { state = state.withMirror(mirrorSub); }
-                    if (rotationCombined != BlockRotation.NONE) { state = state.withRotation(rotationCombined); }
-
+                    state = stateTransformed;
                     TileEntity beOld = world.getTileEntity(pos);
 
                     if (beOld != null)
@@ -570,45 +768,79 @@ public class SchematicPlacingUtils
                         world.setBlockState(pos, barrier, 0x14);
                     }
 
-                    if (world.setBlockState(pos, state.vanillaState(), 0x12) && beData != null)
+                    if (world.setBlockState(pos, state.vanillaState(), 0x12))
                     {
-                        TileEntity be = world.getTileEntity(pos);
-
-                        if (be != null)
+                        if (finalizer != null)
                         {
-                            beData = beData.copy();
-                            DataTypeUtils.putVec3i(beData, pos);
+                            finalizer.markChanged(worldX, worldY, worldZ);
+                        }
 
-                            try
-                            {
-                                BlockWrap.readBlockEntityFrom(be, beData);
+                        posMutable.set(x, y, z);
+                        CompoundData beData = blockEntityMap.get(posMutable);
+                        TileEntity be = beData != null ? world.getTileEntity(pos) : null;
 
-                                if (mirrorMain != BlockMirror.NONE) { be.mirror(mirrorMain.getVanillaMirror()); }
-                                if (mirrorSub != BlockMirror.NONE)  { be.mirror(mirrorSub.getVanillaMirror()); }
-                                if (rotationCombined != BlockRotation.NONE) { be.rotate(rotationCombined.getVanillaRotation()); }
-                            }
-                            catch (Exception e)
-                            {
-                                Litematica.LOGGER.warn("Failed to load TileEntity data for {} @ {}", state, pos);
-                            }
+                        if (be != null)
+                        {
+                            loadBlockEntityData(be, beData, new BlockPos(worldX, worldY, worldZ), mirrorMain, mirrorSub, rotationCombined);
                         }
                     }
                 }
             }
         }
 
+        if ((schematicChunk != null || preparedPaste != null) && placeBlockEntities)
+        {
+            List<Map.Entry<BlockPos, CompoundData>> blockEntities = new ArrayList<>();
+            region.getBlockEntitiesWithinColumns(startX, startZ, endX, endZ, blockEntities);
+
+            for (Map.Entry<BlockPos, CompoundData> entry : blockEntities)
+            {
+                BlockPos posRel = entry.getKey();
+                final int x = posRel.getX() - startX;
+                final int y = posRel.getY() - startY;
+                final int z = posRel.getZ() - startZ;
+
+                if (y < 0 || posRel.getY() > endY)
+                {
+                    continue;
+                }
+
+                BlockPos bePos = new BlockPos(baseX + x * stepXX + z * stepZX, baseY + y, baseZ + x * stepXZ + z * stepZZ);
+
+                if (preparedPaste != null)
+                {
+                    preparedPaste.addBlockEntity(bePos, entry.getValue(), mirrorMain, mirrorSub, rotationCombined);
+                    continue;
+                }
+
+                TileEntity be = schematicChunk.createTileEntityDirect(bePos);
+
+                if (be != null)
+                {
+                    loadBlockEntityData(be, entry.getValue(), bePos, mirrorMain, mirrorSub, rotationCombined);
+                }
+            }
+
+            if (schematicChunk != null)
+            {
+                schematicChunk.markDirty();
+            }
+        }
+
         if (notifyNeighbors)
         {
             for (int y = startY; y <= endY; ++y)
             {
+                final int worldY = baseY + y - startY;
+
                 for (int z = startZ; z <= endZ; ++z)
                 {
-                    for (int x = startX; x <= endX; ++x)
+                    int worldX = baseX + (z - startZ) * stepZX;
+                    int worldZ = baseZ + (z - startZ) * stepZZ;
+
+                    for (int x = startX; x <= endX; ++x, worldX += stepXX, worldZ += stepXZ)
                     {
-                        posMutable.set(posMinRel.getX() + x - regionPos.getX(),
-                                       posMinRel.getY() + y - regionPos.getY(),
-                                       posMinRel.getZ() + z - regionPos.getZ());
-                        BlockPos pos = PositionUtils.getTransformedPlacementPosition(posMutable, schematicPlacement, placement).add(origin);
+                        pos.setPos(worldX, worldY, worldZ);
                         world.notifyNeighborsRespectDebug(pos, world.getBlockState(pos).getBlock(), false);
                     }
                 }
@@ -618,6 +850,76 @@ public class SchematicPlacingUtils
         return true;
     }
 
+    /**
+     * Copies the block, and its block entity data if any, from the schematic world chunk into the world.
+     * This is used by the diff-based paste, which only touches the positions that differ.
+     * @return true if the block was changed
+     */
+    public static boolean placeBlockFromSchematicChunk(World world, Chunk chunkSchematic, net.minecraft.util.math.BlockPos pos)
+    {
+        IBlockState state = chunkSchematic.getBlockState(pos);
+        TileEntity beOld = world.getTileEntity(pos);
+
+        if (beOld != null)
+        {
+            if (beOld instanceof IInventory)
+            {
+                ((IInventory) beOld).clear();
+            }
+
+            world.setBlockState(pos, Blocks.BARRIER.getDefaultState(), 0x14);
+        }
+
+        if (world.setBlockState(pos, state, 0x12) == false)
+        {
+            return false;
+        }
+
+        PasteFinalizer finalizer = WorldUtils.getPasteFinalizer(world);
+        TileEntity beSchematic = chunkSchematic.getTileEntity(pos, Chunk.EnumCreateEntityType.CHECK);
+        TileEntity be = beSchematic != null ? world.getTileEntity(pos) : null;
+
+        if (finalizer != null)
+        {
+            finalizer.markChanged(pos.getX(), pos.getY(), pos.getZ());
+        }
+
+        if (be != null)
+        {
+            try
+            {
+                be.readFromNBT(beSchematic.writeToNBT(new NBTTagCompound()));
+                be.markDirty();
+            }
+            catch (Exception e)
+            {
+                Litematica.LOGGER.warn("Failed to copy TileEntity data for {} @ {}", be.getBlockType(), pos);
+            }
+        }
+
+        return true;
+    }
+
+    static void loadBlockEntityData(TileEntity be, CompoundData beData, BlockPos pos,
+                                            BlockMirror mirrorMain, BlockMirror mirrorSub, BlockRotation rotationCombined)
+    {
+        beData = beData.copy();
+        DataTypeUtils.putVec3i(beData, pos);
+
+        try
+        {
+            BlockWrap.readBlockEntityFrom(be, beData);
+
+            if (mirrorMain != BlockMirror.NONE) { be.mirror(mirrorMain.getVanillaMirror()); }
+            if (mirrorSub != BlockMirror.NONE)  { be.mirror(mirrorSub.getVanillaMirror()); }
+            if (rotationCombined != BlockRotation.NONE) { be.rotate(rotationCombined.getVanillaRotation()); }
+        }
+        catch (Exception e)
+        {
+            Litematica.LOGGER.warn("Failed to load TileEntity data for {} @ {}", be.getBlockType(), pos);
+        }
+    }
+
     public static void placeEntitiesToWorldWithinChunk(World world, ChunkPos chunkPos, SchematicRegion region,
                                                        BlockPos origin, SchematicPlacement schematicPlacement, SubRegionPlacement placement)
     {
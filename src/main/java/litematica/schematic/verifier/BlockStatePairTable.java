@@ -0,0 +1,69 @@
+package litematica.schematic.verifier;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import net.minecraft.block.state.IBlockState;
+
+/**
+ * Interns the expected/found state pairs of the verifier into small integer IDs,
+ * so that the per-position results only need to store an int instead of a pair object.
+ */
+public class BlockStatePairTable
+{
+    private final IdentityHashMap<IBlockState, Reference2IntOpenHashMap<IBlockState>> idsByExpectedState = new IdentityHashMap<>();
+    private final ArrayList<BlockStatePair> pairs = new ArrayList<>();
+
+    /**
+     * @return the ID of the given state pair, adding it to the table if it's not there yet
+     */
+    public int getOrCreateId(IBlockState expectedState, IBlockState foundState)
+    {
+        Reference2IntOpenHashMap<IBlockState> map = this.idsByExpectedState.get(expectedState);
+
+        if (map == null)
+        {
+            map = new Reference2IntOpenHashMap<>();
+            map.defaultReturnValue(-1);
+            this.idsByExpectedState.put(expectedState, map);
+        }
+
+        int id = map.getInt(foundState);
+
+        if (id == -1)
+        {
+            id = this.pairs.size();
+            VerifierResultType type = VerifierResultType.from(expectedState, foundState);
+            this.pairs.add(new BlockStatePair(type, expectedState, foundState));
+            map.put(foundState, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * @return the ID of the given state pair, or -1 if the pair is not in the table
+     */
+    public int getId(IBlockState expectedState, IBlockState foundState)
+    {
+        Reference2IntOpenHashMap<IBlockState> map = this.idsByExpectedState.get(expectedState);
+        return map != null ? map.getInt(foundState) : -1;
+    }
+
+    public BlockStatePair getPair(int id)
+    {
+        return this.pairs.get(id);
+    }
+
+    public int size()
+    {
+        return this.pairs.size();
+    }
+
+    public void clear()
+    {
+        this.idsByExpectedState.clear();
+        this.pairs.clear();
+    }
+}
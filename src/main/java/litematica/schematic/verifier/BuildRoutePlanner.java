@@ -0,0 +1,644 @@
+package litematica.schematic.verifier;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+import malilib.util.position.BlockPos;
+import malilib.util.position.ChunkPos;
+import malilib.util.position.PositionUtils;
+import litematica.Litematica;
+
+/**
+ * Plans a build order for the selected verifier positions. The positions are ordered layer by layer
+ * from the bottom up, and within each layer they are grouped by the item to place, so that the
+ * hotbar needs to be changed as rarely as possible. The blocks to remove come first in each layer.
+ * Within each group the chunks are visited in a nearest neighbor order improved with 2-opt,
+ * and the positions within each chunk are ordered the same way, always continuing
+ * from where the previous chunk or group ended.
+ * The planning runs on a background thread, and the finished route is then just followed
+ * via a cursor, which skips over the targets that have been fixed already.
+ */
+public class BuildRoutePlanner
+{
+    private static final ThreadFactory THREAD_FACTORY = (new ThreadFactoryBuilder()).setNameFormat("Litematica Route Planner %d").setDaemon(true).build();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(THREAD_FACTORY);
+    private static final BlockPairTypePosition[] EMPTY_ROUTE = new BlockPairTypePosition[0];
+    // The 2-opt passes are quadratic in the point count, so they are only used for the shorter sequences.
+    // The positions of one chunk in one layer are at most 256, so those are always improved.
+    private static final int TWO_OPT_MAX_POINTS = 512;
+    private static final int TWO_OPT_MAX_PASSES = 3;
+    // Above this many points the nearest unvisited point is looked up via a grid, instead of scanning all the points
+    private static final int NEAREST_NEIGHBOR_GRID_MIN_POINTS = 64;
+    private static final int REMOVAL_MATERIAL = Integer.MIN_VALUE;
+
+    private BlockPairTypePosition[] route = EMPTY_ROUTE;
+    @Nullable private Future<BlockPairTypePosition[]> pendingRoute;
+    private int cursor;
+
+    public boolean isPlanning()
+    {
+        return this.pendingRoute != null;
+    }
+
+    public boolean hasRoute()
+    {
+        return this.cursor < this.route.length;
+    }
+
+    /**
+     * @return the number of targets left in the route, including the ones
+     * that have been fixed but not skipped over yet
+     */
+    public int getRemainingCount()
+    {
+        return this.route.length - this.cursor;
+    }
+
+    /**
+     * Starts planning a new route in the background. Any previous unfinished planning is cancelled.
+     * @param targets the positions to plan the route for. The list must not be modified afterwards.
+     * @param startPos the position where the route starts from
+     */
+    public void startPlanning(List<BlockPairTypePosition> targets, BlockPos startPos)
+    {
+        this.cancelPlanning();
+
+        final int startX = startPos.getX();
+        final int startZ = startPos.getZ();
+
+        this.pendingRoute = EXECUTOR.submit(() -> plan(targets, startX, startZ));
+    }
+
+    /**
+     * Takes the finished route into use, if the planning has finished.
+     * This needs to be called on the client thread.
+     * @return true if a new route was taken into use
+     */
+    public boolean updatePendingRoute()
+    {
+        if (this.pendingRoute == null || this.pendingRoute.isDone() == false)
+        {
+            return false;
+        }
+
+        Future<BlockPairTypePosition[]> future = this.pendingRoute;
+        this.pendingRoute = null;
+
+        try
+        {
+            this.route = future.get();
+            this.cursor = 0;
+            return true;
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            Litematica.LOGGER.warn("Failed to plan the verifier build route", e);
+            return false;
+        }
+    }
+
+    /**
+     * Adds up to maxCount of the next targets in the route to the list, in the route order.
+     * The targets that have been fixed already are skipped, and the cursor is moved
+     * past the fixed targets at the start of the route.
+     * @param isDone the test for whether a target has been fixed already
+     */
+    public void getNextTargets(int maxCount, Predicate<BlockPairTypePosition> isDone, List<BlockPairTypePosition> listOut)
+    {
+        while (this.cursor < this.route.length && isDone.test(this.route[this.cursor]))
+        {
+            ++this.cursor;
+        }
+
+        int added = 0;
+
+        for (int i = this.cursor; i < this.route.length && added < maxCount; ++i)
+        {
+            BlockPairTypePosition target = this.route[i];
+
+            if (isDone.test(target) == false)
+            {
+                listOut.add(target);
+                ++added;
+            }
+        }
+    }
+
+    public void clear()
+    {
+        this.cancelPlanning();
+        this.route = EMPTY_ROUTE;
+        this.cursor = 0;
+    }
+
+    private void cancelPlanning()
+    {
+        if (this.pendingRoute != null)
+        {
+            this.pendingRoute.cancel(true);
+            this.pendingRoute = null;
+        }
+    }
+
+    /**
+     * Plans the route for the given targets. This doesn't access the worlds or the verifier,
+     * so it's called on the planner thread. The correct positions are not part of the route.
+     */
+    static BlockPairTypePosition[] plan(List<BlockPairTypePosition> targets, int startX, int startZ)
+    {
+        int count = 0;
+
+        for (BlockPairTypePosition target : targets)
+        {
+            if (target.type != VerifierResultType.CORRECT_STATE)
+            {
+                ++count;
+            }
+        }
+
+        final int targetCount = count;
+        final BlockPairTypePosition[] positions = new BlockPairTypePosition[targetCount];
+        final int[] layers = new int[targetCount];
+        final int[] materials = new int[targetCount];
+        final long[] chunks = new long[targetCount];
+        int index = 0;
+
+        for (BlockPairTypePosition target : targets)
+        {
+            if (target.type != VerifierResultType.CORRECT_STATE)
+            {
+                int x = PositionUtils.unpackX(target.posLong);
+                int z = PositionUtils.unpackZ(target.posLong);
+                positions[index] = target;
+                layers[index] = PositionUtils.unpackY(target.posLong);
+                materials[index] = getMaterialId(target);
+                chunks[index] = ChunkPos.asLong(x >> 4, z >> 4);
+                ++index;
+            }
+        }
+
+        // The material order alternates between the layers, so that the last material
+        // of one layer is likely to be the first material of the next layer
+        it.unimi.dsi.fastutil.Arrays.quickSort(0, targetCount, (i1, i2) ->
+        {
+            int result = Integer.compare(layers[i1], layers[i2]);
+
+            if (result == 0)
+            {
+                result = Integer.compare(materials[i1], materials[i2]);
+
+                if ((layers[i1] & 0x1) != 0 && materials[i1] != REMOVAL_MATERIAL && materials[i2] != REMOVAL_MATERIAL)
+                {
+                    result = -result;
+                }
+            }
+
+            return result != 0 ? result : Long.compare(chunks[i1], chunks[i2]);
+        }, (i1, i2) ->
+        {
+            BlockPairTypePosition tmpPos = positions[i1];
+            positions[i1] = positions[i2];
+            positions[i2] = tmpPos;
+
+            int tmp = layers[i1];
+            layers[i1] = layers[i2];
+            layers[i2] = tmp;
+
+            tmp = materials[i1];
+            materials[i1] = materials[i2];
+            materials[i2] = tmp;
+
+            long tmpChunk = chunks[i1];
+            chunks[i1] = chunks[i2];
+            chunks[i2] = tmpChunk;
+        });
+
+        BlockPairTypePosition[] route = new BlockPairTypePosition[targetCount];
+        RouteBuilder builder = new RouteBuilder(positions, chunks, route, startX, startZ);
+        int groupStart = 0;
+
+        while (groupStart < targetCount)
+        {
+            if (Thread.currentThread().isInterrupted())
+            {
+                return EMPTY_ROUTE;
+            }
+
+            int groupEnd = groupStart + 1;
+
+            while (groupEnd < targetCount && layers[groupEnd] == layers[groupStart] && materials[groupEnd] == materials[groupStart])
+            {
+                ++groupEnd;
+            }
+
+            builder.addGroup(groupStart, groupEnd);
+            groupStart = groupEnd;
+        }
+
+        return route;
+    }
+
+    /**
+     * @return an ID for the item needed for the given target, which is the block and its dropped item damage,
+     * so that for example the different wool colors are different materials, but the stair facings are not
+     */
+    private static int getMaterialId(BlockPairTypePosition target)
+    {
+        if (target.type == VerifierResultType.EXTRA)
+        {
+            return REMOVAL_MATERIAL;
+        }
+
+        IBlockState state = target.pair.expectedState;
+        Block block = state.getBlock();
+
+        return (Block.getIdFromBlock(block) << 16) | (block.damageDropped(state) & 0xFFFF);
+    }
+
+    /**
+     * Orders the points by always moving to the closest unvisited point next
+     * @return the visiting order, as indices to the point arrays
+     */
+    static int[] getNearestNeighborOrder(double[] xs, double[] zs, int count, double startX, double startZ)
+    {
+        if (count > NEAREST_NEIGHBOR_GRID_MIN_POINTS)
+        {
+            return (new NearestNeighborGrid(xs, zs, count)).getOrder(startX, startZ);
+        }
+
+        int[] order = new int[count];
+        boolean[] visited = new boolean[count];
+        double x = startX;
+        double z = startZ;
+
+        for (int i = 0; i < count; ++i)
+        {
+            int closest = -1;
+            double closestDistance = Double.MAX_VALUE;
+
+            for (int j = 0; j < count; ++j)
+            {
+                if (visited[j] == false)
+                {
+                    double dx = xs[j] - x;
+                    double dz = zs[j] - z;
+                    double distance = dx * dx + dz * dz;
+
+                    if (distance < closestDistance)
+                    {
+                        closest = j;
+                        closestDistance = distance;
+                    }
+                }
+            }
+
+            visited[closest] = true;
+            order[i] = closest;
+            x = xs[closest];
+            z = zs[closest];
+        }
+
+        return order;
+    }
+
+    /**
+     * Shortens an open path by reversing the segments of it, where that makes the path shorter.
+     * The start of the path is fixed to the given start position, and the end of the path is free.
+     */
+    static void improveWithTwoOpt(double[] xs, double[] zs, int[] order, int count, double startX, double startZ)
+    {
+        if (count < 3 || count > TWO_OPT_MAX_POINTS)
+        {
+            return;
+        }
+
+        for (int pass = 0; pass < TWO_OPT_MAX_PASSES; ++pass)
+        {
+            boolean improved = false;
+
+            for (int i = 0; i < count - 1; ++i)
+            {
+                double prevX = i > 0 ? xs[order[i - 1]] : startX;
+                double prevZ = i > 0 ? zs[order[i - 1]] : startZ;
+
+                for (int j = i + 1; j < count; ++j)
+                {
+                    int first = order[i];
+                    int last = order[j];
+                    double before = distance(prevX, prevZ, xs[first], zs[first]);
+                    double after = distance(prevX, prevZ, xs[last], zs[last]);
+
+                    if (j < count - 1)
+                    {
+                        int next = order[j + 1];
+                        before += distance(xs[last], zs[last], xs[next], zs[next]);
+                        after += distance(xs[first], zs[first], xs[next], zs[next]);
+                    }
+
+                    if (after < before - 1.0E-6)
+                    {
+                        reverse(order, i, j);
+                        improved = true;
+                    }
+                }
+            }
+
+            if (improved == false)
+            {
+                break;
+            }
+        }
+    }
+
+    private static void reverse(int[] arr, int start, int end)
+    {
+        while (start < end)
+        {
+            int tmp = arr[start];
+            arr[start++] = arr[end];
+            arr[end--] = tmp;
+        }
+    }
+
+    private static double distance(double x1, double z1, double x2, double z2)
+    {
+        double dx = x2 - x1;
+        double dz = z2 - z1;
+        return Math.sqrt(dx * dx + dz * dz);
+    }
+
+    /**
+     * A uniform grid over the points, sized for about one point per cell, for finding the closest
+     * unvisited point without scanning all of them. The visited points are removed from their cells.
+     */
+    private static class NearestNeighborGrid
+    {
+        private final double[] xs;
+        private final double[] zs;
+        private final int count;
+        private final double minX;
+        private final double minZ;
+        private final double cellSize;
+        private final int sizeX;
+        private final int sizeZ;
+        // The point indices sorted by the cell, and the start and current count of each cell in that array
+        private final int[] cellPoints;
+        private final int[] cellStarts;
+        private final int[] cellCounts;
+
+        private NearestNeighborGrid(double[] xs, double[] zs, int count)
+        {
+            double minX = Double.MAX_VALUE;
+            double minZ = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxZ = -Double.MAX_VALUE;
+
+            for (int i = 0; i < count; ++i)
+            {
+                minX = Math.min(minX, xs[i]);
+                minZ = Math.min(minZ, zs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                maxZ = Math.max(maxZ, zs[i]);
+            }
+
+            this.xs = xs;
+            this.zs = zs;
+            this.count = count;
+            this.minX = minX;
+            this.minZ = minZ;
+            this.cellSize = Math.max(1.0, Math.sqrt((maxX - minX + 1.0) * (maxZ - minZ + 1.0) / count));
+            this.sizeX = (int) ((maxX - minX) / this.cellSize) + 1;
+            this.sizeZ = (int) ((maxZ - minZ) / this.cellSize) + 1;
+            this.cellPoints = new int[count];
+            this.cellStarts = new int[this.sizeX * this.sizeZ];
+            this.cellCounts = new int[this.sizeX * this.sizeZ];
+
+            int[] cells = new int[count];
+
+            for (int i = 0; i < count; ++i)
+            {
+                cells[i] = this.getCellX(xs[i]) + this.getCellZ(zs[i]) * this.sizeX;
+                ++this.cellCounts[cells[i]];
+            }
+
+            for (int cell = 1; cell < this.cellStarts.length; ++cell)
+            {
+                this.cellStarts[cell] = this.cellStarts[cell - 1] + this.cellCounts[cell - 1];
+            }
+
+            int[] filled = new int[this.cellStarts.length];
+
+            for (int i = 0; i < count; ++i)
+            {
+                int cell = cells[i];
+                this.cellPoints[this.cellStarts[cell] + filled[cell]++] = i;
+            }
+        }
+
+        private int getCellX(double x)
+        {
+            return Math.max(0, Math.min(this.sizeX - 1, (int) Math.floor((x - this.minX) / this.cellSize)));
+        }
+
+        private int getCellZ(double z)
+        {
+            return Math.max(0, Math.min(this.sizeZ - 1, (int) Math.floor((z - this.minZ) / this.cellSize)));
+        }
+
+        private int[] getOrder(double startX, double startZ)
+        {
+            int[] order = new int[this.count];
+            double x = startX;
+            double z = startZ;
+
+            for (int i = 0; i < this.count; ++i)
+            {
+                int closest = this.removeClosest(x, z);
+                order[i] = closest;
+                x = this.xs[closest];
+                z = this.zs[closest];
+            }
+
+            return order;
+        }
+
+        /**
+         * Searches the cells in growing square rings around the cell of the given position.
+         * The points in the cells outside of ring r are at least r cells away, so the search
+         * can stop once the closest point found so far is closer than that.
+         */
+        private int removeClosest(double x, double z)
+        {
+            int centerX = this.getCellX(x);
+            int centerZ = this.getCellZ(z);
+            int maxRing = Math.max(Math.max(centerX, this.sizeX - 1 - centerX), Math.max(centerZ, this.sizeZ - 1 - centerZ));
+            int closestCell = -1;
+            int closestSlot = -1;
+            double closestDistance = Double.MAX_VALUE;
+
+            for (int ring = 0; ring <= maxRing; ++ring)
+            {
+                for (int cz = centerZ - ring; cz <= centerZ + ring; ++cz)
+                {
+                    if (cz < 0 || cz >= this.sizeZ)
+                    {
+                        continue;
+                    }
+
+                    // Only the edge cells of the ring, the inner cells were already searched
+                    int step = (cz == centerZ - ring || cz == centerZ + ring) ? 1 : Math.max(1, ring * 2);
+
+                    for (int cx = centerX - ring; cx <= centerX + ring; cx += step)
+                    {
+                        if (cx < 0 || cx >= this.sizeX)
+                        {
+                            continue;
+                        }
+
+                        int cell = cx + cz * this.sizeX;
+                        int start = this.cellStarts[cell];
+
+                        for (int slot = start; slot < start + this.cellCounts[cell]; ++slot)
+                        {
+                            int point = this.cellPoints[slot];
+                            double dx = this.xs[point] - x;
+                            double dz = this.zs[point] - z;
+                            double distance = dx * dx + dz * dz;
+
+                            if (distance < closestDistance)
+                            {
+                                closestCell = cell;
+                                closestSlot = slot;
+                                closestDistance = distance;
+                            }
+                        }
+                    }
+                }
+
+                double ringDistance = ring * this.cellSize;
+
+                if (closestCell != -1 && closestDistance <= ringDistance * ringDistance)
+                {
+                    break;
+                }
+            }
+
+            int closest = this.cellPoints[closestSlot];
+            int last = this.cellStarts[closestCell] + this.cellCounts[closestCell] - 1;
+            this.cellPoints[closestSlot] = this.cellPoints[last];
+            this.cellPoints[last] = closest;
+            --this.cellCounts[closestCell];
+
+            return closest;
+        }
+    }
+
+    /**
+     * Appends the groups of one layer and material to the route, keeping track
+     * of the position where the route currently ends
+     */
+    private static class RouteBuilder
+    {
+        private final BlockPairTypePosition[] positions;
+        private final long[] chunks;
+        private final BlockPairTypePosition[] route;
+        private final IntArrayList chunkStarts = new IntArrayList();
+        private double currentX;
+        private double currentZ;
+        private int routeIndex;
+
+        private RouteBuilder(BlockPairTypePosition[] positions, long[] chunks, BlockPairTypePosition[] route,
+                             double startX, double startZ)
+        {
+            this.positions = positions;
+            this.chunks = chunks;
+            this.route = route;
+            this.currentX = startX;
+            this.currentZ = startZ;
+        }
+
+        /**
+         * Adds one group of positions to the route. The positions within the group are sorted by the chunk.
+         */
+        private void addGroup(int start, int end)
+        {
+            this.chunkStarts.clear();
+
+            for (int i = start; i < end; ++i)
+            {
+                if (i == start || this.chunks[i] != this.chunks[i - 1])
+                {
+                    this.chunkStarts.add(i);
+                }
+            }
+
+            this.chunkStarts.add(end);
+
+            // The chunks are ordered via the average position of the group's positions in them
+            final int chunkCount = this.chunkStarts.size() - 1;
+            double[] xs = new double[chunkCount];
+            double[] zs = new double[chunkCount];
+
+            for (int c = 0; c < chunkCount; ++c)
+            {
+                int chunkStart = this.chunkStarts.getInt(c);
+                int chunkEnd = this.chunkStarts.getInt(c + 1);
+                double sumX = 0;
+                double sumZ = 0;
+
+                for (int i = chunkStart; i < chunkEnd; ++i)
+                {
+                    sumX += PositionUtils.unpackX(this.positions[i].posLong);
+                    sumZ += PositionUtils.unpackZ(this.positions[i].posLong);
+                }
+
+                xs[c] = sumX / (chunkEnd - chunkStart);
+                zs[c] = sumZ / (chunkEnd - chunkStart);
+            }
+
+            int[] chunkOrder = getNearestNeighborOrder(xs, zs, chunkCount, this.currentX, this.currentZ);
+            improveWithTwoOpt(xs, zs, chunkOrder, chunkCount, this.currentX, this.currentZ);
+
+            for (int c : chunkOrder)
+            {
+                this.addChunk(this.chunkStarts.getInt(c), this.chunkStarts.getInt(c + 1));
+            }
+        }
+
+        private void addChunk(int start, int end)
+        {
+            final int count = end - start;
+            double[] xs = new double[count];
+            double[] zs = new double[count];
+
+            for (int i = 0; i < count; ++i)
+            {
+                xs[i] = PositionUtils.unpackX(this.positions[start + i].posLong);
+                zs[i] = PositionUtils.unpackZ(this.positions[start + i].posLong);
+            }
+
+            int[] order = getNearestNeighborOrder(xs, zs, count, this.currentX, this.currentZ);
+            improveWithTwoOpt(xs, zs, order, count, this.currentX, this.currentZ);
+
+            for (int i : order)
+            {
+                this.route[this.routeIndex++] = this.positions[start + i];
+            }
+
+            int last = order[count - 1];
+            this.currentX = xs[last];
+            this.currentZ = zs[last];
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package litematica.schematic.verifier;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -8,35 +10,54 @@ import java.util.List;
 import java.util.Set;
 import javax.annotation.Nullable;
 import com.google.common.collect.ArrayListMultimap;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.multiplayer.WorldClient;
 import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.Chunk;
 
 import malilib.listener.EventListener;
 import malilib.listener.TaskCompletionListener;
 import malilib.util.StringUtils;
+import malilib.config.value.BaseOptionListConfigValue;
+import malilib.util.data.Constants;
 import malilib.util.data.EnabledCondition;
 import malilib.util.data.RunStatus;
+import malilib.util.data.tag.CompoundData;
+import malilib.util.data.tag.IntArrayData;
+import malilib.util.data.tag.ListData;
+import malilib.util.game.BlockUtils;
+import malilib.util.game.wrap.GameWrap;
 import malilib.util.game.wrap.RegistryUtils;
 import malilib.util.position.BlockPos;
 import malilib.util.position.ChunkPos;
 import malilib.util.position.IntBoundingBox;
 import malilib.util.position.LayerRange;
+import malilib.util.world.BlockState;
 import litematica.config.Configs;
 import litematica.data.DataManager;
 import litematica.render.infohud.IInfoHudRenderer;
 import litematica.render.infohud.RenderPhase;
 import litematica.scheduler.TaskScheduler;
+import litematica.schematic.BaseSchematic;
 import litematica.schematic.placement.SchematicPlacement;
 import litematica.selection.SelectionBox;
+import litematica.task.OfflineSchematicVerifierTask;
 import litematica.task.SchematicVerifierTask;
 import litematica.util.PositionUtils;
 import litematica.util.value.BlockInfoListType;
+import litematica.util.world.SectionHashUtils;
+import litematica.world.SchematicWorldHandler;
+import litematica.world.WorldSchematic;
 
 public class SchematicVerifier implements IInfoHudRenderer
 {
@@ -46,9 +67,14 @@ public class SchematicVerifier implements IInfoHudRenderer
     protected final ArrayListMultimap<ChunkPos, IntBoundingBox> boxesInChunks = ArrayListMultimap.create();
     protected final LongOpenHashSet completedChunks = new LongOpenHashSet();
 
-    protected final Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<BlockStatePair, IntArrayList>> resultsPerChunk = new Long2ObjectOpenHashMap<>();
+    protected final Long2ObjectOpenHashMap<VerifierChunkResults> resultsPerChunk = new Long2ObjectOpenHashMap<>();
+    protected final BlockStatePairTable pairTable = new BlockStatePairTable();
     protected final Object2IntOpenHashMap<BlockStatePair> countsPerPair = new Object2IntOpenHashMap<>();
     protected final Object2IntOpenHashMap<VerifierResultType> countsPerType = new Object2IntOpenHashMap<>();
+    // The content hashes of the client chunks at the time they were verified
+    protected final Long2LongOpenHashMap clientChunkHashes = new Long2LongOpenHashMap();
+    // The chunks restored from disk, which haven't been compared against the current client chunks yet
+    protected final LongOpenHashSet unvalidatedChunks = new LongOpenHashSet();
 
     protected final HashSet<VerifierResultType> selectedTypes = new HashSet<>();
     protected final HashSet<BlockStatePair> selectedPairs = new HashSet<>();
@@ -56,18 +82,30 @@ public class SchematicVerifier implements IInfoHudRenderer
     protected final HashSet<BlockStatePair> ignoredPairs = new HashSet<>();
     protected final HashSet<VerifierResultType> visibleCategories = new HashSet<>();
 
-    protected final ArrayList<BlockPairTypePosition> allSelectedPositions = new ArrayList<>();
+    protected final SelectedPositionIndex selectedPositionIndex = new SelectedPositionIndex();
     protected final ArrayList<BlockPairTypePosition> closestSelectedPositions = new ArrayList<>();
+    // The packed positions of the closest selected positions, which are the highlighted ones
+    protected final LongOpenHashSet closestSelectedPositionSet = new LongOpenHashSet();
+    protected final BuildRoutePlanner routePlanner = new BuildRoutePlanner();
 
     protected final ArrayList<String> infoHudLines = new ArrayList<>();
     protected RunStatus status = RunStatus.STOPPED;
     protected BlockInfoListType verifierType = BlockInfoListType.ALL;
     protected String name = "?";
+    @Nullable protected String stateKey;
     @Nullable protected SchematicVerifierTask task;
     @Nullable protected TaskCompletionListener completionListener;
     @Nullable protected EventListener statusChangeListener;
     @Nullable BlockPos lastSortPosition;
+    protected int closestPositionsVersion;
+    // The running counts of the verified sections without any incorrect positions, and of all the sections to verify
+    protected int completeSections;
+    protected int totalSections;
+    protected int selectedPositionsVersion;
+    protected int routePlannedVersion;
     protected boolean autoRefresh;
+    protected boolean buildRouteDirty;
+    protected boolean buildRouteEnabled;
     protected boolean countsDirty;
     protected boolean infoHudEnabled;
     protected boolean selectedClosestPositionsDirty;
@@ -107,6 +145,11 @@ public class SchematicVerifier implements IInfoHudRenderer
         return this.boxesInChunks.keySet();
     }
 
+    public List<SchematicPlacement> getPlacements()
+    {
+        return this.placements;
+    }
+
     public boolean hasPlacement(SchematicPlacement placement)
     {
         return this.placements.contains(placement);
@@ -149,16 +192,57 @@ public class SchematicVerifier implements IInfoHudRenderer
         this.autoRefresh = ! this.autoRefresh;
     }
 
+    public boolean isBuildRouteEnabled()
+    {
+        return this.buildRouteEnabled;
+    }
+
+    /**
+     * Toggles the build route mode, where the highlights and the info HUD show the next targets
+     * along a planned build route, instead of the positions closest to the player.
+     * The route is re-planned every time the mode is enabled.
+     */
+    public void toggleBuildRouteEnabled()
+    {
+        this.buildRouteEnabled = ! this.buildRouteEnabled;
+        this.buildRouteDirty = this.buildRouteEnabled;
+        this.selectedClosestPositionsDirty = true;
+
+        if (this.buildRouteEnabled == false)
+        {
+            this.routePlanner.clear();
+        }
+    }
+
     public RunStatus getStatus()
     {
         return this.status;
     }
 
+    public BlockStatePairTable getPairTable()
+    {
+        return this.pairTable;
+    }
+
     public boolean hasData()
     {
         return this.resultsPerChunk.isEmpty() == false;
     }
 
+    /**
+     * @return the key used for storing the results on disk, or null if the results can't be stored
+     */
+    @Nullable
+    public String getStateKey()
+    {
+        return this.stateKey;
+    }
+
+    protected void updateStateKey()
+    {
+        this.stateKey = this.placements.size() == 1 ? VerifierStateStorage.getStateKey(this.placements.get(0)) : null;
+    }
+
     public boolean isCategoryVisible(VerifierResultType type)
     {
         return this.visibleCategories.contains(type);
@@ -204,8 +288,13 @@ public class SchematicVerifier implements IInfoHudRenderer
             {
                 this.clear();
                 this.updateRequiredBoxes();
+                this.updateStateKey();
                 this.task.setBoxes(this.boxesInChunks);
             }
+            else
+            {
+                this.task.setBoxes(this.getIncompleteChunkBoxes());
+            }
 
             this.status = RunStatus.RUNNING;
             TaskScheduler.getInstanceClient().scheduleTask(this.task, 5);
@@ -216,6 +305,27 @@ public class SchematicVerifier implements IInfoHudRenderer
         }
     }
 
+    /**
+     * Starts a new verification against the chunks stored in the region files of a world save,
+     * so that the chunks don't need to be loaded in the client world.
+     * @param regionDir the region directory of the dimension to verify against
+     */
+    public void startOffline(Path regionDir, TaskCompletionListener completionListener)
+    {
+        this.stopTask();
+        this.clear();
+        this.updateRequiredBoxes();
+        this.updateStateKey();
+
+        this.completionListener = completionListener;
+        this.task = new OfflineSchematicVerifierTask(this, regionDir);
+        this.task.setCompletionListener(this::onTaskFinished);
+        this.task.setBoxes(this.boxesInChunks);
+
+        this.status = RunStatus.RUNNING;
+        TaskScheduler.getInstanceClient().scheduleTask(this.task, 5);
+    }
+
     public void pause()
     {
         if (this.status == RunStatus.RUNNING)
@@ -236,7 +346,8 @@ public class SchematicVerifier implements IInfoHudRenderer
 
     protected void onTaskFinished()
     {
-        this.status = RunStatus.FINISHED;
+        // The offline verification can leave some chunks unverified, which can then be resumed in the client world
+        this.status = this.completedChunks.size() < this.boxesInChunks.keySet().size() ? RunStatus.PAUSED : RunStatus.FINISHED;
         this.task = null;
 
         if (this.completionListener != null)
@@ -265,6 +376,25 @@ public class SchematicVerifier implements IInfoHudRenderer
         this.task = null;
     }
 
+    /**
+     * Called when a setting that affects the result types of the state pairs changes.
+     * The types are fixed when the pairs are added to the pair table, and the correct positions
+     * are not stored at all, so the existing results can't be converted. Instead the pair table
+     * is cleared and any existing results are verified again.
+     */
+    public void onResultTypesChanged()
+    {
+        if (this.hasData() == false && this.status != RunStatus.RUNNING)
+        {
+            this.pairTable.clear();
+            return;
+        }
+
+        this.stopTask();
+        this.clear();
+        this.start(this.completionListener);
+    }
+
     public void resetIgnored()
     {
         this.ignoredPairs.clear();
@@ -349,24 +479,63 @@ public class SchematicVerifier implements IInfoHudRenderer
             }
         }
 
-        return new VerifierStatus(this.status, processedChunks, totalChunks, totalBlocks, correctBlocks);
+        return new VerifierStatus(this.status, processedChunks, totalChunks, totalBlocks, correctBlocks,
+                                  this.completeSections, this.totalSections);
+    }
+
+    /**
+     * @return the number of the sections to verify in the given chunk that don't have any incorrect positions
+     */
+    protected int getCompleteSectionCount(ChunkPos chunkPos, VerifierChunkResults results)
+    {
+        int sectionMask = SectionHashUtils.getSectionMask(this.boxesInChunks.get(chunkPos));
+        return Integer.bitCount(sectionMask & ~results.getMismatchSectionMask());
+    }
+
+    protected ArrayListMultimap<ChunkPos, IntBoundingBox> getIncompleteChunkBoxes()
+    {
+        ArrayListMultimap<ChunkPos, IntBoundingBox> boxes = ArrayListMultimap.create();
+
+        for (ChunkPos pos : this.boxesInChunks.keySet())
+        {
+            if (this.completedChunks.contains(ChunkPos.asLong(pos.x, pos.z)) == false)
+            {
+                boxes.putAll(pos, this.boxesInChunks.get(pos));
+            }
+        }
+
+        return boxes;
     }
 
     public void reCheckChunks(LongOpenHashSet reCheckChunks)
     {
+        WorldClient clientWorld = GameWrap.getClientWorld();
+
+        if (this.unvalidatedChunks.isEmpty() == false && clientWorld != null)
+        {
+            this.validateRestoredChunks(reCheckChunks, clientWorld);
+        }
+
         if (this.autoRefresh && this.status != RunStatus.STOPPED)
         {
             ArrayListMultimap<ChunkPos, IntBoundingBox> boxes = ArrayListMultimap.create();
 
             for (long posLong : reCheckChunks)
             {
-                if (this.completedChunks.contains(posLong))
+                ChunkPos pos = malilib.util.position.PositionUtils.chunkPosFromLong(posLong);
+
+                // The chunks that were just re-sent with the same contents don't need to be re-checked
+                if (this.completedChunks.contains(posLong) && this.hasClientChunkChanged(posLong, pos, clientWorld))
                 {
-                    ChunkPos pos = malilib.util.position.PositionUtils.chunkPosFromLong(posLong);
                     boxes.putAll(pos, this.boxesInChunks.get(pos));
                 }
             }
 
+            if (boxes.isEmpty())
+            {
+                return;
+            }
+
             if (this.task == null)
             {
                 this.task = new SchematicVerifierTask(this);
@@ -378,38 +547,282 @@ public class SchematicVerifier implements IInfoHudRenderer
         }
     }
 
-    public void addBlockResultsFromWorld(ChunkPos chunkPos, Object2ObjectOpenHashMap<BlockStatePair, IntArrayList> results)
+    protected boolean hasClientChunkChanged(long chunkPosLong, ChunkPos chunkPos, @Nullable WorldClient clientWorld)
     {
-        long chunkPosLong = ChunkPos.asLong(chunkPos.x, chunkPos.z);
+        Chunk chunk = clientWorld != null ? clientWorld.getChunkProvider().getLoadedChunk(chunkPos.x, chunkPos.z) : null;
 
-        this.resultsPerChunk.put(chunkPosLong, results);
+        if (chunk == null || this.clientChunkHashes.containsKey(chunkPosLong) == false)
+        {
+            return true;
+        }
 
-        /*
-        Object2ObjectOpenHashMap<BlockStatePair, IntArrayList> old = this.resultsPerChunk.get(chunkPosLong);
+        long hash = VerifierStateStorage.hashClientChunk(chunk, this.boxesInChunks.get(chunkPos));
 
-        if (old != null)
+        return hash != this.clientChunkHashes.get(chunkPosLong);
+    }
+
+    protected void validateRestoredChunks(LongOpenHashSet chunks, WorldClient clientWorld)
+    {
+        for (long chunkPosLong : chunks)
         {
-            // Subtract the old counts
-            old.forEach((pair, list) -> {
-                int size = list.size();
-                this.countsPerPair.addTo(pair, -size);
-                this.countsPerType.addTo(pair.type, -size);
-            });
+            if (this.unvalidatedChunks.contains(chunkPosLong))
+            {
+                ChunkPos pos = malilib.util.position.PositionUtils.chunkPosFromLong(chunkPosLong);
+                Chunk chunk = clientWorld.getChunkProvider().getLoadedChunk(pos.x, pos.z);
+
+                if (chunk != null)
+                {
+                    this.validateRestoredChunk(pos, VerifierStateStorage.hashClientChunk(chunk, this.boxesInChunks.get(pos)));
+                }
+            }
         }
+    }
 
+    /**
+     * Checks if the restored results of the given chunk are still valid for the current client chunk contents.
+     * If they are, then the chunk is marked as completed, otherwise the restored results are removed.
+     * @return true if the restored results were accepted, and the chunk doesn't need to be verified again
+     */
+    public boolean validateRestoredChunk(ChunkPos pos, long clientHash)
+    {
+        long chunkPosLong = ChunkPos.asLong(pos.x, pos.z);
 
-        // Add the new counts
-        results.forEach((pair, list) -> {
-            int size = list.size();
-            this.countsPerPair.addTo(pair, size);
-            this.countsPerType.addTo(pair.type, size);
-        });
-        */
+        if (this.unvalidatedChunks.remove(chunkPosLong) == false)
+        {
+            return false;
+        }
+
+        if (this.clientChunkHashes.get(chunkPosLong) == clientHash)
+        {
+            this.completedChunks.add(chunkPosLong);
+
+            if (this.statusChangeListener != null)
+            {
+                this.statusChangeListener.onEvent();
+            }
+
+            return true;
+        }
+
+        this.removeChunkResults(chunkPosLong);
+
+        return false;
+    }
+
+    protected void removeChunkResults(long chunkPosLong)
+    {
+        VerifierChunkResults results = this.resultsPerChunk.remove(chunkPosLong);
+
+        this.completedChunks.remove(chunkPosLong);
+        this.clientChunkHashes.remove(chunkPosLong);
+
+        if (results != null)
+        {
+            ChunkPos chunkPos = malilib.util.position.PositionUtils.chunkPosFromLong(chunkPosLong);
+            this.completeSections -= this.getCompleteSectionCount(chunkPos, results);
+
+            if (this.countsDirty == false)
+            {
+                this.addCounts(results, -1);
+            }
+
+            this.selectedPositionIndex.setPositions(chunkPosLong, Collections.emptyList());
+            ++this.selectedPositionsVersion;
+            this.selectedClosestPositionsDirty = true;
+
+            if (this.statusChangeListener != null)
+            {
+                this.statusChangeListener.onEvent();
+            }
+        }
+    }
 
+    /**
+     * Re-checks the individually changed positions, and updates the results and all the aggregates
+     * just for those positions. The chunks that are not verified yet, or that are still waiting
+     * for a full re-check, are skipped.
+     * @param positionsPerChunk the packed chunk-relative positions per chunk
+     */
+    public void reCheckPositions(Long2ObjectOpenHashMap<IntOpenHashSet> positionsPerChunk)
+    {
+        WorldSchematic schematicWorld = SchematicWorldHandler.getSchematicWorld();
+        WorldClient clientWorld = GameWrap.getClientWorld();
+
+        if (this.autoRefresh == false || this.status == RunStatus.STOPPED ||
+            schematicWorld == null || clientWorld == null)
+        {
+            return;
+        }
+
+        boolean changed = false;
+
+        for (Long2ObjectMap.Entry<IntOpenHashSet> entry : positionsPerChunk.long2ObjectEntrySet())
+        {
+            long chunkPosLong = entry.getLongKey();
+            ChunkPos chunkPos = malilib.util.position.PositionUtils.chunkPosFromLong(chunkPosLong);
+            VerifierChunkResults results = this.resultsPerChunk.get(chunkPosLong);
+
+            if (results == null || (this.task != null && this.task.isChunkPending(chunkPos)))
+            {
+                continue;
+            }
+
+            Chunk schematicChunk = schematicWorld.getChunkProvider().getLoadedChunk(chunkPos.x, chunkPos.z);
+            Chunk clientChunk = clientWorld.getChunkProvider().getLoadedChunk(chunkPos.x, chunkPos.z);
+
+            if (schematicChunk != null && clientChunk != null &&
+                this.reCheckPositionsInChunk(chunkPosLong, chunkPos, results, entry.getValue(), schematicChunk, clientChunk))
+            {
+                changed = true;
+            }
+        }
+
+        if (changed)
+        {
+            this.selectedClosestPositionsDirty = true;
+
+            if (this.statusChangeListener != null)
+            {
+                this.statusChangeListener.onEvent();
+            }
+        }
+    }
+
+    protected boolean reCheckPositionsInChunk(long chunkPosLong, ChunkPos chunkPos, VerifierChunkResults results,
+                                              IntOpenHashSet positions, Chunk schematicChunk, Chunk clientChunk)
+    {
+        List<IntBoundingBox> boxes = this.boxesInChunks.get(chunkPos);
+        BlockPos.MutBlockPos mutablePos = new BlockPos.MutBlockPos();
+        int completeSectionsBefore = this.getCompleteSectionCount(chunkPos, results);
+        boolean changed = false;
+
+        for (int relPos : positions)
+        {
+            long posLong = malilib.util.position.PositionUtils.getPackedAbsolutePosition(chunkPosLong, relPos);
+            int x = malilib.util.position.PositionUtils.unpackX(posLong);
+            int y = malilib.util.position.PositionUtils.unpackY(posLong);
+            int z = malilib.util.position.PositionUtils.unpackZ(posLong);
+
+            if (isInsideAnyBox(boxes, x, y, z) == false)
+            {
+                continue;
+            }
+
+            mutablePos.set(x, y, z);
+            IBlockState schematicState = schematicChunk.getBlockState(mutablePos);
+            IBlockState clientState = clientChunk.getBlockState(mutablePos).getActualState(clientChunk.getWorld(), mutablePos);
+            int oldPairId = results.getStoredPairIdAt(relPos);
+
+            // The correct results with identical states are not stored, so the old pair is the identity pair of the expected state
+            if (oldPairId == -1)
+            {
+                oldPairId = this.pairTable.getId(schematicState, schematicState);
+            }
+
+            int newPairId = this.pairTable.getOrCreateId(schematicState, clientState);
+
+            if (newPairId == oldPairId)
+            {
+                continue;
+            }
+
+            BlockStatePair newPair = this.pairTable.getPair(newPairId);
+            results.setResult(relPos, oldPairId, newPairId, newPair.type != VerifierResultType.CORRECT_STATE,
+                              schematicState == clientState);
+
+            if (this.countsDirty == false)
+            {
+                if (oldPairId != -1)
+                {
+                    BlockStatePair oldPair = this.pairTable.getPair(oldPairId);
+                    addCount(this.countsPerPair, oldPair, -1);
+                    addCount(this.countsPerType, oldPair.type, -1);
+                }
+
+                addCount(this.countsPerPair, newPair, 1);
+                addCount(this.countsPerType, newPair.type, 1);
+            }
+
+            if (this.selectedPairsDirty == false &&
+                (this.selectedPairs.contains(newPair) || this.selectedTypes.contains(newPair.type)))
+            {
+                this.calculatedSelectedPairs.add(newPair);
+            }
+
+            changed = true;
+        }
+
+        if (changed)
+        {
+            // The results no longer match the contents the chunk had when it was fully verified
+            this.clientChunkHashes.remove(chunkPosLong);
+            this.completeSections += this.getCompleteSectionCount(chunkPos, results) - completeSectionsBefore;
+        }
+
+        if (changed && this.selectedPairsDirty == false && this.selectedPositionsDirty == false)
+        {
+            this.updateSelectedPositionsForChunk(chunkPosLong, results, this.getSelectedPairIds());
+        }
+
+        return changed;
+    }
+
+    protected static boolean isInsideAnyBox(List<IntBoundingBox> boxes, int x, int y, int z)
+    {
+        for (IntBoundingBox box : boxes)
+        {
+            if (x >= box.minX && x <= box.maxX &&
+                y >= box.minY && y <= box.maxY &&
+                z >= box.minZ && z <= box.maxZ)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param clientHash the content hash of the client chunk at the time of verification
+     */
+    public void addBlockResultsFromWorld(ChunkPos chunkPos, VerifierChunkResults results, long clientHash)
+    {
+        long chunkPosLong = ChunkPos.asLong(chunkPos.x, chunkPos.z);
+
+        VerifierChunkResults oldResults = this.resultsPerChunk.put(chunkPosLong, results);
+
+        if (oldResults != null)
+        {
+            this.completeSections -= this.getCompleteSectionCount(chunkPos, oldResults);
+        }
+
+        this.completeSections += this.getCompleteSectionCount(chunkPos, results);
         this.completedChunks.add(chunkPosLong);
-        this.countsDirty = true;
-        this.selectedPairsDirty = true;
-        this.selectedPositionsDirty = true;
+        this.unvalidatedChunks.remove(chunkPosLong);
+        this.clientChunkHashes.put(chunkPosLong, clientHash);
+
+        // The aggregates are updated incrementally from the old and new results of this chunk,
+        // unless they are going to be fully re-built anyway
+        if (this.countsDirty == false)
+        {
+            if (oldResults != null)
+            {
+                this.addCounts(oldResults, -1);
+            }
+
+            this.addCounts(results, 1);
+        }
+
+        if (this.selectedPairsDirty == false)
+        {
+            this.addNewSelectedPairs(results);
+        }
+
+        if (this.selectedPairsDirty == false && this.selectedPositionsDirty == false)
+        {
+            this.updateSelectedPositionsForChunk(chunkPosLong, results, this.getSelectedPairIds());
+            this.selectedClosestPositionsDirty = true;
+        }
 
         if (this.statusChangeListener != null)
         {
@@ -439,22 +852,303 @@ public class SchematicVerifier implements IInfoHudRenderer
         return this.closestSelectedPositions;
     }
 
+    /**
+     * @return a counter that changes every time the closest selected positions list is re-built
+     */
+    public int getClosestPositionsVersion()
+    {
+        return this.closestPositionsVersion;
+    }
+
+    /**
+     * @return the currently highlighted positions, meaning the closest selected positions
+     * or the next build route targets, in the chunks that the given line segment passes through
+     */
+    public List<BlockPairTypePosition> getHighlightedPositionsOnSegment(double x1, double z1, double x2, double z2)
+    {
+        List<BlockPairTypePosition> list = new ArrayList<>();
+
+        if (this.closestSelectedPositionSet.isEmpty() == false)
+        {
+            this.selectedPositionIndex.getPositionsInChunksOnSegment(x1, z1, x2, z2, this.closestSelectedPositionSet::contains, list);
+        }
+
+        return list;
+    }
+
+    /**
+     * Writes the results of all the verified chunks, except the ones that have been
+     * updated per-block since they were verified, as those can't be validated later
+     * against the client chunk contents.
+     */
+    CompoundData writeStateToData()
+    {
+        CompoundData data = new CompoundData();
+        ListData pairList = new ListData(Constants.NBT.TAG_COMPOUND);
+        ListData chunkList = new ListData(Constants.NBT.TAG_COMPOUND);
+        IntArrayList ignoredIds = new IntArrayList();
+        final int pairCount = this.pairTable.size();
+
+        for (int id = 0; id < pairCount; ++id)
+        {
+            BlockStatePair pair = this.pairTable.getPair(id);
+            CompoundData tag = new CompoundData();
+            CompoundData expectedTag = new CompoundData();
+            CompoundData foundTag = new CompoundData();
+
+            BlockUtils.writeBlockState(expectedTag, BlockState.of(pair.expectedState));
+            BlockUtils.writeBlockState(foundTag, BlockState.of(pair.foundState));
+            tag.put("Expected", expectedTag);
+            tag.put("Found", foundTag);
+            pairList.add(tag);
+
+            if (this.ignoredPairs.contains(pair))
+            {
+                ignoredIds.add(id);
+            }
+        }
+
+        for (Long2ObjectMap.Entry<VerifierChunkResults> entry : this.resultsPerChunk.long2ObjectEntrySet())
+        {
+            long chunkPosLong = entry.getLongKey();
+
+            if (this.clientChunkHashes.containsKey(chunkPosLong))
+            {
+                chunkList.add(this.writeChunkResults(chunkPosLong, entry.getValue()));
+            }
+        }
+
+        data.putString("Type", this.verifierType.getName());
+        data.putInt("DataVersion", BaseSchematic.CURRENT_MINECRAFT_DATA_VERSION);
+        data.putInt("IgnoreFluids", Configs.Visuals.IGNORE_EXISTING_FLUIDS.getBooleanValue() ? 1 : 0);
+        data.put("Pairs", pairList);
+        data.put("Chunks", chunkList);
+        data.put("Ignored", new IntArrayData(ignoredIds.toIntArray()));
+
+        return data;
+    }
+
+    protected CompoundData writeChunkResults(long chunkPosLong, VerifierChunkResults results)
+    {
+        ChunkPos chunkPos = malilib.util.position.PositionUtils.chunkPosFromLong(chunkPosLong);
+        Int2IntOpenHashMap counts = results.getCountsPerPairId();
+        final int mismatchCount = results.getMismatchCount();
+        int[] positions = new int[mismatchCount];
+        int[] pairIds = new int[mismatchCount];
+        int[] countIds = counts.keySet().toIntArray();
+        int[] countValues = new int[countIds.length];
+
+        for (int i = 0; i < mismatchCount; ++i)
+        {
+            positions[i] = results.getMismatchPosition(i);
+            pairIds[i] = results.getMismatchPairId(i);
+        }
+
+        for (int i = 0; i < countIds.length; ++i)
+        {
+            countValues[i] = counts.get(countIds[i]);
+        }
+
+        Int2IntOpenHashMap differingCorrectPairIds = results.getDifferingCorrectPairIds();
+        int[] correctPositions = differingCorrectPairIds.keySet().toIntArray();
+        int[] correctPairIds = new int[correctPositions.length];
+
+        for (int i = 0; i < correctPositions.length; ++i)
+        {
+            correctPairIds[i] = differingCorrectPairIds.get(correctPositions[i]);
+        }
+
+        CompoundData tag = new CompoundData();
+        tag.putLong("Pos", chunkPosLong);
+        tag.putLong("Hash", this.clientChunkHashes.get(chunkPosLong));
+        tag.put("Boxes", new IntArrayData(getBoxesAsArray(this.boxesInChunks.get(chunkPos))));
+        tag.put("Positions", new IntArrayData(positions));
+        tag.put("PairIds", new IntArrayData(pairIds));
+        tag.put("CountIds", new IntArrayData(countIds));
+        tag.put("Counts", new IntArrayData(countValues));
+        tag.put("CorrectPositions", new IntArrayData(correctPositions));
+        tag.put("CorrectPairIds", new IntArrayData(correctPairIds));
+
+        return tag;
+    }
+
+    /**
+     * Restores the results from the stored data. Only the chunks that still have the same boxes
+     * are restored. The restored chunks in the currently loaded client chunks are validated right away,
+     * and the rest are validated when they get loaded, or when the verifier is resumed.
+     * @return true if some results were restored
+     */
+    boolean readStateFromData(CompoundData data, WorldClient clientWorld)
+    {
+        // The result types of the pairs, and thus which positions got stored, depend on this setting
+        if (data.getIntOrDefault("IgnoreFluids", -1) != (Configs.Visuals.IGNORE_EXISTING_FLUIDS.getBooleanValue() ? 1 : 0))
+        {
+            return false;
+        }
+
+        this.clear();
+        this.verifierType = BaseOptionListConfigValue.findValueByName(data.getString("Type"), BlockInfoListType.VALUES);
+        this.updateRequiredBoxes();
+
+        int dataVersion = data.getIntOrDefault("DataVersion", BaseSchematic.CURRENT_MINECRAFT_DATA_VERSION);
+        ListData pairList = data.getList("Pairs", Constants.NBT.TAG_COMPOUND);
+        ListData chunkList = data.getList("Chunks", Constants.NBT.TAG_COMPOUND);
+        final int pairCount = pairList.size();
+        final int chunkCount = chunkList.size();
+        // The stored pair IDs mapped to the IDs in the current pair table
+        int[] pairIds = new int[pairCount];
+
+        for (int i = 0; i < pairCount; ++i)
+        {
+            CompoundData tag = pairList.getCompoundAt(i);
+            IBlockState expectedState = BlockState.ofData(tag.getCompound("Expected"), dataVersion).vanillaState();
+            IBlockState foundState = BlockState.ofData(tag.getCompound("Found"), dataVersion).vanillaState();
+            pairIds[i] = this.pairTable.getOrCreateId(expectedState, foundState);
+        }
+
+        for (int i = 0; i < chunkCount; ++i)
+        {
+            CompoundData tag = chunkList.getCompoundAt(i);
+            long chunkPosLong = tag.getLong("Pos");
+            ChunkPos chunkPos = malilib.util.position.PositionUtils.chunkPosFromLong(chunkPosLong);
+            int[] boxes = getBoxesAsArray(this.boxesInChunks.get(chunkPos));
+
+            // The boxes in this chunk have changed, for example due to a different render layer range
+            if (boxes.length == 0 || Arrays.equals(boxes, tag.getIntArray("Boxes")) == false)
+            {
+                continue;
+            }
+
+            VerifierChunkResults results = readChunkResults(tag, pairIds);
+
+            if (results != null)
+            {
+                this.resultsPerChunk.put(chunkPosLong, results);
+                this.completeSections += this.getCompleteSectionCount(chunkPos, results);
+                this.clientChunkHashes.put(chunkPosLong, tag.getLong("Hash"));
+                this.unvalidatedChunks.add(chunkPosLong);
+            }
+        }
+
+        for (int id : data.getIntArray("Ignored"))
+        {
+            if (id >= 0 && id < pairCount)
+            {
+                this.ignoredPairs.add(this.pairTable.getPair(pairIds[id]));
+            }
+        }
+
+        if (this.resultsPerChunk.isEmpty())
+        {
+            return false;
+        }
+
+        this.countsDirty = true;
+        this.selectedPositionsDirty = true;
+        this.validateRestoredChunks(new LongOpenHashSet(this.unvalidatedChunks), clientWorld);
+        this.status = RunStatus.PAUSED;
+
+        return true;
+    }
+
+    @Nullable
+    protected static VerifierChunkResults readChunkResults(CompoundData tag, int[] pairIds)
+    {
+        int[] positions = tag.getIntArray("Positions");
+        int[] mismatchPairIds = tag.getIntArray("PairIds");
+        int[] countIds = tag.getIntArray("CountIds");
+        int[] counts = tag.getIntArray("Counts");
+        int[] correctPositions = tag.getIntArray("CorrectPositions");
+        int[] correctPairIds = tag.getIntArray("CorrectPairIds");
+
+        if (positions.length != mismatchPairIds.length || countIds.length != counts.length ||
+            correctPositions.length != correctPairIds.length)
+        {
+            return null;
+        }
+
+        Int2IntOpenHashMap countsPerPairId = new Int2IntOpenHashMap(countIds.length);
+
+        for (int i = 0; i < countIds.length; ++i)
+        {
+            if (countIds[i] < 0 || countIds[i] >= pairIds.length)
+            {
+                return null;
+            }
+
+            countsPerPairId.addTo(pairIds[countIds[i]], counts[i]);
+        }
+
+        for (int i = 0; i < mismatchPairIds.length; ++i)
+        {
+            if (mismatchPairIds[i] < 0 || mismatchPairIds[i] >= pairIds.length)
+            {
+                return null;
+            }
+
+            mismatchPairIds[i] = pairIds[mismatchPairIds[i]];
+        }
+
+        Int2IntOpenHashMap differingCorrectPairIds = new Int2IntOpenHashMap(correctPositions.length);
+
+        for (int i = 0; i < correctPositions.length; ++i)
+        {
+            if (correctPairIds[i] < 0 || correctPairIds[i] >= pairIds.length)
+            {
+                return null;
+            }
+
+            differingCorrectPairIds.put(correctPositions[i], pairIds[correctPairIds[i]]);
+        }
+
+        return VerifierChunkResults.of(positions, mismatchPairIds, countsPerPairId, differingCorrectPairIds);
+    }
+
+    protected static int[] getBoxesAsArray(List<IntBoundingBox> boxes)
+    {
+        int[] arr = new int[boxes.size() * 6];
+        int index = 0;
+
+        for (IntBoundingBox box : boxes)
+        {
+            arr[index++] = box.minX;
+            arr[index++] = box.minY;
+            arr[index++] = box.minZ;
+            arr[index++] = box.maxX;
+            arr[index++] = box.maxY;
+            arr[index++] = box.maxZ;
+        }
+
+        return arr;
+    }
+
     protected void clear()
     {
         this.boxesInChunks.clear();
         this.completedChunks.clear();
 
         this.resultsPerChunk.clear();
+        this.clientChunkHashes.clear();
+        this.unvalidatedChunks.clear();
+        this.pairTable.clear();
         this.countsPerPair.clear();
         this.countsPerType.clear();
+        this.countsDirty = false;
+        this.completeSections = 0;
+        this.totalSections = 0;
 
         this.selectedTypes.clear();
         this.selectedPairs.clear();
         this.calculatedSelectedPairs.clear();
         this.ignoredPairs.clear();
 
-        this.allSelectedPositions.clear();
+        this.selectedPositionIndex.clear();
         this.closestSelectedPositions.clear();
+        this.closestSelectedPositionSet.clear();
+        this.routePlanner.clear();
+        ++this.selectedPositionsVersion;
+        this.buildRouteDirty = this.buildRouteEnabled;
+        this.selectedClosestPositionsDirty = true;
 
         this.status = RunStatus.STOPPED;
     }
@@ -479,6 +1173,13 @@ public class SchematicVerifier implements IInfoHudRenderer
             }
         }
 
+        this.totalSections = 0;
+
+        for (ChunkPos pos : this.boxesInChunks.keySet())
+        {
+            this.totalSections += Integer.bitCount(SectionHashUtils.getSectionMask(this.boxesInChunks.get(pos)));
+        }
+
         SchematicVerifierManager.INSTANCE.updateTouchedChunks();
     }
 
@@ -511,19 +1212,54 @@ public class SchematicVerifier implements IInfoHudRenderer
         this.countsPerPair.clear();
         this.countsPerType.clear();
 
-        for (Object2ObjectOpenHashMap<BlockStatePair, IntArrayList> map : this.resultsPerChunk.values())
+        for (VerifierChunkResults results : this.resultsPerChunk.values())
         {
-            for (BlockStatePair pair : map.keySet())
-            {
-                int size = map.get(pair).size();
-                this.countsPerPair.addTo(pair, size);
-                this.countsPerType.addTo(pair.type, size);
-            }
+            this.addCounts(results, 1);
         }
 
         this.countsDirty = false;
     }
 
+    /**
+     * Adds (or with a negative sign, subtracts) the result counts of one chunk to the total counts
+     */
+    protected void addCounts(VerifierChunkResults results, int sign)
+    {
+        for (Int2IntMap.Entry entry : results.getCountsPerPairId().int2IntEntrySet())
+        {
+            BlockStatePair pair = this.pairTable.getPair(entry.getIntKey());
+            int count = entry.getIntValue() * sign;
+            addCount(this.countsPerPair, pair, count);
+            addCount(this.countsPerType, pair.type, count);
+        }
+    }
+
+    protected static <T> void addCount(Object2IntOpenHashMap<T> map, T key, int amount)
+    {
+        // Remove the entries that drop to zero, so that the pairs that no longer exist
+        // don't remain in the lists
+        if (map.addTo(key, amount) + amount == 0)
+        {
+            map.removeInt(key);
+        }
+    }
+
+    /**
+     * Adds the pairs of the given chunk results to the selected pairs, if they belong to a selected category
+     */
+    protected void addNewSelectedPairs(VerifierChunkResults results)
+    {
+        for (int pairId : results.getCountsPerPairId().keySet())
+        {
+            BlockStatePair pair = this.pairTable.getPair(pairId);
+
+            if (this.selectedPairs.contains(pair) || this.selectedTypes.contains(pair.type))
+            {
+                this.calculatedSelectedPairs.add(pair);
+            }
+        }
+    }
+
     protected void updateSelectedPairs()
     {
         this.updateCountsIfDirty();
@@ -544,26 +1280,129 @@ public class SchematicVerifier implements IInfoHudRenderer
     protected void updateSelectedPositions()
     {
         this.updateSelectedPairsIfDirty();
-        this.allSelectedPositions.clear();
+        this.selectedPositionIndex.clear();
+
+        boolean[] selectedById = this.getSelectedPairIds();
+
+        for (Long2ObjectMap.Entry<VerifierChunkResults> entry : this.resultsPerChunk.long2ObjectEntrySet())
+        {
+            this.updateSelectedPositionsForChunk(entry.getLongKey(), entry.getValue(), selectedById);
+        }
+
+        ++this.selectedPositionsVersion;
+        this.selectedPositionsDirty = false;
+        this.buildRouteDirty = this.buildRouteEnabled;
+        this.selectedClosestPositionsDirty = true;
+    }
+
+    /**
+     * @return the selection status of all the pairs, indexed by the pair ID
+     */
+    protected boolean[] getSelectedPairIds()
+    {
+        int pairCount = this.pairTable.size();
+        boolean[] selectedById = new boolean[pairCount];
+
+        for (int id = 0; id < pairCount; ++id)
+        {
+            selectedById[id] = this.calculatedSelectedPairs.contains(this.pairTable.getPair(id));
+        }
+
+        return selectedById;
+    }
+
+    /**
+     * Re-builds the selected positions of one chunk
+     */
+    protected void updateSelectedPositionsForChunk(long chunkPosLong, VerifierChunkResults results, boolean[] selectedById)
+    {
+        List<BlockPairTypePosition> list = new ArrayList<>();
+        final int count = results.getMismatchCount();
+        boolean correctSelected = false;
+
+        for (int i = 0; i < count; ++i)
+        {
+            int pairId = results.getMismatchPairId(i);
+
+            if (selectedById[pairId])
+            {
+                BlockStatePair pair = this.pairTable.getPair(pairId);
+                list.add(BlockPairTypePosition.of(pair, chunkPosLong, results.getMismatchPosition(i)));
+            }
+        }
+
+        for (int pairId : results.getCountsPerPairId().keySet())
+        {
+            if (selectedById[pairId] && this.pairTable.getPair(pairId).type == VerifierResultType.CORRECT_STATE)
+            {
+                correctSelected = true;
+                break;
+            }
+        }
 
-        for (long chunkPosLong : this.resultsPerChunk.keySet())
+        WorldSchematic schematicWorld = SchematicWorldHandler.getSchematicWorld();
+
+        if (correctSelected && schematicWorld != null)
         {
-            Object2ObjectOpenHashMap<BlockStatePair, IntArrayList> results = this.resultsPerChunk.get(chunkPosLong);
+            this.addSelectedCorrectPositions(chunkPosLong, results, selectedById, schematicWorld, list);
+        }
 
-            for (BlockStatePair pair : results.keySet())
+        this.selectedPositionIndex.setPositions(chunkPosLong, list);
+        ++this.selectedPositionsVersion;
+    }
+
+    /**
+     * The correct positions are not stored, so if any correct pairs are selected, then
+     * those positions are found again from the schematic world, skipping the stored incorrect positions.
+     * The correct positions with differing states are stored, and the rest have the identity pair of their expected state.
+     */
+    protected void addSelectedCorrectPositions(long chunkPosLong, VerifierChunkResults results, boolean[] selectedById,
+                                               WorldSchematic schematicWorld, List<BlockPairTypePosition> listOut)
+    {
+        ChunkPos chunkPos = malilib.util.position.PositionUtils.chunkPosFromLong(chunkPosLong);
+        Chunk chunk = schematicWorld.getChunkProvider().getLoadedChunk(chunkPos.x, chunkPos.z);
+
+        if (chunk == null)
+        {
+            return;
+        }
+
+        Int2IntOpenHashMap differingCorrectPairIds = results.getDifferingCorrectPairIds();
+        BlockPos.MutBlockPos mutablePos = new BlockPos.MutBlockPos();
+
+        for (IntBoundingBox bb : this.boxesInChunks.get(chunkPos))
+        {
+            for (int y = bb.minY; y <= bb.maxY; ++y)
             {
-                if (this.calculatedSelectedPairs.contains(pair))
+                for (int z = bb.minZ; z <= bb.maxZ; ++z)
                 {
-                    for (int relPos : results.get(pair))
+                    for (int x = bb.minX; x <= bb.maxX; ++x)
                     {
-                        this.allSelectedPositions.add(BlockPairTypePosition.of(pair, chunkPosLong, relPos));
+                        mutablePos.set(x, y, z);
+                        int relPos = malilib.util.position.PositionUtils.getPackedChunkRelativePosition(mutablePos);
+
+                        if (results.isMismatch(relPos))
+                        {
+                            continue;
+                        }
+
+                        int pairId = differingCorrectPairIds.get(relPos);
+
+                        if (pairId == -1)
+                        {
+                            IBlockState state = chunk.getBlockState(mutablePos);
+                            pairId = this.pairTable.getId(state, state);
+                        }
+
+                        if (pairId >= 0 && selectedById[pairId])
+                        {
+                            BlockStatePair pair = this.pairTable.getPair(pairId);
+                            listOut.add(BlockPairTypePosition.of(pair, chunkPosLong, relPos));
+                        }
                     }
                 }
             }
         }
-
-        this.selectedPositionsDirty = false;
-        this.selectedClosestPositionsDirty = true;
     }
 
     protected void updateClosestPositionsIfDirty(BlockPos referencePos)
@@ -571,6 +1410,11 @@ public class SchematicVerifier implements IInfoHudRenderer
         this.updateSelectedPairsIfDirty();
         this.updateSelectedPositionsIfDirty();
 
+        if (this.buildRouteEnabled)
+        {
+            this.updateBuildRoute(referencePos);
+        }
+
         int hysteresis = 16;
 
         if (this.selectedClosestPositionsDirty || this.lastSortPosition == null ||
@@ -583,14 +1427,66 @@ public class SchematicVerifier implements IInfoHudRenderer
         }
     }
 
+    /**
+     * Takes a finished route into use, and starts re-planning the route when the selection has changed,
+     * or when the current route has been completed but the selected positions have changed since it was planned
+     */
+    protected void updateBuildRoute(BlockPos referencePos)
+    {
+        if (this.routePlanner.updatePendingRoute())
+        {
+            this.selectedClosestPositionsDirty = true;
+        }
+
+        if (this.routePlanner.isPlanning() == false &&
+            (this.buildRouteDirty ||
+             (this.routePlanner.hasRoute() == false && this.routePlannedVersion != this.selectedPositionsVersion)))
+        {
+            List<BlockPairTypePosition> targets = new ArrayList<>(this.selectedPositionIndex.getPositionCount());
+            this.selectedPositionIndex.getAllPositions(targets);
+            this.routePlanner.startPlanning(targets, referencePos);
+            this.routePlannedVersion = this.selectedPositionsVersion;
+            this.buildRouteDirty = false;
+            this.selectedClosestPositionsDirty = true;
+        }
+    }
+
+    /**
+     * @return true if the given build route target is not an incorrect position anymore
+     */
+    protected boolean isRouteTargetDone(BlockPairTypePosition target)
+    {
+        BlockPos pos = target.getBlockPos();
+        VerifierChunkResults results = this.resultsPerChunk.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+
+        // The chunks without results are either not verified yet, or they are being verified again
+        return results != null && results.isMismatch(malilib.util.position.PositionUtils.getPackedChunkRelativePosition(pos)) == false;
+    }
+
     protected void updateClosestPositions(BlockPos referencePos)
     {
         this.closestSelectedPositions.clear();
 
-        int max = Configs.InfoOverlays.VERIFIER_ERROR_HIGHLIGHT_MAX_POSITIONS.getIntegerValue();
-        int endIndex = Math.min(max, this.allSelectedPositions.size());
-        this.allSelectedPositions.sort(new BlockPairTypePositionComparator(referencePos, true));
-        this.closestSelectedPositions.addAll(this.allSelectedPositions.subList(0, endIndex));
+        // The closest positions are shown until the first route has been planned
+        if (this.buildRouteEnabled && this.routePlanner.hasRoute())
+        {
+            int max = Configs.InfoOverlays.VERIFIER_BUILD_ROUTE_TARGETS.getIntegerValue();
+            this.routePlanner.getNextTargets(max, this::isRouteTargetDone, this.closestSelectedPositions);
+        }
+        else
+        {
+            int max = Configs.InfoOverlays.VERIFIER_ERROR_HIGHLIGHT_MAX_POSITIONS.getIntegerValue();
+            this.selectedPositionIndex.getClosestPositions(referencePos, max, this.closestSelectedPositions);
+        }
+
+        this.closestSelectedPositionSet.clear();
+
+        for (BlockPairTypePosition pos : this.closestSelectedPositions)
+        {
+            this.closestSelectedPositionSet.add(pos.posLong);
+        }
+
+        ++this.closestPositionsVersion;
         this.selectedClosestPositionsDirty = false;
         this.lastSortPosition = referencePos;
     }
@@ -598,11 +1494,25 @@ public class SchematicVerifier implements IInfoHudRenderer
     protected void updateInfoHudLines()
     {
         int max = Configs.InfoOverlays.INFO_HUD_MAX_LINES.getIntegerValue();
-        int endIndex = Math.min(max - 1, this.closestSelectedPositions.size());
+        int headerLines = this.buildRouteEnabled ? 2 : 1;
+        int endIndex = Math.min(max - headerLines, this.closestSelectedPositions.size());
 
         this.infoHudLines.clear();
         this.infoHudLines.add(StringUtils.translate("litematica.hud.task_name.schematic_verifier"));
 
+        if (this.buildRouteEnabled)
+        {
+            if (this.routePlanner.isPlanning())
+            {
+                this.infoHudLines.add(StringUtils.translate("litematica.hud.schematic_verifier.build_route.planning"));
+            }
+            else
+            {
+                this.infoHudLines.add(StringUtils.translate("litematica.hud.schematic_verifier.build_route.remaining",
+                                                            this.routePlanner.getRemainingCount()));
+            }
+        }
+
         for (int i = 0; i < endIndex; ++i)
         {
             BlockPairTypePosition pair = this.closestSelectedPositions.get(i);
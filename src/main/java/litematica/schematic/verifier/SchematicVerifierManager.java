@@ -1,14 +1,26 @@
 package litematica.schematic.verifier;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
+import net.minecraft.client.multiplayer.WorldClient;
+import net.minecraft.server.integrated.IntegratedServer;
+
+import malilib.config.option.BooleanAndFileConfig.BooleanAndFile;
+import malilib.util.game.wrap.GameWrap;
 import malilib.util.position.BlockPos;
 import malilib.util.position.ChunkPos;
+import malilib.util.position.Direction;
+import litematica.config.Configs;
 import litematica.data.DataManager;
 import litematica.schematic.placement.SchematicPlacement;
+import litematica.util.world.RegionFileChunkReader;
 
 public class SchematicVerifierManager
 {
@@ -18,6 +30,9 @@ public class SchematicVerifierManager
     protected final ArrayList<SchematicVerifier> allVerifiers = new ArrayList<>();
     protected final LongOpenHashSet touchedChunks = new LongOpenHashSet();
     protected final LongOpenHashSet reCheckChunks = new LongOpenHashSet();
+    // The individually changed positions, as packed chunk-relative positions per chunk
+    protected final Long2ObjectOpenHashMap<IntOpenHashSet> reCheckPositions = new Long2ObjectOpenHashMap<>();
+    protected final BlockPos.MutBlockPos mutablePos = new BlockPos.MutBlockPos();
     @Nullable protected SchematicVerifier selectedVerifier;
 
     public List<SchematicVerifier> getActiveVerifiers()
@@ -67,6 +82,7 @@ public class SchematicVerifierManager
                 return this.selectedVerifier;
             }
 
+            VerifierStateStorage.saveState(this.selectedVerifier);
             this.selectedVerifier.reset();
         }
 
@@ -77,6 +93,47 @@ public class SchematicVerifierManager
         return this.selectedVerifier;
     }
 
+    /**
+     * @return the region directory of the current dimension in the world save used for the offline verification,
+     * which is either the custom directory from the config, or the save of the current single player world.
+     * Returns null if there is no such directory.
+     */
+    @Nullable
+    public Path getOfflineRegionDirectory()
+    {
+        WorldClient world = GameWrap.getClientWorld();
+        BooleanAndFile value = Configs.Generic.VERIFIER_OFFLINE_WORLD_DIRECTORY.getValue();
+        Path worldDir = null;
+
+        if (world == null)
+        {
+            return null;
+        }
+
+        if (value.booleanValue)
+        {
+            worldDir = value.fileValue;
+        }
+        else
+        {
+            IntegratedServer server = GameWrap.getClient().getIntegratedServer();
+
+            if (server != null)
+            {
+                worldDir = server.getWorld(0).getSaveHandler().getWorldDirectory().toPath();
+            }
+        }
+
+        if (worldDir == null)
+        {
+            return null;
+        }
+
+        Path regionDir = RegionFileChunkReader.getRegionDirectory(worldDir, world.provider.getDimensionType().getId());
+
+        return Files.isDirectory(regionDir) ? regionDir : null;
+    }
+
     public void setSelectedVerifier(@Nullable SchematicVerifier selectedVerifier)
     {
         this.selectedVerifier = selectedVerifier;
@@ -93,9 +150,45 @@ public class SchematicVerifierManager
         }
     }
 
+    /**
+     * Queues the changed position and its neighbors for a re-check. The neighbors are included,
+     * because their actual states (for example the fence or redstone wire connections)
+     * can change without any change in the stored states.
+     */
     public void onBlockChanged(BlockPos pos)
     {
-        this.onChunkChanged(pos.getX() >> 4, pos.getZ() >> 4);
+        int x = pos.getX();
+        int y = pos.getY();
+        int z = pos.getZ();
+
+        this.addReCheckPosition(x, y, z);
+
+        for (Direction side : Direction.ALL_DIRECTIONS)
+        {
+            this.addReCheckPosition(x + side.getXOffset(), y + side.getYOffset(), z + side.getZOffset());
+        }
+    }
+
+    protected void addReCheckPosition(int x, int y, int z)
+    {
+        long posLong = ChunkPos.asLong(x >> 4, z >> 4);
+
+        if (y >= 0 && y < 256 && this.touchedChunks.contains(posLong))
+        {
+            int relPos = malilib.util.position.PositionUtils.getPackedChunkRelativePosition(this.mutablePos.set(x, y, z));
+            this.reCheckPositions.computeIfAbsent(posLong, p -> new IntOpenHashSet()).add(relPos);
+        }
+    }
+
+    /**
+     * Called when a setting that affects the verifier result types changes
+     */
+    public void onResultTypesChanged()
+    {
+        for (SchematicVerifier verifier : this.activeVerifiers)
+        {
+            verifier.onResultTypesChanged();
+        }
     }
 
     public void onChunkChanged(int cx, int cz)
@@ -116,9 +209,24 @@ public class SchematicVerifierManager
             {
                 verifier.reCheckChunks(this.reCheckChunks);
             }
+
+            // The full chunk re-checks already cover the individual positions in those chunks
+            for (long posLong : this.reCheckChunks)
+            {
+                this.reCheckPositions.remove(posLong);
+            }
+        }
+
+        if (this.reCheckPositions.isEmpty() == false)
+        {
+            for (SchematicVerifier verifier : this.activeVerifiers)
+            {
+                verifier.reCheckPositions(this.reCheckPositions);
+            }
         }
 
         this.reCheckChunks.clear();
+        this.reCheckPositions.clear();
     }
 
     protected void createAndAddVerifier(SchematicPlacement placement)
@@ -128,6 +236,36 @@ public class SchematicVerifierManager
         SchematicVerifier verifier = new SchematicVerifier(placement);
         this.selectedVerifier = verifier;
         this.activeVerifiers.add(verifier);
+
+        // Continue from the results stored in an earlier session, if there are any
+        verifier.updateStateKey();
+        VerifierStateStorage.restoreState(verifier);
+    }
+
+    /**
+     * Stores the results of the active verifiers, so that they can be restored in a later session
+     */
+    public void saveVerifierStates()
+    {
+        for (SchematicVerifier verifier : this.activeVerifiers)
+        {
+            VerifierStateStorage.saveState(verifier);
+        }
+    }
+
+    public void clear()
+    {
+        for (SchematicVerifier verifier : this.activeVerifiers)
+        {
+            verifier.stop();
+        }
+
+        this.activeVerifiers.clear();
+        this.allVerifiers.clear();
+        this.touchedChunks.clear();
+        this.reCheckChunks.clear();
+        this.reCheckPositions.clear();
+        this.selectedVerifier = null;
     }
 
     public void updateTouchedChunks()
@@ -0,0 +1,205 @@
+package litematica.schematic.verifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import malilib.util.position.BlockPos;
+import malilib.util.position.ChunkPos;
+import malilib.util.position.PositionUtils;
+
+/**
+ * A spatial index of the selected verifier positions, bucketed per chunk.
+ * The closest positions are found by visiting the chunks in the order of their
+ * distance from the reference position, and stopping once the remaining chunks
+ * can't contain anything closer than the positions already found.
+ */
+public class SelectedPositionIndex
+{
+    private final Long2ObjectOpenHashMap<List<BlockPairTypePosition>> positionsPerChunk = new Long2ObjectOpenHashMap<>();
+    private int positionCount;
+
+    /**
+     * Replaces the positions of one chunk. An empty list removes the chunk.
+     */
+    public void setPositions(long chunkPosLong, List<BlockPairTypePosition> positions)
+    {
+        List<BlockPairTypePosition> old = positions.isEmpty() ?
+                                                  this.positionsPerChunk.remove(chunkPosLong) :
+                                                  this.positionsPerChunk.put(chunkPosLong, positions);
+
+        if (old != null)
+        {
+            this.positionCount -= old.size();
+        }
+
+        this.positionCount += positions.size();
+    }
+
+    public int getPositionCount()
+    {
+        return this.positionCount;
+    }
+
+    public void clear()
+    {
+        this.positionsPerChunk.clear();
+        this.positionCount = 0;
+    }
+
+    /**
+     * Adds all the positions to the list, in no particular order
+     */
+    public void getAllPositions(List<BlockPairTypePosition> listOut)
+    {
+        for (List<BlockPairTypePosition> list : this.positionsPerChunk.values())
+        {
+            listOut.addAll(list);
+        }
+    }
+
+    /**
+     * Adds up to maxCount of the positions closest to the reference position to the list,
+     * in the order of their distance, closest first.
+     */
+    public void getClosestPositions(BlockPos referencePos, int maxCount, List<BlockPairTypePosition> listOut)
+    {
+        if (maxCount <= 0 || this.positionsPerChunk.isEmpty())
+        {
+            return;
+        }
+
+        int refX = referencePos.getX();
+        int refZ = referencePos.getZ();
+        final int chunkCount = this.positionsPerChunk.size();
+        final long[] chunks = new long[chunkCount];
+        final long[] chunkDistances = new long[chunkCount];
+        int index = 0;
+
+        for (long chunkPosLong : this.positionsPerChunk.keySet())
+        {
+            chunks[index] = chunkPosLong;
+            chunkDistances[index] = getSquareDistanceToChunk(chunkPosLong, refX, refZ);
+            ++index;
+        }
+
+        it.unimi.dsi.fastutil.Arrays.quickSort(0, chunkCount, (i1, i2) -> Long.compare(chunkDistances[i1], chunkDistances[i2]), (i1, i2) ->
+        {
+            long tmp = chunks[i1];
+            chunks[i1] = chunks[i2];
+            chunks[i2] = tmp;
+
+            tmp = chunkDistances[i1];
+            chunkDistances[i1] = chunkDistances[i2];
+            chunkDistances[i2] = tmp;
+        });
+
+        // The head of the queue is the farthest position found so far
+        BlockPairTypePositionComparator farthestFirst = new BlockPairTypePositionComparator(referencePos, false);
+        PriorityQueue<BlockPairTypePosition> queue = new PriorityQueue<>(Math.min(maxCount, this.positionCount) + 1, farthestFirst);
+
+        for (int i = 0; i < chunkCount; ++i)
+        {
+            if (queue.size() >= maxCount &&
+                chunkDistances[i] > farthestFirst.getSquareDistance(queue.peek().posLong))
+            {
+                break;
+            }
+
+            for (BlockPairTypePosition pos : this.positionsPerChunk.get(chunks[i]))
+            {
+                if (queue.size() < maxCount)
+                {
+                    queue.add(pos);
+                }
+                else if (farthestFirst.compare(pos, queue.peek()) > 0)
+                {
+                    queue.poll();
+                    queue.add(pos);
+                }
+            }
+        }
+
+        ArrayList<BlockPairTypePosition> list = new ArrayList<>(queue);
+        list.sort(new BlockPairTypePositionComparator(referencePos, true));
+        listOut.addAll(list);
+    }
+
+    /**
+     * Adds the positions in the chunks that the given line segment passes through to the list,
+     * if they pass the given filter. Only the chunk columns along the segment are visited,
+     * by stepping through them with a 2D grid traversal.
+     * The positions are not in any particular order.
+     * @param filter a filter for the absolute packed positions
+     */
+    public void getPositionsInChunksOnSegment(double x1, double z1, double x2, double z2,
+                                              LongPredicate filter, List<BlockPairTypePosition> listOut)
+    {
+        if (this.positionsPerChunk.isEmpty())
+        {
+            return;
+        }
+
+        int cx = (int) Math.floor(x1) >> 4;
+        int cz = (int) Math.floor(z1) >> 4;
+        int endCx = (int) Math.floor(x2) >> 4;
+        int endCz = (int) Math.floor(z2) >> 4;
+        double dx = x2 - x1;
+        double dz = z2 - z1;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+        // The segment parameter t (0..1) at the next chunk border on each axis, and the step in t per chunk
+        double tMaxX = dx != 0 ? ((dx > 0 ? (cx + 1) << 4 : cx << 4) - x1) / dx : Double.POSITIVE_INFINITY;
+        double tMaxZ = dz != 0 ? ((dz > 0 ? (cz + 1) << 4 : cz << 4) - z1) / dz : Double.POSITIVE_INFINITY;
+        double tDeltaX = dx != 0 ? 16.0 / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaZ = dz != 0 ? 16.0 / Math.abs(dz) : Double.POSITIVE_INFINITY;
+        int maxSteps = Math.abs(endCx - cx) + Math.abs(endCz - cz);
+
+        for (int i = 0; i <= maxSteps; ++i)
+        {
+            List<BlockPairTypePosition> list = this.positionsPerChunk.get(ChunkPos.asLong(cx, cz));
+
+            if (list != null)
+            {
+                for (BlockPairTypePosition pos : list)
+                {
+                    if (filter.test(pos.posLong))
+                    {
+                        listOut.add(pos);
+                    }
+                }
+            }
+
+            if (cx == endCx && cz == endCz)
+            {
+                break;
+            }
+
+            if (tMaxX < tMaxZ)
+            {
+                tMaxX += tDeltaX;
+                cx += stepX;
+            }
+            else
+            {
+                tMaxZ += tDeltaZ;
+                cz += stepZ;
+            }
+        }
+    }
+
+    /**
+     * @return the squared horizontal distance from the given position to the closest edge of the chunk,
+     * which is the smallest possible distance to any position within that chunk
+     */
+    private static long getSquareDistanceToChunk(long chunkPosLong, int x, int z)
+    {
+        int minX = PositionUtils.getChunkPosX(chunkPosLong) << 4;
+        int minZ = PositionUtils.getChunkPosZ(chunkPosLong) << 4;
+        long diffX = x < minX ? minX - x : (x > minX + 15 ? x - minX - 15 : 0);
+        long diffZ = z < minZ ? minZ - z : (z > minZ + 15 ? z - minZ - 15 : 0);
+        return diffX * diffX + diffZ * diffZ;
+    }
+}
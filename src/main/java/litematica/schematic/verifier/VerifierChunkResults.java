@@ -0,0 +1,253 @@
+package litematica.schematic.verifier;
+
+import java.util.Arrays;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import malilib.util.position.PositionUtils;
+
+/**
+ * The verifier results of one chunk. Only the incorrect positions are stored,
+ * as a sorted array of the packed chunk-relative positions and a matching array
+ * of the state pair IDs. The correct positions are only counted per pair,
+ * except for the ones where the found state differs from the expected state
+ * (for example the ignored existing fluids), as their pair can't be known from the expected state alone.
+ */
+public class VerifierChunkResults
+{
+    private int[] mismatchPositions;
+    private int[] mismatchPairIds;
+    private int mismatchCount;
+    private int mismatchSectionMask = -1;
+    private final Int2IntOpenHashMap countsPerPairId;
+    // The pair IDs of the correct positions with differing states, by the packed chunk-relative position
+    private final Int2IntOpenHashMap differingCorrectPairIds;
+
+    private VerifierChunkResults(int[] mismatchPositions, int[] mismatchPairIds, Int2IntOpenHashMap countsPerPairId,
+                                 Int2IntOpenHashMap differingCorrectPairIds)
+    {
+        this.mismatchPositions = mismatchPositions;
+        this.mismatchPairIds = mismatchPairIds;
+        this.mismatchCount = mismatchPositions.length;
+        this.countsPerPairId = countsPerPairId;
+        this.differingCorrectPairIds = differingCorrectPairIds;
+        this.differingCorrectPairIds.defaultReturnValue(-1);
+    }
+
+    /**
+     * Creates the results from previously stored data.
+     * @param mismatchPositions the packed chunk-relative positions, which must be sorted
+     */
+    static VerifierChunkResults of(int[] mismatchPositions, int[] mismatchPairIds, Int2IntOpenHashMap countsPerPairId,
+                                   Int2IntOpenHashMap differingCorrectPairIds)
+    {
+        return new VerifierChunkResults(mismatchPositions, mismatchPairIds, countsPerPairId, differingCorrectPairIds);
+    }
+
+    public int getMismatchCount()
+    {
+        return this.mismatchCount;
+    }
+
+    public int getMismatchPosition(int index)
+    {
+        return this.mismatchPositions[index];
+    }
+
+    public int getMismatchPairId(int index)
+    {
+        return this.mismatchPairIds[index];
+    }
+
+    /**
+     * @return true if the given packed chunk-relative position has an incorrect result
+     */
+    public boolean isMismatch(int relativePosition)
+    {
+        return Arrays.binarySearch(this.mismatchPositions, 0, this.mismatchCount, relativePosition) >= 0;
+    }
+
+    /**
+     * @return the pair ID of the given packed chunk-relative position, or -1 if it's not an incorrect position
+     */
+    public int getMismatchPairIdAt(int relativePosition)
+    {
+        int index = Arrays.binarySearch(this.mismatchPositions, 0, this.mismatchCount, relativePosition);
+        return index >= 0 ? this.mismatchPairIds[index] : -1;
+    }
+
+    /**
+     * @return the stored pair ID of the given packed chunk-relative position, which is either an incorrect position
+     * or a correct position with differing states, or -1 if the position is correct with identical states
+     */
+    public int getStoredPairIdAt(int relativePosition)
+    {
+        int pairId = this.getMismatchPairIdAt(relativePosition);
+        return pairId != -1 ? pairId : this.differingCorrectPairIds.get(relativePosition);
+    }
+
+    /**
+     * @return the pair IDs of the correct positions where the found state differs from the expected state,
+     * by the packed chunk-relative position
+     */
+    public Int2IntOpenHashMap getDifferingCorrectPairIds()
+    {
+        return this.differingCorrectPairIds;
+    }
+
+    /**
+     * @return a bit mask of the chunk sections that have any incorrect positions
+     */
+    public int getMismatchSectionMask()
+    {
+        if (this.mismatchSectionMask == -1)
+        {
+            int mask = 0;
+
+            for (int i = 0; i < this.mismatchCount; ++i)
+            {
+                long posLong = PositionUtils.getPackedAbsolutePosition(0L, this.mismatchPositions[i]);
+                mask |= 1 << ((PositionUtils.unpackY(posLong) >> 4) & 0xF);
+            }
+
+            this.mismatchSectionMask = mask;
+        }
+
+        return this.mismatchSectionMask;
+    }
+
+    /**
+     * Changes the result of one position, for the per-block re-checks.
+     * @param oldPairId the previous pair ID of the position, or -1 if it's not known
+     * @param mismatch true if the new result is an incorrect one
+     * @param sameStates true if the expected and found states of the new pair are the same
+     */
+    public void setResult(int relativePosition, int oldPairId, int newPairId, boolean mismatch, boolean sameStates)
+    {
+        int index = Arrays.binarySearch(this.mismatchPositions, 0, this.mismatchCount, relativePosition);
+        this.mismatchSectionMask = -1;
+
+        if (mismatch || sameStates)
+        {
+            this.differingCorrectPairIds.remove(relativePosition);
+        }
+        else
+        {
+            this.differingCorrectPairIds.put(relativePosition, newPairId);
+        }
+
+        if (oldPairId != -1 && this.countsPerPairId.addTo(oldPairId, -1) == 1)
+        {
+            this.countsPerPairId.remove(oldPairId);
+        }
+
+        this.countsPerPairId.addTo(newPairId, 1);
+
+        if (index >= 0)
+        {
+            if (mismatch)
+            {
+                this.mismatchPairIds[index] = newPairId;
+            }
+            else
+            {
+                int tail = this.mismatchCount - index - 1;
+                System.arraycopy(this.mismatchPositions, index + 1, this.mismatchPositions, index, tail);
+                System.arraycopy(this.mismatchPairIds, index + 1, this.mismatchPairIds, index, tail);
+                --this.mismatchCount;
+            }
+        }
+        else if (mismatch)
+        {
+            int insertAt = -index - 1;
+
+            if (this.mismatchCount == this.mismatchPositions.length)
+            {
+                int newSize = Math.max(this.mismatchCount * 2, 16);
+                this.mismatchPositions = Arrays.copyOf(this.mismatchPositions, newSize);
+                this.mismatchPairIds = Arrays.copyOf(this.mismatchPairIds, newSize);
+            }
+
+            int tail = this.mismatchCount - insertAt;
+            System.arraycopy(this.mismatchPositions, insertAt, this.mismatchPositions, insertAt + 1, tail);
+            System.arraycopy(this.mismatchPairIds, insertAt, this.mismatchPairIds, insertAt + 1, tail);
+            this.mismatchPositions[insertAt] = relativePosition;
+            this.mismatchPairIds[insertAt] = newPairId;
+            ++this.mismatchCount;
+        }
+    }
+
+    /**
+     * @return the result counts by the pair ID, for both the correct and incorrect results
+     */
+    public Int2IntOpenHashMap getCountsPerPairId()
+    {
+        return this.countsPerPairId;
+    }
+
+    public static class Builder
+    {
+        private final IntArrayList positions = new IntArrayList();
+        private final IntArrayList pairIds = new IntArrayList();
+        private final Int2IntOpenHashMap countsPerPairId = new Int2IntOpenHashMap();
+        private final Int2IntOpenHashMap differingCorrectPairIds = new Int2IntOpenHashMap();
+
+        public void addCorrect(int pairId)
+        {
+            this.countsPerPairId.addTo(pairId, 1);
+        }
+
+        public void addCorrect(int pairId, int count)
+        {
+            this.countsPerPairId.addTo(pairId, count);
+        }
+
+        /**
+         * Adds a correct position where the found state differs from the expected state
+         */
+        public void addDifferingCorrect(int relativePosition, int pairId)
+        {
+            this.differingCorrectPairIds.put(relativePosition, pairId);
+            this.countsPerPairId.addTo(pairId, 1);
+        }
+
+        public void addMismatch(int relativePosition, int pairId)
+        {
+            this.positions.add(relativePosition);
+            this.pairIds.add(pairId);
+            this.countsPerPairId.addTo(pairId, 1);
+        }
+
+        public VerifierChunkResults build()
+        {
+            int count = this.positions.size();
+            int[] positions = this.positions.toIntArray();
+            int[] pairIds = this.pairIds.toIntArray();
+            boolean sorted = true;
+
+            for (int i = 1; i < count && sorted; ++i)
+            {
+                sorted = positions[i - 1] < positions[i];
+            }
+
+            if (sorted == false)
+            {
+                it.unimi.dsi.fastutil.Arrays.quickSort(0, count, (i1, i2) -> Integer.compare(positions[i1], positions[i2]), (i1, i2) ->
+                {
+                    int tmp = positions[i1];
+                    positions[i1] = positions[i2];
+                    positions[i2] = tmp;
+
+                    tmp = pairIds[i1];
+                    pairIds[i1] = pairIds[i2];
+                    pairIds[i2] = tmp;
+                });
+            }
+
+            this.countsPerPairId.trim();
+            this.differingCorrectPairIds.trim();
+
+            return new VerifierChunkResults(positions, pairIds, this.countsPerPairId, this.differingCorrectPairIds);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package litematica.schematic.verifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import malilib.util.position.BlockPos;
+import malilib.util.position.ChunkPos;
+import malilib.util.position.IntBoundingBox;
+import malilib.util.position.PositionUtils;
+import litematica.util.world.SectionHashUtils;
+
+/**
+ * A copy of the expected and found block states of one chunk for the verifier.
+ * The snapshot is captured on the client thread, and it is then compared on a worker thread,
+ * without touching either of the worlds. The results are finally merged into
+ * the shared state pair table on the client thread again.
+ */
+public class VerifierChunkSnapshot
+{
+    private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final ChunkPos chunkPos;
+    private final List<IntBoundingBox> boxes;
+    private final long clientHash;
+    // The states per section, indexed by y << 8 | z << 4 | x. Null for the sections that are empty in both worlds.
+    // In the sections that have identical contents in both worlds, the found states are only set
+    // for the blocks that have properties not stored in the world, and the array is null if there are none.
+    private final IBlockState[][] expectedStates = new IBlockState[16][];
+    private final IBlockState[][] foundStates = new IBlockState[16][];
+    private final IntArrayList mismatchPositions = new IntArrayList();
+    private final ArrayList<IBlockState> mismatchExpectedStates = new ArrayList<>();
+    private final ArrayList<IBlockState> mismatchFoundStates = new ArrayList<>();
+    // The counts of the correct positions, by the state
+    private final Reference2IntOpenHashMap<IBlockState> correctCounts = new Reference2IntOpenHashMap<>();
+
+    public VerifierChunkSnapshot(ChunkPos chunkPos, List<IntBoundingBox> boxes, long clientHash)
+    {
+        this.chunkPos = chunkPos;
+        this.boxes = new ArrayList<>(boxes);
+        this.clientHash = clientHash;
+    }
+
+    public ChunkPos getChunkPos()
+    {
+        return this.chunkPos;
+    }
+
+    /**
+     * @return the content hash of the client chunk at the time of the capture
+     */
+    public long getClientHash()
+    {
+        return this.clientHash;
+    }
+
+    /**
+     * Copies the states within the boxes from both chunks. This needs to be called on the client thread.
+     * The found states of the blocks that have properties not stored in the world are resolved here,
+     * as those depend on the neighboring blocks. The sections whose content hashes match are not
+     * copied from the client chunk, and their positions are counted as correct, except for the blocks
+     * with such properties. The hashes only cover the stored states, so those still get compared per block.
+     * @param actualStateBlocks a cache of whether each block has such properties
+     */
+    public void capture(Chunk schematicChunk, Chunk clientChunk, Map<Block, Boolean> actualStateBlocks)
+    {
+        int matchingSections = SectionHashUtils.getMatchingSections(schematicChunk, clientChunk,
+                                                                    SectionHashUtils.getSectionMask(this.boxes));
+
+        this.capture(schematicChunk.getBlockStorageArray(), clientChunk.getBlockStorageArray(),
+                     clientChunk.getWorld(), actualStateBlocks, matchingSections);
+    }
+
+    /**
+     * Copies the states within the boxes from the schematic chunk and from the chunk sections
+     * read from a world save. This doesn't access the worlds, so it can be called on any thread.
+     * The properties that are not stored in the world can't be resolved without the neighboring chunks,
+     * so those are instead reset to their stored values on both sides.
+     * @param storedSections the sections read from the world save, with null entries for the empty sections
+     * @param actualStateBlocks a thread safe cache of whether each block has such properties
+     */
+    public void captureStored(Chunk schematicChunk, ExtendedBlockStorage[] storedSections, Map<Block, Boolean> actualStateBlocks)
+    {
+        this.capture(schematicChunk.getBlockStorageArray(), storedSections, null, actualStateBlocks, 0);
+    }
+
+    private void capture(ExtendedBlockStorage[] schematicSections, ExtendedBlockStorage[] clientSections,
+                         @Nullable World clientWorld, Map<Block, Boolean> actualStateBlocks, int matchingSections)
+    {
+        BlockPos.MutBlockPos mutablePos = new BlockPos.MutBlockPos();
+
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            ExtendedBlockStorage schematicSection = schematicSections[cy];
+            ExtendedBlockStorage clientSection = clientSections[cy];
+            boolean schematicEmpty = schematicSection == Chunk.NULL_BLOCK_STORAGE || schematicSection.isEmpty();
+            boolean clientEmpty = clientSection == Chunk.NULL_BLOCK_STORAGE || clientSection.isEmpty();
+
+            // Sections that are empty in both worlds are just counted as correct air in the compare pass
+            if (schematicEmpty && clientEmpty)
+            {
+                continue;
+            }
+
+            boolean matching = (matchingSections & (1 << cy)) != 0;
+            IBlockState[] expected = new IBlockState[4096];
+            IBlockState[] found = matching ? null : new IBlockState[4096];
+
+            for (IntBoundingBox box : this.boxes)
+            {
+                int minY = Math.max(box.minY, cy << 4);
+                int maxY = Math.min(box.maxY, (cy << 4) + 15);
+
+                for (int y = minY; y <= maxY; ++y)
+                {
+                    for (int z = box.minZ; z <= box.maxZ; ++z)
+                    {
+                        for (int x = box.minX; x <= box.maxX; ++x)
+                        {
+                            int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+                            IBlockState expectedState = schematicEmpty ? AIR : schematicSection.get(x & 0xF, y & 0xF, z & 0xF);
+
+                            if (matching)
+                            {
+                                expected[index] = expectedState;
+                                Block expectedBlock = expectedState.getBlock();
+
+                                if (expectedBlock != Blocks.AIR &&
+                                    actualStateBlocks.computeIfAbsent(expectedBlock, VerifierChunkSnapshot::hasNonMetaProperties))
+                                {
+                                    if (found == null)
+                                    {
+                                        found = new IBlockState[4096];
+                                    }
+
+                                    IBlockState storedState = clientSection.get(x & 0xF, y & 0xF, z & 0xF);
+                                    found[index] = storedState.getActualState(clientWorld, mutablePos.set(x, y, z));
+                                }
+
+                                continue;
+                            }
+
+                            IBlockState foundState = clientEmpty ? AIR : clientSection.get(x & 0xF, y & 0xF, z & 0xF);
+                            Block block = foundState.getBlock();
+
+                            if (block != Blocks.AIR && actualStateBlocks.computeIfAbsent(block, VerifierChunkSnapshot::hasNonMetaProperties))
+                            {
+                                foundState = clientWorld != null ? foundState.getActualState(clientWorld, mutablePos.set(x, y, z)) :
+                                                                   getStoredState(foundState);
+                            }
+
+                            if (clientWorld == null && expectedState.getBlock() != Blocks.AIR &&
+                                actualStateBlocks.computeIfAbsent(expectedState.getBlock(), VerifierChunkSnapshot::hasNonMetaProperties))
+                            {
+                                expectedState = getStoredState(expectedState);
+                            }
+
+                            expected[index] = expectedState;
+                            found[index] = foundState;
+                        }
+                    }
+                }
+            }
+
+            this.expectedStates[cy] = expected;
+            this.foundStates[cy] = found;
+        }
+    }
+
+    /**
+     * Compares the captured states. This doesn't access the worlds, so it can be called on any thread.
+     */
+    public void compare()
+    {
+        BlockPos.MutBlockPos mutablePos = new BlockPos.MutBlockPos();
+
+        for (IntBoundingBox box : this.boxes)
+        {
+            for (int cy = Math.max(box.minY >> 4, 0); cy <= (box.maxY >> 4) && cy < 16; ++cy)
+            {
+                int minY = Math.max(box.minY, cy << 4);
+                int maxY = Math.min(box.maxY, (cy << 4) + 15);
+                IBlockState[] expected = this.expectedStates[cy];
+                IBlockState[] found = this.foundStates[cy];
+
+                if (expected == null)
+                {
+                    int volume = (maxY - minY + 1) * (box.maxX - box.minX + 1) * (box.maxZ - box.minZ + 1);
+                    this.correctCounts.addTo(AIR, volume);
+                    continue;
+                }
+
+                for (int y = minY; y <= maxY; ++y)
+                {
+                    for (int z = box.minZ; z <= box.maxZ; ++z)
+                    {
+                        for (int x = box.minX; x <= box.maxX; ++x)
+                        {
+                            int index = ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+                            IBlockState expectedState = expected[index];
+                            IBlockState foundState = found != null && found[index] != null ? found[index] : expectedState;
+
+                            if (expectedState == foundState)
+                            {
+                                this.correctCounts.addTo(expectedState, 1);
+                            }
+                            else
+                            {
+                                this.mismatchPositions.add(PositionUtils.getPackedChunkRelativePosition(mutablePos.set(x, y, z)));
+                                this.mismatchExpectedStates.add(expectedState);
+                                this.mismatchFoundStates.add(foundState);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // The states are not needed anymore, only the results
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            this.expectedStates[cy] = null;
+            this.foundStates[cy] = null;
+        }
+    }
+
+    /**
+     * Converts the compared results into the verifier chunk results. This needs to be called
+     * on the client thread, as the state pair table is not thread safe.
+     */
+    public VerifierChunkResults createResults(BlockStatePairTable pairTable)
+    {
+        VerifierChunkResults.Builder builder = new VerifierChunkResults.Builder();
+
+        for (Reference2IntMap.Entry<IBlockState> entry : this.correctCounts.reference2IntEntrySet())
+        {
+            IBlockState state = entry.getKey();
+            builder.addCorrect(pairTable.getOrCreateId(state, state), entry.getIntValue());
+        }
+
+        final int count = this.mismatchPositions.size();
+
+        for (int i = 0; i < count; ++i)
+        {
+            int pairId = pairTable.getOrCreateId(this.mismatchExpectedStates.get(i), this.mismatchFoundStates.get(i));
+
+            // Some differing states are still counted as correct, for example the ignored existing fluids
+            if (pairTable.getPair(pairId).type == VerifierResultType.CORRECT_STATE)
+            {
+                builder.addDifferingCorrect(this.mismatchPositions.getInt(i), pairId);
+            }
+            else
+            {
+                builder.addMismatch(this.mismatchPositions.getInt(i), pairId);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return the state with only the properties that are stored in the world
+     */
+    @SuppressWarnings("deprecation")
+    private static IBlockState getStoredState(IBlockState state)
+    {
+        Block block = state.getBlock();
+        return block.getStateFromMeta(block.getMetaFromState(state));
+    }
+
+    /**
+     * @return true if the block has state properties that are not stored in the world,
+     * meaning that the state needs to be resolved via {@link IBlockState#getActualState}
+     */
+    @SuppressWarnings("deprecation")
+    public static boolean hasNonMetaProperties(Block block)
+    {
+        for (IBlockState state : block.getBlockState().getValidStates())
+        {
+            if (block.getStateFromMeta(block.getMetaFromState(state)) != state)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
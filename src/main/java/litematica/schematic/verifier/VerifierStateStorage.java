@@ -0,0 +1,198 @@
+package litematica.schematic.verifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.HashCommon;
+
+import net.minecraft.client.multiplayer.WorldClient;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import malilib.overlay.message.MessageDispatcher;
+import malilib.util.data.tag.CompoundData;
+import malilib.util.data.tag.util.DataFileUtils;
+import malilib.util.game.wrap.GameWrap;
+import malilib.util.game.wrap.WorldWrap;
+import malilib.util.position.IntBoundingBox;
+import litematica.Reference;
+import litematica.schematic.placement.SchematicPlacement;
+import litematica.schematic.placement.SubRegionPlacement;
+import litematica.util.LitematicaDirectories;
+import litematica.util.world.SectionHashUtils;
+import litematica.world.ClientSectionHashCache;
+
+/**
+ * Stores the verifier results on disk, so that they don't need to be re-built after re-logging
+ * or changing dimensions. The files are keyed by the placement and the schematic file's size and modification time.
+ * The content hashes of the verified client chunks are stored with the results, so that
+ * only the chunks that have changed since then need to be verified again.
+ * Those are built from the section content hashes, so any change within the sections
+ * that the placement touches counts as a change, even if it's outside the placement boxes.
+ */
+public class VerifierStateStorage
+{
+    public static final int STATE_VERSION = 3;
+
+    /**
+     * @return the storage key for the given placement, or null if the placement
+     * is for an in-memory-only schematic, or if the schematic file can't be read
+     */
+    @Nullable
+    public static String getStateKey(SchematicPlacement placement)
+    {
+        Path file = placement.getSchematicFile();
+
+        if (file == null || Files.isRegularFile(file) == false)
+        {
+            return null;
+        }
+
+        String fingerprint = getFileFingerprint(file);
+
+        if (fingerprint == null)
+        {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(file.toAbsolutePath()).append('|').append(fingerprint);
+        sb.append('|').append(placement.getPosition()).append('|').append(placement.getRotation().name());
+        sb.append('|').append(placement.getMirror().name());
+
+        for (SubRegionPlacement region : placement.getEnabledSubRegions())
+        {
+            sb.append('|').append(region.getName()).append(':').append(region.getPosition());
+            sb.append(':').append(region.getRotation().name()).append(':').append(region.getMirror().name());
+        }
+
+        return sb.toString();
+    }
+
+    public static void saveState(SchematicVerifier verifier)
+    {
+        String key = verifier.getStateKey();
+        WorldClient world = GameWrap.getClientWorld();
+
+        if (key == null || world == null || verifier.hasData() == false)
+        {
+            return;
+        }
+
+        Path file = getStateFile(key, world);
+        CompoundData data = verifier.writeStateToData();
+        data.putInt("Version", STATE_VERSION);
+        data.putString("Key", key);
+
+        if (DataFileUtils.writeCompoundDataToCompressedNbtFile(file, data, Reference.MOD_ID) == false)
+        {
+            MessageDispatcher.error().console().translate("litematica.message.error.schematic_verifier.failed_to_save_state",
+                                                          file.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Restores the stored results for the verifier's placement, if there are any
+     * @return true if some results were restored
+     */
+    public static boolean restoreState(SchematicVerifier verifier)
+    {
+        String key = verifier.getStateKey();
+        WorldClient world = GameWrap.getClientWorld();
+
+        if (key == null || world == null)
+        {
+            return false;
+        }
+
+        Path file = getStateFile(key, world);
+
+        if (Files.isRegularFile(file) == false)
+        {
+            return false;
+        }
+
+        CompoundData data = DataFileUtils.readCompoundDataFromNbtFile(file);
+
+        // The file name is just a hash of the key, so the full key is compared here
+        if (data == null ||
+            data.getIntOrDefault("Version", 0) != STATE_VERSION ||
+            key.equals(data.getString("Key")) == false)
+        {
+            return false;
+        }
+
+        return verifier.readStateFromData(data, world);
+    }
+
+    /**
+     * Creates a hash of the client world sections that the given boxes of one chunk intersect.
+     * This uses the cached section hashes, so the sections are only hashed again after they have changed.
+     */
+    public static long hashClientChunk(Chunk chunk, List<IntBoundingBox> boxes)
+    {
+        int sectionMask = SectionHashUtils.getSectionMask(boxes);
+        long hash = 0;
+
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            if ((sectionMask & (1 << cy)) != 0)
+            {
+                hash = hash * 31 + ClientSectionHashCache.INSTANCE.getSectionHash(chunk, cy);
+            }
+        }
+
+        return HashCommon.mix(hash);
+    }
+
+    /**
+     * Creates a hash of the sections that the given boxes of one chunk intersect.
+     * This gives the same value as {@link #hashClientChunk(Chunk, List)} for the same sections.
+     * @param sections the sections of the chunk, with null entries for the empty sections
+     */
+    public static long hashChunkSections(ExtendedBlockStorage[] sections, List<IntBoundingBox> boxes)
+    {
+        int sectionMask = SectionHashUtils.getSectionMask(boxes);
+        long hash = 0;
+
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            if ((sectionMask & (1 << cy)) != 0)
+            {
+                hash = hash * 31 + SectionHashUtils.hashSection(sections[cy]);
+            }
+        }
+
+        return HashCommon.mix(hash);
+    }
+
+    protected static Path getStateFile(String key, WorldClient world)
+    {
+        Path dir = LitematicaDirectories.getVerifierDataDirectory().resolve("dim_" + WorldWrap.getDimensionIdAsString(world));
+        LitematicaDirectories.createDirectoriesIfMissingOrPrintError(dir);
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return dir.resolve(String.format("%08x_%08x.nbt", key.hashCode(), crc.getValue()));
+    }
+
+    /**
+     * @return a fingerprint of the file from its size and last modification time, or null if those can't be read.
+     * This is used instead of a hash of the contents, so that the file doesn't need to be read on every save and load.
+     */
+    @Nullable
+    protected static String getFileFingerprint(Path file)
+    {
+        try
+        {
+            return Long.toHexString(Files.size(file)) + "-" + Long.toHexString(Files.getLastModifiedTime(file).toMillis());
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+}
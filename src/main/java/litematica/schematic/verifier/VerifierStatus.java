@@ -9,13 +9,18 @@ public class VerifierStatus
     public final int totalChunks;
     public final int totalBlocks;
     public final int correctBlocks;
+    public final int completeSections;
+    public final int totalSections;
 
-    public VerifierStatus(RunStatus status, int processedChunks, int totalChunks, int totalBlocks, int correctBlocks)
+    public VerifierStatus(RunStatus status, int processedChunks, int totalChunks, int totalBlocks, int correctBlocks,
+                          int completeSections, int totalSections)
     {
         this.status = status;
         this.processedChunks = processedChunks;
         this.totalChunks = totalChunks;
         this.totalBlocks = totalBlocks;
         this.correctBlocks = correctBlocks;
+        this.completeSections = completeSections;
+        this.totalSections = totalSections;
     }
 }
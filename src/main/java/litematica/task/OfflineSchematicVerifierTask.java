@@ -0,0 +1,184 @@
+package litematica.task;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import net.minecraft.block.Block;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import malilib.overlay.message.MessageDispatcher;
+import malilib.util.position.ChunkPos;
+import malilib.util.position.IntBoundingBox;
+import litematica.Litematica;
+import litematica.schematic.placement.SchematicPlacement;
+import litematica.schematic.util.SchematicPlacingUtils;
+import litematica.schematic.verifier.BlockStatePairTable;
+import litematica.schematic.verifier.SchematicVerifier;
+import litematica.schematic.verifier.VerifierChunkSnapshot;
+import litematica.schematic.verifier.VerifierStateStorage;
+import litematica.util.world.RegionFileChunkReader;
+import litematica.world.ChunkSchematic;
+
+/**
+ * Verifies the placements against the chunks stored in the region files of a world save,
+ * instead of the chunks loaded in the client world. The chunks of each region file
+ * are read, populated from the placements and compared on the worker threads,
+ * and only the results are merged into the verifier on the client thread.
+ */
+public class OfflineSchematicVerifierTask extends SchematicVerifierTask
+{
+    protected final Path regionDir;
+    protected final ImmutableList<SchematicPlacement> placements;
+    protected final ConcurrentHashMap<Block, Boolean> storedStateBlocks = new ConcurrentHashMap<>();
+
+    public OfflineSchematicVerifierTask(SchematicVerifier verifier, Path regionDir)
+    {
+        super(verifier);
+
+        this.regionDir = regionDir;
+        this.placements = ImmutableList.copyOf(verifier.getPlacements());
+    }
+
+    @Override
+    public void init()
+    {
+        super.init();
+
+        // The offline verification always runs on worker threads, so that it doesn't stall the client.
+        // If the parallel verification is disabled, then all the available processors are used.
+        if (this.pool == null)
+        {
+            int threads = Math.max(Runtime.getRuntime().availableProcessors(), 1);
+            this.pool = new ForkJoinPool(threads, SchematicVerifierTask::createWorkerThread, null, false);
+        }
+
+        this.submitRegions();
+        this.updateInfoHudLinesMissingChunks(this.requiredChunks);
+    }
+
+    @Override
+    public void replaceBoxes(ArrayListMultimap<ChunkPos, IntBoundingBox> boxesInChunks)
+    {
+        // The changes in the client world are not re-checked while verifying against the world save
+    }
+
+    @Override
+    public boolean execute()
+    {
+        BlockStatePairTable pairTable = this.verifier.getPairTable();
+        boolean modified = false;
+        VerifierChunkSnapshot snapshot;
+        ChunkPos pos;
+
+        while ((snapshot = this.comparedChunks.poll()) != null)
+        {
+            this.requiredChunks.remove(snapshot.getChunkPos());
+            this.verifier.addBlockResultsFromWorld(snapshot.getChunkPos(), snapshot.createResults(pairTable), snapshot.getClientHash());
+            modified = true;
+        }
+
+        // The chunks that could not be read are left incomplete, so that they can be verified in the client world
+        while ((pos = this.failedChunks.poll()) != null)
+        {
+            this.requiredChunks.remove(pos);
+            ++this.failedChunkCount;
+            modified = true;
+        }
+
+        if (modified)
+        {
+            this.updateInfoHudLinesMissingChunks(this.requiredChunks);
+        }
+
+        this.finished = this.requiredChunks.isEmpty();
+
+        if (this.finished && this.failedChunkCount > 0)
+        {
+            MessageDispatcher.warning("litematica.message.warn.schematic_verifier.offline_unreadable_chunks", this.failedChunkCount);
+        }
+
+        return this.finished;
+    }
+
+    /**
+     * Submits one worker job per region file, so that each region file is only opened once
+     */
+    protected void submitRegions()
+    {
+        Long2ObjectOpenHashMap<List<ChunkPos>> chunksPerRegion = new Long2ObjectOpenHashMap<>();
+
+        for (ChunkPos pos : this.requiredChunks)
+        {
+            chunksPerRegion.computeIfAbsent(ChunkPos.asLong(pos.x >> 5, pos.z >> 5), p -> new ArrayList<>()).add(pos);
+        }
+
+        for (List<ChunkPos> chunks : chunksPerRegion.values())
+        {
+            // Copies of the boxes, as the multimap must not be accessed from the worker threads
+            List<List<IntBoundingBox>> boxes = new ArrayList<>(chunks.size());
+
+            for (ChunkPos pos : chunks)
+            {
+                boxes.add(new ArrayList<>(this.getBoxesInChunk(pos)));
+            }
+
+            Path file = RegionFileChunkReader.getRegionFile(this.regionDir, chunks.get(0).x, chunks.get(0).z);
+            this.pool.execute(() -> this.verifyChunksInRegion(file, chunks, boxes));
+        }
+    }
+
+    protected void verifyChunksInRegion(Path file, List<ChunkPos> chunks, List<List<IntBoundingBox>> boxes)
+    {
+        try (RegionFileChunkReader reader = new RegionFileChunkReader(file))
+        {
+            final int count = chunks.size();
+
+            for (int i = 0; i < count && Thread.currentThread().isInterrupted() == false; ++i)
+            {
+                ChunkPos pos = chunks.get(i);
+
+                try
+                {
+                    this.comparedChunks.add(this.verifyChunk(reader, pos, boxes.get(i)));
+                }
+                catch (Exception e)
+                {
+                    Litematica.LOGGER.warn("Failed to verify the chunk [{}, {}] from the region file '{}'", pos.x, pos.z, file, e);
+                    this.failedChunks.add(pos);
+                }
+            }
+        }
+    }
+
+    protected VerifierChunkSnapshot verifyChunk(RegionFileChunkReader reader, ChunkPos pos, List<IntBoundingBox> boxes) throws Exception
+    {
+        ExtendedBlockStorage[] sections = reader.readChunkSections(pos.x, pos.z);
+
+        // The chunks that have not been generated yet are compared as all air
+        if (sections == null)
+        {
+            sections = new ExtendedBlockStorage[16];
+        }
+
+        ChunkSchematic schematicChunk = new ChunkSchematic(this.schematicWorld, pos.x, pos.z);
+
+        for (SchematicPlacement placement : this.placements)
+        {
+            SchematicPlacingUtils.placeBlockStatesToSchematicChunk(placement, schematicChunk);
+        }
+
+        long hash = VerifierStateStorage.hashChunkSections(sections, boxes);
+        VerifierChunkSnapshot snapshot = new VerifierChunkSnapshot(pos, boxes, hash);
+
+        snapshot.captureStored(schematicChunk, sections, this.storedStateBlocks);
+        snapshot.compare();
+
+        return snapshot;
+    }
+}
@@ -1,32 +1,54 @@
 package litematica.task;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import javax.annotation.Nullable;
 import com.google.common.collect.ArrayListMultimap;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 
+import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.world.chunk.Chunk;
 
+import malilib.overlay.message.MessageDispatcher;
 import malilib.util.game.wrap.WorldWrap;
 import malilib.util.position.BlockPos;
 import malilib.util.position.ChunkPos;
 import malilib.util.position.IntBoundingBox;
 import malilib.util.position.PositionUtils;
+import litematica.Litematica;
 import litematica.config.Configs;
 import litematica.scheduler.tasks.TaskProcessChunkBase;
-import litematica.schematic.verifier.BlockStatePair;
+import litematica.schematic.verifier.BlockStatePairTable;
 import litematica.schematic.verifier.SchematicVerifier;
+import litematica.schematic.verifier.VerifierChunkResults;
+import litematica.schematic.verifier.VerifierChunkSnapshot;
 import litematica.schematic.verifier.VerifierResultType;
+import litematica.schematic.verifier.VerifierStateStorage;
+import litematica.util.world.SectionHashUtils;
 import litematica.world.SchematicWorldHandler;
 import litematica.world.WorldSchematic;
 
 public class SchematicVerifierTask extends TaskProcessChunkBase
 {
     protected static final IBlockState AIR = Blocks.AIR.getDefaultState();
+    // The maximum time to spend capturing the chunk snapshots per tick
+    protected static final long CAPTURE_TIME_LIMIT = 40000000L;
 
     protected final SchematicVerifier verifier;
     protected final WorldSchematic schematicWorld;
+    protected final HashMap<ChunkPos, VerifierChunkSnapshot> chunksInProgress = new HashMap<>();
+    protected final ConcurrentLinkedQueue<VerifierChunkSnapshot> comparedChunks = new ConcurrentLinkedQueue<>();
+    // The chunks that failed on the worker threads, which are left unverified
+    protected final ConcurrentLinkedQueue<ChunkPos> failedChunks = new ConcurrentLinkedQueue<>();
+    protected final IdentityHashMap<Block, Boolean> actualStateBlocks = new IdentityHashMap<>();
+    protected final int threadCount;
+    protected int failedChunkCount;
+    @Nullable protected ForkJoinPool pool;
 
     public SchematicVerifierTask(SchematicVerifier verifier)
     {
@@ -34,10 +56,23 @@ public class SchematicVerifierTask extends TaskProcessChunkBase
 
         this.verifier = verifier;
         this.schematicWorld = SchematicWorldHandler.getSchematicWorld();
+        this.threadCount = Configs.Generic.VERIFIER_PARALLEL_THREADS.getIntegerValue();
+    }
+
+    @Override
+    public void init()
+    {
+        super.init();
+
+        if (this.threadCount > 0)
+        {
+            this.pool = new ForkJoinPool(this.threadCount, SchematicVerifierTask::createWorkerThread, null, false);
+        }
     }
 
     public void setBoxes(ArrayListMultimap<ChunkPos, IntBoundingBox> boxesInChunks)
     {
+        this.chunksInProgress.clear();
         this.requiredChunks.clear();
         this.boxesInChunks.clear();
         this.boxesInChunks.putAll(boxesInChunks);
@@ -49,18 +84,163 @@ public class SchematicVerifierTask extends TaskProcessChunkBase
         for (ChunkPos pos : boxesInChunks.keySet())
         {
             this.boxesInChunks.removeAll(pos);
+            // Any results from an earlier snapshot of this chunk will be discarded
+            this.chunksInProgress.remove(pos);
         }
 
         this.boxesInChunks.putAll(boxesInChunks);
         this.requiredChunks.addAll(boxesInChunks.keySet());
     }
 
+    /**
+     * @return true if the given chunk is still waiting to be (re-)checked
+     */
+    public boolean isChunkPending(ChunkPos pos)
+    {
+        return this.requiredChunks.contains(pos);
+    }
+
     @Override
     public boolean canExecute()
     {
         return this.worldClient != null && this.schematicWorld != null;
     }
 
+    @Override
+    public boolean execute()
+    {
+        if (this.pool == null)
+        {
+            return super.execute();
+        }
+
+        if (this.worldClient != null)
+        {
+            boolean modified = this.mergeComparedChunks();
+
+            if (this.submitChunksForComparison() || modified)
+            {
+                this.updateInfoHudLinesMissingChunks(this.requiredChunks);
+            }
+        }
+
+        this.finished = this.requiredChunks.isEmpty();
+
+        if (this.finished && this.failedChunkCount > 0)
+        {
+            MessageDispatcher.warning("litematica.message.warn.schematic_verifier.failed_chunks", this.failedChunkCount);
+        }
+
+        return this.finished;
+    }
+
+    /**
+     * Adds the results of the chunks compared by the workers to the verifier
+     * @return true if some chunks were handled
+     */
+    protected boolean mergeComparedChunks()
+    {
+        BlockStatePairTable pairTable = this.verifier.getPairTable();
+        boolean modified = false;
+        VerifierChunkSnapshot snapshot;
+        ChunkPos failedPos;
+
+        // The failed chunks are left incomplete, so that they can be verified again by resuming the verifier
+        while ((failedPos = this.failedChunks.poll()) != null)
+        {
+            this.chunksInProgress.remove(failedPos);
+            this.requiredChunks.remove(failedPos);
+            ++this.failedChunkCount;
+            modified = true;
+        }
+
+        while ((snapshot = this.comparedChunks.poll()) != null)
+        {
+            ChunkPos pos = snapshot.getChunkPos();
+
+            // The chunk was changed or re-added while it was being compared, so it will be captured again
+            if (this.chunksInProgress.get(pos) != snapshot)
+            {
+                continue;
+            }
+
+            this.chunksInProgress.remove(pos);
+            this.requiredChunks.remove(pos);
+            this.verifier.addBlockResultsFromWorld(pos, snapshot.createResults(pairTable), snapshot.getClientHash());
+            modified = true;
+        }
+
+        return modified;
+    }
+
+    /**
+     * Captures the snapshots of the loaded chunks, and submits them to the workers for comparison
+     * @return true if some chunks were submitted
+     */
+    protected boolean submitChunksForComparison()
+    {
+        long endTime = System.nanoTime() + CAPTURE_TIME_LIMIT;
+        int maxInProgress = this.threadCount * 8;
+        Iterator<ChunkPos> iter = this.requiredChunks.iterator();
+        boolean submitted = false;
+
+        while (iter.hasNext() && this.chunksInProgress.size() < maxInProgress && System.nanoTime() < endTime)
+        {
+            ChunkPos pos = iter.next();
+
+            if (this.chunksInProgress.containsKey(pos) || this.canProcessChunk(pos) == false)
+            {
+                continue;
+            }
+
+            Chunk schematicChunk = this.schematicWorld.getChunk(pos.x, pos.z);
+            Chunk clientChunk = this.worldClient.getChunk(pos.x, pos.z);
+            long clientHash = VerifierStateStorage.hashClientChunk(clientChunk, this.getBoxesInChunk(pos));
+
+            // The restored results of this chunk are still up to date
+            if (this.verifier.validateRestoredChunk(pos, clientHash))
+            {
+                iter.remove();
+                submitted = true;
+                continue;
+            }
+
+            VerifierChunkSnapshot snapshot = new VerifierChunkSnapshot(pos, this.getBoxesInChunk(pos), clientHash);
+
+            snapshot.capture(schematicChunk, clientChunk, this.actualStateBlocks);
+            this.chunksInProgress.put(pos, snapshot);
+
+            this.pool.execute(() -> {
+                try
+                {
+                    snapshot.compare();
+                    this.comparedChunks.add(snapshot);
+                }
+                catch (Exception e)
+                {
+                    Litematica.LOGGER.warn("Failed to verify the chunk [{}, {}]", pos.x, pos.z, e);
+                    this.failedChunks.add(pos);
+                }
+            });
+
+            submitted = true;
+        }
+
+        return submitted;
+    }
+
+    @Override
+    public void stop()
+    {
+        if (this.pool != null)
+        {
+            this.pool.shutdownNow();
+            this.pool = null;
+        }
+
+        super.stop();
+    }
+
     @Override
     protected boolean canProcessChunk(ChunkPos pos)
     {
@@ -81,7 +261,21 @@ public class SchematicVerifierTask extends TaskProcessChunkBase
         BlockPos.MutBlockPos mutablePos = new BlockPos.MutBlockPos();
         Chunk schematicChunk = this.schematicWorld.getChunk(pos.x, pos.z);
         Chunk clientChunk = this.worldClient.getChunk(pos.x, pos.z);
-        Object2ObjectOpenHashMap<BlockStatePair, IntArrayList> results = new Object2ObjectOpenHashMap<>();
+        long clientHash = VerifierStateStorage.hashClientChunk(clientChunk, this.getBoxesInChunk(pos));
+
+        // The restored results of this chunk are still up to date
+        if (this.verifier.validateRestoredChunk(pos, clientHash))
+        {
+            return;
+        }
+
+        BlockStatePairTable pairTable = this.verifier.getPairTable();
+        VerifierChunkResults.Builder results = new VerifierChunkResults.Builder();
+        // The sections with identical contents in both worlds only need the correct states counted.
+        // The hashes only cover the stored states, so the blocks with properties that are not stored
+        // in the world, like fence connections, are still checked per block in those sections.
+        int matchingSections = SectionHashUtils.getMatchingSections(schematicChunk, clientChunk,
+                                                                    SectionHashUtils.getSectionMask(this.getBoxesInChunk(pos)));
 
         for (IntBoundingBox bb : this.getBoxesInChunk(pos))
         {
@@ -94,31 +288,74 @@ public class SchematicVerifierTask extends TaskProcessChunkBase
 
             for (int y = startY; y <= endY; ++y)
             {
+                boolean matching = y >= 0 && y < 256 && (matchingSections & (1 << (y >> 4))) != 0;
+
                 for (int z = startZ; z <= endZ; ++z)
                 {
                     for (int x = startX; x <= endX; ++x)
                     {
                         mutablePos.set(x, y, z);
-                        this.checkBlock(mutablePos, schematicChunk, clientChunk, results);
+
+                        if (matching)
+                        {
+                            IBlockState state = schematicChunk.getBlockState(mutablePos);
+                            Block block = state.getBlock();
+
+                            if (block != Blocks.AIR &&
+                                this.actualStateBlocks.computeIfAbsent(block, VerifierChunkSnapshot::hasNonMetaProperties))
+                            {
+                                this.checkBlock(mutablePos, schematicChunk, clientChunk, pairTable, results);
+                            }
+                            else
+                            {
+                                results.addCorrect(pairTable.getOrCreateId(state, state));
+                            }
+                        }
+                        else
+                        {
+                            this.checkBlock(mutablePos, schematicChunk, clientChunk, pairTable, results);
+                        }
                     }
                 }
             }
         }
 
-        this.verifier.addBlockResultsFromWorld(pos, results);
+        this.verifier.addBlockResultsFromWorld(pos, results.build(), clientHash);
     }
 
     protected void checkBlock(BlockPos.MutBlockPos pos,
                               Chunk schematicChunk,
                               Chunk clientChunk,
-                              Object2ObjectOpenHashMap<BlockStatePair, IntArrayList> results)
+                              BlockStatePairTable pairTable,
+                              VerifierChunkResults.Builder results)
     {
         IBlockState clientBlock = clientChunk.getBlockState(pos).getActualState(clientChunk.getWorld(), pos);
         IBlockState schematicBlock = schematicChunk.getBlockState(pos);
-        VerifierResultType type = VerifierResultType.from(schematicBlock, clientBlock);
-        BlockStatePair pair = new BlockStatePair(type, schematicBlock, clientBlock);
-        int posInt = PositionUtils.getPackedChunkRelativePosition(pos);
+        int pairId = pairTable.getOrCreateId(schematicBlock, clientBlock);
 
-        results.computeIfAbsent(pair, (p) -> new IntArrayList()).add(posInt);
+        // The correct positions are only counted, and not stored, unless their states differ
+        if (pairTable.getPair(pairId).type == VerifierResultType.CORRECT_STATE)
+        {
+            if (clientBlock == schematicBlock)
+            {
+                results.addCorrect(pairId);
+            }
+            else
+            {
+                results.addDifferingCorrect(PositionUtils.getPackedChunkRelativePosition(pos), pairId);
+            }
+        }
+        else
+        {
+            results.addMismatch(PositionUtils.getPackedChunkRelativePosition(pos), pairId);
+        }
+    }
+
+    protected static ForkJoinWorkerThread createWorkerThread(ForkJoinPool pool)
+    {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("Litematica Verifier Worker " + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
     }
 }
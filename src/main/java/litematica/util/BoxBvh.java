@@ -0,0 +1,320 @@
+package litematica.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import net.minecraft.client.renderer.culling.ICamera;
+import net.minecraft.util.math.AxisAlignedBB;
+
+/**
+ * A bounding volume hierarchy over integer block boxes, for quickly finding
+ * the boxes that a ray segment or the view frustum intersects.
+ * The tree is static, so it needs to be re-built when any of the boxes change.
+ * The nodes are stored in flat arrays in depth-first order, so the left child
+ * of an internal node is always the next node.
+ */
+public class BoxBvh<T>
+{
+    private static final int MAX_LEAF_SIZE = 4;
+
+    private final List<T> values;
+    // The boxes of the values as inclusive block coordinates, 6 ints per value
+    private final int[] boxes;
+    // The value indices in the order they are referenced by the leaf nodes
+    private final int[] order;
+    // The node bounds as minX, minY, minZ, maxX, maxY, maxZ, where the max is exclusive
+    private final double[] nodeBounds;
+    // For leaf nodes the first index into the order array, for internal nodes the right child node
+    private final int[] nodeIndex;
+    // For leaf nodes the number of values, 0 for internal nodes
+    private final int[] nodeCount;
+    private final IntArrayList stack = new IntArrayList();
+    private int nodes;
+
+    private BoxBvh(List<T> values, int[] boxes)
+    {
+        int count = values.size();
+        int maxNodes = Math.max(count * 2, 1);
+
+        this.values = values;
+        this.boxes = boxes;
+        this.order = new int[count];
+        this.nodeBounds = new double[maxNodes * 6];
+        this.nodeIndex = new int[maxNodes];
+        this.nodeCount = new int[maxNodes];
+
+        for (int i = 0; i < count; ++i)
+        {
+            this.order[i] = i;
+        }
+
+        if (count > 0)
+        {
+            this.buildNode(0, count);
+        }
+    }
+
+    public int size()
+    {
+        return this.values.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return this.values.isEmpty();
+    }
+
+    private int buildNode(int start, int end)
+    {
+        int node = this.nodes++;
+        int n = node * 6;
+        double[] nb = this.nodeBounds;
+        int[] b = this.boxes;
+        int minCX = Integer.MAX_VALUE, minCY = Integer.MAX_VALUE, minCZ = Integer.MAX_VALUE;
+        int maxCX = Integer.MIN_VALUE, maxCY = Integer.MIN_VALUE, maxCZ = Integer.MIN_VALUE;
+
+        nb[n    ] = Double.MAX_VALUE;
+        nb[n + 1] = Double.MAX_VALUE;
+        nb[n + 2] = Double.MAX_VALUE;
+        nb[n + 3] = -Double.MAX_VALUE;
+        nb[n + 4] = -Double.MAX_VALUE;
+        nb[n + 5] = -Double.MAX_VALUE;
+
+        for (int i = start; i < end; ++i)
+        {
+            int v = this.order[i] * 6;
+
+            nb[n    ] = Math.min(nb[n    ], b[v    ]);
+            nb[n + 1] = Math.min(nb[n + 1], b[v + 1]);
+            nb[n + 2] = Math.min(nb[n + 2], b[v + 2]);
+            nb[n + 3] = Math.max(nb[n + 3], b[v + 3] + 1);
+            nb[n + 4] = Math.max(nb[n + 4], b[v + 4] + 1);
+            nb[n + 5] = Math.max(nb[n + 5], b[v + 5] + 1);
+
+            // The centers are doubled, to stay in integers
+            int cx = b[v] + b[v + 3];
+            int cy = b[v + 1] + b[v + 4];
+            int cz = b[v + 2] + b[v + 5];
+            minCX = Math.min(minCX, cx); maxCX = Math.max(maxCX, cx);
+            minCY = Math.min(minCY, cy); maxCY = Math.max(maxCY, cy);
+            minCZ = Math.min(minCZ, cz); maxCZ = Math.max(maxCZ, cz);
+        }
+
+        int count = end - start;
+
+        if (count <= MAX_LEAF_SIZE)
+        {
+            this.nodeIndex[node] = start;
+            this.nodeCount[node] = count;
+            return node;
+        }
+
+        // Split at the median of the box centers along the longest axis of the centers
+        int spanX = maxCX - minCX;
+        int spanY = maxCY - minCY;
+        int spanZ = maxCZ - minCZ;
+        final int axis = spanX >= spanY && spanX >= spanZ ? 0 : (spanY >= spanZ ? 1 : 2);
+        int mid = (start + end) >>> 1;
+
+        IntArrays.quickSort(this.order, start, end, (i1, i2) ->
+        {
+            int c1 = b[i1 * 6 + axis] + b[i1 * 6 + axis + 3];
+            int c2 = b[i2 * 6 + axis] + b[i2 * 6 + axis + 3];
+            return Integer.compare(c1, c2);
+        });
+
+        this.nodeCount[node] = 0;
+        this.buildNode(start, mid);
+        this.nodeIndex[node] = this.buildNode(mid, end);
+
+        return node;
+    }
+
+    /**
+     * Calls the consumer for every value whose box the given line segment intersects.
+     * The values are not visited in any particular order.
+     */
+    public void forEachOnSegment(double x1, double y1, double z1, double x2, double y2, double z2, Consumer<T> consumer)
+    {
+        if (this.nodes == 0)
+        {
+            return;
+        }
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dz = z2 - z1;
+        IntArrayList stack = this.stack;
+
+        stack.clear();
+        stack.add(0);
+
+        while (stack.isEmpty() == false)
+        {
+            int node = stack.removeInt(stack.size() - 1);
+            int n = node * 6;
+            double[] nb = this.nodeBounds;
+
+            if (segmentIntersects(x1, y1, z1, dx, dy, dz, nb[n], nb[n + 1], nb[n + 2], nb[n + 3], nb[n + 4], nb[n + 5]) == false)
+            {
+                continue;
+            }
+
+            int count = this.nodeCount[node];
+
+            if (count > 0)
+            {
+                int start = this.nodeIndex[node];
+                int[] b = this.boxes;
+
+                for (int i = start; i < start + count; ++i)
+                {
+                    int index = this.order[i];
+                    int v = index * 6;
+
+                    if (segmentIntersects(x1, y1, z1, dx, dy, dz, b[v], b[v + 1], b[v + 2], b[v + 3] + 1, b[v + 4] + 1, b[v + 5] + 1))
+                    {
+                        consumer.accept(this.values.get(index));
+                    }
+                }
+            }
+            else
+            {
+                stack.add(this.nodeIndex[node]);
+                stack.add(node + 1);
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer for every value whose box is at least partially inside the given frustum.
+     * The camera position must have been set on the frustum, as usual.
+     */
+    public void forEachInFrustum(ICamera camera, Consumer<T> consumer)
+    {
+        if (this.nodes == 0)
+        {
+            return;
+        }
+
+        IntArrayList stack = this.stack;
+
+        stack.clear();
+        stack.add(0);
+
+        while (stack.isEmpty() == false)
+        {
+            int node = stack.removeInt(stack.size() - 1);
+            int n = node * 6;
+            double[] nb = this.nodeBounds;
+
+            if (camera.isBoundingBoxInFrustum(new AxisAlignedBB(nb[n], nb[n + 1], nb[n + 2], nb[n + 3], nb[n + 4], nb[n + 5])) == false)
+            {
+                continue;
+            }
+
+            int count = this.nodeCount[node];
+
+            if (count > 0)
+            {
+                int start = this.nodeIndex[node];
+
+                for (int i = start; i < start + count; ++i)
+                {
+                    consumer.accept(this.values.get(this.order[i]));
+                }
+            }
+            else
+            {
+                stack.add(this.nodeIndex[node]);
+                stack.add(node + 1);
+            }
+        }
+    }
+
+    /**
+     * Slab test for the segment start + t * delta, where t is within 0..1
+     */
+    private static boolean segmentIntersects(double x, double y, double z, double dx, double dy, double dz,
+                                             double minX, double minY, double minZ, double maxX, double maxY, double maxZ)
+    {
+        double tMin = 0.0;
+        double tMax = 1.0;
+
+        if (Math.abs(dx) < 1.0E-9)
+        {
+            if (x < minX || x > maxX)
+            {
+                return false;
+            }
+        }
+        else
+        {
+            double t1 = (minX - x) / dx;
+            double t2 = (maxX - x) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (Math.abs(dy) < 1.0E-9)
+        {
+            if (y < minY || y > maxY)
+            {
+                return false;
+            }
+        }
+        else
+        {
+            double t1 = (minY - y) / dy;
+            double t2 = (maxY - y) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (Math.abs(dz) < 1.0E-9)
+        {
+            if (z < minZ || z > maxZ)
+            {
+                return false;
+            }
+        }
+        else
+        {
+            double t1 = (minZ - z) / dz;
+            double t2 = (maxZ - z) / dz;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        return tMin <= tMax;
+    }
+
+    public static class Builder<T>
+    {
+        private final List<T> values = new ArrayList<>();
+        private final IntArrayList boxes = new IntArrayList();
+
+        /**
+         * Adds a value with the given box, using inclusive block coordinates
+         */
+        public Builder<T> add(T value, int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+        {
+            this.values.add(value);
+            this.boxes.add(Math.min(minX, maxX));
+            this.boxes.add(Math.min(minY, maxY));
+            this.boxes.add(Math.min(minZ, maxZ));
+            this.boxes.add(Math.max(minX, maxX));
+            this.boxes.add(Math.max(minY, maxY));
+            this.boxes.add(Math.max(minZ, maxZ));
+            return this;
+        }
+
+        public BoxBvh<T> build()
+        {
+            return new BoxBvh<>(this.values, this.boxes.toIntArray());
+        }
+    }
+}
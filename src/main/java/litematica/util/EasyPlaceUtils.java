@@ -38,11 +38,9 @@ import malilib.util.game.wrap.EntityWrap;
 import malilib.util.game.wrap.GameWrap;
 import malilib.util.game.wrap.ItemWrap;
 import malilib.util.position.BlockPos;
-import malilib.util.position.ChunkSectionPos;
 import malilib.util.position.Direction;
 import malilib.util.position.HitPosition;
 import malilib.util.position.HitResult;
-import malilib.util.position.IntBoundingBox;
 import malilib.util.position.LayerRange;
 import malilib.util.position.Vec3d;
 import malilib.util.world.BlockState;
@@ -51,6 +49,7 @@ import litematica.config.Configs;
 import litematica.config.Hotkeys;
 import litematica.data.DataManager;
 import litematica.materials.MaterialCache;
+import litematica.schematic.placement.PlacementChunkIndex;
 import litematica.schematic.placement.SchematicPlacementManager;
 import litematica.tool.ToolMode;
 import litematica.util.RayTraceUtils.RayTraceWrapper;
@@ -665,16 +664,11 @@ public class EasyPlaceUtils
             {
                 for (int cx = minCX; cx <= maxCX; ++cx)
                 {
-                    List<IntBoundingBox> boxes = manager.getTouchedBoxesInSubChunk(new ChunkSectionPos(cx, cy, cz));
+                    PlacementChunkIndex.SectionEntry section = manager.getTouchedSubChunk(cx, cy, cz);
 
-                    for (IntBoundingBox box : boxes)
+                    if (section != null && section.isWithinRangeOfAnyBox(x, y, z, range))
                     {
-                        if (x >= box.minX - range && x <= box.maxX + range &&
-                            y >= box.minY - range && y <= box.maxY + range &&
-                            z >= box.minZ - range && z <= box.maxZ + range)
-                        {
-                            return true;
-                        }
+                        return true;
                     }
                 }
             }
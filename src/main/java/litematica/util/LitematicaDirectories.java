@@ -77,11 +77,23 @@ public class LitematicaDirectories
         return dir;
     }
 
+    public static Path getVerifierDataDirectory()
+    {
+        Path dir = getPerWorldDataDirectory("verifier_data");
+        createDirectoriesIfMissingOrPrintError(dir);
+        return dir;
+    }
+
     public static Path getDefaultSchematicDirectory()
     {
         return FileUtils.getMinecraftDirectory().resolve("schematics");
     }
 
+    public static Path getSavesDirectory()
+    {
+        return FileUtils.getMinecraftDirectory().resolve("saves");
+    }
+
     public static Path getSchematicsBaseDirectory()
     {
         BooleanAndFile value = Configs.Generic.CUSTOM_SCHEMATIC_DIRECTORY.getValue();
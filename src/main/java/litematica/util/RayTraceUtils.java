@@ -2,11 +2,9 @@ package litematica.util;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 
 import net.minecraft.block.material.Material;
 import net.minecraft.entity.Entity;
@@ -14,7 +12,6 @@ import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.world.World;
 
-import malilib.util.data.EnabledCondition;
 import malilib.util.game.RayTraceUtils.RayTraceCalculationData;
 import malilib.util.game.RayTraceUtils.RayTraceFluidHandling;
 import malilib.util.game.wrap.EntityWrap;
@@ -27,7 +24,9 @@ import litematica.config.Configs;
 import litematica.config.Hotkeys;
 import litematica.data.DataManager;
 import litematica.schematic.placement.SchematicPlacement;
+import litematica.schematic.placement.SchematicPlacementManager.PlacementBox;
 import litematica.schematic.verifier.BlockPairTypePosition;
+import litematica.schematic.verifier.SchematicVerifier;
 import litematica.selection.AreaSelection;
 import litematica.selection.BoxCorner;
 import litematica.selection.SelectionBox;
@@ -125,14 +124,18 @@ public class RayTraceUtils
 
         if (DataManager.getToolMode().getUsesSchematic())
         {
-            for (SchematicPlacement placement : DataManager.getSchematicPlacementManager().getVisibleSchematicPlacements())
-            {
-                if (placement.isEnabled())
+            // Only the boxes whose bounds the look vector passes through get the exact intercept check
+            BoxBvh<PlacementBox> bvh = DataManager.getSchematicPlacementManager().getPlacementBoxBvh();
+            bvh.forEachOnSegment(eyesPos.x, eyesPos.y, eyesPos.z, lookEndPos.x, lookEndPos.y, lookEndPos.z, (entry) -> {
+                if (entry.isOrigin())
                 {
-                    traceToPlacementBox(placement, eyesPos, lookEndPos);
-                    traceToPosition(placement.getPosition(), eyesPos, lookEndPos, HitType.PLACEMENT_ORIGIN, placement);
+                    traceToPosition(entry.getPlacement().getPosition(), eyesPos, lookEndPos, HitType.PLACEMENT_ORIGIN, entry.getPlacement());
                 }
-            }
+                else
+                {
+                    traceToPlacementBox(entry.getPlacement(), entry.getSubRegionName(), entry.getBox(), eyesPos, lookEndPos);
+                }
+            });
         }
 
         double closestDistance = closestVanilla;
@@ -232,35 +235,25 @@ public class RayTraceUtils
         return false;
     }
 
-    private static boolean traceToPlacementBox(SchematicPlacement placement, Vec3d start, Vec3d end)
+    private static boolean traceToPlacementBox(SchematicPlacement placement, String boxName, SelectionBox box, Vec3d start, Vec3d end)
     {
         net.minecraft.util.math.Vec3d startVanilla = start.toVanilla();
-        net.minecraft.util.math.Vec3d endVanilla = end.toVanilla();
-        ImmutableMap<String, SelectionBox> boxes = placement.getSubRegionBoxes(EnabledCondition.ENABLED);
-        boolean hitSomething = false;
+        AxisAlignedBB bb = PositionUtils.createEnclosingAABB(box.getCorner1(), box.getCorner2());
+        RayTraceResult trace = bb.calculateIntercept(startVanilla, end.toVanilla());
 
-        for (Map.Entry<String, SelectionBox> entry : boxes.entrySet())
+        if (trace != null)
         {
-            String boxName = entry.getKey();
-            SelectionBox box = entry.getValue();
+            double dist = trace.hitVec.distanceTo(startVanilla);
 
-            AxisAlignedBB bb = PositionUtils.createEnclosingAABB(box.getCorner1(), box.getCorner2());
-            RayTraceResult trace = bb.calculateIntercept(startVanilla, endVanilla);
-
-            if (trace != null)
+            if (closestBoxDistance < 0 || dist < closestBoxDistance)
             {
-                double dist = trace.hitVec.distanceTo(startVanilla);
-
-                if (closestBoxDistance < 0 || dist < closestBoxDistance)
-                {
-                    closestBoxDistance = dist;
-                    closestBox = new RayTraceWrapper(placement, Vec3d.of(trace.hitVec), boxName);
-                    hitSomething = true;
-                }
+                closestBoxDistance = dist;
+                closestBox = new RayTraceWrapper(placement, Vec3d.of(trace.hitVec), boxName);
+                return true;
             }
         }
 
-        return hitSomething;
+        return false;
     }
 
     private static boolean traceToPosition(BlockPos pos, Vec3d start, Vec3d end, HitType type, @Nullable SchematicPlacement placement)
@@ -330,6 +323,20 @@ public class RayTraceUtils
         return trace;
     }
 
+    /**
+     * Ray traces to the closest highlighted position of the given verifier.
+     * Only the positions in the chunks along the ray are checked.
+     */
+    @Nullable
+    public static BlockPairTypePosition traceToVerifierResultPositions(SchematicVerifier verifier, Entity entity, double range)
+    {
+        Vec3d eyesPos = EntityWrap.getEntityEyePos(entity);
+        Vec3d lookEndPos = eyesPos.add(EntityWrap.getScaledLookVector(entity, range));
+        List<BlockPairTypePosition> posList = verifier.getHighlightedPositionsOnSegment(eyesPos.x, eyesPos.z,
+                                                                                        lookEndPos.x, lookEndPos.z);
+        return traceToVerifierResultPositions(posList, entity, range);
+    }
+
     /**
      * Ray traces to the closest position on the given list
      */
@@ -1,5 +1,7 @@
 package litematica.util;
 
+import javax.annotation.Nullable;
+
 import net.minecraft.block.material.Material;
 import net.minecraft.client.multiplayer.WorldClient;
 import net.minecraft.tileentity.TileEntity;
@@ -13,6 +15,7 @@ import malilib.util.position.BlockPos;
 import malilib.util.position.Direction;
 import malilib.util.position.Vec3i;
 import litematica.interfaces.IWorldUpdateSuppressor;
+import litematica.schematic.util.PasteFinalizer;
 import litematica.world.SchematicWorldHandler;
 import litematica.world.WorldSchematic;
 
@@ -28,6 +31,24 @@ public class WorldUtils
         ((IWorldUpdateSuppressor) world).setShouldPreventUpdates(preventUpdates);
     }
 
+    /**
+     * @return the finalizer collecting the positions changed by the currently running direct paste, if any
+     */
+    @Nullable
+    public static PasteFinalizer getPasteFinalizer(World world)
+    {
+        return ((IWorldUpdateSuppressor) world).getPasteFinalizer();
+    }
+
+    /**
+     * Sets the finalizer that collects the changed positions during a direct paste.
+     * While it's set, the lighting checks of the world are deferred to the finalizer.
+     */
+    public static void setPasteFinalizer(World world, @Nullable PasteFinalizer finalizer)
+    {
+        ((IWorldUpdateSuppressor) world).setPasteFinalizer(finalizer);
+    }
+
     public static void loadChunksClientWorld(WorldClient world, BlockPos origin, Vec3i areaSize)
     {
         BlockPos posEnd = origin.add(PositionUtils.getRelativeEndPositionFromAreaSize(areaSize));
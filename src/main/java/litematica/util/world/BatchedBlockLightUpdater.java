@@ -0,0 +1,214 @@
+package litematica.util.world;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.World;
+
+/**
+ * Re-calculates the block light around a batch of changed positions with one combined
+ * flood fill, instead of running a separate vanilla light check for every changed position.
+ * First the light that the old blocks spread is removed, starting from all the changed positions at once,
+ * and then the light is spread again from the new light sources and from the still lit
+ * edges of the removed area. Only the block light is handled, the sky light is left to the chunk.
+ * This is only meant to be used on the server thread.
+ */
+public class BatchedBlockLightUpdater
+{
+    private static final int[] OFFSETS_X = { -1, 1,  0, 0,  0, 0 };
+    private static final int[] OFFSETS_Y = {  0, 0, -1, 1,  0, 0 };
+    private static final int[] OFFSETS_Z = {  0, 0,  0, 0, -1, 1 };
+
+    private final LongArrayFIFOQueue changedPositions = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue removeQueue = new LongArrayFIFOQueue();
+    private final IntArrayFIFOQueue removeLevels = new IntArrayFIFOQueue();
+    private final LongArrayFIFOQueue spreadQueue = new LongArrayFIFOQueue();
+    private final net.minecraft.util.math.BlockPos.MutableBlockPos pos = new net.minecraft.util.math.BlockPos.MutableBlockPos();
+
+    public void addChangedPosition(int x, int y, int z)
+    {
+        this.changedPositions.enqueue(pack(x, y, z));
+    }
+
+    public boolean isEmpty()
+    {
+        return this.changedPositions.isEmpty();
+    }
+
+    /**
+     * Updates the block light for all the added positions, and then clears them
+     */
+    public void update(World world)
+    {
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = this.pos;
+
+        while (this.changedPositions.isEmpty() == false)
+        {
+            long posLong = this.changedPositions.dequeueLong();
+            setPos(pos, posLong);
+
+            int oldLevel = world.getLightFor(EnumSkyBlock.BLOCK, pos);
+            int emitted = world.getBlockState(pos).getLightValue();
+
+            if (oldLevel > 0)
+            {
+                world.setLightFor(EnumSkyBlock.BLOCK, pos, 0);
+            }
+
+            // Also the unlit positions are queued, so that the light of their neighbors
+            // gets spread back in, in case the new block lets more light through
+            this.removeQueue.enqueue(posLong);
+            this.removeLevels.enqueue(oldLevel);
+
+            if (emitted > 0)
+            {
+                this.spreadQueue.enqueue(posLong);
+            }
+        }
+
+        this.removeLight(world);
+
+        // The new light sources are set only after the removal, so that it doesn't remove them again
+        for (int i = this.spreadQueue.size(); i > 0; --i)
+        {
+            long posLong = this.spreadQueue.dequeueLong();
+            setPos(pos, posLong);
+            int emitted = world.getBlockState(pos).getLightValue();
+
+            if (emitted > world.getLightFor(EnumSkyBlock.BLOCK, pos))
+            {
+                world.setLightFor(EnumSkyBlock.BLOCK, pos, emitted);
+            }
+
+            this.spreadQueue.enqueue(posLong);
+        }
+
+        this.spreadLight(world);
+    }
+
+    /**
+     * Removes the light that came from the removed positions. The neighbors that are at least as bright
+     * as the removed light got their light from somewhere else, so they are queued to spread it back.
+     */
+    private void removeLight(World world)
+    {
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = this.pos;
+
+        while (this.removeQueue.isEmpty() == false)
+        {
+            long posLong = this.removeQueue.dequeueLong();
+            int level = this.removeLevels.dequeueInt();
+            int x = unpackX(posLong);
+            int y = unpackY(posLong);
+            int z = unpackZ(posLong);
+
+            for (int i = 0; i < 6; ++i)
+            {
+                int nx = x + OFFSETS_X[i];
+                int ny = y + OFFSETS_Y[i];
+                int nz = z + OFFSETS_Z[i];
+
+                if (ny < 0 || ny > 255 || world.isBlockLoaded(pos.setPos(nx, ny, nz)) == false)
+                {
+                    continue;
+                }
+
+                int neighborLevel = world.getLightFor(EnumSkyBlock.BLOCK, pos);
+
+                if (neighborLevel == 0)
+                {
+                    continue;
+                }
+
+                if (neighborLevel < level)
+                {
+                    world.setLightFor(EnumSkyBlock.BLOCK, pos, 0);
+                    this.removeQueue.enqueue(pack(nx, ny, nz));
+                    this.removeLevels.enqueue(neighborLevel);
+
+                    // A removed position can still be a light source itself
+                    if (world.getBlockState(pos).getLightValue() > 0)
+                    {
+                        this.spreadQueue.enqueue(pack(nx, ny, nz));
+                    }
+                }
+                else
+                {
+                    this.spreadQueue.enqueue(pack(nx, ny, nz));
+                }
+            }
+        }
+    }
+
+    private void spreadLight(World world)
+    {
+        net.minecraft.util.math.BlockPos.MutableBlockPos pos = this.pos;
+
+        while (this.spreadQueue.isEmpty() == false)
+        {
+            long posLong = this.spreadQueue.dequeueLong();
+            setPos(pos, posLong);
+            int level = Math.max(world.getLightFor(EnumSkyBlock.BLOCK, pos), world.getBlockState(pos).getLightValue());
+
+            if (level <= 1)
+            {
+                continue;
+            }
+
+            int x = unpackX(posLong);
+            int y = unpackY(posLong);
+            int z = unpackZ(posLong);
+
+            for (int i = 0; i < 6; ++i)
+            {
+                int nx = x + OFFSETS_X[i];
+                int ny = y + OFFSETS_Y[i];
+                int nz = z + OFFSETS_Z[i];
+
+                if (ny < 0 || ny > 255 || world.isBlockLoaded(pos.setPos(nx, ny, nz)) == false)
+                {
+                    continue;
+                }
+
+                IBlockState state = world.getBlockState(pos);
+                int newLevel = level - Math.max(state.getLightOpacity(), 1);
+
+                if (newLevel > world.getLightFor(EnumSkyBlock.BLOCK, pos))
+                {
+                    world.setLightFor(EnumSkyBlock.BLOCK, pos, newLevel);
+                    this.spreadQueue.enqueue(pack(nx, ny, nz));
+                }
+            }
+        }
+    }
+
+    private static void setPos(net.minecraft.util.math.BlockPos.MutableBlockPos pos, long posLong)
+    {
+        pos.setPos(unpackX(posLong), unpackY(posLong), unpackZ(posLong));
+    }
+
+    /**
+     * Packs the position as 26 bits of x, 26 bits of z and 12 bits of y
+     */
+    private static long pack(int x, int y, int z)
+    {
+        return (((long) x & 0x3FFFFFFL) << 38) | (((long) z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+    private static int unpackX(long posLong)
+    {
+        return (int) (posLong >> 38);
+    }
+
+    private static int unpackY(long posLong)
+    {
+        return (int) (posLong & 0xFFFL);
+    }
+
+    private static int unpackZ(long posLong)
+    {
+        return (int) ((posLong << 26) >> 38);
+    }
+}
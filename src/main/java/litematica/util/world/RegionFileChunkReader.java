@@ -0,0 +1,228 @@
+package litematica.util.world;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nullable;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import malilib.util.data.Constants;
+import malilib.util.game.wrap.NbtWrap;
+
+/**
+ * Reads the block states of chunks directly from one region file (.mca) of a world save,
+ * without loading the chunks into any world. The region file is only opened for reading,
+ * unlike with the vanilla RegionFile, which opens it for writing and pads out truncated files,
+ * so the world save being read is never modified. Each instance is meant to be used by one thread only.
+ */
+public class RegionFileChunkReader implements AutoCloseable
+{
+    private static final int SECTOR_SIZE = 4096;
+
+    private final Path file;
+    // The sector offsets of the chunks from the region file header, as sector << 8 | sectorCount
+    private final int[] offsets = new int[1024];
+    @Nullable private FileChannel channel;
+    @Nullable private IOException openError;
+    private boolean opened;
+
+    public RegionFileChunkReader(Path file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * @return the region directory of the given dimension within a world save directory
+     */
+    public static Path getRegionDirectory(Path worldDir, int dimension)
+    {
+        return dimension == 0 ? worldDir.resolve("region") : worldDir.resolve("DIM" + dimension).resolve("region");
+    }
+
+    public static Path getRegionFile(Path regionDir, int chunkX, int chunkZ)
+    {
+        return regionDir.resolve("r." + (chunkX >> 5) + "." + (chunkZ >> 5) + ".mca");
+    }
+
+    /**
+     * Reads the block sections of the given chunk.
+     * @return the sections of the chunk, with null entries for the empty sections,
+     * or null if the chunk or the whole region file doesn't exist (it has not been generated)
+     * @throws IOException if the region file or the chunk data can't be read
+     */
+    @Nullable
+    public ExtendedBlockStorage[] readChunkSections(int chunkX, int chunkZ) throws IOException
+    {
+        FileChannel channel = this.getChannel();
+
+        if (channel == null)
+        {
+            return null;
+        }
+
+        int offset = this.offsets[(chunkX & 0x1F) + (chunkZ & 0x1F) * 32];
+
+        if (offset == 0)
+        {
+            return null;
+        }
+
+        long start = (long) (offset >> 8) * SECTOR_SIZE;
+        int sectorCount = offset & 0xFF;
+
+        if ((offset >> 8) < 2 || start + 5 > channel.size())
+        {
+            throw new IOException("Invalid sector offset for chunk [" + chunkX + ", " + chunkZ + "]");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(channel, header, start);
+        int length = header.getInt(0);
+        int compression = header.get(4);
+
+        if (length <= 1 || length + 4 > sectorCount * SECTOR_SIZE)
+        {
+            throw new IOException("Invalid data length " + length + " for chunk [" + chunkX + ", " + chunkZ + "]");
+        }
+
+        byte[] chunkData = new byte[length - 1];
+        readFully(channel, ByteBuffer.wrap(chunkData), start + 5);
+        NBTTagCompound root;
+
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(getDecompressedStream(chunkData, compression))))
+        {
+            root = CompressedStreamTools.read(is);
+        }
+
+        if (NbtWrap.containsCompound(root, "Level") == false)
+        {
+            throw new IOException("Missing the Level tag in chunk [" + chunkX + ", " + chunkZ + "]");
+        }
+
+        NBTTagCompound level = NbtWrap.getCompound(root, "Level");
+        NBTTagList list = NbtWrap.getList(level, "Sections", Constants.NBT.TAG_COMPOUND);
+        ExtendedBlockStorage[] sections = new ExtendedBlockStorage[16];
+        final int count = NbtWrap.getListSize(list);
+
+        for (int i = 0; i < count; ++i)
+        {
+            NBTTagCompound tag = NbtWrap.getCompoundAt(list, i);
+            int y = tag.getByte("Y");
+            byte[] blocks = tag.getByteArray("Blocks");
+            byte[] data = tag.getByteArray("Data");
+            byte[] add = tag.hasKey("Add", Constants.NBT.TAG_BYTE_ARRAY) ? tag.getByteArray("Add") : null;
+
+            if (y < 0 || y >= 16 || blocks.length != 4096 || data.length != 2048 || (add != null && add.length != 2048))
+            {
+                continue;
+            }
+
+            ExtendedBlockStorage section = new ExtendedBlockStorage(y << 4, false);
+            section.getData().setDataFromNBT(blocks, new NibbleArray(data), add != null ? new NibbleArray(add) : null);
+            section.recalculateRefCounts();
+            sections[y] = section;
+        }
+
+        return sections;
+    }
+
+    /**
+     * Opens the region file and reads its header on the first call.
+     * @return the channel of the region file, or null if the region file doesn't exist
+     * @throws IOException if the region file exists but can't be opened or read
+     */
+    @Nullable
+    private FileChannel getChannel() throws IOException
+    {
+        if (this.opened == false)
+        {
+            this.opened = true;
+
+            if (Files.exists(this.file) == false)
+            {
+                return null;
+            }
+
+            try
+            {
+                this.channel = FileChannel.open(this.file, StandardOpenOption.READ);
+
+                if (this.channel.size() < 2 * SECTOR_SIZE)
+                {
+                    throw new IOException("Truncated region file '" + this.file + "'");
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(SECTOR_SIZE);
+                readFully(this.channel, header, 0);
+                header.asIntBuffer().get(this.offsets);
+            }
+            catch (IOException e)
+            {
+                this.openError = e;
+                this.close();
+            }
+        }
+
+        if (this.openError != null)
+        {
+            throw new IOException("Failed to open the region file '" + this.file + "'", this.openError);
+        }
+
+        return this.channel;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            int read = channel.read(buffer, position + buffer.position());
+
+            if (read < 0)
+            {
+                throw new EOFException("Unexpected end of the region file");
+            }
+        }
+    }
+
+    private static InputStream getDecompressedStream(byte[] data, int compression) throws IOException
+    {
+        InputStream is = new ByteArrayInputStream(data);
+
+        switch (compression)
+        {
+            case 1: return new GZIPInputStream(is);
+            case 2: return new InflaterInputStream(is);
+            default: throw new IOException("Unknown chunk compression type " + compression);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (this.channel != null)
+        {
+            try
+            {
+                this.channel.close();
+            }
+            catch (IOException ignore) {}
+
+            this.channel = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package litematica.util.world;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import it.unimi.dsi.fastutil.HashCommon;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import malilib.util.game.wrap.GameWrap;
+import malilib.util.position.IntBoundingBox;
+import litematica.world.ChunkSchematic;
+import litematica.world.ClientSectionHashCache;
+
+/**
+ * The content hashes of 16x16x16 chunk sections. The hash of a section is the sum of
+ * the hashes of each position and block state pair in it, so it can be updated
+ * when one block changes, by subtracting the old entry and adding the new one.
+ * The states are hashed by their stored (meta) value, like they are stored in the world,
+ * so that the sections of the schematic world and the client world can be compared directly.
+ */
+public class SectionHashUtils
+{
+    public static final long EMPTY_SECTION_HASH = getEmptySectionHash();
+
+    /**
+     * @param index the section-relative index of the position, as y << 8 | z << 4 | x
+     * @return the hash of one position and block state pair in a section
+     */
+    public static long getEntryHash(int index, IBlockState state)
+    {
+        return HashCommon.mix(((long) index << 32) | (Block.getStateId(state) & 0xFFFFFFFFL));
+    }
+
+    /**
+     * @return the hash of the given section, which is {@link #EMPTY_SECTION_HASH} for an empty or a missing section
+     */
+    public static long hashSection(@Nullable ExtendedBlockStorage section)
+    {
+        if (section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty())
+        {
+            return EMPTY_SECTION_HASH;
+        }
+
+        long hash = 0;
+
+        for (int index = 0; index < 4096; ++index)
+        {
+            hash += getEntryHash(index, section.get(index & 0xF, index >> 8, (index >> 4) & 0xF));
+        }
+
+        return hash;
+    }
+
+    /**
+     * @return a bit mask of the sections that the given boxes intersect
+     */
+    public static int getSectionMask(List<IntBoundingBox> boxes)
+    {
+        int mask = 0;
+
+        for (IntBoundingBox box : boxes)
+        {
+            for (int cy = Math.max(box.minY >> 4, 0); cy <= (box.maxY >> 4) && cy < 16; ++cy)
+            {
+                mask |= 1 << cy;
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Compares the section hashes of a schematic world chunk and a client world chunk.
+     * The hashes are only available for those chunks, so for any other chunks no sections match.
+     * @param sectionMask a bit mask of the sections to compare
+     * @return a bit mask of the compared sections that have identical contents in both chunks
+     */
+    public static int getMatchingSections(Chunk schematicChunk, Chunk targetChunk, int sectionMask)
+    {
+        if ((schematicChunk instanceof ChunkSchematic) == false ||
+            targetChunk.getWorld() != GameWrap.getClientWorld() ||
+            targetChunk.isEmpty())
+        {
+            return 0;
+        }
+
+        ChunkSchematic chunk = (ChunkSchematic) schematicChunk;
+        ClientSectionHashCache cache = ClientSectionHashCache.INSTANCE;
+        int mask = 0;
+
+        for (int cy = 0; cy < 16; ++cy)
+        {
+            if ((sectionMask & (1 << cy)) != 0 &&
+                chunk.getSectionHash(cy) == cache.getSectionHash(targetChunk, cy))
+            {
+                mask |= 1 << cy;
+            }
+        }
+
+        return mask;
+    }
+
+    private static long getEmptySectionHash()
+    {
+        IBlockState air = Blocks.AIR.getDefaultState();
+        long hash = 0;
+
+        for (int index = 0; index < 4096; ++index)
+        {
+            hash += getEntryHash(index, air);
+        }
+
+        return hash;
+    }
+}
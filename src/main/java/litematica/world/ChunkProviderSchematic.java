@@ -28,4 +28,14 @@ public class ChunkProviderSchematic extends ChunkProviderClient
 
         return chunk;
     }
+
+    /**
+     * Adds an already populated chunk to the loaded chunks.
+     * Any previously loaded chunk at the same position should be unloaded before this.
+     */
+    public void setLoadedChunk(ChunkSchematic chunk)
+    {
+        ((IMixinChunkProviderClient) (Object) this).getLoadedChunks().put(ChunkPos.asLong(chunk.x, chunk.z), chunk);
+        chunk.markLoaded(true);
+    }
 }
@@ -1,5 +1,8 @@
 package litematica.world;
 
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
 import net.minecraft.block.Block;
 import net.minecraft.block.ITileEntityProvider;
 import net.minecraft.block.state.IBlockState;
@@ -11,13 +14,37 @@ import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
+import litematica.util.world.SectionHashUtils;
+
 public class ChunkSchematic extends Chunk
 {
+    // The content hashes of the sections, see SectionHashUtils.
+    // Only the hashes of the sections that have their bit set in validSectionHashes are up to date.
+    private final long[] sectionHashes = new long[16];
+    private int validSectionHashes;
+
     public ChunkSchematic(World worldIn, int x, int z)
     {
         super(worldIn, x, z);
 
         this.setLightPopulated(true);
+        Arrays.fill(this.sectionHashes, SectionHashUtils.EMPTY_SECTION_HASH);
+        this.validSectionHashes = 0xFFFF;
+    }
+
+    /**
+     * @return the content hash of the given section, which can be compared to
+     * the hashes of the client world sections from {@link ClientSectionHashCache}
+     */
+    public long getSectionHash(int sectionY)
+    {
+        if ((this.validSectionHashes & (1 << sectionY)) == 0)
+        {
+            this.sectionHashes[sectionY] = SectionHashUtils.hashSection(this.getBlockStorageArray()[sectionY]);
+            this.validSectionHashes |= 1 << sectionY;
+        }
+
+        return this.sectionHashes[sectionY];
     }
 
     @Override
@@ -52,6 +79,13 @@ public class ChunkSchematic extends Chunk
 
             storage.set(x, y & 15, z, state);
 
+            // The single block changes update the section hash in place
+            if ((this.validSectionHashes & (1 << (y >> 4))) != 0)
+            {
+                int index = ((y & 15) << 8) | (z << 4) | x;
+                this.sectionHashes[y >> 4] += SectionHashUtils.getEntryHash(index, state) - SectionHashUtils.getEntryHash(index, stateOld);
+            }
+
             if (blockOld != blockNew)
             {
                 this.getWorld().removeTileEntity(pos);
@@ -103,6 +137,80 @@ public class ChunkSchematic extends Chunk
         }
     }
 
+    /**
+     * Writes the block state directly into the section storage, without the old state lookup,
+     * the tile entity handling and marking the chunk dirty, which the regular
+     * {@link #setBlockState(BlockPos, IBlockState)} does for every block.
+     * This is meant for bulk filling the chunk, after which the caller should create the needed
+     * tile entities via {@link #createTileEntityDirect(BlockPos)} and call {@link #markDirty()} once.
+     * @param x the chunk-relative x-coordinate
+     * @param y the world y-coordinate
+     * @param z the chunk-relative z-coordinate
+     */
+    public void setBlockStateDirect(int x, int y, int z, IBlockState state, BlockPos.MutableBlockPos posTmp)
+    {
+        if (y < 0 || y >= 256)
+        {
+            return;
+        }
+
+        ExtendedBlockStorage[] storageArray = this.getBlockStorageArray();
+        ExtendedBlockStorage storage = storageArray[y >> 4];
+
+        if (storage == NULL_BLOCK_STORAGE)
+        {
+            if (state.getBlock() == Blocks.AIR)
+            {
+                return;
+            }
+
+            storage = new ExtendedBlockStorage(y >> 4 << 4, false);
+            storageArray[y >> 4] = storage;
+        }
+
+        // Another placement overlapping this chunk may have already added a tile entity here
+        if (this.getTileEntityMap().isEmpty() == false)
+        {
+            posTmp.setPos((this.x << 4) + x, y, (this.z << 4) + z);
+
+            if (this.getTileEntityMap().containsKey(posTmp))
+            {
+                this.getWorld().removeTileEntity(posTmp.toImmutable());
+            }
+        }
+
+        storage.set(x, y & 15, z, state);
+
+        // The bulk filled sections are hashed again when the hash is next needed
+        this.validSectionHashes &= ~(1 << (y >> 4));
+    }
+
+    /**
+     * Creates and adds a new tile entity for the block at the given position,
+     * if the block there has one.
+     * @return the created tile entity, or null if the block doesn't have a tile entity
+     */
+    @Nullable
+    public TileEntity createTileEntityDirect(BlockPos pos)
+    {
+        IBlockState state = this.getBlockState(pos);
+        Block block = state.getBlock();
+
+        if (block instanceof ITileEntityProvider)
+        {
+            TileEntity te = ((ITileEntityProvider) block).createNewTileEntity(this.getWorld(), block.getMetaFromState(state));
+
+            if (te != null)
+            {
+                this.getWorld().setTileEntity(pos, te);
+            }
+
+            return te;
+        }
+
+        return null;
+    }
+
     @Override
     public int getLightFor(EnumSkyBlock type, BlockPos pos)
     {
@@ -0,0 +1,83 @@
+package litematica.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import net.minecraft.world.chunk.Chunk;
+
+import malilib.util.position.BlockPos;
+import malilib.util.position.ChunkPos;
+import litematica.util.world.SectionHashUtils;
+
+/**
+ * Caches the section content hashes of the client world chunks, so that they can be compared against
+ * the schematic world sections without going through the blocks again. The hashes of a chunk are
+ * invalidated when the chunk data arrives from the server, and the hash of one section is invalidated
+ * when a block in it changes. The invalidated hashes are re-calculated when they are next needed.
+ * This is only meant to be used on the client thread.
+ */
+public class ClientSectionHashCache
+{
+    public static final ClientSectionHashCache INSTANCE = new ClientSectionHashCache();
+
+    private final Long2ObjectOpenHashMap<ChunkHashes> hashesPerChunk = new Long2ObjectOpenHashMap<>();
+
+    public long getSectionHash(Chunk clientChunk, int sectionY)
+    {
+        // The placeholder chunks of the unloaded areas are not cached
+        if (clientChunk.isEmpty())
+        {
+            return SectionHashUtils.EMPTY_SECTION_HASH;
+        }
+
+        long chunkPosLong = ChunkPos.asLong(clientChunk.x, clientChunk.z);
+        ChunkHashes hashes = this.hashesPerChunk.get(chunkPosLong);
+
+        if (hashes == null)
+        {
+            hashes = new ChunkHashes();
+            this.hashesPerChunk.put(chunkPosLong, hashes);
+        }
+
+        if ((hashes.validSections & (1 << sectionY)) == 0)
+        {
+            hashes.sectionHashes[sectionY] = SectionHashUtils.hashSection(clientChunk.getBlockStorageArray()[sectionY]);
+            hashes.validSections |= 1 << sectionY;
+        }
+
+        return hashes.sectionHashes[sectionY];
+    }
+
+    /**
+     * Called when the chunk data arrives from the server, or when the chunk is unloaded
+     */
+    public void onChunkChanged(int chunkX, int chunkZ)
+    {
+        this.hashesPerChunk.remove(ChunkPos.asLong(chunkX, chunkZ));
+    }
+
+    public void onBlockChanged(BlockPos pos)
+    {
+        if (pos.getY() < 0 || pos.getY() > 255)
+        {
+            return;
+        }
+
+        ChunkHashes hashes = this.hashesPerChunk.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+
+        if (hashes != null)
+        {
+            hashes.validSections &= ~(1 << (pos.getY() >> 4));
+        }
+    }
+
+    public void clear()
+    {
+        this.hashesPerChunk.clear();
+    }
+
+    private static class ChunkHashes
+    {
+        private final long[] sectionHashes = new long[16];
+        private int validSections;
+    }
+}
@@ -15,6 +15,7 @@ import malilib.util.position.ChunkSectionPos;
 import malilib.util.position.LayerRange;
 import litematica.interfaces.IMixinChunkProviderClient;
 import litematica.render.LitematicaRenderer;
+import litematica.render.schematic.ChunkRenderContainerSchematic;
 
 public class SchematicWorldRenderingNotifier implements LayerRangeChangeListener
 {
@@ -23,12 +24,18 @@ public class SchematicWorldRenderingNotifier implements LayerRangeChangeListener
     @Override
     public void updateAll()
     {
-        this.updateBetweenY(LayerRange.WORLD_VERTICAL_SIZE_MIN, LayerRange.WORLD_VERTICAL_SIZE_MAX);
+        this.markChunksBetweenY(LayerRange.WORLD_VERTICAL_SIZE_MIN, LayerRange.WORLD_VERTICAL_SIZE_MAX);
     }
 
     @Override
     public void updateBetweenX(int minX, int maxX)
     {
+        // In the clip plane mode the chunks are built without the layer range, so they don't need to be re-built
+        if (ChunkRenderContainerSchematic.useLayerRangeClipPlanes())
+        {
+            return;
+        }
+
         World world = SchematicWorldHandler.getSchematicWorld();
         WorldClient clientWorld = GameWrap.getClientWorld();
 
@@ -58,6 +65,14 @@ public class SchematicWorldRenderingNotifier implements LayerRangeChangeListener
 
     @Override
     public void updateBetweenY(int minY, int maxY)
+    {
+        if (ChunkRenderContainerSchematic.useLayerRangeClipPlanes() == false)
+        {
+            this.markChunksBetweenY(minY, maxY);
+        }
+    }
+
+    protected void markChunksBetweenY(int minY, int maxY)
     {
         World world = SchematicWorldHandler.getSchematicWorld();
         WorldClient clientWorld = GameWrap.getClientWorld();
@@ -82,6 +97,11 @@ public class SchematicWorldRenderingNotifier implements LayerRangeChangeListener
     @Override
     public void updateBetweenZ(int minZ, int maxZ)
     {
+        if (ChunkRenderContainerSchematic.useLayerRangeClipPlanes())
+        {
+            return;
+        }
+
         World world = SchematicWorldHandler.getSchematicWorld();
         WorldClient clientWorld = GameWrap.getClientWorld();
 